@@ -0,0 +1,166 @@
+package com.firefly.utils.collection;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.firefly.utils.concurrent.MemoryUtils;
+
+/**
+ * The base of the lock-free bounded queues. The capacity is rounded up to a
+ * power of 2, the producer index and the consumer index are kept in different
+ * cache lines of an {@link AtomicLongArray} so the producers and the consumers
+ * do not invalidate the cache line of each other.
+ * <p>
+ * The size is an estimate when the queue is being modified. The iterator is
+ * weakly consistent, it returns the elements between the consumer index and
+ * the producer index when it is created and skips the ones that have been
+ * taken before it reads them, so the methods of the
+ * {@link java.util.Collection} that read the elements work.
+ * <p>
+ * The elements are taken only from the head of the queue. Removing an element
+ * from the middle of the array is not supported, {@link #remove(Object)} and
+ * the {@link Iterator#remove()} of the iterator throw an
+ * {@link UnsupportedOperationException}, and so do
+ * {@link #removeAll(java.util.Collection)},
+ * {@link #retainAll(java.util.Collection)} and {@link #removeIf} when they
+ * find an element to remove.
+ *
+ * @param <E>
+ *            the element type
+ */
+public abstract class AbstractBoundedArrayQueue<E> extends AbstractQueue<E> {
+
+	private static final int PRODUCER_OFFSET = MemoryUtils.getLongsPerCacheLine() * 2 - 1;
+	private static final int CONSUMER_OFFSET = MemoryUtils.getLongsPerCacheLine() * 3 - 1;
+
+	protected final int mask;
+	private final AtomicLongArray indexes = new AtomicLongArray(CONSUMER_OFFSET + MemoryUtils.getLongsPerCacheLine());
+
+	protected AbstractBoundedArrayQueue(int capacity) {
+		if (capacity < 2 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("the capacity must be between 2 and 2^30");
+		}
+		mask = (1 << (32 - Integer.numberOfLeadingZeros(capacity - 1))) - 1;
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	protected long getProducerIndex() {
+		return indexes.get(PRODUCER_OFFSET);
+	}
+
+	protected void setProducerIndex(long index) {
+		indexes.lazySet(PRODUCER_OFFSET, index);
+	}
+
+	protected boolean casProducerIndex(long expect, long update) {
+		return indexes.compareAndSet(PRODUCER_OFFSET, expect, update);
+	}
+
+	protected long getConsumerIndex() {
+		return indexes.get(CONSUMER_OFFSET);
+	}
+
+	protected void setConsumerIndex(long index) {
+		indexes.lazySet(CONSUMER_OFFSET, index);
+	}
+
+	protected boolean casConsumerIndex(long expect, long update) {
+		return indexes.compareAndSet(CONSUMER_OFFSET, expect, update);
+	}
+
+	@Override
+	public int size() {
+		// reads the consumer index first, so the size is not negative
+		long consumerIndex = getConsumerIndex();
+		long size = getProducerIndex() - consumerIndex;
+		return (int) Math.max(0, Math.min(size, getCapacity()));
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return getProducerIndex() == getConsumerIndex();
+	}
+
+	@Override
+	public void clear() {
+		while (poll() != null) {
+		}
+	}
+
+	/**
+	 * Reads the element without taking it.
+	 *
+	 * @param index
+	 *            the index of the element
+	 * @return the element, or null if it has been taken or has not been
+	 *         published
+	 */
+	protected abstract E elementAt(long index);
+
+	@Override
+	public Iterator<E> iterator() {
+		// reads the consumer index first, like the size
+		long consumerIndex = getConsumerIndex();
+		return new WeaklyConsistentIterator(consumerIndex, getProducerIndex());
+	}
+
+	/**
+	 * Removing an element from the middle of the array is not supported.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException();
+	}
+
+	private class WeaklyConsistentIterator implements Iterator<E> {
+
+		private final long end;
+		private long index;
+		private E next;
+
+		private WeaklyConsistentIterator(long start, long end) {
+			this.index = start;
+			this.end = end;
+			advance();
+		}
+
+		private void advance() {
+			next = null;
+			while (next == null && index < end) {
+				// skips the elements that have been taken
+				index = Math.max(index, getConsumerIndex());
+				if (index < end) {
+					next = elementAt(index++);
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public E next() {
+			E e = next;
+			if (e == null) {
+				throw new NoSuchElementException();
+			}
+			advance();
+			return e;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{size=" + size() + ", capacity=" + getCapacity() + "}";
+	}
+}
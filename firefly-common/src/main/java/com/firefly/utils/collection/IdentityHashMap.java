@@ -17,6 +17,18 @@ public class IdentityHashMap<K, V> {
         this.buckets = new Entry[tableSize];
     }
 
+    /**
+     * Creates a copy of the given map. The entries are immutable, so the copy
+     * shares them with the given map and the later puts of either map are not
+     * visible in the other one.
+     *
+     * @param map the map to copy
+     */
+    public IdentityHashMap(IdentityHashMap<K, V> map) {
+        this.indexMask = map.indexMask;
+        this.buckets = map.buckets.clone();
+    }
+
     public final V get(K key) {
         final int hash = System.identityHashCode(key);
         final int bucket = hash & indexMask;
@@ -0,0 +1,111 @@
+package com.firefly.utils.collection;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free bounded queue that has many producers and many consumers.
+ * <p>
+ * The algorithm is the bounded MPMC queue of Dmitry Vyukov
+ * (http://www.1024cores.net/home/lock-free-algorithms/queues/bounded-mpmc-queue).
+ * Each slot has a sequence, a producer claims the slot whose sequence equals
+ * the producer index by a CAS of the producer index, stores the element and
+ * publishes it by setting the sequence to the index + 1. A consumer claims the
+ * published slot in the same way and sets the sequence to the index +
+ * capacity, then the slot is free for the next round of the producers.
+ *
+ * @param <E>
+ *            the element type
+ */
+public class MpmcArrayQueue<E> extends AbstractBoundedArrayQueue<E> {
+
+	private final AtomicLongArray sequences;
+	private final Object[] elements;
+
+	public MpmcArrayQueue(int capacity) {
+		super(capacity);
+		sequences = new AtomicLongArray(getCapacity());
+		for (int i = 0; i < getCapacity(); i++) {
+			sequences.set(i, i);
+		}
+		elements = new Object[getCapacity()];
+	}
+
+	@Override
+	public boolean offer(E e) {
+		Objects.requireNonNull(e);
+		long index = getProducerIndex();
+		while (true) {
+			int offset = (int) index & mask;
+			long difference = sequences.get(offset) - index;
+			if (difference == 0) {
+				if (casProducerIndex(index, index + 1)) {
+					elements[offset] = e;
+					sequences.lazySet(offset, index + 1);
+					return true;
+				}
+				index = getProducerIndex();
+			} else if (difference < 0) {
+				// the consumer has not taken the element of the last round
+				return false;
+			} else {
+				// other producers have claimed the slot
+				index = getProducerIndex();
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E poll() {
+		long index = getConsumerIndex();
+		while (true) {
+			int offset = (int) index & mask;
+			long difference = sequences.get(offset) - (index + 1);
+			if (difference == 0) {
+				if (casConsumerIndex(index, index + 1)) {
+					E e = (E) elements[offset];
+					elements[offset] = null;
+					sequences.lazySet(offset, index + mask + 1);
+					return e;
+				}
+				index = getConsumerIndex();
+			} else if (difference < 0) {
+				// the producer has not published the element
+				return null;
+			} else {
+				// other consumers have claimed the slot
+				index = getConsumerIndex();
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected E elementAt(long index) {
+		int offset = (int) index & mask;
+		if (sequences.get(offset) != index + 1) {
+			return null;
+		}
+		E e = (E) elements[offset];
+		// the element is valid if the slot has not been taken
+		return sequences.get(offset) == index + 1 ? e : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E peek() {
+		while (true) {
+			long index = getConsumerIndex();
+			int offset = (int) index & mask;
+			if (sequences.get(offset) - (index + 1) < 0) {
+				return null;
+			}
+			E e = (E) elements[offset];
+			// the element is valid if no consumer has taken it
+			if (e != null && index == getConsumerIndex()) {
+				return e;
+			}
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.firefly.utils.collection;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free bounded queue that has many producers and one consumer. The
+ * producers claim the slots by a CAS of the producer index and the consumer
+ * takes the elements in order without a CAS. The consumer waits for a claimed
+ * slot until its producer has stored the element.
+ *
+ * @param <E>
+ *            the element type
+ */
+public class MpscArrayQueue<E> extends AbstractBoundedArrayQueue<E> {
+
+	private final AtomicReferenceArray<E> elements;
+
+	public MpscArrayQueue(int capacity) {
+		super(capacity);
+		elements = new AtomicReferenceArray<>(getCapacity());
+	}
+
+	@Override
+	public boolean offer(E e) {
+		Objects.requireNonNull(e);
+		long index;
+		do {
+			index = getProducerIndex();
+			if (index - getConsumerIndex() > mask) {
+				return false;
+			}
+		} while (!casProducerIndex(index, index + 1));
+		elements.lazySet((int) index & mask, e);
+		return true;
+	}
+
+	/**
+	 * It is only called by the consumer thread.
+	 */
+	@Override
+	public E poll() {
+		long index = getConsumerIndex();
+		int offset = (int) index & mask;
+		E e = elements.get(offset);
+		if (e == null) {
+			if (index == getProducerIndex()) {
+				return null;
+			}
+			// the slot is claimed, the producer is storing the element
+			do {
+				e = elements.get(offset);
+			} while (e == null);
+		}
+		elements.lazySet(offset, null);
+		setConsumerIndex(index + 1);
+		return e;
+	}
+
+	/**
+	 * It is only called by the consumer thread.
+	 */
+	@Override
+	public E peek() {
+		long index = getConsumerIndex();
+		int offset = (int) index & mask;
+		E e = elements.get(offset);
+		if (e == null && index != getProducerIndex()) {
+			do {
+				e = elements.get(offset);
+			} while (e == null);
+		}
+		return e;
+	}
+
+	@Override
+	protected E elementAt(long index) {
+		return elements.get((int) index & mask);
+	}
+}
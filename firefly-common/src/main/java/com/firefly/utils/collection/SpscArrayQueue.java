@@ -0,0 +1,67 @@
+package com.firefly.utils.collection;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free bounded queue that has one producer and one consumer. A slot is
+ * free if it is null, so the producer and the consumer only write their own
+ * index and the slots, and neither of them needs a CAS.
+ *
+ * @param <E>
+ *            the element type
+ */
+public class SpscArrayQueue<E> extends AbstractBoundedArrayQueue<E> {
+
+	private final AtomicReferenceArray<E> elements;
+
+	public SpscArrayQueue(int capacity) {
+		super(capacity);
+		elements = new AtomicReferenceArray<>(getCapacity());
+	}
+
+	/**
+	 * It is only called by the producer thread.
+	 */
+	@Override
+	public boolean offer(E e) {
+		Objects.requireNonNull(e);
+		long index = getProducerIndex();
+		int offset = (int) index & mask;
+		if (elements.get(offset) != null) {
+			return false;
+		}
+		elements.lazySet(offset, e);
+		setProducerIndex(index + 1);
+		return true;
+	}
+
+	/**
+	 * It is only called by the consumer thread.
+	 */
+	@Override
+	public E poll() {
+		long index = getConsumerIndex();
+		int offset = (int) index & mask;
+		E e = elements.get(offset);
+		if (e == null) {
+			return null;
+		}
+		elements.lazySet(offset, null);
+		setConsumerIndex(index + 1);
+		return e;
+	}
+
+	/**
+	 * It is only called by the consumer thread.
+	 */
+	@Override
+	public E peek() {
+		return elements.get((int) getConsumerIndex() & mask);
+	}
+
+	@Override
+	protected E elementAt(long index) {
+		return elements.get((int) index & mask);
+	}
+}
@@ -4,7 +4,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 
 /**
  * An Abstract implementation of an Idle Timeout.
@@ -19,7 +19,7 @@ public abstract class IdleTimeout {
 	private final Scheduler scheduler;
 	private final AtomicReference<Scheduler.Future> timeout = new AtomicReference<>();
 	private volatile long idleTimeout;
-	private volatile long idleTimestamp = Millisecond100Clock.currentTimeMillis();
+	private volatile long idleTimestamp = SystemClock.currentTimeMillis();
 
 	private final Runnable idleTask = new Runnable() {
 		@Override
@@ -47,7 +47,7 @@ public abstract class IdleTimeout {
 	}
 
 	public long getIdleFor() {
-		return Millisecond100Clock.currentTimeMillis() - getIdleTimestamp();
+		return SystemClock.currentTimeMillis() - getIdleTimestamp();
 	}
 
 	public long getIdleTimeout() {
@@ -78,7 +78,7 @@ public abstract class IdleTimeout {
 	 * This method should be called when non-idle activity has taken place.
 	 */
 	public void notIdle() {
-		idleTimestamp = Millisecond100Clock.currentTimeMillis();
+		idleTimestamp = SystemClock.currentTimeMillis();
 	}
 
 	private void scheduleIdleTimeout(long delay) {
@@ -113,7 +113,7 @@ public abstract class IdleTimeout {
 		if (isOpen()) {
 			long idleTimestamp = getIdleTimestamp();
 			long idleTimeout = getIdleTimeout();
-			long idleElapsed = Millisecond100Clock.currentTimeMillis() - idleTimestamp;
+			long idleElapsed = SystemClock.currentTimeMillis() - idleTimestamp;
 			long idleLeft = idleTimeout - idleElapsed;
 
 			// System.out.println("{} idle timeout check, elapsed: {} ms,
@@ -0,0 +1,337 @@
+package com.firefly.utils.concurrent;
+
+import com.firefly.utils.lang.AbstractLifeCycle;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor that runs the tasks of the same key one by one in the submission
+ * order, and runs the tasks of the different keys in parallel on a
+ * work-stealing {@link ForkJoinPool}.
+ * <p>
+ * Each active key has a lane, that is a lock-free queue and a counter. A lane
+ * is put into a FIFO of the ready lanes when its first task is submitted, and
+ * a pool task is forked to run the next ready lane, so any idle worker can
+ * steal it. A lane runs at most a batch of tasks per turn and then goes back
+ * to the end of the ready lanes, so a hot key can not starve the others. The
+ * lane is removed when its queue is drained, so the idle keys do not take any
+ * memory.
+ * <p>
+ * The {@link #callback(Object, Callback)}, {@link #promise(Object, Promise)}
+ * and {@link #executor(Object)} methods bind the continuations of the
+ * asynchronous operations to the lane of a key, so the continuations are
+ * ordered with the other tasks of the key.
+ */
+public class OrderedExecutor extends AbstractLifeCycle {
+
+    public static final int DEFAULT_BATCH_SIZE = 16;
+
+    private static final int RETIRED = -1;
+
+    private final ConcurrentHashMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+    private final Queue<Lane> readyLanes = new ConcurrentLinkedQueue<>();
+    private final Runnable runner = this::runReadyLanes;
+    private final int parallelism;
+    private final int batchSize;
+    private final String name;
+    private final boolean ownPool;
+    private volatile ForkJoinPool pool;
+
+    public OrderedExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE, "firefly ordered executor");
+    }
+
+    /**
+     * @param parallelism the number of the worker threads
+     * @param batchSize   the max number of the tasks that a key runs before it yields the worker thread
+     * @param name        the name prefix of the worker threads
+     */
+    public OrderedExecutor(int parallelism, int batchSize, String name) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("the parallelism must be greater than 0");
+        }
+        this.parallelism = parallelism;
+        this.batchSize = checkBatchSize(batchSize);
+        this.name = name;
+        this.ownPool = true;
+    }
+
+    /**
+     * @param pool      the pool that runs the tasks, it is not shut down when the executor is stopped
+     * @param batchSize the max number of the tasks that a key runs before it yields the worker thread
+     */
+    public OrderedExecutor(ForkJoinPool pool, int batchSize) {
+        this.pool = Objects.requireNonNull(pool);
+        this.parallelism = pool.getParallelism();
+        this.batchSize = checkBatchSize(batchSize);
+        this.name = null;
+        this.ownPool = false;
+    }
+
+    private static int checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("the batch size must be greater than 0");
+        }
+        return batchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Runs the task after the tasks of the key that are submitted before it.
+     * If the pool rejects the task, the ready lanes are run on the caller
+     * thread.
+     *
+     * @param key  the key that orders the task, it must implement the equals and hashCode methods
+     * @param task the task
+     */
+    public void execute(Object key, Runnable task) {
+        Objects.requireNonNull(key, "the key is null");
+        Objects.requireNonNull(task, "the task is null");
+        start();
+        while (true) {
+            Lane lane = lanes.get(key);
+            if (lane == null) {
+                lane = lanes.computeIfAbsent(key, Lane::new);
+            }
+            int size = lane.size.get();
+            if (size == RETIRED) {
+                // the lane is drained, but it is not removed yet
+                lanes.remove(key, lane);
+                continue;
+            }
+            if (lane.size.compareAndSet(size, size + 1)) {
+                lane.tasks.offer(task);
+                if (size == 0) {
+                    readyLanes.offer(lane);
+                    if (!fork()) {
+                        runReadyLanes();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs the task in the lane of the key and completes the future with its
+     * result.
+     *
+     * @param key  the key that orders the task
+     * @param task the task
+     * @param <T>  the type of the result
+     * @return the future of the result
+     */
+    public <T> CompletableFuture<T> submit(Object key, Callable<T> task) {
+        Objects.requireNonNull(task, "the task is null");
+        Promise.Completable<T> future = new Promise.Completable<>();
+        execute(key, () -> {
+            try {
+                future.succeeded(task.call());
+            } catch (Throwable t) {
+                future.failed(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * The executor of a key. It can be passed to the async methods of the
+     * {@link CompletableFuture}, so the stages run in the lane of the key.
+     *
+     * @param key the key that orders the tasks
+     * @return the executor that runs the tasks in the lane of the key
+     */
+    public Executor executor(Object key) {
+        Objects.requireNonNull(key, "the key is null");
+        return task -> execute(key, task);
+    }
+
+    /**
+     * Wraps a callback, so it is completed in the lane of the key, whichever
+     * thread completes the wrapper.
+     *
+     * @param key      the key that orders the callback
+     * @param callback the callback
+     * @return the callback that runs the given callback in the lane of the key
+     */
+    public Callback callback(Object key, Callback callback) {
+        Objects.requireNonNull(key, "the key is null");
+        Objects.requireNonNull(callback, "the callback is null");
+        return new Callback.NonBlocking() {
+            @Override
+            public void succeeded() {
+                execute(key, callback::succeeded);
+            }
+
+            @Override
+            public void failed(Throwable x) {
+                execute(key, () -> callback.failed(x));
+            }
+        };
+    }
+
+    /**
+     * Wraps a promise, so it is completed in the lane of the key, whichever
+     * thread completes the wrapper.
+     *
+     * @param key     the key that orders the promise
+     * @param promise the promise
+     * @param <C>     the type of the result
+     * @return the promise that runs the given promise in the lane of the key
+     */
+    public <C> Promise<C> promise(Object key, Promise<C> promise) {
+        Objects.requireNonNull(key, "the key is null");
+        Objects.requireNonNull(promise, "the promise is null");
+        return new Promise<C>() {
+            @Override
+            public void succeeded(C result) {
+                execute(key, () -> promise.succeeded(result));
+            }
+
+            @Override
+            public void failed(Throwable x) {
+                execute(key, () -> promise.failed(x));
+            }
+        };
+    }
+
+    /**
+     * @return the number of the keys that have the pending tasks
+     */
+    public int getKeyCount() {
+        return lanes.size();
+    }
+
+    /**
+     * @param key the key
+     * @return the number of the pending tasks of the key, including the running task
+     */
+    public int getQueueDepth(Object key) {
+        Lane lane = lanes.get(key);
+        return lane == null ? 0 : Math.max(0, lane.size.get());
+    }
+
+    /**
+     * @return the number of the pending tasks of all keys, including the running tasks
+     */
+    public long getPendingCount() {
+        long count = 0;
+        for (Lane lane : lanes.values()) {
+            count += Math.max(0, lane.size.get());
+        }
+        return count;
+    }
+
+    /**
+     * Gets the keys that have the most pending tasks.
+     *
+     * @param limit the max number of the keys
+     * @return the queue depth of the keys, the deepest key is the first
+     */
+    public Map<Object, Integer> getHotKeys(int limit) {
+        Map<Object, Integer> hotKeys = new LinkedHashMap<>();
+        lanes.values().stream()
+             .map(lane -> new SimpleImmutableEntry<>(lane.key, lane.size.get()))
+             .filter(e -> e.getValue() > 0)
+             .sorted(Map.Entry.<Object, Integer>comparingByValue().reversed())
+             .limit(limit)
+             .forEach(e -> hotKeys.put(e.getKey(), e.getValue()));
+        return hotKeys;
+    }
+
+    @Override
+    protected void init() {
+        if (ownPool) {
+            pool = new ForkJoinPool(parallelism, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName(name + "-" + thread.getPoolIndex());
+                return thread;
+            }, null, true);
+        }
+    }
+
+    @Override
+    protected void destroy() {
+        if (ownPool) {
+            pool.shutdown();
+        }
+    }
+
+    private boolean fork() {
+        try {
+            pool.execute(runner);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Each forked runner takes one ready lane, the lanes are taken in FIFO
+     * order whichever worker runs the runner.
+     */
+    private void runReadyLanes() {
+        Lane lane;
+        while ((lane = readyLanes.poll()) != null) {
+            if (!lane.runBatch()) {
+                return;
+            }
+            readyLanes.offer(lane);
+            if (fork()) {
+                return;
+            }
+            // the pool is shut down, continues on the current thread
+        }
+    }
+
+    private class Lane {
+
+        private final Object key;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // the number of the pending tasks, the lane is retired when it is -1
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Lane(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * @return true if the lane has more tasks after the batch
+         */
+        private boolean runBatch() {
+            for (int i = 0; i < batchSize; i++) {
+                Runnable task;
+                while ((task = tasks.poll()) == null) {
+                    // the task is counted, but the producer has not offered it yet
+                    Thread.yield();
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    System.err.println("run ordered task exception, " + t.getMessage());
+                }
+                if (size.decrementAndGet() == 0) {
+                    // if a new task is counted before retiring, its producer makes the lane ready again
+                    if (size.compareAndSet(0, RETIRED)) {
+                        lanes.remove(key, this);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -68,4 +68,37 @@ abstract public class Schedulers {
     public static Scheduler computation() {
         return createScheduler(coreSize);
     }
+
+    /**
+     * Create a scheduler based on a hierarchical timing wheel, it runs the
+     * expired tasks on the wheel thread. It suits the timeouts that are
+     * scheduled and cancelled frequently.
+     *
+     * @return the timing wheel scheduler
+     */
+    public static Scheduler createTimingWheelScheduler() {
+        return new TimingWheelScheduler();
+    }
+
+    /**
+     * Create a scheduler based on a hierarchical timing wheel.
+     *
+     * @param corePoolSize the number of the threads that run the expired tasks,
+     *                     if it is not greater than 1, the tasks are run on the wheel thread
+     * @return the timing wheel scheduler
+     */
+    public static Scheduler createTimingWheelScheduler(int corePoolSize) {
+        if (corePoolSize <= 1) {
+            return createTimingWheelScheduler();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(corePoolSize, factory);
+        return new TimingWheelScheduler(TimingWheelScheduler.DEFAULT_TICK, TimeUnit.MILLISECONDS,
+                TimingWheelScheduler.DEFAULT_WHEEL_SIZE, executor) {
+            @Override
+            protected void destroy() {
+                super.destroy();
+                executor.shutdown();
+            }
+        };
+    }
 }
@@ -0,0 +1,433 @@
+package com.firefly.utils.concurrent;
+
+import com.firefly.utils.lang.AbstractLifeCycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A scheduler based on a hierarchical timing wheel. Each level of the wheel
+ * has the same number of slots, a slot of the level 0 spans one tick and a slot
+ * of the level N spans all the slots of the level N - 1. The timers of a slot
+ * are moved to the lower level when the wheel turns to the slot, so scheduling
+ * and cancelling a timer are O(1).
+ * <p>
+ * The scheduled timers are passed to the wheel thread by a lock-free queue.
+ * The wheel thread computes the ticks from {@link System#nanoTime()}, so a
+ * timer never expires before its deadline and it expires at most one tick
+ * after its deadline if the tasks do not delay the wheel. When no timer is due
+ * in the next ticks, the wheel thread sleeps until the next timer or the next
+ * slot of the level 1.
+ * <p>
+ * The timers that expire in the same tick are run as a batch on the executor,
+ * or on the wheel thread if the executor is null. The pending timers are
+ * discarded when the scheduler is stopped.
+ */
+public class TimingWheelScheduler extends AbstractLifeCycle implements Scheduler {
+
+    public static final long DEFAULT_TICK = 1;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int PENDING = 0, RUNNING = 1, DONE = 2, CANCELLED = 3;
+    private static final long MAX_DELAY = Long.MAX_VALUE >> 2;
+    private static final long IDLE = Long.MAX_VALUE >> 1;
+
+    private final long tickNanos;
+    private final int wheelBits;
+    private final int levels;
+    private final Executor executor;
+    private final String name;
+
+    private final Queue<Timer> addedTimers = new ConcurrentLinkedQueue<>();
+    private final Queue<Timer> cancelledTimers = new ConcurrentLinkedQueue<>();
+    private volatile Worker worker;
+
+    public TimingWheelScheduler() {
+        this(DEFAULT_TICK, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, null);
+    }
+
+    /**
+     * @param tick      the duration of a tick
+     * @param unit      the time unit of the tick
+     * @param wheelSize the number of slots of each level, it is rounded up to a power of 2
+     * @param executor  the executor that runs the expired tasks, if it is null, the tasks are run on the wheel thread
+     */
+    public TimingWheelScheduler(long tick, TimeUnit unit, int wheelSize, Executor executor) {
+        this(tick, unit, wheelSize, executor, "firefly timing wheel");
+    }
+
+    public TimingWheelScheduler(long tick, TimeUnit unit, int wheelSize, Executor executor, String name) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("the tick must be greater than 0");
+        }
+        if (wheelSize < 2 || wheelSize > 1 << 16) {
+            throw new IllegalArgumentException("the wheel size must be between 2 and 65536");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.wheelBits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+        this.levels = (63 + wheelBits - 1) / wheelBits;
+        this.executor = executor;
+        this.name = name;
+    }
+
+    public long getTick(TimeUnit unit) {
+        return unit.convert(tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getWheelSize() {
+        return 1 << wheelBits;
+    }
+
+    /**
+     * @return the number of the timers in the wheel, the timers that are just scheduled are not counted
+     */
+    public long getPendingCount() {
+        Worker w = worker;
+        return w == null ? 0 : w.count;
+    }
+
+    @Override
+    public Future schedule(Runnable task, long delay, TimeUnit unit) {
+        return add(task, delay, 0, unit);
+    }
+
+    @Override
+    public Future scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("the delay must be greater than 0");
+        }
+        return add(task, initialDelay, -Math.min(unit.toNanos(delay), MAX_DELAY), unit);
+    }
+
+    @Override
+    public Future scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("the period must be greater than 0");
+        }
+        return add(task, initialDelay, Math.min(unit.toNanos(period), MAX_DELAY), unit);
+    }
+
+    private Timer add(Runnable task, long delay, long period, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("the task is null");
+        }
+        start();
+        long nanos = Math.min(Math.max(unit.toNanos(delay), 0), MAX_DELAY);
+        Timer timer = new Timer(this, task, System.nanoTime() + nanos, period);
+        add(timer);
+        return timer;
+    }
+
+    private void add(Timer timer) {
+        Worker w = worker;
+        if (w == null) {
+            throw new RejectedExecutionException("the scheduler is stopped");
+        }
+        addedTimers.offer(timer);
+        // wakes up the wheel thread if it sleeps beyond the deadline
+        if (timer.deadline - w.wakeupDeadline < 0) {
+            LockSupport.unpark(w.thread);
+        }
+    }
+
+    @Override
+    protected void init() {
+        Worker w = new Worker();
+        worker = w;
+        w.thread.start();
+    }
+
+    @Override
+    protected void destroy() {
+        Worker w = worker;
+        worker = null;
+        addedTimers.clear();
+        cancelledTimers.clear();
+        LockSupport.unpark(w.thread);
+    }
+
+    private final class Worker implements Runnable {
+
+        private final Thread thread;
+        private final long startNanos = System.nanoTime();
+        private final int mask = (1 << wheelBits) - 1;
+        private final Bucket[][] buckets = new Bucket[levels][1 << wheelBits];
+        private List<Timer> expired = new ArrayList<>();
+        private long currentTick;
+        private volatile long count;
+        private volatile long wakeupDeadline = startNanos;
+
+        private Worker() {
+            for (Bucket[] level : buckets) {
+                for (int i = 0; i < level.length; i++) {
+                    level[i] = new Bucket(this);
+                }
+            }
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (worker == this) {
+                try {
+                    long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+                    removeCancelledTimers();
+                    if (count == 0) {
+                        // the empty wheel turns to the current tick directly
+                        currentTick = Math.max(currentTick, targetTick);
+                    }
+                    addTimers();
+                    while (currentTick < targetTick) {
+                        advance(currentTick + 1);
+                    }
+                    expire();
+                    sleep();
+                } catch (Throwable t) {
+                    System.err.println("timing wheel exception, " + t.getMessage());
+                }
+            }
+        }
+
+        private void sleep() {
+            long nextTick = nextTick();
+            if (nextTick < 0) {
+                wakeupDeadline = System.nanoTime() + IDLE;
+                if (addedTimers.isEmpty() && cancelledTimers.isEmpty() && worker == this) {
+                    LockSupport.park(this);
+                }
+            } else {
+                long deadline = startNanos + nextTick * tickNanos;
+                wakeupDeadline = deadline;
+                long nanos = deadline - System.nanoTime();
+                if (nanos > 0 && addedTimers.isEmpty()) {
+                    LockSupport.parkNanos(this, nanos);
+                }
+            }
+        }
+
+        /**
+         * @return the next tick that has the timers of the level 0 or the next slot of the level 1, or -1 if the wheel is empty
+         */
+        private long nextTick() {
+            if (count == 0) {
+                return -1;
+            }
+            long boundary = ((currentTick >>> wheelBits) + 1) << wheelBits;
+            for (long t = currentTick + 1; t < boundary; t++) {
+                if (buckets[0][(int) t & mask].head != null) {
+                    return t;
+                }
+            }
+            return boundary;
+        }
+
+        private void removeCancelledTimers() {
+            for (Timer timer; (timer = cancelledTimers.poll()) != null; ) {
+                Bucket bucket = timer.bucket;
+                if (bucket != null && bucket.worker == this) {
+                    bucket.remove(timer);
+                    count--;
+                }
+            }
+        }
+
+        private void addTimers() {
+            for (Timer timer; (timer = addedTimers.poll()) != null; ) {
+                if (timer.state == PENDING) {
+                    insert(timer);
+                }
+            }
+        }
+
+        private void insert(Timer timer) {
+            long deadlineTick = (timer.deadline - startNanos + tickNanos - 1) / tickNanos;
+            if (deadlineTick <= currentTick) {
+                expired.add(timer);
+                return;
+            }
+            int level = (63 - Long.numberOfLeadingZeros(deadlineTick ^ currentTick)) / wheelBits;
+            buckets[level][(int) (deadlineTick >>> (level * wheelBits)) & mask].add(timer);
+            count++;
+        }
+
+        private void advance(long tick) {
+            currentTick = tick;
+            // moves the timers of the higher levels down when the wheel turns to their slots
+            int level = 0;
+            while (level < levels - 1 && (tick & ((1L << ((level + 1) * wheelBits)) - 1)) == 0) {
+                level++;
+            }
+            for (; level > 0; level--) {
+                Timer timer = buckets[level][(int) (tick >>> (level * wheelBits)) & mask].clear();
+                while (timer != null) {
+                    Timer next = timer.next;
+                    timer.next = null;
+                    count--;
+                    if (timer.state == PENDING) {
+                        insert(timer);
+                    }
+                    timer = next;
+                }
+            }
+
+            Timer timer = buckets[0][(int) tick & mask].clear();
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.next = null;
+                count--;
+                expired.add(timer);
+                timer = next;
+            }
+        }
+
+        private void expire() {
+            if (expired.isEmpty()) {
+                return;
+            }
+
+            List<Timer> batch = expired;
+            batch.removeIf(timer -> !Timer.STATE.compareAndSet(timer, PENDING, RUNNING));
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (executor == null) {
+                runAll(batch);
+                batch.clear();
+            } else {
+                expired = new ArrayList<>();
+                try {
+                    executor.execute(() -> runAll(batch));
+                } catch (RejectedExecutionException e) {
+                    runAll(batch);
+                }
+            }
+        }
+    }
+
+    private static void runAll(List<Timer> batch) {
+        for (Timer timer : batch) {
+            timer.run();
+        }
+    }
+
+    /**
+     * The timers of a slot, they are only accessed by the wheel thread.
+     */
+    private static final class Bucket {
+        private final Worker worker;
+        private Timer head;
+
+        private Bucket(Worker worker) {
+            this.worker = worker;
+        }
+
+        private void add(Timer timer) {
+            timer.bucket = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        private void remove(Timer timer) {
+            if (timer.prev == null) {
+                head = timer.next;
+            } else {
+                timer.prev.next = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        private Timer clear() {
+            Timer timer = head;
+            head = null;
+            for (Timer t = timer; t != null; t = t.next) {
+                t.bucket = null;
+                t.prev = null;
+            }
+            return timer;
+        }
+    }
+
+    private static final class Timer implements Future, Runnable {
+        private static final AtomicIntegerFieldUpdater<Timer> STATE = AtomicIntegerFieldUpdater.newUpdater(
+                Timer.class, "state");
+
+        private final TimingWheelScheduler scheduler;
+        private final Runnable task;
+        // greater than 0 is the fixed rate, less than 0 is the fixed delay
+        private final long period;
+        private long deadline;
+        private volatile int state;
+
+        // the links of the bucket are only accessed by the wheel thread
+        private Bucket bucket;
+        private Timer prev, next;
+
+        private Timer(TimingWheelScheduler scheduler, Runnable task, long deadline, long period) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // the periodic task is not run again like the ScheduledThreadPoolExecutor
+                System.err.println("run scheduled task exception, " + t.getMessage());
+                STATE.compareAndSet(this, RUNNING, DONE);
+                return;
+            }
+
+            if (period == 0) {
+                STATE.compareAndSet(this, RUNNING, DONE);
+                return;
+            }
+            deadline = period > 0 ? deadline + period : System.nanoTime() - period;
+            if (STATE.compareAndSet(this, RUNNING, PENDING)) {
+                try {
+                    scheduler.add(this);
+                } catch (RejectedExecutionException e) {
+                    STATE.compareAndSet(this, PENDING, DONE);
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            while (true) {
+                int s = state;
+                if (s == PENDING) {
+                    if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                        scheduler.cancelledTimers.offer(this);
+                        return true;
+                    }
+                } else if (s == RUNNING && period != 0) {
+                    if (STATE.compareAndSet(this, RUNNING, CANCELLED)) {
+                        return true;
+                    }
+                } else {
+                    return false;
+                }
+            }
+        }
+    }
+}
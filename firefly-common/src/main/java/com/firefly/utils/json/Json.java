@@ -1,13 +1,22 @@
 package com.firefly.utils.json;
 
 import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.exception.JsonException;
 import com.firefly.utils.json.io.JsonStringReader;
 import com.firefly.utils.json.io.JsonStringWriter;
+import com.firefly.utils.json.io.JsonUtf8Reader;
+import com.firefly.utils.json.io.JsonUtf8Writer;
 import com.firefly.utils.json.parser.GeneralJSONObjectStateMacine;
+import com.firefly.utils.json.parser.JsonArrayIterator;
 import com.firefly.utils.json.parser.ParserStateMachine;
 import com.firefly.utils.json.serializer.SerialStateMachine;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
 
 public abstract class Json {
 
@@ -20,6 +29,46 @@ public abstract class Json {
         }
     }
 
+    public static byte[] toJsonBytes(Object obj) {
+        try (JsonUtf8Writer writer = new JsonUtf8Writer()) {
+            SerialStateMachine.toJson(obj, writer);
+            return writer.toBytes();
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the UTF-8 encoded JSON to the output stream through a buffer of
+     * fixed size. The output stream is not closed.
+     *
+     * @param obj the object to serialize
+     * @param out the output stream
+     */
+    public static void toJson(Object obj, OutputStream out) {
+        try (JsonWriter writer = new JsonUtf8Writer(out)) {
+            SerialStateMachine.toJson(obj, writer);
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the UTF-8 encoded JSON to the output stream through a new buffer
+     * of the given size. The output stream is not closed.
+     *
+     * @param obj        the object to serialize
+     * @param out        the output stream
+     * @param bufferSize the size of the buffer
+     */
+    public static void toJson(Object obj, OutputStream out, int bufferSize) {
+        try (JsonWriter writer = new JsonUtf8Writer(out, bufferSize)) {
+            SerialStateMachine.toJson(obj, writer);
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> T toObject(String json, Class<T> clazz) {
         try (JsonReader reader = new JsonStringReader(json)) {
@@ -29,6 +78,59 @@ public abstract class Json {
         }
     }
 
+    public static <T> T toObject(ByteBuffer json, Class<T> clazz) {
+        return toObject(new JsonUtf8Reader(json), clazz);
+    }
+
+    /**
+     * Parses the UTF-8 encoded JSON that is split into the buffers. The
+     * buffers are not concatenated and their positions are not changed.
+     *
+     * @param json  the buffers of the JSON
+     * @param clazz the type of the result
+     * @param <T>   the type of the result
+     * @return the object
+     */
+    public static <T> T toObject(List<ByteBuffer> json, Class<T> clazz) {
+        return toObject(new JsonUtf8Reader(json), clazz);
+    }
+
+    /**
+     * Parses the UTF-8 encoded JSON while it is read from the input stream.
+     * The input stream is not closed.
+     *
+     * @param json  the input stream of the JSON
+     * @param clazz the type of the result
+     * @param <T>   the type of the result
+     * @return the object
+     */
+    public static <T> T toObject(InputStream json, Class<T> clazz) {
+        return toObject(new JsonUtf8Reader(json), clazz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T toObject(JsonReader reader, Class<T> clazz) {
+        try {
+            return (T) ParserStateMachine.toObject(reader, clazz);
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the elements of the UTF-8 encoded JSON array while it is read
+     * from the input stream. An element is parsed when it is got from the
+     * iterator. The input stream is not closed.
+     *
+     * @param json         the input stream of the JSON array
+     * @param elementClass the type of the elements
+     * @param <T>          the type of the elements
+     * @return the iterator of the elements
+     */
+    public static <T> Iterator<T> toIterator(InputStream json, Class<T> elementClass) {
+        return new JsonArrayIterator<>(new JsonUtf8Reader(json), elementClass);
+    }
+
     public static JsonObject toJsonObject(String json) {
         try (JsonReader reader = new JsonStringReader(json)) {
             return GeneralJSONObjectStateMacine.toJsonObject(reader);
@@ -45,4 +147,51 @@ public abstract class Json {
         }
     }
 
+    /**
+     * Parses a JSON object on demand. The structure of the text is scanned
+     * once, then the values are parsed when they are read. The object and its
+     * nested objects and arrays are serialized by copying the original text
+     * until they are modified.
+     *
+     * @param json the JSON text
+     * @return the lazy JSON object
+     */
+    public static JsonObject toLazyJsonObject(String json) {
+        JsonTape tape = new JsonTape(json.toCharArray());
+        int index = tape.root('{');
+        if (index < 0)
+            throw new JsonException("It is not a JSON object");
+        return new LazyJsonObject(tape, index);
+    }
+
+    /**
+     * Parses a JSON array on demand, see {@link #toLazyJsonObject(String)}.
+     *
+     * @param json the JSON text
+     * @return the lazy JSON array
+     */
+    public static JsonArray toLazyJsonArray(String json) {
+        JsonTape tape = new JsonTape(json.toCharArray());
+        int index = tape.root('[');
+        if (index < 0)
+            throw new JsonException("It is not a JSON array");
+        return new LazyJsonArray(tape, index);
+    }
+
+    public static JsonObject toJsonObject(List<ByteBuffer> json) {
+        try (JsonReader reader = new JsonUtf8Reader(json)) {
+            return GeneralJSONObjectStateMacine.toJsonObject(reader);
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
+    public static JsonArray toJsonArray(List<ByteBuffer> json) {
+        try (JsonReader reader = new JsonUtf8Reader(json)) {
+            return GeneralJSONObjectStateMacine.toJsonArray(reader);
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
 }
@@ -4,6 +4,8 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import com.firefly.utils.json.support.FieldTable;
+
 abstract public class JsonReader extends Reader {
 
 	@Override
@@ -74,6 +76,25 @@ abstract public class JsonReader extends Reader {
 
 	abstract public char[] readChars();
 
+	/**
+	 * Reads a field name and finds it in the table. The readers override it
+	 * to find the name in their buffer without creating an array.
+	 * 
+	 * @param table
+	 *            The property names
+	 * @param expected
+	 *            The index of the name that is compared first, or -1
+	 * @return The index of the name, or -1 if the table does not contain it
+	 */
+	public int readFieldIndex(FieldTable table, int expected) {
+		if (expected >= 0) {
+			char[] field = readField(table.getName(expected));
+			return field == null ? expected : table.find(field);
+		} else {
+			return table.find(readChars());
+		}
+	}
+
 	abstract public void skipValue();
 
 	abstract public String readString();
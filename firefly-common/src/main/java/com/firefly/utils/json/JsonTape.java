@@ -0,0 +1,175 @@
+package com.firefly.utils.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.exception.JsonException;
+import com.firefly.utils.json.io.JsonStringReader;
+
+/**
+ * The positions of the objects and the arrays of a JSON text, they are found
+ * by one scan that only looks for the brackets and skips the strings. Each
+ * container has an entry that contains the position of its open bracket, the
+ * position of its close bracket, the index of the next container that is not
+ * in it and the index of its parent.
+ */
+final class JsonTape {
+
+	private static final int ENTRY_SIZE = 4;
+
+	final char[] chars;
+	private int[] tape = new int[ENTRY_SIZE * 16];
+	private int size;
+	private boolean[] modified;
+
+	JsonTape(char[] chars) {
+		this.chars = chars;
+
+		int[] stack = new int[16];
+		int depth = 0;
+		for (int p = 0; p < chars.length; p++) {
+			switch (chars[p]) {
+			case '"':
+				p = skipString(p);
+				break;
+			case '{':
+			case '[':
+				if (size * ENTRY_SIZE == tape.length)
+					tape = Arrays.copyOf(tape, tape.length * 2);
+				if (depth == stack.length)
+					stack = Arrays.copyOf(stack, stack.length * 2);
+
+				int i = size++;
+				tape[i * ENTRY_SIZE] = p;
+				tape[i * ENTRY_SIZE + 3] = depth > 0 ? stack[depth - 1] : -1;
+				stack[depth++] = i;
+				break;
+			case '}':
+			case ']':
+				if (depth == 0)
+					throw new JsonException("unexpected '" + chars[p] + "', the position is " + p);
+
+				int j = stack[--depth];
+				char open = chars[tape[j * ENTRY_SIZE]];
+				if ((open == '{') != (chars[p] == '}'))
+					throw new JsonException("unexpected '" + chars[p] + "', the position is " + p);
+				tape[j * ENTRY_SIZE + 1] = p;
+				tape[j * ENTRY_SIZE + 2] = size;
+				break;
+			}
+		}
+		if (depth != 0)
+			throw new JsonException("the JSON text is not complete");
+		modified = new boolean[size];
+	}
+
+	int size() {
+		return size;
+	}
+
+	int open(int i) {
+		return tape[i * ENTRY_SIZE];
+	}
+
+	int close(int i) {
+		return tape[i * ENTRY_SIZE + 1];
+	}
+
+	int next(int i) {
+		return tape[i * ENTRY_SIZE + 2];
+	}
+
+	boolean isModified(int i) {
+		return modified[i];
+	}
+
+	/**
+	 * Marks the container and its ancestors as modified, their text can not
+	 * be copied anymore.
+	 */
+	void markModified(int i) {
+		while (i >= 0 && !modified[i]) {
+			modified[i] = true;
+			i = tape[i * ENTRY_SIZE + 3];
+		}
+	}
+
+	void write(Writer writer, int i) throws IOException {
+		writer.write(chars, open(i), close(i) - open(i) + 1);
+	}
+
+	/**
+	 * @param p the position of the open quote
+	 * @return the position of the close quote
+	 */
+	int skipString(int p) {
+		for (p++; p < chars.length; p++) {
+			char c = chars[p];
+			if (c == '"')
+				return p;
+			if (c == '\\')
+				p++;
+		}
+		throw new JsonException("the JSON string is not closed");
+	}
+
+	int skipBlank(int p) {
+		while (p < chars.length && chars[p] <= ' ')
+			p++;
+		if (p >= chars.length)
+			throw new JsonException("the JSON text is not complete");
+		return p;
+	}
+
+	/**
+	 * Skips a string, a number or a literal.
+	 *
+	 * @param p the start of the value
+	 * @return the position after the value
+	 */
+	int skipValue(int p) {
+		if (chars[p] == '"')
+			return skipString(p) + 1;
+
+		while (p < chars.length) {
+			char c = chars[p];
+			if (c == ',' || c == '}' || c == ']' || c <= ' ')
+				break;
+			p++;
+		}
+		return p;
+	}
+
+	/**
+	 * Parses a value like {@link com.firefly.utils.json.parser.GeneralJSONObjectStateMacine},
+	 * but the objects and the arrays are lazy.
+	 *
+	 * @param p     the start of the value
+	 * @param child the container of the value, or -1 if it is not an object or an array
+	 * @return the value
+	 */
+	Object value(int p, int child) {
+		if (child >= 0)
+			return chars[p] == '{' ? new LazyJsonObject(this, child) : new LazyJsonArray(this, child);
+
+		try (JsonStringReader reader = new JsonStringReader(chars, p, chars.length)) {
+			return chars[p] == '"' ? reader.readString() : reader.readValueAsString();
+		} catch (IOException e) {
+			throw new CommonRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Finds the first container after the blank characters.
+	 *
+	 * @return the index of the container, or -1 if the text does not start with the bracket
+	 */
+	int root(char bracket) {
+		int p = 0;
+		while (p < chars.length && chars[p] <= ' ')
+			p++;
+		return size > 0 && open(0) == p && chars[p] == bracket ? 0 : -1;
+	}
+}
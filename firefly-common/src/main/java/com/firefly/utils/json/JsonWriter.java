@@ -1,7 +1,10 @@
 package com.firefly.utils.json;
 
+import java.io.IOException;
 import java.io.Writer;
 
+import com.firefly.utils.json.support.SerializerMetaInfo;
+
 abstract public class JsonWriter extends Writer {
 	
 	abstract public void writeNull();
@@ -16,6 +19,22 @@ abstract public class JsonWriter extends Writer {
 	
 	abstract public void writeLong(long i);
 
+	/**
+	 * Writes the shortest decimal that is read back as the same double.
+	 * 
+	 * @param d
+	 *            the double
+	 */
+	abstract public void writeDouble(double d);
+
+	/**
+	 * Writes the shortest decimal that is read back as the same float.
+	 * 
+	 * @param f
+	 *            the float
+	 */
+	abstract public void writeFloat(float f);
+
 	abstract public void pushRef(Object obj);
 
 	abstract public boolean existRef(Object obj);
@@ -38,8 +57,25 @@ abstract public class JsonWriter extends Writer {
 
 	abstract public void writeLongArray(Long[] array);
 
+	abstract public void writeDoubleArray(double[] array);
+
+	abstract public void writeDoubleArray(Double[] array);
+
 	abstract public void writeBooleanArray(boolean[] array);
 
 	abstract public void writeBooleanArray(Boolean[] array);
 
+	/**
+	 * Writes the property name of an object with its separators, the writers
+	 * that encode bytes use the precomputed UTF-8 name.
+	 * 
+	 * @param metaInfo
+	 *            the property of the object
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writePropertyName(SerializerMetaInfo metaInfo) throws IOException {
+		write(metaInfo.getPropertyName());
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,321 @@
+package com.firefly.utils.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import com.firefly.utils.json.exception.JsonException;
+
+/**
+ * A JSON array that is parsed on demand. The elements of the array are parsed
+ * when it is accessed the first time, the nested objects and arrays are lazy.
+ * <p>
+ * The array keeps the original text until it is modified, an unmodified array
+ * is serialized by copying its text. The methods that return an iterator or a
+ * view of the list or the methods that change the list mark it as modified.
+ */
+public class LazyJsonArray extends JsonArray {
+
+	private static final long serialVersionUID = 2609618426722640937L;
+
+	private transient JsonTape tape;
+	private final transient int index;
+	private transient boolean materialized;
+
+	LazyJsonArray(JsonTape tape, int index) {
+		this.tape = tape;
+		this.index = index;
+	}
+
+	/**
+	 * @return true if the array can not be serialized by copying its text
+	 */
+	public boolean isModified() {
+		return tape == null || tape.isModified(index);
+	}
+
+	/**
+	 * Writes the original text of the array.
+	 *
+	 * @param writer the output
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeRaw(Writer writer) throws IOException {
+		tape.write(writer, index);
+	}
+
+	private void materialize() {
+		if (materialized)
+			return;
+
+		char[] chars = tape.chars;
+		int child = index + 1;
+		int p = tape.skipBlank(tape.open(index) + 1);
+		if (chars[p] != ']') {
+			while (true) {
+				if (chars[p] == '{' || chars[p] == '[') {
+					super.add(tape.value(p, child));
+					p = tape.close(child) + 1;
+					child = tape.next(child);
+				} else {
+					super.add(tape.value(p, -1));
+					p = tape.skipValue(p);
+				}
+
+				p = tape.skipBlank(p);
+				if (chars[p] == ']')
+					break;
+				if (chars[p] != ',')
+					throw new JsonException("the error is at position " + p);
+				p = tape.skipBlank(p + 1);
+			}
+		}
+		materialized = true;
+	}
+
+	private void modify() {
+		materialize();
+		if (tape != null)
+			tape.markModified(index);
+	}
+
+	@Override
+	public Object get(int index) {
+		materialize();
+		return super.get(index);
+	}
+
+	@Override
+	public int size() {
+		materialize();
+		return super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		materialize();
+		return super.isEmpty();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		materialize();
+		return super.contains(o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		materialize();
+		return super.indexOf(o);
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		materialize();
+		return super.lastIndexOf(o);
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		materialize();
+		return super.containsAll(c);
+	}
+
+	@Override
+	public Object[] toArray() {
+		materialize();
+		return super.toArray();
+	}
+
+	@Override
+	public <T> T[] toArray(T[] a) {
+		materialize();
+		return super.toArray(a);
+	}
+
+	@Override
+	public void forEach(Consumer<? super Object> action) {
+		materialize();
+		super.forEach(action);
+	}
+
+	@Override
+	public Iterator<Object> iterator() {
+		modify();
+		return super.iterator();
+	}
+
+	@Override
+	public ListIterator<Object> listIterator() {
+		modify();
+		return super.listIterator();
+	}
+
+	@Override
+	public ListIterator<Object> listIterator(int index) {
+		modify();
+		return super.listIterator(index);
+	}
+
+	@Override
+	public List<Object> subList(int fromIndex, int toIndex) {
+		modify();
+		return super.subList(fromIndex, toIndex);
+	}
+
+	@Override
+	public Spliterator<Object> spliterator() {
+		materialize();
+		return super.spliterator();
+	}
+
+	@Override
+	public Object set(int index, Object element) {
+		modify();
+		return super.set(index, element);
+	}
+
+	@Override
+	public boolean add(Object e) {
+		modify();
+		return super.add(e);
+	}
+
+	@Override
+	public void add(int index, Object element) {
+		modify();
+		super.add(index, element);
+	}
+
+	@Override
+	public Object remove(int index) {
+		modify();
+		return super.remove(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		modify();
+		return super.remove(o);
+	}
+
+	@Override
+	public void clear() {
+		modify();
+		super.clear();
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Object> c) {
+		modify();
+		return super.addAll(c);
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Object> c) {
+		modify();
+		return super.addAll(index, c);
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		modify();
+		return super.removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		modify();
+		return super.retainAll(c);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Object> filter) {
+		modify();
+		return super.removeIf(filter);
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Object> operator) {
+		modify();
+		super.replaceAll(operator);
+	}
+
+	@Override
+	public void sort(Comparator<? super Object> c) {
+		modify();
+		super.sort(c);
+	}
+
+	@Override
+	public Object clone() {
+		materialize();
+		// the copy has not the original text
+		LazyJsonArray ret = new LazyJsonArray(null, -1);
+		ret.materialized = true;
+		super.forEach(ret::add);
+		return ret;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof List))
+			return false;
+
+		materialize();
+		List<?> list = (List<?>) o;
+		if (list.size() != super.size())
+			return false;
+
+		Iterator<?> it = list instanceof RandomAccess ? null : list.iterator();
+		for (int i = 0; i < super.size(); i++) {
+			Object value = super.get(i);
+			Object e = it == null ? list.get(i) : it.next();
+			if (value == null ? e != null : !value.equals(e))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		materialize();
+		int h = 1;
+		for (int i = 0; i < super.size(); i++) {
+			Object value = super.get(i);
+			h = 31 * h + (value == null ? 0 : value.hashCode());
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		materialize();
+		StringBuilder s = new StringBuilder().append('[');
+		for (int i = 0; i < super.size(); i++) {
+			if (i > 0)
+				s.append(", ");
+			Object value = super.get(i);
+			s.append(value == this ? "(this Collection)" : value);
+		}
+		return s.append(']').toString();
+	}
+
+	private Object writeReplace() {
+		materialize();
+		JsonArray ret = new JsonArray();
+		super.forEach(ret::add);
+		return ret;
+	}
+}
@@ -0,0 +1,360 @@
+package com.firefly.utils.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.firefly.utils.json.exception.JsonException;
+
+/**
+ * A JSON object that is parsed on demand. The fields of the object are
+ * indexed when it is accessed the first time and a value is parsed when it is
+ * read. The nested objects and arrays are lazy too.
+ * <p>
+ * The object keeps the original text until it is modified, an unmodified
+ * object is serialized by copying its text. The methods that return a view of
+ * the map or the methods that change the map mark it as modified.
+ */
+public class LazyJsonObject extends JsonObject {
+
+	private static final long serialVersionUID = -7853925306823440871L;
+
+	private transient JsonTape tape;
+	private final transient int index;
+
+	// for each field: the start and the end of the key, the start of the value and the container of the value or -1
+	private transient int[] fields;
+	private transient int count;
+	private transient Object[] values;
+	private transient boolean materialized;
+
+	LazyJsonObject(JsonTape tape, int index) {
+		this.tape = tape;
+		this.index = index;
+	}
+
+	/**
+	 * @return true if the object can not be serialized by copying its text
+	 */
+	public boolean isModified() {
+		return tape == null || tape.isModified(index);
+	}
+
+	/**
+	 * Writes the original text of the object.
+	 *
+	 * @param writer the output
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeRaw(Writer writer) throws IOException {
+		tape.write(writer, index);
+	}
+
+	private void indexFields() {
+		if (fields != null)
+			return;
+
+		char[] chars = tape.chars;
+		int[] f = new int[16];
+		int n = 0;
+		int child = index + 1;
+		int p = tape.skipBlank(tape.open(index) + 1);
+		if (chars[p] != '}') {
+			while (true) {
+				if (chars[p] != '"')
+					throw new JsonException("the key must start with '\"', the position is " + p);
+				if ((n + 1) * 4 > f.length)
+					f = Arrays.copyOf(f, f.length * 2);
+
+				int keyEnd = tape.skipString(p);
+				f[n * 4] = p + 1;
+				f[n * 4 + 1] = keyEnd;
+
+				p = tape.skipBlank(keyEnd + 1);
+				if (chars[p] != ':')
+					throw new JsonException("the colon is missing, the position is " + p);
+				p = tape.skipBlank(p + 1);
+
+				f[n * 4 + 2] = p;
+				if (chars[p] == '{' || chars[p] == '[') {
+					f[n * 4 + 3] = child;
+					p = tape.close(child) + 1;
+					child = tape.next(child);
+				} else {
+					f[n * 4 + 3] = -1;
+					p = tape.skipValue(p);
+				}
+				n++;
+
+				p = tape.skipBlank(p);
+				if (chars[p] == '}')
+					break;
+				if (chars[p] != ',')
+					throw new JsonException("the error is at position " + p);
+				p = tape.skipBlank(p + 1);
+			}
+		}
+		fields = f;
+		count = n;
+		values = new Object[n];
+	}
+
+	private int find(Object key) {
+		if (!(key instanceof String))
+			return -1;
+
+		indexFields();
+		String k = (String) key;
+		char[] chars = tape.chars;
+		// the last field wins, like the parsed object
+		fieldLoop:
+		for (int i = count - 1; i >= 0; i--) {
+			int start = fields[i * 4];
+			int len = fields[i * 4 + 1] - start;
+			if (len != k.length())
+				continue;
+			for (int j = 0; j < len; j++) {
+				if (chars[start + j] != k.charAt(j))
+					continue fieldLoop;
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	private String key(int i) {
+		return new String(tape.chars, fields[i * 4], fields[i * 4 + 1] - fields[i * 4]);
+	}
+
+	private Object value(int i) {
+		Object value = values[i];
+		if (value == null) {
+			value = tape.value(fields[i * 4 + 2], fields[i * 4 + 3]);
+			values[i] = value;
+		}
+		return value;
+	}
+
+	private void materialize() {
+		if (materialized)
+			return;
+
+		indexFields();
+		for (int i = 0; i < count; i++) {
+			super.put(key(i), value(i));
+		}
+		materialized = true;
+	}
+
+	private void modify() {
+		materialize();
+		if (tape != null)
+			tape.markModified(index);
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (materialized)
+			return super.get(key);
+		int i = find(key);
+		return i < 0 ? null : value(i);
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		if (materialized)
+			return super.getOrDefault(key, defaultValue);
+		int i = find(key);
+		return i < 0 ? defaultValue : value(i);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (materialized)
+			return super.containsKey(key);
+		return find(key) >= 0;
+	}
+
+	@Override
+	public int size() {
+		materialize();
+		return super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		materialize();
+		return super.isEmpty();
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		materialize();
+		return super.containsValue(value);
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		materialize();
+		super.forEach(action);
+	}
+
+	@Override
+	public Set<String> keySet() {
+		modify();
+		return super.keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		modify();
+		return super.values();
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		modify();
+		return super.entrySet();
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		modify();
+		return super.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		modify();
+		super.putAll(m);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		modify();
+		return super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		modify();
+		super.clear();
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		modify();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		modify();
+		return super.remove(key, value);
+	}
+
+	@Override
+	public boolean replace(String key, Object oldValue, Object newValue) {
+		modify();
+		return super.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public Object replace(String key, Object value) {
+		modify();
+		return super.replace(key, value);
+	}
+
+	@Override
+	public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+		modify();
+		return super.computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		modify();
+		return super.computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		modify();
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		modify();
+		return super.merge(key, value, remappingFunction);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+		modify();
+		super.replaceAll(function);
+	}
+
+	@Override
+	public Object clone() {
+		materialize();
+		// the copy has not the original text
+		LazyJsonObject ret = new LazyJsonObject(null, -1);
+		ret.materialized = true;
+		super.forEach(ret::put);
+		return ret;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof Map))
+			return false;
+
+		Map<?, ?> m = (Map<?, ?>) o;
+		if (m.size() != size())
+			return false;
+
+		boolean[] ret = new boolean[]{true};
+		super.forEach((key, value) -> {
+			if (ret[0]) {
+				ret[0] = value == null ? m.get(key) == null && m.containsKey(key) : value.equals(m.get(key));
+			}
+		});
+		return ret[0];
+	}
+
+	@Override
+	public int hashCode() {
+		materialize();
+		int[] h = new int[1];
+		super.forEach((key, value) -> h[0] += key.hashCode() ^ (value == null ? 0 : value.hashCode()));
+		return h[0];
+	}
+
+	@Override
+	public String toString() {
+		materialize();
+		StringBuilder s = new StringBuilder().append('{');
+		super.forEach((key, value) -> {
+			if (s.length() > 1)
+				s.append(", ");
+			s.append(key).append('=').append(value == this ? "(this Map)" : value);
+		});
+		return s.append('}').toString();
+	}
+
+	private Object writeReplace() {
+		materialize();
+		JsonObject ret = new JsonObject();
+		super.forEach(ret::put);
+		return ret;
+	}
+}
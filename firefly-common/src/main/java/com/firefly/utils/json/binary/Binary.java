@@ -0,0 +1,80 @@
+package com.firefly.utils.json.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import com.firefly.utils.exception.CommonRuntimeException;
+
+/**
+ * Serializes the objects to a compact binary format, see {@link BinaryTag}.
+ * The properties of the objects are found like {@link com.firefly.utils.json.Json},
+ * so the same annotations are used, but the values are written without
+ * converting them to text.
+ */
+public abstract class Binary {
+
+    public static byte[] toBytes(Object obj) {
+        try (BinaryWriter writer = new BinaryWriter()) {
+            BinaryStateMachine.encode(obj, writer);
+            return writer.toBytes();
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
+    public static ByteBuffer toByteBuffer(Object obj) {
+        return ByteBuffer.wrap(toBytes(obj));
+    }
+
+    /**
+     * Writes the object to the output stream through a buffer of fixed size.
+     * The output stream is not closed.
+     *
+     * @param obj the object to serialize
+     * @param out the output stream
+     */
+    public static void toBytes(Object obj, OutputStream out) {
+        try (BinaryWriter writer = new BinaryWriter(out)) {
+            BinaryStateMachine.encode(obj, writer);
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the object to the byte buffers of the given size, each byte
+     * buffer is passed to the output when it is full or the object has been
+     * written. The output owns the byte buffers.
+     *
+     * @param obj        the object to serialize
+     * @param bufferSize the size of the byte buffers
+     * @param output     receives the byte buffers
+     */
+    public static void toByteBuffers(Object obj, int bufferSize, Consumer<ByteBuffer> output) {
+        try (BinaryWriter writer = new BinaryWriter(output, bufferSize)) {
+            BinaryStateMachine.encode(obj, writer);
+        } catch (IOException e) {
+            throw new CommonRuntimeException(e);
+        }
+    }
+
+    public static <T> T toObject(byte[] bytes, Class<T> clazz) {
+        return toObject(ByteBuffer.wrap(bytes), clazz);
+    }
+
+    /**
+     * Reads an object from the position of the byte buffer, the position is
+     * moved after the object, so that the next object can be read.
+     *
+     * @param buffer the byte buffer
+     * @param clazz  the object type
+     * @param <T>    the object type
+     * @return the object
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T toObject(ByteBuffer buffer, Class<T> clazz) {
+        return (T) BinaryStateMachine.getDecoder(clazz).decode(new BinaryReader(buffer));
+    }
+}
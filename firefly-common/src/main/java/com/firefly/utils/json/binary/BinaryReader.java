@@ -0,0 +1,247 @@
+package com.firefly.utils.json.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.firefly.utils.json.exception.JsonException;
+import com.firefly.utils.json.support.FieldTable;
+
+/**
+ * Reads the values of the binary format from a byte buffer, see
+ * {@link BinaryTag}. The position of the byte buffer is moved after the values
+ * that have been read.
+ */
+public class BinaryReader {
+
+	private final ByteBuffer buffer;
+
+	public BinaryReader(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	public byte readTag() {
+		if (!buffer.hasRemaining())
+			throw new JsonException("the binary data is not complete");
+		return buffer.get();
+	}
+
+	/**
+	 * Reads the next tag, the position is not changed.
+	 *
+	 * @return the next tag
+	 */
+	public byte peekTag() {
+		if (!buffer.hasRemaining())
+			throw new JsonException("the binary data is not complete");
+		return buffer.get(buffer.position());
+	}
+
+	/**
+	 * Reads the null tag if it is the next tag.
+	 *
+	 * @return true if the value is null
+	 */
+	public boolean isNull() {
+		if (peekTag() == BinaryTag.NULL) {
+			buffer.get();
+			return true;
+		}
+		return false;
+	}
+
+	public long readVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = readTag();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new JsonException("the variable length integer is too long");
+	}
+
+	public int readSize() {
+		long size = readVarLong();
+		if (size < 0 || size > buffer.remaining())
+			throw new JsonException("the size " + size + " is out of the binary data");
+		return (int) size;
+	}
+
+	/**
+	 * Reads the content of an INT tag.
+	 *
+	 * @return the value
+	 */
+	public long readLongValue() {
+		long v = readVarLong();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public float readFloatValue() {
+		require(4);
+		int bits = 0;
+		for (int i = 0; i < 4; i++) {
+			bits = (bits << 8) | (buffer.get() & 0xFF);
+		}
+		return Float.intBitsToFloat(bits);
+	}
+
+	public double readDoubleValue() {
+		require(8);
+		long bits = 0;
+		for (int i = 0; i < 8; i++) {
+			bits = (bits << 8) | (buffer.get() & 0xFF);
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * Reads the content of a STRING tag or a property name.
+	 *
+	 * @return the string
+	 */
+	public String readStringValue() {
+		int len = readSize();
+		String s;
+		if (buffer.hasArray()) {
+			s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), len, StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + len);
+		} else {
+			byte[] b = new byte[len];
+			buffer.get(b);
+			s = new String(b, StandardCharsets.UTF_8);
+		}
+		return s;
+	}
+
+	/**
+	 * Reads the content of a BYTES tag.
+	 *
+	 * @return the bytes
+	 */
+	public byte[] readBytesValue() {
+		byte[] b = new byte[readSize()];
+		buffer.get(b);
+		return b;
+	}
+
+	/**
+	 * Reads a property name and finds it in the names.
+	 *
+	 * @param names    the names that are encoded by {@link BinaryWriter#encodeName(String)}
+	 * @param table    the perfect hash table of the same names
+	 * @param expected the index of the name that is compared at first
+	 * @return the index of the name, or -1 if the names do not contain it
+	 */
+	public int readPropertyIndex(byte[][] names, FieldTable table, int expected) {
+		int start = buffer.position();
+		int len = readSize();
+		int nameStart = buffer.position();
+		int nameLength = nameStart - start + len;
+
+		int ret;
+		if (expected >= 0 && expected < names.length && equals(names[expected], start, nameLength)) {
+			ret = expected;
+		} else {
+			ret = find(table, nameStart, len);
+		}
+		buffer.position(nameStart + len);
+		return ret;
+	}
+
+	private int find(FieldTable table, int start, int length) {
+		// the ASCII bytes are the chars of the name, so it is hashed without being decoded
+		int m = table.getMultiplier();
+		int h = 0;
+		for (int i = 0; i < length; i++) {
+			byte b = buffer.get(start + i);
+			if (b < 0)
+				return table.find(decode(start, length).toCharArray());
+			h = h * m + b;
+		}
+		return table.find(h, buffer, start, length);
+	}
+
+	private String decode(int start, int length) {
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+		} else {
+			byte[] b = new byte[length];
+			for (int i = 0; i < length; i++) {
+				b[i] = buffer.get(start + i);
+			}
+			return new String(b, StandardCharsets.UTF_8);
+		}
+	}
+
+	private boolean equals(byte[] name, int start, int length) {
+		if (name.length != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (name[i] != buffer.get(start + i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Skips the next value.
+	 */
+	public void skipValue() {
+		byte tag = readTag();
+		switch (tag) {
+		case BinaryTag.NULL:
+		case BinaryTag.FALSE:
+		case BinaryTag.TRUE:
+			break;
+		case BinaryTag.INT:
+			readVarLong();
+			break;
+		case BinaryTag.FLOAT:
+			skip(4);
+			break;
+		case BinaryTag.DOUBLE:
+			skip(8);
+			break;
+		case BinaryTag.STRING:
+		case BinaryTag.BYTES:
+			skip(readSize());
+			break;
+		case BinaryTag.ARRAY: {
+			int size = readSize();
+			for (int i = 0; i < size; i++) {
+				skipValue();
+			}
+			break;
+		}
+		case BinaryTag.OBJECT: {
+			int size = readSize();
+			for (int i = 0; i < size; i++) {
+				skip(readSize());
+				skipValue();
+			}
+			break;
+		}
+		default:
+			throw unexpectedTag(tag);
+		}
+	}
+
+	private void skip(int n) {
+		require(n);
+		buffer.position(buffer.position() + n);
+	}
+
+	private void require(int n) {
+		if (buffer.remaining() < n)
+			throw new JsonException("the binary data is not complete");
+	}
+
+	public JsonException unexpectedTag(byte tag) {
+		return new JsonException("unexpected tag " + tag + ", the position is " + (buffer.position() - 1));
+	}
+}
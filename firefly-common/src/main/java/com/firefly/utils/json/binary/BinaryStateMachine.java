@@ -0,0 +1,581 @@
+package com.firefly.utils.json.binary;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.firefly.utils.collection.IdentityHashMap;
+import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.annotation.DateFormat;
+import com.firefly.utils.json.annotation.DateFormatType;
+import com.firefly.utils.json.exception.JsonException;
+import com.firefly.utils.json.parser.ComplexTypeParser;
+import com.firefly.utils.time.SafeSimpleDateFormat;
+
+/**
+ * The encoders are found by the class of the value and the decoders are found
+ * by the declared type. The registries are read without lock like the JSON
+ * registries, a new copy is published after a class has been compiled.
+ * <p>
+ * The dates are written as timestamps unless the property has a date format
+ * of the pattern type, the decoders accept both.
+ */
+abstract public class BinaryStateMachine {
+	private static volatile IdentityHashMap<Class<?>, Encoder> ENCODER_MAP = new IdentityHashMap<Class<?>, Encoder>();
+	private static volatile IdentityHashMap<Class<?>, Decoder> DECODER_MAP = new IdentityHashMap<Class<?>, Decoder>();
+	// the codecs that are being initialized by the thread that holds the lock
+	private static final Map<Class<?>, Encoder> COMPILING_ENCODERS = new HashMap<Class<?>, Encoder>();
+	private static final Map<Class<?>, Decoder> COMPILING_DECODERS = new HashMap<Class<?>, Decoder>();
+	private static final Lock lock = new ReentrantLock();
+
+	private static final Encoder NUMBER = (writer, obj) -> writer.writeLong(((Number) obj).longValue());
+	private static final Encoder STRING_VALUE = (writer, obj) -> writer.writeString(obj.toString());
+	private static final Encoder TIMESTAMP = (writer, obj) -> writer.writeLong(((Date) obj).getTime());
+	private static final Encoder ENUM = (writer, obj) -> writer.writeString(((Enum<?>) obj).name());
+	private static final Encoder EMPTY_OBJECT = (writer, obj) -> writer.writeObjectStart(0);
+
+	private static final Encoder MAP = (writer, obj) -> {
+		Map<?, ?> map = (Map<?, ?>) obj;
+		writer.writeObjectStart(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			writer.writePropertyName(String.valueOf(entry.getKey()));
+			encode(entry.getValue(), writer);
+		}
+	};
+
+	private static final Encoder COLLECTION = (writer, obj) -> {
+		Collection<?> collection = (Collection<?>) obj;
+		writer.writeArrayStart(collection.size());
+		for (Object e : collection) {
+			encode(e, writer);
+		}
+	};
+
+	private static final Encoder ARRAY = (writer, obj) -> {
+		int length = Array.getLength(obj);
+		writer.writeArrayStart(length);
+		for (int i = 0; i < length; i++) {
+			encode(Array.get(obj, i), writer);
+		}
+	};
+
+	private static final Decoder DYNAMIC = BinaryStateMachine::readDynamic;
+
+	static {
+		ENCODER_MAP.put(int.class, NUMBER);
+		ENCODER_MAP.put(long.class, NUMBER);
+		ENCODER_MAP.put(short.class, NUMBER);
+		ENCODER_MAP.put(byte.class, NUMBER);
+		ENCODER_MAP.put(Integer.class, NUMBER);
+		ENCODER_MAP.put(Long.class, NUMBER);
+		ENCODER_MAP.put(Short.class, NUMBER);
+		ENCODER_MAP.put(Byte.class, NUMBER);
+		ENCODER_MAP.put(AtomicInteger.class, NUMBER);
+		ENCODER_MAP.put(AtomicLong.class, NUMBER);
+		ENCODER_MAP.put(Character.class, (writer, obj) -> writer.writeLong((Character) obj));
+		ENCODER_MAP.put(char.class, ENCODER_MAP.get(Character.class));
+		ENCODER_MAP.put(Boolean.class, (writer, obj) -> writer.writeBoolean((Boolean) obj));
+		ENCODER_MAP.put(boolean.class, ENCODER_MAP.get(Boolean.class));
+		ENCODER_MAP.put(AtomicBoolean.class, (writer, obj) -> writer.writeBoolean(((AtomicBoolean) obj).get()));
+		ENCODER_MAP.put(Float.class, (writer, obj) -> writer.writeFloat((Float) obj));
+		ENCODER_MAP.put(Double.class, (writer, obj) -> writer.writeDouble((Double) obj));
+		ENCODER_MAP.put(float.class, ENCODER_MAP.get(Float.class));
+		ENCODER_MAP.put(double.class, ENCODER_MAP.get(Double.class));
+		ENCODER_MAP.put(String.class, (writer, obj) -> writer.writeString((String) obj));
+		ENCODER_MAP.put(StringBuilder.class, STRING_VALUE);
+		ENCODER_MAP.put(StringBuffer.class, STRING_VALUE);
+		ENCODER_MAP.put(BigInteger.class, STRING_VALUE);
+		ENCODER_MAP.put(BigDecimal.class, STRING_VALUE);
+		ENCODER_MAP.put(Date.class, TIMESTAMP);
+		ENCODER_MAP.put(java.sql.Date.class, TIMESTAMP);
+		ENCODER_MAP.put(java.sql.Time.class, TIMESTAMP);
+		ENCODER_MAP.put(java.sql.Timestamp.class, TIMESTAMP);
+		ENCODER_MAP.put(byte[].class, (writer, obj) -> writer.writeBytes((byte[]) obj));
+		ENCODER_MAP.put(int[].class, (writer, obj) -> {
+			int[] array = (int[]) obj;
+			writer.writeArrayStart(array.length);
+			for (int i : array) {
+				writer.writeLong(i);
+			}
+		});
+		ENCODER_MAP.put(long[].class, (writer, obj) -> {
+			long[] array = (long[]) obj;
+			writer.writeArrayStart(array.length);
+			for (long l : array) {
+				writer.writeLong(l);
+			}
+		});
+		ENCODER_MAP.put(double[].class, (writer, obj) -> {
+			double[] array = (double[]) obj;
+			writer.writeArrayStart(array.length);
+			for (double d : array) {
+				writer.writeDouble(d);
+			}
+		});
+
+		putNumberDecoder(int.class, Integer.class, r -> (int) readLong(r), 0);
+		putNumberDecoder(long.class, Long.class, BinaryStateMachine::readLong, 0L);
+		putNumberDecoder(short.class, Short.class, r -> (short) readLong(r), (short) 0);
+		putNumberDecoder(byte.class, Byte.class, r -> (byte) readLong(r), (byte) 0);
+		putNumberDecoder(char.class, Character.class, BinaryStateMachine::readChar, (char) 0);
+		putNumberDecoder(boolean.class, Boolean.class, BinaryStateMachine::readBoolean, false);
+		putNumberDecoder(float.class, Float.class, r -> (float) readDouble(r), 0F);
+		putNumberDecoder(double.class, Double.class, BinaryStateMachine::readDouble, 0D);
+		DECODER_MAP.put(String.class, r -> r.isNull() ? null : readString(r));
+		DECODER_MAP.put(BigInteger.class, r -> r.isNull() ? null : new BigInteger(readString(r)));
+		DECODER_MAP.put(BigDecimal.class, r -> r.isNull() ? null : new BigDecimal(readString(r)));
+		DECODER_MAP.put(byte[].class, r -> {
+			if (r.isNull())
+				return null;
+			byte tag = r.readTag();
+			if (tag != BinaryTag.BYTES)
+				throw r.unexpectedTag(tag);
+			return r.readBytesValue();
+		});
+		DECODER_MAP.put(Object.class, DYNAMIC);
+		for (Class<?> clazz : new Class<?>[]{Date.class, java.sql.Date.class, java.sql.Time.class, java.sql.Timestamp.class}) {
+			DECODER_MAP.put(clazz, new DateDecoder(clazz, SafeSimpleDateFormat.defaultDateFormat));
+		}
+	}
+
+	private static void putNumberDecoder(Class<?> primitive, Class<?> wrapper, Decoder decoder, Object defaultValue) {
+		DECODER_MAP.put(primitive, r -> r.isNull() ? defaultValue : decoder.decode(r));
+		DECODER_MAP.put(wrapper, r -> r.isNull() ? null : decoder.decode(r));
+	}
+
+	public static void encode(Object obj, BinaryWriter writer) throws IOException {
+		if (obj == null) {
+			writer.writeNull();
+			return;
+		}
+		getEncoder(obj.getClass()).encode(writer, obj);
+	}
+
+	public static Encoder getEncoder(Class<?> clazz) {
+		Encoder ret = ENCODER_MAP.get(clazz);
+		return ret != null ? ret : compileEncoder(clazz);
+	}
+
+	static Encoder getDateEncoder(DateFormat dateFormat) {
+		if (dateFormat.type() == DateFormatType.TIMESTAMP)
+			return TIMESTAMP;
+
+		SafeSimpleDateFormat format = new SafeSimpleDateFormat(dateFormat.value());
+		return (writer, obj) -> writer.writeString(format.format((Date) obj));
+	}
+
+	private static Encoder compileEncoder(Class<?> clazz) {
+		lock.lock();
+		try {
+			Encoder ret = ENCODER_MAP.get(clazz);
+			if (ret == null)
+				ret = COMPILING_ENCODERS.get(clazz);
+			if (ret != null)
+				return ret;
+
+			boolean outermost = COMPILING_ENCODERS.isEmpty();
+			try {
+				if (clazz.isEnum() || (clazz.getSuperclass() != null && clazz.getSuperclass().isEnum()))
+					ret = ENUM;
+				else if (Date.class.isAssignableFrom(clazz))
+					ret = TIMESTAMP;
+				else if (Map.class.isAssignableFrom(clazz))
+					ret = MAP;
+				else if (Collection.class.isAssignableFrom(clazz))
+					ret = COLLECTION;
+				else if (clazz.isArray())
+					ret = ARRAY;
+				else if (clazz.equals(Object.class))
+					ret = EMPTY_OBJECT;
+				else
+					ret = new ObjectEncoder();
+
+				COMPILING_ENCODERS.put(clazz, ret);
+				if (ret instanceof ObjectEncoder)
+					((ObjectEncoder) ret).init(clazz);
+
+				if (outermost) {
+					IdentityHashMap<Class<?>, Encoder> map = new IdentityHashMap<>(ENCODER_MAP);
+					COMPILING_ENCODERS.forEach(map::put);
+					ENCODER_MAP = map;
+				}
+			} finally {
+				if (outermost)
+					COMPILING_ENCODERS.clear();
+			}
+			return ret;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public static Decoder getDecoder(Type type) {
+		return getDecoder(type, null);
+	}
+
+	/**
+	 * @param type       the declared type
+	 * @param dateFormat the date format of the property, or null
+	 * @return the decoder of the type
+	 */
+	public static Decoder getDecoder(Type type, DateFormat dateFormat) {
+		if (type instanceof Class) {
+			Class<?> clazz = (Class<?>) type;
+			if (dateFormat != null && dateFormat.type() == DateFormatType.DATE_PATTERN_STRING && Date.class.isAssignableFrom(clazz))
+				return new DateDecoder(clazz, new SafeSimpleDateFormat(dateFormat.value()));
+
+			Decoder ret = DECODER_MAP.get(clazz);
+			return ret != null ? ret : compileDecoder(clazz);
+		} else if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			Class<?> rawClass = (Class<?>) parameterizedType.getRawType();
+			Type[] args = parameterizedType.getActualTypeArguments();
+			if (Collection.class.isAssignableFrom(rawClass))
+				return new CollectionDecoder(ComplexTypeParser.getImplClass(rawClass), getDecoder(args[0]));
+			else if (Map.class.isAssignableFrom(rawClass))
+				return new MapDecoder(ComplexTypeParser.getImplClass(rawClass), getDecoder(args[1]));
+			else
+				return getDecoder(rawClass, dateFormat);
+		} else if (type instanceof GenericArrayType) {
+			Type componentType = ((GenericArrayType) type).getGenericComponentType();
+			return new ArrayDecoder(getRawClass(componentType), getDecoder(componentType));
+		} else if (type instanceof WildcardType) {
+			return getDecoder(((WildcardType) type).getUpperBounds()[0]);
+		} else {
+			return DYNAMIC;
+		}
+	}
+
+	private static Class<?> getRawClass(Type type) {
+		if (type instanceof Class)
+			return (Class<?>) type;
+		else if (type instanceof ParameterizedType)
+			return (Class<?>) ((ParameterizedType) type).getRawType();
+		else if (type instanceof GenericArrayType)
+			return Array.newInstance(getRawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+		else
+			return Object.class;
+	}
+
+	private static Decoder compileDecoder(Class<?> clazz) {
+		lock.lock();
+		try {
+			Decoder ret = DECODER_MAP.get(clazz);
+			if (ret == null)
+				ret = COMPILING_DECODERS.get(clazz);
+			if (ret != null)
+				return ret;
+
+			boolean outermost = COMPILING_DECODERS.isEmpty();
+			try {
+				if (clazz.isEnum())
+					ret = new EnumDecoder(clazz);
+				else if (Collection.class.isAssignableFrom(clazz))
+					ret = new CollectionDecoder(ComplexTypeParser.getImplClass(clazz), DYNAMIC);
+				else if (Map.class.isAssignableFrom(clazz))
+					ret = new MapDecoder(ComplexTypeParser.getImplClass(clazz), DYNAMIC);
+				else if (clazz.isArray())
+					ret = new ArrayDecoder(clazz.getComponentType(), getDecoder(clazz.getComponentType()));
+				else
+					ret = new ObjectDecoder();
+
+				COMPILING_DECODERS.put(clazz, ret);
+				if (ret instanceof ObjectDecoder)
+					((ObjectDecoder) ret).init(clazz);
+
+				if (outermost) {
+					IdentityHashMap<Class<?>, Decoder> map = new IdentityHashMap<>(DECODER_MAP);
+					COMPILING_DECODERS.forEach(map::put);
+					DECODER_MAP = map;
+				}
+			} finally {
+				if (outermost)
+					COMPILING_DECODERS.clear();
+			}
+			return ret;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	static long readLong(BinaryReader reader) {
+		byte tag = reader.readTag();
+		switch (tag) {
+		case BinaryTag.INT:
+			return reader.readLongValue();
+		case BinaryTag.FLOAT:
+			return (long) reader.readFloatValue();
+		case BinaryTag.DOUBLE:
+			return (long) reader.readDoubleValue();
+		case BinaryTag.STRING:
+			return Long.parseLong(reader.readStringValue());
+		case BinaryTag.FALSE:
+			return 0L;
+		case BinaryTag.TRUE:
+			return 1L;
+		default:
+			throw reader.unexpectedTag(tag);
+		}
+	}
+
+	static double readDouble(BinaryReader reader) {
+		byte tag = reader.readTag();
+		switch (tag) {
+		case BinaryTag.INT:
+			return reader.readLongValue();
+		case BinaryTag.FLOAT:
+			return reader.readFloatValue();
+		case BinaryTag.DOUBLE:
+			return reader.readDoubleValue();
+		case BinaryTag.STRING:
+			return Double.parseDouble(reader.readStringValue());
+		default:
+			throw reader.unexpectedTag(tag);
+		}
+	}
+
+	static boolean readBoolean(BinaryReader reader) {
+		byte tag = reader.readTag();
+		switch (tag) {
+		case BinaryTag.FALSE:
+			return false;
+		case BinaryTag.TRUE:
+			return true;
+		case BinaryTag.INT:
+			return reader.readLongValue() != 0;
+		case BinaryTag.STRING:
+			return Boolean.parseBoolean(reader.readStringValue());
+		default:
+			throw reader.unexpectedTag(tag);
+		}
+	}
+
+	static char readChar(BinaryReader reader) {
+		if (reader.peekTag() == BinaryTag.STRING) {
+			String s = readString(reader);
+			return s.isEmpty() ? 0 : s.charAt(0);
+		}
+		return (char) readLong(reader);
+	}
+
+	static String readString(BinaryReader reader) {
+		byte tag = reader.readTag();
+		switch (tag) {
+		case BinaryTag.STRING:
+			return reader.readStringValue();
+		case BinaryTag.INT:
+			return String.valueOf(reader.readLongValue());
+		case BinaryTag.FLOAT:
+			return String.valueOf(reader.readFloatValue());
+		case BinaryTag.DOUBLE:
+			return String.valueOf(reader.readDoubleValue());
+		case BinaryTag.FALSE:
+			return "false";
+		case BinaryTag.TRUE:
+			return "true";
+		default:
+			throw reader.unexpectedTag(tag);
+		}
+	}
+
+	static Object readDynamic(BinaryReader reader) {
+		byte tag = reader.readTag();
+		switch (tag) {
+		case BinaryTag.NULL:
+			return null;
+		case BinaryTag.FALSE:
+			return Boolean.FALSE;
+		case BinaryTag.TRUE:
+			return Boolean.TRUE;
+		case BinaryTag.INT:
+			return reader.readLongValue();
+		case BinaryTag.FLOAT:
+			return reader.readFloatValue();
+		case BinaryTag.DOUBLE:
+			return reader.readDoubleValue();
+		case BinaryTag.STRING:
+			return reader.readStringValue();
+		case BinaryTag.BYTES:
+			return reader.readBytesValue();
+		case BinaryTag.ARRAY: {
+			int size = reader.readSize();
+			ArrayList<Object> list = new ArrayList<Object>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(readDynamic(reader));
+			}
+			return list;
+		}
+		case BinaryTag.OBJECT: {
+			int size = reader.readSize();
+			HashMap<String, Object> map = new HashMap<String, Object>();
+			for (int i = 0; i < size; i++) {
+				map.put(reader.readStringValue(), readDynamic(reader));
+			}
+			return map;
+		}
+		default:
+			throw reader.unexpectedTag(tag);
+		}
+	}
+
+	private static Object newInstance(Class<?> clazz) {
+		try {
+			return clazz.newInstance();
+		} catch (Throwable e) {
+			throw new CommonRuntimeException(e);
+		}
+	}
+
+	private static int readStart(BinaryReader reader, byte expected) {
+		byte tag = reader.readTag();
+		if (tag != expected)
+			throw reader.unexpectedTag(tag);
+		return reader.readSize();
+	}
+
+	private static class DateDecoder implements Decoder {
+		private final Class<?> clazz;
+		private final SafeSimpleDateFormat format;
+
+		DateDecoder(Class<?> clazz, SafeSimpleDateFormat format) {
+			this.clazz = clazz;
+			this.format = format;
+		}
+
+		@Override
+		public Object decode(BinaryReader reader) {
+			if (reader.isNull())
+				return null;
+
+			long time;
+			if (reader.peekTag() == BinaryTag.STRING) {
+				String s = readString(reader);
+				Date date = format.parse(s);
+				if (date == null)
+					throw new JsonException("the date " + s + " can not be parsed");
+				time = date.getTime();
+			} else {
+				time = readLong(reader);
+			}
+
+			if (clazz == java.sql.Date.class)
+				return new java.sql.Date(time);
+			else if (clazz == java.sql.Time.class)
+				return new java.sql.Time(time);
+			else if (clazz == java.sql.Timestamp.class)
+				return new java.sql.Timestamp(time);
+			else
+				return new Date(time);
+		}
+	}
+
+	private static class EnumDecoder implements Decoder {
+		private final Map<String, Object> constants = new HashMap<>();
+
+		EnumDecoder(Class<?> clazz) {
+			for (Object constant : clazz.getEnumConstants()) {
+				constants.put(((Enum<?>) constant).name(), constant);
+			}
+		}
+
+		@Override
+		public Object decode(BinaryReader reader) {
+			if (reader.isNull())
+				return null;
+
+			String name = readString(reader);
+			Object ret = constants.get(name);
+			if (ret == null)
+				throw new JsonException("the enumeration constant " + name + " does not exist");
+			return ret;
+		}
+	}
+
+	private static class ArrayDecoder implements Decoder {
+		private final Class<?> componentType;
+		private final Decoder decoder;
+
+		ArrayDecoder(Class<?> componentType, Decoder decoder) {
+			this.componentType = componentType;
+			this.decoder = decoder;
+		}
+
+		@Override
+		public Object decode(BinaryReader reader) {
+			if (reader.isNull())
+				return null;
+
+			int size = readStart(reader, BinaryTag.ARRAY);
+			Object array = Array.newInstance(componentType, size);
+			for (int i = 0; i < size; i++) {
+				Array.set(array, i, decoder.decode(reader));
+			}
+			return array;
+		}
+	}
+
+	private static class CollectionDecoder implements Decoder {
+		private final Class<?> clazz;
+		private final Decoder decoder;
+
+		CollectionDecoder(Class<?> clazz, Decoder decoder) {
+			this.clazz = clazz;
+			this.decoder = decoder;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Object decode(BinaryReader reader) {
+			if (reader.isNull())
+				return null;
+
+			int size = readStart(reader, BinaryTag.ARRAY);
+			Collection<Object> collection = clazz == ArrayList.class
+					? new ArrayList<Object>(size)
+					: (Collection<Object>) newInstance(clazz);
+			for (int i = 0; i < size; i++) {
+				collection.add(decoder.decode(reader));
+			}
+			return collection;
+		}
+	}
+
+	private static class MapDecoder implements Decoder {
+		private final Class<?> clazz;
+		private final Decoder decoder;
+
+		MapDecoder(Class<?> clazz, Decoder decoder) {
+			this.clazz = clazz;
+			this.decoder = decoder;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Object decode(BinaryReader reader) {
+			if (reader.isNull())
+				return null;
+
+			int size = readStart(reader, BinaryTag.OBJECT);
+			Map<String, Object> map = (Map<String, Object>) newInstance(clazz);
+			for (int i = 0; i < size; i++) {
+				map.put(reader.readStringValue(), decoder.decode(reader));
+			}
+			return map;
+		}
+	}
+}
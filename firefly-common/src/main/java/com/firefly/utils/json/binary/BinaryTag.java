@@ -0,0 +1,29 @@
+package com.firefly.utils.json.binary;
+
+/**
+ * The tags of the binary format. Each value starts with a tag byte:
+ * <ul>
+ * <li>NULL, FALSE and TRUE have no content.</li>
+ * <li>INT is followed by a zigzag encoded variable length long.</li>
+ * <li>FLOAT and DOUBLE are followed by 4 or 8 bytes in big endian order.</li>
+ * <li>STRING is followed by the length of the UTF-8 bytes and the bytes, BYTES
+ * is followed by the length and the bytes.</li>
+ * <li>ARRAY is followed by the number of the elements and the elements.</li>
+ * <li>OBJECT is followed by the number of the properties, each property is
+ * the length of its UTF-8 name, the name and the value.</li>
+ * </ul>
+ * The lengths and the numbers are unsigned variable length integers, seven
+ * bits a byte and the low bits first.
+ */
+public interface BinaryTag {
+	byte NULL = 0;
+	byte FALSE = 1;
+	byte TRUE = 2;
+	byte INT = 3;
+	byte FLOAT = 4;
+	byte DOUBLE = 5;
+	byte STRING = 6;
+	byte BYTES = 7;
+	byte ARRAY = 8;
+	byte OBJECT = 9;
+}
@@ -0,0 +1,330 @@
+package com.firefly.utils.json.binary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Writes the values of the binary format, see {@link BinaryTag}.
+ * <p>
+ * The bytes are written into a buffer. When the writer has an output stream,
+ * the buffer is written to the stream and reused each time it is full. When
+ * the writer has a byte buffer consumer, each full buffer is passed to the
+ * consumer and a new buffer is allocated, so the consumer can keep the byte
+ * buffers. Otherwise the buffer grows and the bytes are got by
+ * {@link #toBytes()} or {@link #toByteBuffer()}.
+ * <p>
+ * Closing the writer writes the remaining bytes, but it does not close the
+ * output stream.
+ */
+public class BinaryWriter implements Closeable {
+
+	public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+	// the UTF-8 length of a string that has at most 42 characters is less than 128
+	private static final int MAX_SHORT_STRING = 42;
+	private static final ThreadLocal<SoftReference<byte[]>> bufLocal = new ThreadLocal<SoftReference<byte[]>>();
+
+	private final OutputStream out;
+	private final Consumer<ByteBuffer> output;
+	private final boolean pooled;
+	private byte[] buf;
+	private int count;
+
+	public BinaryWriter() {
+		this((OutputStream) null);
+	}
+
+	public BinaryWriter(OutputStream out) {
+		this.out = out;
+		this.output = null;
+		this.pooled = true;
+		SoftReference<byte[]> ref = bufLocal.get();
+
+		if (ref != null) {
+			buf = ref.get();
+			bufLocal.set(null);
+		}
+
+		if (buf == null)
+			buf = new byte[DEFAULT_BUFFER_SIZE];
+	}
+
+	/**
+	 * @param output     receives the byte buffers when they are full and when the writer is closed
+	 * @param bufferSize the size of the byte buffers
+	 */
+	public BinaryWriter(Consumer<ByteBuffer> output, int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+		}
+		this.out = null;
+		this.output = output;
+		this.pooled = false;
+		buf = new byte[bufferSize];
+	}
+
+	/**
+	 * Gets the bytes that have not been written to the output yet.
+	 *
+	 * @return a copy of the buffered bytes
+	 */
+	public byte[] toBytes() {
+		return Arrays.copyOf(buf, count);
+	}
+
+	public ByteBuffer toByteBuffer() {
+		return ByteBuffer.wrap(toBytes());
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public void reset() {
+		count = 0;
+	}
+
+	public void flush() throws IOException {
+		if (out != null || output != null) {
+			flushBuffer();
+			if (out != null)
+				out.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (out != null || output != null)
+				flushBuffer();
+		} finally {
+			reset();
+			if (pooled)
+				bufLocal.set(new SoftReference<byte[]>(buf));
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			if (out != null) {
+				out.write(buf, 0, count);
+			} else {
+				output.accept(ByteBuffer.wrap(buf, 0, count));
+				buf = new byte[buf.length];
+			}
+			count = 0;
+		}
+	}
+
+	private void require(int length) throws IOException {
+		if (count + length > buf.length) {
+			if (out != null || output != null) {
+				flushBuffer();
+				if (length <= buf.length)
+					return;
+			}
+			int newCapacity = (buf.length * 3) / 2 + 1;
+			buf = Arrays.copyOf(buf, Math.max(newCapacity, count + length));
+		}
+	}
+
+	public void writeTag(byte tag) throws IOException {
+		require(1);
+		buf[count++] = tag;
+	}
+
+	public void writeNull() throws IOException {
+		writeTag(BinaryTag.NULL);
+	}
+
+	public void writeBoolean(boolean b) throws IOException {
+		writeTag(b ? BinaryTag.TRUE : BinaryTag.FALSE);
+	}
+
+	public void writeLong(long value) throws IOException {
+		require(11);
+		buf[count++] = BinaryTag.INT;
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	public void writeFloat(float value) throws IOException {
+		require(5);
+		buf[count++] = BinaryTag.FLOAT;
+		int bits = Float.floatToIntBits(value);
+		buf[count++] = (byte) (bits >>> 24);
+		buf[count++] = (byte) (bits >>> 16);
+		buf[count++] = (byte) (bits >>> 8);
+		buf[count++] = (byte) bits;
+	}
+
+	public void writeDouble(double value) throws IOException {
+		require(9);
+		buf[count++] = BinaryTag.DOUBLE;
+		long bits = Double.doubleToLongBits(value);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			buf[count++] = (byte) (bits >>> shift);
+		}
+	}
+
+	public void writeString(String value) throws IOException {
+		writeTag(BinaryTag.STRING);
+		writeUtf8(value);
+	}
+
+	public void writeBytes(byte[] value) throws IOException {
+		require(6);
+		buf[count++] = BinaryTag.BYTES;
+		writeVarLong(value.length);
+		writeRaw(value);
+	}
+
+	/**
+	 * Writes the start of an array, the elements are written after it.
+	 *
+	 * @param size the number of the elements
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeArrayStart(int size) throws IOException {
+		require(6);
+		buf[count++] = BinaryTag.ARRAY;
+		writeVarLong(size);
+	}
+
+	/**
+	 * Writes the start of an object, each property is written by
+	 * {@link #writePropertyName(byte[])} and a value.
+	 *
+	 * @param size the number of the properties
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeObjectStart(int size) throws IOException {
+		require(6);
+		buf[count++] = BinaryTag.OBJECT;
+		writeVarLong(size);
+	}
+
+	/**
+	 * @param name the length and the UTF-8 bytes of the name, see {@link #encodeName(String)}
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writePropertyName(byte[] name) throws IOException {
+		writeRaw(name);
+	}
+
+	public void writePropertyName(String name) throws IOException {
+		writeUtf8(name);
+	}
+
+	/**
+	 * Encodes a property name once, so that it is copied when it is written.
+	 *
+	 * @param name the property name
+	 * @return the length and the UTF-8 bytes of the name
+	 */
+	public static byte[] encodeName(String name) {
+		try (BinaryWriter writer = new BinaryWriter()) {
+			writer.writeUtf8(name);
+			return writer.toBytes();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void writeRaw(byte[] b) throws IOException {
+		int length = b.length;
+		if (count + length > buf.length && (out != null || output != null) && length > buf.length) {
+			// write the large arrays through
+			flushBuffer();
+			if (out != null)
+				out.write(b);
+			else
+				output.accept(ByteBuffer.wrap(b.clone()));
+			return;
+		}
+		require(length);
+		System.arraycopy(b, 0, buf, count, length);
+		count += length;
+	}
+
+	private void writeVarLong(long value) {
+		while ((value & ~0x7FL) != 0) {
+			buf[count++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[count++] = (byte) value;
+	}
+
+	private void writeUtf8(String s) throws IOException {
+		int len = s.length();
+		if (len <= MAX_SHORT_STRING && 1 + len * 3 <= buf.length) {
+			// the length has one byte, it is written after the characters have been encoded
+			require(1 + len * 3);
+			int start = count++;
+			encode(s, 0, len);
+			buf[start] = (byte) (count - start - 1);
+			return;
+		}
+
+		int utf8Length = len;
+		for (int i = 0; i < len; i++) {
+			char c = s.charAt(i);
+			if (c >= 0x80) {
+				if (c < 0x800) {
+					utf8Length++;
+				} else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+					utf8Length += 2;
+					i++;
+				} else if (!Character.isSurrogate(c)) {
+					utf8Length += 2;
+				}
+			}
+		}
+
+		require(5);
+		writeVarLong(utf8Length);
+		if (utf8Length > buf.length - count && (out != null || output != null)) {
+			// the string does not fit in the buffer, it is written in parts
+			for (int i = 0; i < len; ) {
+				int end = Math.min(len, i + Math.max(1, (buf.length - 4) / 3));
+				if (end < len && end - 1 > i && Character.isHighSurrogate(s.charAt(end - 1)))
+					end--;
+				require(Math.max(4, (end - i) * 3));
+				encode(s, i, end);
+				i = end;
+			}
+		} else {
+			require(utf8Length);
+			encode(s, 0, len);
+		}
+	}
+
+	private void encode(String s, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				buf[count++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[count++] = (byte) (0xC0 | (c >> 6));
+				buf[count++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				buf[count++] = (byte) (0xF0 | (cp >> 18));
+				buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+				buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+				buf[count++] = (byte) (0x80 | (cp & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				// an unpaired surrogate is replaced like String.getBytes does
+				buf[count++] = '?';
+			} else {
+				buf[count++] = (byte) (0xE0 | (c >> 12));
+				buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buf[count++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+	}
+}
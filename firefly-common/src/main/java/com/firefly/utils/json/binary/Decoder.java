@@ -0,0 +1,5 @@
+package com.firefly.utils.json.binary;
+
+public interface Decoder {
+	Object decode(BinaryReader reader);
+}
@@ -0,0 +1,7 @@
+package com.firefly.utils.json.binary;
+
+import java.io.IOException;
+
+public interface Encoder {
+	void encode(BinaryWriter writer, Object obj) throws IOException;
+}
@@ -0,0 +1,89 @@
+package com.firefly.utils.json.binary;
+
+import java.lang.reflect.Type;
+
+import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.compiler.DecodeCompiler;
+import com.firefly.utils.json.support.FieldInvoke;
+import com.firefly.utils.json.support.FieldTable;
+import com.firefly.utils.json.support.MethodInvoke;
+import com.firefly.utils.json.support.ParserMetaInfo;
+import com.firefly.utils.json.support.PropertyInvoke;
+
+/**
+ * Sets the properties that are found by {@link DecodeCompiler}. The
+ * properties are expected in the order of the encoder, the unknown properties
+ * are skipped.
+ */
+public class ObjectDecoder implements Decoder {
+
+	private Class<?> clazz;
+	private byte[][] names;
+	private FieldTable fieldTable;
+	private PropertyInvoke[] invokes;
+	private Decoder[] decoders;
+
+	public void init(Class<?> clazz) {
+		this.clazz = clazz;
+		ParserMetaInfo[] metaInfos = DecodeCompiler.compile(clazz);
+		names = new byte[metaInfos.length][];
+		char[][] chars = new char[metaInfos.length][];
+		invokes = new PropertyInvoke[metaInfos.length];
+		decoders = new Decoder[metaInfos.length];
+		for (int i = 0; i < metaInfos.length; i++) {
+			ParserMetaInfo metaInfo = metaInfos[i];
+			names[i] = BinaryWriter.encodeName(metaInfo.getPropertyNameString());
+			chars[i] = metaInfo.getPropertyName();
+			invokes[i] = metaInfo.getPropertyInvoke();
+			decoders[i] = BinaryStateMachine.getDecoder(getGenericType(metaInfo), metaInfo.getDateFormat());
+		}
+		fieldTable = new FieldTable(chars);
+	}
+
+	private static Type getGenericType(ParserMetaInfo metaInfo) {
+		PropertyInvoke invoke = metaInfo.getPropertyInvoke();
+		if (invoke instanceof MethodInvoke)
+			return ((MethodInvoke) invoke).getMethod().getGenericParameterTypes()[0];
+		else if (invoke instanceof FieldInvoke)
+			return ((FieldInvoke) invoke).getField().getGenericType();
+		else
+			return metaInfo.getType();
+	}
+
+	@Override
+	public Object decode(BinaryReader reader) {
+		if (reader.isNull())
+			return null;
+
+		byte tag = reader.readTag();
+		if (tag != BinaryTag.OBJECT)
+			throw reader.unexpectedTag(tag);
+
+		Object obj;
+		try {
+			obj = clazz.newInstance();
+		} catch (Throwable e) {
+			throw new CommonRuntimeException(e);
+		}
+
+		int size = reader.readSize();
+		int next = 0;
+		for (int k = 0; k < size; k++) {
+			int i = reader.readPropertyIndex(names, fieldTable, next);
+			if (i < 0) {
+				reader.skipValue();
+				continue;
+			}
+
+			Object value = decoders[i].decode(reader);
+			try {
+				invokes[i].set(obj, value);
+			} catch (Throwable e) {
+				throw new CommonRuntimeException(e);
+			}
+			next = i + 1;
+		}
+		return obj;
+	}
+
+}
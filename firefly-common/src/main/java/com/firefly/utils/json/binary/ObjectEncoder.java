@@ -0,0 +1,63 @@
+package com.firefly.utils.json.binary;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.Date;
+
+import com.firefly.utils.json.compiler.EncodeCompiler;
+import com.firefly.utils.json.support.FieldInvoke;
+import com.firefly.utils.json.support.MethodInvoke;
+import com.firefly.utils.json.support.PropertyInvoke;
+import com.firefly.utils.json.support.SerializerMetaInfo;
+
+/**
+ * Writes the properties that are found by {@link EncodeCompiler}, so the
+ * binary format has the same properties as the JSON.
+ */
+public class ObjectEncoder implements Encoder {
+
+	private byte[][] names;
+	private PropertyInvoke[] invokes;
+	// the encoders of the properties whose type is known, the others are found by the class of the value
+	private Encoder[] encoders;
+
+	public void init(Class<?> clazz) {
+		SerializerMetaInfo[] metaInfos = EncodeCompiler.compile(clazz);
+		names = new byte[metaInfos.length][];
+		invokes = new PropertyInvoke[metaInfos.length];
+		encoders = new Encoder[metaInfos.length];
+		for (int i = 0; i < metaInfos.length; i++) {
+			names[i] = BinaryWriter.encodeName(metaInfos[i].getPropertyNameString());
+			invokes[i] = metaInfos[i].getPropertyInvoke();
+
+			Class<?> type = getType(invokes[i]);
+			if (metaInfos[i].getDateFormat() != null && type != null && Date.class.isAssignableFrom(type))
+				encoders[i] = BinaryStateMachine.getDateEncoder(metaInfos[i].getDateFormat());
+			else if (type != null && !type.isArray() && (type.isPrimitive() || Modifier.isFinal(type.getModifiers())))
+				encoders[i] = BinaryStateMachine.getEncoder(type);
+		}
+	}
+
+	private static Class<?> getType(PropertyInvoke invoke) {
+		if (invoke instanceof MethodInvoke)
+			return ((MethodInvoke) invoke).getMethod().getReturnType();
+		else if (invoke instanceof FieldInvoke)
+			return ((FieldInvoke) invoke).getField().getType();
+		else
+			return null;
+	}
+
+	@Override
+	public void encode(BinaryWriter writer, Object obj) throws IOException {
+		writer.writeObjectStart(names.length);
+		for (int i = 0; i < names.length; i++) {
+			writer.writePropertyName(names[i]);
+			Object value = invokes[i].get(obj);
+			if (value != null && encoders[i] != null)
+				encoders[i].encode(writer, value);
+			else
+				BinaryStateMachine.encode(value, writer);
+		}
+	}
+
+}
@@ -0,0 +1,261 @@
+package com.firefly.utils.json.compiler;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.UUID;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+
+import com.firefly.utils.classproxy.AbstractProxyFactory;
+import com.firefly.utils.collection.IdentityHashMap;
+import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.support.FieldInvoke;
+import com.firefly.utils.json.support.MetaInfo;
+import com.firefly.utils.json.support.MethodInvoke;
+import com.firefly.utils.json.support.ParserMetaInfo;
+import com.firefly.utils.json.support.PropertiesParser;
+import com.firefly.utils.json.support.PropertiesSerializer;
+import com.firefly.utils.json.support.PropertyInvoke;
+import com.firefly.utils.json.support.SerializerMetaInfo;
+
+/**
+ * Generates a serializer and a parser class for each object type using
+ * Javassist. The generated code calls the getters and the setters directly,
+ * the primitive and string properties are written and read without boxing
+ * and the properties are set through a switch on their index.
+ * <p>
+ * It is disabled by default. It is enabled by the system property
+ * "com.firefly.utils.json.compiler.BytecodeCompiler.enabled" or by setting
+ * {@link #enabled} before the types are used. The types that have been
+ * compiled are not changed. The public types whose properties are public are
+ * generated, the others use the meta information.
+ */
+public class BytecodeCompiler {
+
+	public static volatile boolean enabled = Boolean.getBoolean(BytecodeCompiler.class.getName() + ".enabled");
+
+	private static final IdentityHashMap<Class<?>, String> primitiveWrapMap = new IdentityHashMap<Class<?>, String>();
+
+	static {
+		primitiveWrapMap.put(short.class, Short.class.getCanonicalName());
+		primitiveWrapMap.put(byte.class, Byte.class.getCanonicalName());
+		primitiveWrapMap.put(int.class, Integer.class.getCanonicalName());
+		primitiveWrapMap.put(char.class, Character.class.getCanonicalName());
+		primitiveWrapMap.put(float.class, Float.class.getCanonicalName());
+		primitiveWrapMap.put(double.class, Double.class.getCanonicalName());
+		primitiveWrapMap.put(long.class, Long.class.getCanonicalName());
+		primitiveWrapMap.put(boolean.class, Boolean.class.getCanonicalName());
+	}
+
+	/**
+	 * Generates the serializer of the properties.
+	 *
+	 * @param clazz     the object type
+	 * @param metaInfos the serializer meta information of the type
+	 * @return the generated serializer, or null if the type is not accessible
+	 */
+	public static PropertiesSerializer createSerializer(Class<?> clazz, SerializerMetaInfo[] metaInfos) {
+		if (!isAccessible(clazz, metaInfos))
+			return null;
+
+		try {
+			CtClass cc = makeClass(clazz, "com.firefly.utils.json.ProxySerializer", PropertiesSerializer.class);
+			cc.addField(CtField.make("private " + SerializerMetaInfo.class.getName() + "[] m;", cc));
+			CtConstructor constructor = new CtConstructor(new CtClass[]{ClassPool.getDefault().get(SerializerMetaInfo[].class.getName())}, cc);
+			constructor.setBody("{this.m = $1;}");
+			cc.addConstructor(constructor);
+			cc.addMethod(CtMethod.make(createWritePropertiesCode(clazz, metaInfos), cc));
+
+			return (PropertiesSerializer) cc.toClass(AbstractProxyFactory.classLoader, null)
+					.getConstructor(SerializerMetaInfo[].class).newInstance((Object) metaInfos);
+		} catch (Throwable e) {
+			throw new CommonRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Generates the parser of the properties.
+	 *
+	 * @param clazz     the object type
+	 * @param metaInfos the parser meta information of the type
+	 * @return the generated parser, or null if the type is not accessible or
+	 * it has not a public constructor without parameters
+	 */
+	public static PropertiesParser createParser(Class<?> clazz, ParserMetaInfo[] metaInfos) {
+		if (!isAccessible(clazz, metaInfos) || Modifier.isAbstract(clazz.getModifiers()))
+			return null;
+		try {
+			clazz.getConstructor();
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+
+		try {
+			CtClass cc = makeClass(clazz, "com.firefly.utils.json.ProxyParser", PropertiesParser.class);
+			cc.addField(CtField.make("private " + ParserMetaInfo.class.getName() + "[] m;", cc));
+			CtConstructor constructor = new CtConstructor(new CtClass[]{ClassPool.getDefault().get(ParserMetaInfo[].class.getName())}, cc);
+			constructor.setBody("{this.m = $1;}");
+			cc.addConstructor(constructor);
+			cc.addMethod(CtMethod.make("public Object newInstance(){return new " + clazz.getCanonicalName() + "();}", cc));
+			cc.addMethod(CtMethod.make(createParsePropertyCode(clazz, metaInfos), cc));
+
+			return (PropertiesParser) cc.toClass(AbstractProxyFactory.classLoader, null)
+					.getConstructor(ParserMetaInfo[].class).newInstance((Object) metaInfos);
+		} catch (Throwable e) {
+			throw new CommonRuntimeException(e);
+		}
+	}
+
+	private static CtClass makeClass(Class<?> clazz, String name, Class<?> interfaceClass) throws Throwable {
+		ClassPool classPool = ClassPool.getDefault();
+		classPool.insertClassPath(new ClassClassPath(interfaceClass));
+		classPool.insertClassPath(new ClassClassPath(clazz));
+
+		CtClass cc = classPool.makeClass(name + UUID.randomUUID().toString().replace("-", ""));
+		cc.addInterface(classPool.get(interfaceClass.getName()));
+		return cc;
+	}
+
+	private static String createWritePropertiesCode(Class<?> clazz, SerializerMetaInfo[] metaInfos) {
+		StringBuilder code = new StringBuilder();
+		code.append("public void writeProperties(com.firefly.utils.json.JsonWriter writer, Object obj) throws java.io.IOException {\n")
+			.append('\t').append(clazz.getCanonicalName()).append(" o = (").append(clazz.getCanonicalName()).append(")obj;\n");
+
+		for (int i = 0; i < metaInfos.length; i++) {
+			Member member = getMember(metaInfos[i].getPropertyInvoke());
+			Class<?> type = getType(member);
+			String value = getValueCode(member);
+
+			code.append("\twriter.writePropertyName(m[").append(i).append("]);\n\t");
+			if (type == int.class) {
+				code.append("writer.writeInt(").append(value).append(");\n");
+			} else if (type == long.class) {
+				code.append("writer.writeLong(").append(value).append(");\n");
+			} else if (type == short.class) {
+				code.append("writer.writeShort(").append(value).append(");\n");
+			} else if (type == byte.class) {
+				code.append("writer.writeByte(").append(value).append(");\n");
+			} else if (type == boolean.class) {
+				code.append("writer.writeBoolean(").append(value).append(");\n");
+			} else if (type == double.class) {
+				code.append("writer.writeDouble(").append(value).append(");\n");
+			} else if (type == float.class) {
+				code.append("writer.writeFloat(").append(value).append(");\n");
+			} else if (type == char.class) {
+				code.append("writer.append('\"'); writer.append(").append(value).append("); writer.append('\"');\n");
+			} else if (type == String.class) {
+				code.append("{ String v").append(i).append(" = ").append(value).append("; ")
+					.append("if (v").append(i).append(" == null) writer.writeNull(); ")
+					.append("else writer.writeStringWithQuote(v").append(i).append("); }\n");
+			} else {
+				code.append("{ Object v").append(i).append(" = ").append(value).append("; ")
+					.append("if (v").append(i).append(" == null) writer.writeNull(); ")
+					.append("else m[").append(i).append("].getSerializer().convertTo(writer, v").append(i).append("); }\n");
+			}
+		}
+		code.append('}');
+		return code.toString();
+	}
+
+	private static String createParsePropertyCode(Class<?> clazz, ParserMetaInfo[] metaInfos) {
+		StringBuilder code = new StringBuilder();
+		code.append("public void parseProperty(Object obj, int index, com.firefly.utils.json.JsonReader reader) throws java.io.IOException {\n")
+			.append('\t').append(clazz.getCanonicalName()).append(" o = (").append(clazz.getCanonicalName()).append(")obj;\n")
+			.append("\tswitch (index) {\n");
+
+		for (int i = 0; i < metaInfos.length; i++) {
+			Member member = getMember(metaInfos[i].getPropertyInvoke());
+			Class<?> type = getType(member);
+
+			String value;
+			if (type == int.class) {
+				value = "reader.readInt()";
+			} else if (type == long.class) {
+				value = "reader.readLong()";
+			} else if (type == short.class) {
+				value = "(short)reader.readInt()";
+			} else if (type == float.class) {
+				value = "reader.readFloat()";
+			} else if (type == double.class) {
+				value = "reader.readDouble()";
+			} else if (type == boolean.class) {
+				value = "reader.readBoolean()";
+			} else if (type == String.class) {
+				value = "reader.readString()";
+			} else if (type.isPrimitive()) {
+				value = "((" + primitiveWrapMap.get(type) + ")m[" + i + "].getValue(reader))." + type.getName() + "Value()";
+			} else {
+				value = "(" + type.getCanonicalName() + ")m[" + i + "].getValue(reader)";
+			}
+
+			code.append("\tcase ").append(i).append(":\n\t\t");
+			if (member instanceof Method)
+				code.append("o.").append(member.getName()).append('(').append(value).append(");\n");
+			else
+				code.append("o.").append(member.getName()).append(" = ").append(value).append(";\n");
+			code.append("\t\tbreak;\n");
+		}
+		code.append("\t}\n}");
+		return code.toString();
+	}
+
+	private static String getValueCode(Member member) {
+		if (member instanceof Method)
+			return "o." + member.getName() + "()";
+		else
+			return "o." + member.getName();
+	}
+
+	private static Member getMember(PropertyInvoke propertyInvoke) {
+		if (propertyInvoke instanceof MethodInvoke)
+			return ((MethodInvoke) propertyInvoke).getMethod();
+		else if (propertyInvoke instanceof FieldInvoke)
+			return ((FieldInvoke) propertyInvoke).getField();
+		else
+			return null;
+	}
+
+	private static Class<?> getType(Member member) {
+		if (member instanceof Method) {
+			Method method = (Method) member;
+			return method.getParameterTypes().length == 0 ? method.getReturnType() : method.getParameterTypes()[0];
+		} else {
+			return ((Field) member).getType();
+		}
+	}
+
+	private static boolean isAccessible(Class<?> clazz, MetaInfo[] metaInfos) {
+		if (!isAccessible(clazz))
+			return false;
+
+		for (MetaInfo metaInfo : metaInfos) {
+			Member member = getMember(metaInfo.getPropertyInvoke());
+			if (member == null
+					|| !Modifier.isPublic(member.getModifiers())
+					|| !isAccessible(member.getDeclaringClass())
+					|| !isAccessible(getType(member)))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean isAccessible(Class<?> clazz) {
+		while (clazz.isArray())
+			clazz = clazz.getComponentType();
+		if (clazz.isPrimitive())
+			return true;
+
+		for (Class<?> c = clazz; c != null; c = c.getDeclaringClass()) {
+			if (!Modifier.isPublic(c.getModifiers()))
+				return false;
+		}
+		return clazz.getCanonicalName() != null;
+	}
+}
@@ -98,6 +98,7 @@ public class DecodeCompiler {
     			}
             	
             	parserMetaInfo.setType(type);
+            	parserMetaInfo.setDateFormat(d);
             	parserMetaInfo.setParser(ParserStateMachine.getParser(type, d)); 
             }
             fieldSet.add(parserMetaInfo);
@@ -146,7 +147,8 @@ public class DecodeCompiler {
             	parserMetaInfo.setParser(new MapParser(elementType));
             } else { // get array, object or enumeration parser
             	parserMetaInfo.setType(type);
-            	parserMetaInfo.setParser(ParserStateMachine.getParser(type, field.getAnnotation(DateFormat.class)));
+            	parserMetaInfo.setDateFormat(field.getAnnotation(DateFormat.class));
+            	parserMetaInfo.setParser(ParserStateMachine.getParser(type, parserMetaInfo.getDateFormat()));
             }
             fieldSet.add(parserMetaInfo);
 		}
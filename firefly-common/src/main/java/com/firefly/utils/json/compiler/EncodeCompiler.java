@@ -80,6 +80,7 @@ public class EncodeCompiler {
 				d = method.getAnnotation(DateFormat.class);
 			}
 			
+			fieldMetaInfo.setDateFormat(d);
 			fieldMetaInfo.setSerializer(SerialStateMachine.getSerializer(fieldClazz, d));
 			fieldSet.add(fieldMetaInfo);
 		}
@@ -92,7 +93,8 @@ public class EncodeCompiler {
 			SerializerMetaInfo fieldMetaInfo = new SerializerMetaInfo();
 			fieldMetaInfo.setPropertyName(field.getName(), false);
 			fieldMetaInfo.setPropertyInvoke(new FieldInvoke(field));
-			fieldMetaInfo.setSerializer(SerialStateMachine.getSerializer(field.getType(), field.getAnnotation(DateFormat.class)));
+			fieldMetaInfo.setDateFormat(field.getAnnotation(DateFormat.class));
+			fieldMetaInfo.setSerializer(SerialStateMachine.getSerializer(field.getType(), fieldMetaInfo.getDateFormat()));
 			fieldSet.add(fieldMetaInfo);
 		}
 		
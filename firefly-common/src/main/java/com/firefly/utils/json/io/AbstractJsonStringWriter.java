@@ -148,6 +148,24 @@ abstract public class AbstractJsonStringWriter extends JsonWriter {
 		count = newcount;
 	}
 
+	@Override
+	public void writeDouble(double d) {
+		int newcount = count + NumberUtils.MAX_CHARS;
+		if (newcount > buf.length) {
+			expandCapacity(newcount);
+		}
+		count = NumberUtils.getChars(d, buf, count);
+	}
+
+	@Override
+	public void writeFloat(float f) {
+		int newcount = count + NumberUtils.MAX_CHARS;
+		if (newcount > buf.length) {
+			expandCapacity(newcount);
+		}
+		count = NumberUtils.getChars(f, buf, count);
+	}
+
 	@Override
 	public void writeShort(short i) {
 		writeInt((int) i);
@@ -7,6 +7,7 @@ import java.math.BigInteger;
 import com.firefly.utils.VerifyUtils;
 import com.firefly.utils.json.JsonReader;
 import com.firefly.utils.json.exception.JsonException;
+import com.firefly.utils.json.support.FieldTable;
 
 public class JsonStringReader extends JsonReader {
 	private char[] chars;
@@ -18,6 +19,19 @@ public class JsonStringReader extends JsonReader {
 		chars = str.toCharArray();
 		limit = chars.length;
 	}
+
+	/**
+	 * Reads a part of the characters, they are not copied.
+	 *
+	 * @param chars  the characters of the JSON text
+	 * @param offset the position of the first character
+	 * @param limit  the position after the last character
+	 */
+	public JsonStringReader(char[] chars, int offset, int limit) {
+		this.chars = chars;
+		this.pos = offset;
+		this.limit = limit;
+	}
 	
 	@Override
 	public void increasePosition() {
@@ -366,8 +380,7 @@ public class JsonStringReader extends JsonReader {
 		}
 		
 		int len = isString ? pos - start - 1 : pos - start;
-		String temp = new String(chars, start, len);
-		return new BigDecimal(temp);
+		return new BigDecimal(chars, start, len);
 	}
 	
 	@Override
@@ -398,8 +411,7 @@ public class JsonStringReader extends JsonReader {
 		}
 		
 		int len = isString ? pos - start - 1 : pos - start;
-		String temp = new String(chars, start, len);
-		return Double.parseDouble(temp);
+		return NumberUtils.parseDouble(chars, start, len);
 	}
 	
 	@Override
@@ -430,8 +442,7 @@ public class JsonStringReader extends JsonReader {
 		}
 		
 		int len = isString ? pos - start - 1 : pos - start;
-		String temp = new String(chars, start, len);
-		return Float.parseFloat(temp);
+		return NumberUtils.parseFloat(chars, start, len);
 	}
 
 	@Override
@@ -489,6 +500,42 @@ public class JsonStringReader extends JsonReader {
 		System.arraycopy(chars, start, c, 0, fieldLen);
 		return c;
 	}
+
+	@Override
+	public int readFieldIndex(FieldTable table, int expected) {
+		if(!isString())
+			throw new JsonException("read field error, the position is " + pos);
+		
+		if(expected >= 0) {
+			char[] chs = table.getName(expected);
+			int len = chs.length;
+			int next = pos + len;
+			if(next < limit && chars[next] == '"') {
+				boolean skip = true;
+				for (int i = 0; i < len; i++) {
+					if (chs[i] != chars[pos + i]) {
+						skip = false;
+						break;
+					}
+				}
+				if(skip) {
+					pos = next + 1;
+					return expected;
+				}
+			}
+		}
+		
+		int start = pos;
+		int m = table.getMultiplier();
+		int h = 0;
+		for(;;) {
+			char c = chars[pos++];
+			if(c == '"')
+				break;
+			h = h * m + c;
+		}
+		return table.find(h, chars, start, pos - 1 - start);
+	}
 	
 	@Override
 	public void skipValue() {
@@ -389,6 +389,64 @@ public class JsonStringWriter extends AbstractJsonStringWriter {
 		}
 	}
 
+	@Override
+	public void writeDoubleArray(double[] array) {
+		int arrayLen = array.length;
+		if (arrayLen == 0) {
+			buf[count++] = ARRAY_PRE;
+			buf[count++] = ARRAY_SUF;
+			return;
+		}
+		int iMax = arrayLen - 1;
+		int newcount = count + (NumberUtils.MAX_CHARS + 1) * arrayLen + 2 - 1;
+		if (newcount > buf.length) {
+			expandCapacity(newcount);
+		}
+
+		buf[count++] = ARRAY_PRE;
+		for (int i = 0;; i++) {
+			count = NumberUtils.getChars(array[i], buf, count);
+
+			if (i == iMax) {
+				buf[count++] = ARRAY_SUF;
+				return;
+			}
+			buf[count++] = SEPARATOR;
+		}
+	}
+
+	@Override
+	public void writeDoubleArray(Double[] array) {
+		int arrayLen = array.length;
+		if (arrayLen == 0) {
+			buf[count++] = ARRAY_PRE;
+			buf[count++] = ARRAY_SUF;
+			return;
+		}
+		int iMax = arrayLen - 1;
+		int newcount = count + (NumberUtils.MAX_CHARS + 1) * arrayLen + 2 - 1;
+		if (newcount > buf.length) {
+			expandCapacity(newcount);
+		}
+
+		buf[count++] = ARRAY_PRE;
+		for (int i = 0;; i++) {
+			Double val = array[i];
+			if (val == null) {
+				System.arraycopy(NULL, 0, buf, count, NULL.length);
+				count += NULL.length;
+			} else {
+				count = NumberUtils.getChars(val, buf, count);
+			}
+
+			if (i == iMax) {
+				buf[count++] = ARRAY_SUF;
+				return;
+			}
+			buf[count++] = SEPARATOR;
+		}
+	}
+
 	@Override
 	public void writeBooleanArray(boolean[] array) {
 		int arrayLen = array.length;
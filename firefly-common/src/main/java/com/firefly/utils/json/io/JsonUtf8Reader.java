@@ -0,0 +1,791 @@
+package com.firefly.utils.json.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import com.firefly.utils.VerifyUtils;
+import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.JsonReader;
+import com.firefly.utils.json.exception.JsonException;
+import com.firefly.utils.json.support.FieldTable;
+
+/**
+ * A JSON reader that decodes the UTF-8 bytes of a sequence of buffers or of an
+ * input stream directly.
+ * <p>
+ * The characters are decoded into a window that only keeps the current token,
+ * so a large document is parsed without being copied into a string. A
+ * character that is split across two buffers is decoded when the next buffer
+ * is taken. The next buffer is only taken when the window has been consumed,
+ * so an iterator that blocks until the next chunk arrives lets the document be
+ * parsed while it is received.
+ * <p>
+ * The positions of the buffers are not changed. The input stream is not closed
+ * when the reader is closed.
+ */
+public class JsonUtf8Reader extends JsonReader {
+
+	public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+	private final Iterator<ByteBuffer> buffers;
+	private final InputStream in;
+	private byte[] bytes;
+	private ByteBuffer current;
+
+	private char[] chars;
+	private int pos = 0;
+	private int limit = 0;
+	// the number of characters discarded from the window
+	private int offset = 0;
+	private int mark = -1;
+	private int markLimit;
+	// the start of the token that is being read, it is kept in the window
+	private int anchor = -1;
+
+	public JsonUtf8Reader(ByteBuffer buffer) {
+		this(Collections.singletonList(buffer));
+	}
+
+	public JsonUtf8Reader(Iterable<ByteBuffer> buffers) {
+		this(buffers.iterator());
+	}
+
+	public JsonUtf8Reader(Iterator<ByteBuffer> buffers) {
+		this.buffers = buffers;
+		this.in = null;
+		chars = new char[1024];
+	}
+
+	public JsonUtf8Reader(InputStream in) {
+		this(in, DEFAULT_BUFFER_SIZE);
+	}
+
+	public JsonUtf8Reader(InputStream in, int bufferSize) {
+		this.buffers = null;
+		this.in = in;
+		bytes = new byte[bufferSize];
+		chars = new char[Math.max(bufferSize, 1024)];
+	}
+
+	private boolean nextBuffer() {
+		if (in != null) {
+			try {
+				int len;
+				while ((len = in.read(bytes)) == 0)
+					;
+				if (len < 0)
+					return false;
+				current = ByteBuffer.wrap(bytes, 0, len);
+				return true;
+			} catch (IOException e) {
+				throw new CommonRuntimeException(e);
+			}
+		} else {
+			while (buffers.hasNext()) {
+				ByteBuffer buffer = buffers.next();
+				if (buffer != null && buffer.hasRemaining()) {
+					current = buffer.duplicate();
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private int nextByte() {
+		while (current == null || !current.hasRemaining()) {
+			if (!nextBuffer())
+				return -1;
+		}
+		return current.get() & 0xff;
+	}
+
+	/**
+	 * Decodes the next characters into the window. The characters before the
+	 * position are discarded except the mark, the start of the current token
+	 * and the last read character.
+	 *
+	 * @return false if the input is end
+	 */
+	private boolean fill() {
+		if (chars.length - limit < chars.length / 2) {
+			int keep = pos > 0 ? pos - 1 : 0;
+			if (mark >= 0) {
+				if (pos - mark <= markLimit)
+					keep = Math.min(keep, mark);
+				else
+					mark = -1;
+			}
+			if (anchor >= 0)
+				keep = Math.min(keep, anchor);
+
+			if (keep > 0) {
+				System.arraycopy(chars, keep, chars, 0, limit - keep);
+				limit -= keep;
+				pos -= keep;
+				offset += keep;
+				if (mark >= 0)
+					mark -= keep;
+				if (anchor >= 0)
+					anchor -= keep;
+			}
+			if (chars.length - limit < chars.length / 2)
+				chars = Arrays.copyOf(chars, chars.length * 2);
+		}
+
+		int start = limit;
+		// a supplementary character needs two chars
+		int max = chars.length - 1;
+		while (limit < max) {
+			if (current == null || !current.hasRemaining()) {
+				if (limit > start || !nextBuffer())
+					break;
+			}
+
+			while (limit < max && current.hasRemaining()) {
+				int b = current.get();
+				if (b >= 0)
+					chars[limit++] = (char) b;
+				else
+					decode(b & 0xff);
+			}
+		}
+		return limit > start;
+	}
+
+	private void decode(int b) {
+		int n, codePoint;
+		if ((b & 0xe0) == 0xc0) {
+			n = 1;
+			codePoint = b & 0x1f;
+		} else if ((b & 0xf0) == 0xe0) {
+			n = 2;
+			codePoint = b & 0x0f;
+		} else if ((b & 0xf8) == 0xf0) {
+			n = 3;
+			codePoint = b & 0x07;
+		} else {
+			chars[limit++] = '\ufffd';
+			return;
+		}
+
+		for (int i = 0; i < n; i++) {
+			int c = nextByte();
+			if (c < 0) {
+				chars[limit++] = '\ufffd';
+				return;
+			}
+			if ((c & 0xc0) != 0x80) {
+				// it is not a continuation byte, it is decoded again as the next character
+				current.position(current.position() - 1);
+				chars[limit++] = '\ufffd';
+				return;
+			}
+			codePoint = (codePoint << 6) | (c & 0x3f);
+		}
+
+		if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT && codePoint <= Character.MAX_CODE_POINT) {
+			chars[limit++] = Character.highSurrogate(codePoint);
+			chars[limit++] = Character.lowSurrogate(codePoint);
+		} else if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+			chars[limit++] = (char) codePoint;
+		} else {
+			chars[limit++] = '\ufffd';
+		}
+	}
+
+	private boolean ensure(int n) {
+		while (limit - pos < n) {
+			if (!fill())
+				return false;
+		}
+		return true;
+	}
+
+	private String anchorString(int endOffset) {
+		String ret = new String(chars, anchor, pos - endOffset - anchor);
+		anchor = -1;
+		return ret;
+	}
+
+	private char[] anchorChars(int endOffset) {
+		char[] ret = Arrays.copyOfRange(chars, anchor, pos - endOffset);
+		anchor = -1;
+		return ret;
+	}
+
+	@Override
+	public void increasePosition() {
+		pos++;
+	}
+
+	@Override
+	public void decreasePosition() {
+		pos--;
+	}
+
+	@Override
+	public int position() {
+		return offset + pos;
+	}
+
+	@Override
+	public boolean isEnd() {
+		return pos >= limit && !fill();
+	}
+
+	@Override
+	public void mark(int readAheadLimit) {
+		mark = pos;
+		markLimit = readAheadLimit;
+	}
+
+	@Override
+	public void reset() {
+		if (mark < 0)
+			throw new JsonException("the mark is invalid, the position is " + position());
+		pos = mark;
+	}
+
+	@Override
+	public boolean isEndFlag(char ch) {
+		switch (ch) {
+		case ',':
+		case '}':
+		case ']':
+		case ' ':
+		case ':':
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isString() {
+		char c = readAndSkipBlank();
+		return c == '"';
+	}
+
+	@Override
+	public boolean isArray() {
+		char c = readAndSkipBlank();
+		return c == '[';
+	}
+
+	@Override
+	public boolean isEmptyArray() {
+		mark(1024);
+		char c = readAndSkipBlank();
+
+		if (c == ']')
+			return true;
+
+		reset();
+		return false;
+	}
+
+	@Override
+	public boolean isObject() {
+		char c = readAndSkipBlank();
+		return c == '{';
+	}
+
+	@Override
+	public boolean isEmptyObject() {
+		mark(1024);
+		char c = readAndSkipBlank();
+
+		if (c == '}')
+			return true;
+
+		reset();
+		return false;
+	}
+
+	@Override
+	public boolean isColon() {
+		char c = readAndSkipBlank();
+		return c == ':';
+	}
+
+	@Override
+	public boolean isComma() {
+		char c = readAndSkipBlank();
+		return c == ',';
+	}
+
+	@Override
+	public boolean isNull() {
+		mark(1024);
+		char ch = readAndSkipBlank();
+		if (!ensure(3)) {
+			reset();
+			return false;
+		}
+
+		if (ch == 'n' && 'u' == read() && 'l' == read() && 'l' == read()) {
+			if (isEnd())
+				return true;
+
+			ch = readAndSkipBlank();
+			if (isEndFlag(ch)) {
+				pos--;
+				return true;
+			} else {
+				reset();
+				return false;
+			}
+		} else {
+			reset();
+			return false;
+		}
+	}
+
+	@Override
+	public int read() {
+		if (pos >= limit && !fill())
+			throw new JsonException("the JSON input is end, the position is " + position());
+		return chars[pos++];
+	}
+
+	@Override
+	public char readAndSkipBlank() {
+		char c = (char) read();
+		if (c > ' ')
+			return c;
+		for (;;) {
+			c = (char) read();
+			if (c > ' ')
+				return c;
+		}
+	}
+
+	@Override
+	public boolean readBoolean() {
+		boolean ret = false;
+
+		if (isNull())
+			return ret;
+
+		char ch = readAndSkipBlank();
+		boolean isString = (ch == '"');
+		if (isString)
+			ch = readAndSkipBlank();
+
+		if (ch == 't' && 'r' == read() && 'u' == read() && 'e' == read())
+			ret = true;
+		else if (ch == 'f' && 'a' == read() && 'l' == read() && 's' == read() && 'e' == read())
+			ret = false;
+
+		if (isString) {
+			ch = readAndSkipBlank();
+			if (ch != '"')
+				throw new JsonException("read boolean error, the position is " + position());
+		}
+
+		return ret;
+	}
+
+	@Override
+	public int readInt() {
+		int value = 0;
+
+		if (isNull())
+			return value;
+
+		char ch = readAndSkipBlank();
+		boolean isString = (ch == '"');
+		if (isString)
+			ch = readAndSkipBlank();
+		boolean negative = (ch == '-');
+
+		if (!negative) {
+			if (VerifyUtils.isDigit(ch))
+				value = (value << 3) + (value << 1) + (ch - '0');
+			else
+				throw new JsonException("read int error, charactor \"" + ch + "\" is not integer, the position is " + position());
+		}
+
+		for (;;) {
+			ch = (char) read();
+			if (VerifyUtils.isDigit(ch))
+				value = (value << 3) + (value << 1) + (ch - '0');
+			else {
+				if (isString) {
+					if (ch == '"')
+						break;
+				} else {
+					if (isEndFlag(ch)) {
+						pos--;
+						break;
+					} else
+						throw new JsonException("read int error, charactor \"" + ch + "\" is not integer, the position is " + position());
+				}
+			}
+
+			if (isEnd())
+				break;
+		}
+		return negative ? -value : value;
+	}
+
+	@Override
+	public long readLong() {
+		long value = 0;
+
+		if (isNull())
+			return value;
+
+		char ch = readAndSkipBlank();
+		boolean isString = (ch == '"');
+		if (isString)
+			ch = readAndSkipBlank();
+		boolean negative = (ch == '-');
+
+		if (!negative) {
+			if (VerifyUtils.isDigit(ch))
+				value = (value << 3) + (value << 1) + (ch - '0');
+			else
+				throw new JsonException("read int error, charactor \"" + ch + "\" is not integer, the position is " + position());
+		}
+
+		for (;;) {
+			ch = (char) read();
+			if (VerifyUtils.isDigit(ch))
+				value = (value << 3) + (value << 1) + (ch - '0');
+			else {
+				if (isString) {
+					if (ch == '"')
+						break;
+				} else {
+					if (isEndFlag(ch)) {
+						pos--;
+						break;
+					} else
+						throw new JsonException("read int error, charactor \"" + ch + "\" is not integer, the position is " + position());
+				}
+			}
+
+			if (isEnd())
+				break;
+		}
+		return negative ? -value : value;
+	}
+
+	@Override
+	public String readValueAsString() {
+		while (!isEnd() && chars[pos] <= ' ')
+			pos++;
+
+		anchor = pos;
+		int end = pos;
+		while (!isEnd()) {
+			char ch = chars[pos];
+			if (ch > ' ') {
+				if (isEndFlag(ch))
+					break;
+				end = pos + 1;
+			}
+			pos++;
+		}
+		return anchorString(pos - end);
+	}
+
+	/**
+	 * Reads a number that may be quoted.
+	 *
+	 * @return the characters of the number
+	 */
+	private String readNumber() {
+		int len = readNumberLength();
+		String ret = new String(chars, anchor, len);
+		anchor = -1;
+		return ret;
+	}
+
+	/**
+	 * Reads a number that may be quoted, the number starts at the anchor.
+	 *
+	 * @return the number of the characters of the number
+	 */
+	private int readNumberLength() {
+		char ch = readAndSkipBlank();
+		boolean isString = (ch == '"');
+		if (isString)
+			readAndSkipBlank();
+		pos--;
+
+		anchor = pos;
+		for (;;) {
+			if (isString) {
+				ch = (char) read();
+				if (ch == '"')
+					return pos - 1 - anchor;
+			} else {
+				if (isEnd() || isEndFlag(chars[pos]))
+					return pos - anchor;
+				pos++;
+			}
+		}
+	}
+
+	@Override
+	public BigInteger readBigInteger() {
+		if (isNull())
+			return new BigInteger("0");
+
+		return new BigInteger(readNumber());
+	}
+
+	@Override
+	public BigDecimal readBigDecimal() {
+		if (isNull())
+			return new BigDecimal("0.0");
+
+		int len = readNumberLength();
+		BigDecimal ret = new BigDecimal(chars, anchor, len);
+		anchor = -1;
+		return ret;
+	}
+
+	@Override
+	public double readDouble() {
+		if (isNull())
+			return 0.0;
+
+		int len = readNumberLength();
+		double ret = NumberUtils.parseDouble(chars, anchor, len);
+		anchor = -1;
+		return ret;
+	}
+
+	@Override
+	public float readFloat() {
+		if (isNull())
+			return 0.0F;
+
+		int len = readNumberLength();
+		float ret = NumberUtils.parseFloat(chars, anchor, len);
+		anchor = -1;
+		return ret;
+	}
+
+	@Override
+	public char[] readField(char[] chs) {
+		if (!isString())
+			throw new JsonException("read field error, the position is " + position());
+
+		int len = chs.length;
+		if (ensure(len + 1) && chars[pos + len] == '"') {
+			boolean skip = true;
+			for (int i = 0, cur = pos; i < len; i++, cur++) {
+				if (chs[i] != chars[cur]) {
+					skip = false;
+					break;
+				}
+			}
+			if (skip) {
+				pos += len + 1;
+				return null;
+			}
+		}
+
+		anchor = pos;
+		for (;;) {
+			char c = (char) read();
+			if (c == '"')
+				break;
+		}
+		return anchorChars(1);
+	}
+
+	@Override
+	public char[] readChars() {
+		if (!isString())
+			throw new JsonException("read field error, the position is " + position());
+
+		anchor = pos;
+		for (;;) {
+			char c = (char) read();
+			if (c == '"')
+				break;
+		}
+		return anchorChars(1);
+	}
+
+	@Override
+	public int readFieldIndex(FieldTable table, int expected) {
+		if (!isString())
+			throw new JsonException("read field error, the position is " + position());
+
+		if (expected >= 0) {
+			char[] chs = table.getName(expected);
+			int len = chs.length;
+			if (ensure(len + 1) && chars[pos + len] == '"') {
+				boolean skip = true;
+				for (int i = 0; i < len; i++) {
+					if (chs[i] != chars[pos + i]) {
+						skip = false;
+						break;
+					}
+				}
+				if (skip) {
+					pos += len + 1;
+					return expected;
+				}
+			}
+		}
+
+		anchor = pos;
+		int m = table.getMultiplier();
+		int h = 0;
+		for (;;) {
+			char c = (char) read();
+			if (c == '"')
+				break;
+			h = h * m + c;
+		}
+		int index = table.find(h, chars, anchor, pos - 1 - anchor);
+		anchor = -1;
+		return index;
+	}
+
+	@Override
+	public void skipValue() {
+		char ch = readAndSkipBlank();
+		switch (ch) {
+		case '"':
+			for (;;) {
+				ch = (char) read();
+				if (ch == '"')
+					break;
+				else if (ch == '\\')
+					read();
+			}
+			break;
+		case '[':
+			for (;;) {
+				if (isEmptyArray())
+					break;
+
+				skipValue();
+				ch = readAndSkipBlank();
+				if (ch == ']')
+					break;
+
+				if (ch != ',')
+					throw new JsonException("json string array format error, the position is " + position());
+			}
+			break;
+		case '{':
+			for (;;) {
+				if (isEmptyObject())
+					break;
+
+				readChars();
+				if (!isColon())
+					throw new JsonException("json string object format error, the position is " + position());
+
+				skipValue();
+				ch = readAndSkipBlank();
+				if (ch == '}')
+					break;
+
+				if (ch != ',')
+					throw new JsonException("json string object format error, the position is " + position());
+			}
+			break;
+
+		default:
+			for (;;) {
+				if (isEnd() || isEndFlag(chars[pos]))
+					break;
+				pos++;
+			}
+			break;
+		}
+	}
+
+	@Override
+	public String readString() {
+		if (isNull())
+			return null;
+
+		if (!isString())
+			throw new JsonException("read string error, the position is " + position());
+
+		JsonStringWriter writer = new JsonStringWriter();
+		String ret = null;
+
+		anchor = pos;
+		for (;;) {
+			char ch = (char) read();
+			if (ch == '"') {
+				writer.write(chars, anchor, pos - 1 - anchor);
+				break;
+			} else if (ch == '\\') {
+				writer.write(chars, anchor, pos - 1 - anchor);
+				char c0 = (char) read();
+				switch (c0) {
+				case 'b':
+					writer.write('\b');
+					break;
+				case 'n':
+					writer.write('\n');
+					break;
+				case 'r':
+					writer.write('\r');
+					break;
+				case 'f':
+					writer.write('\f');
+					break;
+				case '\\':
+					writer.write('\\');
+					break;
+				case '/':
+					writer.write('/');
+					break;
+				case '"':
+					writer.write('"');
+					break;
+				case 't':
+					writer.write('\t');
+					break;
+				case 'u': // unicode char parse
+					char[] controlChars = new char[4];
+					for (int i = 0; i < controlChars.length; i++) {
+						controlChars[i] = (char) read();
+					}
+					char tmp = (char) Integer.parseInt(String.valueOf(controlChars), 16);
+					writer.write(tmp);
+					break;
+				}
+				anchor = pos;
+			}
+		}
+		anchor = -1;
+		try {
+			ret = writer.toString();
+		} finally {
+			writer.close();
+		}
+		return ret;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		throw new JsonException("method not implements!");
+	}
+
+	@Override
+	public void close() throws IOException {
+
+	}
+
+}
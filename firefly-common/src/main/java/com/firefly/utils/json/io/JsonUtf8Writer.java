@@ -0,0 +1,553 @@
+package com.firefly.utils.json.io;
+
+import static com.firefly.utils.json.JsonStringSymbol.ARRAY_PRE;
+import static com.firefly.utils.json.JsonStringSymbol.ARRAY_SUF;
+import static com.firefly.utils.json.JsonStringSymbol.QUOTE;
+import static com.firefly.utils.json.JsonStringSymbol.SEPARATOR;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+
+import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.JsonWriter;
+import com.firefly.utils.json.support.SerializerMetaInfo;
+
+/**
+ * A JSON writer that encodes the characters to UTF-8 bytes directly.
+ * <p>
+ * The bytes are written into a buffer that is reused by the thread. When the
+ * writer has an output stream, the buffer is written to the stream each time
+ * it is full, so a large document is streamed with a fixed buffer instead of
+ * being built as a string. Otherwise the buffer grows and the document is got
+ * by {@link #toBytes()} or {@link #toByteBuffer()}.
+ * <p>
+ * The buffer is reused after it has been written, so the output stream must
+ * not keep a reference to the written arrays. Closing the writer writes the
+ * remaining bytes to the output stream, but it does not close the output
+ * stream.
+ */
+public class JsonUtf8Writer extends JsonWriter {
+
+	public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+	private static final ThreadLocal<SoftReference<byte[]>> bufLocal = new ThreadLocal<SoftReference<byte[]>>();
+	private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+	private static final byte[] TRUE_VALUE = {'t', 'r', 'u', 'e'};
+	private static final byte[] FALSE_VALUE = {'f', 'a', 'l', 's', 'e'};
+	private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+	// the characters that JsonStringWriter escapes as \\uXXXX
+	private static final BitSet SPECIAL_CHARACTER = new BitSet(0x10000);
+	// 0 if the ASCII character is not escaped, 'u' for a \\uXXXX escape, otherwise the character after the backslash
+	private static final byte[] ASCII_ESCAPE = new byte[0x80];
+
+	static {
+		for (Character ch : JsonStringWriter.SPECIAL_CHARACTER) {
+			SPECIAL_CHARACTER.set(ch);
+		}
+		for (int i = 0; i < ASCII_ESCAPE.length; i++) {
+			if (SPECIAL_CHARACTER.get(i))
+				ASCII_ESCAPE[i] = 'u';
+		}
+		ASCII_ESCAPE['\b'] = 'b';
+		ASCII_ESCAPE['\n'] = 'n';
+		ASCII_ESCAPE['\r'] = 'r';
+		ASCII_ESCAPE['\f'] = 'f';
+		ASCII_ESCAPE['\t'] = 't';
+		ASCII_ESCAPE['\\'] = '\\';
+		ASCII_ESCAPE['/'] = '/';
+		ASCII_ESCAPE['"'] = '"';
+	}
+
+	private final OutputStream out;
+	private final boolean pooled;
+	private final char[] digits = new char[NumberUtils.MAX_CHARS];
+	private byte[] buf;
+	private int count;
+	private Deque<Object> deque;
+
+	public JsonUtf8Writer() {
+		this(null);
+	}
+
+	public JsonUtf8Writer(OutputStream out) {
+		this.out = out;
+		this.pooled = true;
+		SoftReference<byte[]> ref = bufLocal.get();
+
+		if (ref != null) {
+			buf = ref.get();
+			bufLocal.set(null);
+		}
+
+		if (buf == null)
+			buf = new byte[DEFAULT_BUFFER_SIZE];
+	}
+
+	public JsonUtf8Writer(OutputStream out, int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+		}
+		this.out = out;
+		this.pooled = false;
+		buf = new byte[bufferSize];
+	}
+
+	/**
+	 * Gets the bytes that have not been written to the output stream yet.
+	 *
+	 * @return a copy of the buffered bytes
+	 */
+	public byte[] toBytes() {
+		return Arrays.copyOf(buf, count);
+	}
+
+	public ByteBuffer toByteBuffer() {
+		return ByteBuffer.wrap(toBytes());
+	}
+
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Gets the buffer without copying it, the bytes from 0 to {@link #size()}
+	 * are valid until the writer is written again.
+	 *
+	 * @return the buffer of the writer
+	 */
+	public byte[] getBuf() {
+		return buf;
+	}
+
+	public void reset() {
+		count = 0;
+	}
+
+	@Override
+	public String toString() {
+		return new String(buf, 0, count, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (out != null) {
+			flushBuffer();
+			out.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (out != null)
+				flushBuffer();
+		} finally {
+			reset();
+			if (pooled)
+				bufLocal.set(new SoftReference<byte[]>(buf));
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			out.write(buf, 0, count);
+			count = 0;
+		}
+	}
+
+	private void require(int length) {
+		if (count + length > buf.length) {
+			if (out != null) {
+				try {
+					flushBuffer();
+				} catch (IOException e) {
+					throw new CommonRuntimeException(e);
+				}
+				if (length <= buf.length)
+					return;
+			}
+			expandCapacity(count + length);
+		}
+	}
+
+	private void expandCapacity(int minimumCapacity) {
+		int newCapacity = (buf.length * 3) / 2 + 1;
+
+		if (newCapacity < minimumCapacity) {
+			newCapacity = minimumCapacity;
+		}
+		buf = Arrays.copyOf(buf, newCapacity);
+	}
+
+	private void writeBytes(byte[] b) {
+		int length = b.length;
+		if (count + length > buf.length) {
+			if (out != null && length > buf.length) {
+				// write the large arrays through
+				try {
+					flushBuffer();
+					out.write(b);
+				} catch (IOException e) {
+					throw new CommonRuntimeException(e);
+				}
+				return;
+			}
+			require(length);
+		}
+		System.arraycopy(b, 0, buf, count, length);
+		count += length;
+	}
+
+	private void writeDigits(int length) {
+		require(length);
+		for (int i = 0; i < length; i++) {
+			buf[count++] = (byte) digits[i];
+		}
+	}
+
+	/**
+	 * Encodes a character that is not ASCII.
+	 *
+	 * @param ch
+	 *            the character
+	 * @param next
+	 *            the next character, or 0 if there is no more characters
+	 * @return the number of characters that have been encoded
+	 */
+	private int writeUtf8(char ch, char next) {
+		if (ch < 0x800) {
+			require(2);
+			buf[count++] = (byte) (0xc0 | (ch >> 6));
+			buf[count++] = (byte) (0x80 | (ch & 0x3f));
+			return 1;
+		} else if (Character.isSurrogate(ch)) {
+			if (Character.isHighSurrogate(ch) && Character.isLowSurrogate(next)) {
+				int codePoint = Character.toCodePoint(ch, next);
+				require(4);
+				buf[count++] = (byte) (0xf0 | (codePoint >> 18));
+				buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+				buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+				buf[count++] = (byte) (0x80 | (codePoint & 0x3f));
+				return 2;
+			} else {
+				// the malformed surrogate is replaced like String.getBytes does
+				require(1);
+				buf[count++] = '?';
+				return 1;
+			}
+		} else {
+			require(3);
+			buf[count++] = (byte) (0xe0 | (ch >> 12));
+			buf[count++] = (byte) (0x80 | ((ch >> 6) & 0x3f));
+			buf[count++] = (byte) (0x80 | (ch & 0x3f));
+			return 1;
+		}
+	}
+
+	private void writeUnicodeEscape(char ch) {
+		require(6);
+		buf[count++] = '\\';
+		buf[count++] = 'u';
+		buf[count++] = HEX[(ch >> 12) & 0xf];
+		buf[count++] = HEX[(ch >> 8) & 0xf];
+		buf[count++] = HEX[(ch >> 4) & 0xf];
+		buf[count++] = HEX[ch & 0xf];
+	}
+
+	@Override
+	public void write(int c) {
+		char ch = (char) c;
+		if (ch < 0x80) {
+			require(1);
+			buf[count++] = (byte) ch;
+		} else {
+			writeUtf8(ch, (char) 0);
+		}
+	}
+
+	@Override
+	public void write(char[] c, int off, int len) {
+		if (off < 0 || off > c.length || len < 0 || off + len > c.length
+				|| off + len < 0) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		int end = off + len;
+		for (int i = off; i < end;) {
+			char ch = c[i];
+			if (ch < 0x80) {
+				require(1);
+				buf[count++] = (byte) ch;
+				i++;
+			} else {
+				i += writeUtf8(ch, i + 1 < end ? c[i + 1] : 0);
+			}
+		}
+	}
+
+	@Override
+	public void write(String str) {
+		write(str, 0, str.length());
+	}
+
+	@Override
+	public void write(String str, int off, int len) {
+		int end = off + len;
+		for (int i = off; i < end;) {
+			char ch = str.charAt(i);
+			if (ch < 0x80) {
+				require(1);
+				buf[count++] = (byte) ch;
+				i++;
+			} else {
+				i += writeUtf8(ch, i + 1 < end ? str.charAt(i + 1) : 0);
+			}
+		}
+	}
+
+	@Override
+	public JsonUtf8Writer append(CharSequence csq) {
+		String str = String.valueOf(csq);
+		write(str, 0, str.length());
+		return this;
+	}
+
+	@Override
+	public JsonUtf8Writer append(CharSequence csq, int start, int end) {
+		String str = String.valueOf(csq).substring(start, end);
+		write(str, 0, str.length());
+		return this;
+	}
+
+	@Override
+	public JsonUtf8Writer append(char c) {
+		write(c);
+		return this;
+	}
+
+	@Override
+	public void writePropertyName(SerializerMetaInfo metaInfo) {
+		writeBytes(metaInfo.getPropertyNameBytes());
+	}
+
+	@Override
+	public void writeNull() {
+		writeBytes(NULL);
+	}
+
+	@Override
+	public void writeBoolean(boolean b) {
+		writeBytes(b ? TRUE_VALUE : FALSE_VALUE);
+	}
+
+	@Override
+	public void writeInt(int i) {
+		if (i == Integer.MIN_VALUE) {
+			write(AbstractJsonStringWriter.MIN_INT_VALUE, 0, AbstractJsonStringWriter.MIN_INT_VALUE.length);
+			return;
+		}
+		int size = (i < 0) ? IOUtils.stringSize(-i) + 1 : IOUtils.stringSize(i);
+		IOUtils.getChars(i, size, digits);
+		writeDigits(size);
+	}
+
+	@Override
+	public void writeShort(short i) {
+		writeInt((int) i);
+	}
+
+	@Override
+	public void writeByte(byte i) {
+		writeInt((int) i);
+	}
+
+	@Override
+	public void writeLong(long i) {
+		if (i == Long.MIN_VALUE) {
+			write(AbstractJsonStringWriter.MIN_LONG_VALUE, 0, AbstractJsonStringWriter.MIN_LONG_VALUE.length);
+			return;
+		}
+		int size = (i < 0) ? IOUtils.stringSize(-i) + 1 : IOUtils.stringSize(i);
+		IOUtils.getChars(i, size, digits);
+		writeDigits(size);
+	}
+
+	@Override
+	public void writeDouble(double d) {
+		writeDigits(NumberUtils.getChars(d, digits, 0));
+	}
+
+	@Override
+	public void writeFloat(float f) {
+		writeDigits(NumberUtils.getChars(f, digits, 0));
+	}
+
+	@Override
+	public void pushRef(Object obj) {
+		if (deque == null)
+			deque = new ArrayDeque<Object>();
+		deque.addFirst(obj);
+	}
+
+	@Override
+	public boolean existRef(Object obj) {
+		return deque != null && deque.contains(obj);
+	}
+
+	@Override
+	public void popRef() {
+		deque.removeFirst();
+	}
+
+	@Override
+	public void writeStringWithQuote(String value) {
+		require(1);
+		buf[count++] = QUOTE;
+		for (int i = 0, len = value.length(); i < len;) {
+			char ch = value.charAt(i);
+			if (ch < 0x80) {
+				byte escape = ASCII_ESCAPE[ch];
+				if (escape == 0) {
+					require(1);
+					buf[count++] = (byte) ch;
+				} else if (escape == 'u') {
+					writeUnicodeEscape(ch);
+				} else {
+					require(2);
+					buf[count++] = '\\';
+					buf[count++] = escape;
+				}
+				i++;
+			} else if (SPECIAL_CHARACTER.get(ch)) {
+				writeUnicodeEscape(ch);
+				i++;
+			} else {
+				i += writeUtf8(ch, i + 1 < len ? value.charAt(i + 1) : 0);
+			}
+		}
+		require(1);
+		buf[count++] = QUOTE;
+	}
+
+	private void writeArrayStart(int i) {
+		require(1);
+		buf[count++] = i == 0 ? (byte) ARRAY_PRE : (byte) SEPARATOR;
+	}
+
+	private void writeArrayEnd(int length) {
+		require(2);
+		if (length == 0)
+			buf[count++] = ARRAY_PRE;
+		buf[count++] = ARRAY_SUF;
+	}
+
+	@Override
+	public void writeStringArray(String[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeStringWithQuote(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeIntArray(int[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeInt(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeIntArray(Integer[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeInt(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeShortArray(short[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeInt(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeShortArray(Short[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeInt(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeLongArray(long[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeLong(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeLongArray(Long[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeLong(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeDoubleArray(double[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeDouble(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeDoubleArray(Double[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			if (array[i] == null)
+				writeNull();
+			else
+				writeDouble(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeBooleanArray(boolean[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeBoolean(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+
+	@Override
+	public void writeBooleanArray(Boolean[] array) {
+		for (int i = 0; i < array.length; i++) {
+			writeArrayStart(i);
+			writeBoolean(array[i]);
+		}
+		writeArrayEnd(array.length);
+	}
+}
@@ -0,0 +1,550 @@
+package com.firefly.utils.json.io;
+
+import java.math.BigInteger;
+
+/**
+ * Converts the floating point numbers to characters and back without
+ * creating the intermediate strings.
+ * <p>
+ * The doubles and floats are written with the shortest decimal that is read
+ * back as the same value, it is found by the Schubfach algorithm of Raffaello
+ * Giulietti. The layout is the one of {@link Double#toString(double)}, a
+ * plain number from 10<sup>-3</sup> to 10<sup>7</sup> and the computerized
+ * scientific notation otherwise.
+ * <p>
+ * The decimals that have at most 19 significant digits are parsed by the
+ * Clinger fast path or the Eisel-Lemire algorithm, the other ones and the
+ * rare ambiguous cases fall back to {@link Double#parseDouble(String)}.
+ */
+public final class NumberUtils {
+
+	/**
+	 * The maximum length of the characters of a double or a float, for example
+	 * "-2.2250738585072014E-308".
+	 */
+	public static final int MAX_CHARS = 24;
+
+	private static final char[] NAN = "NaN".toCharArray();
+	private static final char[] INFINITY = "Infinity".toCharArray();
+	private static final char[] NEGATIVE_INFINITY = "-Infinity".toCharArray();
+	private static final char[] ZERO = "0.0".toCharArray();
+	private static final char[] NEGATIVE_ZERO = "-0.0".toCharArray();
+
+	private static final long MASK_63 = 0x7FFFFFFFFFFFFFFFL;
+	private static final long MASK_32 = 0xFFFFFFFFL;
+
+	// the double constants of the Schubfach algorithm
+	private static final int DOUBLE_P = 53;
+	private static final int DOUBLE_Q_MIN = -1074;
+	private static final long DOUBLE_C_MIN = 1L << (DOUBLE_P - 1);
+	private static final long DOUBLE_C_TINY = 3;
+
+	// the float constants of the Schubfach algorithm
+	private static final int FLOAT_P = 24;
+	private static final int FLOAT_Q_MIN = -149;
+	private static final int FLOAT_C_MIN = 1 << (FLOAT_P - 1);
+	private static final int FLOAT_C_TINY = 8;
+
+	// the range of k in the Schubfach algorithm
+	private static final int K_MIN = -324;
+	private static final int K_MAX = 292;
+
+	/*
+	 * Let 10^-k = beta 2^r, where 2^125 <= beta < 2^126, and g = floor(beta) + 1.
+	 * G[2 (k - K_MIN)] is floor(g 2^-63) and G[2 (k - K_MIN) + 1] is g mod 2^63.
+	 */
+	private static final long[] G = new long[(K_MAX - K_MIN + 1) * 2];
+
+	// the range of the decimal exponents in the Eisel-Lemire algorithm
+	private static final int MIN_EXP10 = -342;
+	private static final int MAX_EXP10 = 308;
+
+	/*
+	 * The 128-bit normalized significands of the powers of ten, they are
+	 * truncated for the positive powers and rounded up for the negative powers.
+	 */
+	private static final long[] POW10_HI = new long[MAX_EXP10 - MIN_EXP10 + 1];
+	private static final long[] POW10_LO = new long[MAX_EXP10 - MIN_EXP10 + 1];
+
+	// the powers of ten that are exactly represented
+	private static final double[] DOUBLE_POW10 = new double[23];
+	private static final float[] FLOAT_POW10 = new float[11];
+
+	static {
+		BigInteger mask63 = BigInteger.valueOf(MASK_63);
+		BigInteger ten = BigInteger.TEN;
+		for (int k = K_MIN; k <= K_MAX; k++) {
+			BigInteger g;
+			if (k <= 0) {
+				BigInteger n = ten.pow(-k);
+				int r = n.bitLength() - 126;
+				g = (r >= 0 ? n.shiftRight(r) : n.shiftLeft(-r)).add(BigInteger.ONE);
+			} else {
+				BigInteger d = ten.pow(k);
+				g = BigInteger.ONE.shiftLeft(125 + d.bitLength()).divide(d).add(BigInteger.ONE);
+			}
+			int i = (k - K_MIN) << 1;
+			G[i] = g.shiftRight(63).longValue();
+			G[i + 1] = g.and(mask63).longValue();
+		}
+
+		BigInteger five = BigInteger.valueOf(5);
+		for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+			BigInteger c;
+			if (q >= 0) {
+				BigInteger p = five.pow(q);
+				int bits = p.bitLength();
+				c = bits <= 128 ? p.shiftLeft(128 - bits) : p.shiftRight(bits - 128);
+			} else {
+				BigInteger p = five.pow(-q);
+				int z = p.bitLength();
+				int b = q >= -27 ? z + 127 : 2 * z + 128;
+				c = BigInteger.ONE.shiftLeft(b).divide(p).add(BigInteger.ONE);
+				c = c.shiftRight(Math.max(0, c.bitLength() - 128));
+			}
+			POW10_HI[q - MIN_EXP10] = c.shiftRight(64).longValue();
+			POW10_LO[q - MIN_EXP10] = c.longValue();
+		}
+
+		double d = 1.0;
+		for (int i = 0; i < DOUBLE_POW10.length; i++, d *= 10) {
+			DOUBLE_POW10[i] = d;
+		}
+		float f = 1.0F;
+		for (int i = 0; i < FLOAT_POW10.length; i++, f *= 10) {
+			FLOAT_POW10[i] = f;
+		}
+	}
+
+	private NumberUtils() {
+	}
+
+	/**
+	 * Writes the shortest decimal of a double.
+	 *
+	 * @param v     the double
+	 * @param buf   the characters, {@link #MAX_CHARS} characters are available
+	 *              from the index
+	 * @param index the index of the first character
+	 * @return the index after the last character
+	 */
+	public static int getChars(double v, char[] buf, int index) {
+		long bits = Double.doubleToRawLongBits(v);
+		long t = bits & ((1L << (DOUBLE_P - 1)) - 1);
+		int bq = (int) (bits >>> (DOUBLE_P - 1)) & 0x7FF;
+		if (bq == 0x7FF)
+			return copy(t != 0 ? NAN : bits > 0 ? INFINITY : NEGATIVE_INFINITY, buf, index);
+		if (bq == 0 && t == 0)
+			return copy(bits == 0 ? ZERO : NEGATIVE_ZERO, buf, index);
+
+		if (bits < 0)
+			buf[index++] = '-';
+		if (bq != 0) {
+			int mq = -DOUBLE_Q_MIN + 1 - bq;
+			long c = DOUBLE_C_MIN | t;
+			if (0 < mq && mq < DOUBLE_P) {
+				// an integer
+				long f = c >> mq;
+				if (f << mq == c)
+					return toChars(f, 0, buf, index);
+			}
+			return toDecimal(-mq, c, 0, buf, index);
+		}
+		// a subnormal value
+		return t < DOUBLE_C_TINY ? toDecimal(DOUBLE_Q_MIN, 10 * t, -1, buf, index)
+				: toDecimal(DOUBLE_Q_MIN, t, 0, buf, index);
+	}
+
+	/**
+	 * Writes the shortest decimal of a float.
+	 *
+	 * @param v     the float
+	 * @param buf   the characters, {@link #MAX_CHARS} characters are available
+	 *              from the index
+	 * @param index the index of the first character
+	 * @return the index after the last character
+	 */
+	public static int getChars(float v, char[] buf, int index) {
+		int bits = Float.floatToRawIntBits(v);
+		int t = bits & ((1 << (FLOAT_P - 1)) - 1);
+		int bq = (bits >>> (FLOAT_P - 1)) & 0xFF;
+		if (bq == 0xFF)
+			return copy(t != 0 ? NAN : bits > 0 ? INFINITY : NEGATIVE_INFINITY, buf, index);
+		if (bq == 0 && t == 0)
+			return copy(bits == 0 ? ZERO : NEGATIVE_ZERO, buf, index);
+
+		if (bits < 0)
+			buf[index++] = '-';
+		if (bq != 0) {
+			int mq = -FLOAT_Q_MIN + 1 - bq;
+			int c = FLOAT_C_MIN | t;
+			if (0 < mq && mq < FLOAT_P) {
+				int f = c >> mq;
+				if (f << mq == c)
+					return toChars(f, 0, buf, index);
+			}
+			return toDecimal(-mq, c, 0, buf, index);
+		}
+		return t < FLOAT_C_TINY ? toDecimal(FLOAT_Q_MIN, 10 * t, -1, buf, index)
+				: toDecimal(FLOAT_Q_MIN, t, 0, buf, index);
+	}
+
+	private static int toDecimal(int q, long c, int dk, char[] buf, int index) {
+		int out = (int) c & 1;
+		long cb = c << 2;
+		long cbr = cb + 2;
+		long cbl;
+		int k;
+		if (c != DOUBLE_C_MIN || q == DOUBLE_Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		int h = q + flog2pow10(-k) + 2;
+		int i = (k - K_MIN) << 1;
+		long g1 = G[i];
+		long g0 = G[i + 1];
+		long vb = rop(g1, g0, cb << h);
+		long vbl = rop(g1, g0, cbl << h);
+		long vbr = rop(g1, g0, cbr << h);
+
+		long s = vb >> 2;
+		if (s >= 100) {
+			// try the decimal that has one digit less
+			long sp10 = 10 * multiplyHigh(s, 115292150460684698L << 4);
+			long tp10 = sp10 + 10;
+			boolean upin = vbl + out <= sp10 << 2;
+			boolean wpin = (tp10 << 2) + out <= vbr;
+			if (upin != wpin)
+				return toChars(upin ? sp10 : tp10, k, buf, index);
+		}
+		long t = s + 1;
+		boolean uin = vbl + out <= s << 2;
+		boolean win = (t << 2) + out <= vbr;
+		if (uin != win)
+			return toChars(uin ? s : t, k + dk, buf, index);
+		long cmp = vb - ((s + t) << 1);
+		return toChars(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk, buf, index);
+	}
+
+	private static int toDecimal(int q, int c, int dk, char[] buf, int index) {
+		int out = c & 1;
+		long cb = (long) c << 2;
+		long cbr = cb + 2;
+		long cbl;
+		int k;
+		if (c != FLOAT_C_MIN || q == FLOAT_Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		int h = q + flog2pow10(-k) + 33;
+		long g = G[(k - K_MIN) << 1] + 1;
+		int vb = rop(g, cb << h);
+		int vbl = rop(g, cbl << h);
+		int vbr = rop(g, cbr << h);
+
+		int s = vb >> 2;
+		if (s >= 100) {
+			int sp10 = 10 * (int) (s * 1717986919L >>> 34);
+			int tp10 = sp10 + 10;
+			boolean upin = vbl + out <= sp10 << 2;
+			boolean wpin = (tp10 << 2) + out <= vbr;
+			if (upin != wpin)
+				return toChars(upin ? sp10 : tp10, k, buf, index);
+		}
+		int t = s + 1;
+		boolean uin = vbl + out <= s << 2;
+		boolean win = (t << 2) + out <= vbr;
+		if (uin != win)
+			return toChars(uin ? s : t, k + dk, buf, index);
+		int cmp = vb - ((s + t) << 1);
+		return toChars(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk, buf, index);
+	}
+
+	private static long rop(long g1, long g0, long cp) {
+		long x1 = multiplyHigh(g0, cp);
+		long y0 = g1 * cp;
+		long y1 = multiplyHigh(g1, cp);
+		long z = (y0 >>> 1) + x1;
+		long vbp = y1 + (z >>> 63);
+		return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+	}
+
+	private static int rop(long g, long cp) {
+		long x1 = multiplyHigh(g, cp);
+		long vbp = x1 >>> 31;
+		return (int) (vbp | ((x1 & MASK_32) + MASK_32) >>> 32);
+	}
+
+	// floor(log10(2^e))
+	private static int flog10pow2(int e) {
+		return (int) (e * 661971961083L >> 41);
+	}
+
+	// floor(log10(3/4 2^e))
+	private static int flog10threeQuartersPow2(int e) {
+		return (int) ((e * 661971961083L - 274743187321L) >> 41);
+	}
+
+	// floor(log2(10^e))
+	private static int flog2pow10(int e) {
+		return (int) (e * 913124641741L >> 38);
+	}
+
+	/**
+	 * Writes the decimal f 10<sup>e</sup> like {@link Double#toString(double)}.
+	 */
+	private static int toChars(long f, int e, char[] buf, int index) {
+		while (f % 10 == 0) {
+			f /= 10;
+			e++;
+		}
+		int len = IOUtils.stringSize(f);
+		// the value is 0.d1d2...dn 10^exp
+		int exp = e + len;
+		if (0 < exp && exp <= 7) {
+			if (len <= exp) {
+				IOUtils.getChars(f, index + len, buf);
+				index += len;
+				for (int i = len; i < exp; i++) {
+					buf[index++] = '0';
+				}
+				buf[index++] = '.';
+				buf[index++] = '0';
+				return index;
+			}
+			IOUtils.getChars(f, index + len + 1, buf);
+			System.arraycopy(buf, index + 1, buf, index, exp);
+			buf[index + exp] = '.';
+			return index + len + 1;
+		}
+		if (-3 < exp && exp <= 0) {
+			buf[index++] = '0';
+			buf[index++] = '.';
+			for (int i = exp; i < 0; i++) {
+				buf[index++] = '0';
+			}
+			IOUtils.getChars(f, index + len, buf);
+			return index + len;
+		}
+
+		IOUtils.getChars(f, index + len + 1, buf);
+		buf[index] = buf[index + 1];
+		buf[index + 1] = '.';
+		if (len == 1) {
+			buf[index + 2] = '0';
+			index += 3;
+		} else {
+			index += len + 1;
+		}
+		buf[index++] = 'E';
+		int n = exp - 1;
+		if (n < 0) {
+			buf[index++] = '-';
+			n = -n;
+		}
+		int size = IOUtils.stringSize(n);
+		IOUtils.getChars(n, index + size, buf);
+		return index + size;
+	}
+
+	private static int copy(char[] chars, char[] buf, int index) {
+		System.arraycopy(chars, 0, buf, index, chars.length);
+		return index + chars.length;
+	}
+
+	/**
+	 * Parses a double like {@link Double#parseDouble(String)}.
+	 *
+	 * @param chars  the characters
+	 * @param offset the index of the first character
+	 * @param length the number of the characters
+	 * @return the double
+	 * @throws NumberFormatException if the characters are not a number
+	 */
+	public static double parseDouble(char[] chars, int offset, int length) {
+		double d = parse(chars, offset, length, false);
+		return Double.isNaN(d) ? Double.parseDouble(new String(chars, offset, length)) : d;
+	}
+
+	/**
+	 * Parses a float like {@link Float#parseFloat(String)}.
+	 *
+	 * @param chars  the characters
+	 * @param offset the index of the first character
+	 * @param length the number of the characters
+	 * @return the float
+	 * @throws NumberFormatException if the characters are not a number
+	 */
+	public static float parseFloat(char[] chars, int offset, int length) {
+		double f = parse(chars, offset, length, true);
+		return Double.isNaN(f) ? Float.parseFloat(new String(chars, offset, length)) : (float) f;
+	}
+
+	/**
+	 * Parses a plain decimal that has at most 19 significant digits.
+	 *
+	 * @param single true if the result is a float
+	 * @return the number, or NaN if it has to be parsed by the JDK
+	 */
+	private static double parse(char[] chars, int offset, int length, boolean single) {
+		int i = offset;
+		int end = offset + length;
+		if (i == end)
+			return Double.NaN;
+
+		boolean negative = false;
+		char ch = chars[i];
+		if (ch == '-') {
+			negative = true;
+			i++;
+		} else if (ch == '+') {
+			i++;
+		}
+
+		// the unsigned significand of the first 19 significant digits
+		long m = 0;
+		int digits = 0;
+		int exp10 = 0;
+		int start = i;
+		for (; i < end && (ch = chars[i]) >= '0' && ch <= '9'; i++) {
+			if (digits < 19) {
+				m = m * 10 + (ch - '0');
+				if (m != 0)
+					digits++;
+			} else if (ch != '0') {
+				return Double.NaN;
+			} else {
+				exp10++;
+			}
+		}
+		int count = i - start;
+		if (i < end && chars[i] == '.') {
+			start = ++i;
+			for (; i < end && (ch = chars[i]) >= '0' && ch <= '9'; i++) {
+				if (digits < 19) {
+					m = m * 10 + (ch - '0');
+					exp10--;
+					if (m != 0)
+						digits++;
+				} else if (ch != '0') {
+					return Double.NaN;
+				}
+			}
+			count += i - start;
+		}
+		if (count == 0)
+			return Double.NaN;
+
+		if (i < end && ((ch = chars[i]) == 'e' || ch == 'E')) {
+			boolean negativeExp = false;
+			if (++i < end && ((ch = chars[i]) == '-' || ch == '+')) {
+				negativeExp = ch == '-';
+				i++;
+			}
+			start = i;
+			int e = 0;
+			for (; i < end && (ch = chars[i]) >= '0' && ch <= '9'; i++) {
+				if (e < 100000)
+					e = e * 10 + (ch - '0');
+			}
+			if (i == start)
+				return Double.NaN;
+			exp10 += negativeExp ? -e : e;
+		}
+		if (i != end)
+			return Double.NaN;
+
+		double d;
+		if (m == 0) {
+			d = 0.0;
+		} else if (single) {
+			if (exp10 < -10 || exp10 > 10 || m < 0 || m > 1L << 24)
+				return Double.NaN;
+			// both of the operands are exact, the result is rounded once
+			d = exp10 < 0 ? m / FLOAT_POW10[-exp10] : m * FLOAT_POW10[exp10];
+		} else if (exp10 >= -22 && exp10 <= 22 && m >= 0 && m <= 1L << 53) {
+			d = exp10 < 0 ? m / DOUBLE_POW10[-exp10] : m * DOUBLE_POW10[exp10];
+		} else {
+			d = eiselLemire(m, exp10);
+		}
+		return negative ? -d : d;
+	}
+
+	/**
+	 * The Eisel-Lemire algorithm, see "Number Parsing at a Gigabyte per
+	 * Second" of Daniel Lemire.
+	 *
+	 * @param m     the unsigned significand, it is not zero
+	 * @param exp10 the decimal exponent
+	 * @return the double, or NaN if the result is ambiguous
+	 */
+	private static double eiselLemire(long m, int exp10) {
+		if (exp10 < MIN_EXP10 || exp10 > MAX_EXP10)
+			return Double.NaN;
+
+		int index = exp10 - MIN_EXP10;
+		int clz = Long.numberOfLeadingZeros(m);
+		m <<= clz;
+		long exp2 = ((217706L * exp10) >> 16) + 64 + 1023 - clz;
+
+		long pHi = POW10_HI[index];
+		long xHi = unsignedMultiplyHigh(m, pHi);
+		long xLo = m * pHi;
+		if ((xHi & 0x1FF) == 0x1FF && Long.compareUnsigned(xLo + m, m) < 0) {
+			// the product needs the lower part of the power
+			long pLo = POW10_LO[index];
+			long yHi = unsignedMultiplyHigh(m, pLo);
+			long yLo = m * pLo;
+			long mergedHi = xHi;
+			long mergedLo = xLo + yHi;
+			if (Long.compareUnsigned(mergedLo, xLo) < 0)
+				mergedHi++;
+			if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + m, m) < 0)
+				return Double.NaN;
+			xHi = mergedHi;
+			xLo = mergedLo;
+		}
+
+		long msb = xHi >>> 63;
+		long mantissa = xHi >>> (msb + 9);
+		exp2 -= 1 ^ msb;
+		if (xLo == 0 && (xHi & 0x1FF) == 0 && (mantissa & 3) == 1) {
+			// it is half-way between two doubles
+			return Double.NaN;
+		}
+		mantissa += mantissa & 1;
+		mantissa >>>= 1;
+		if ((mantissa >>> 53) > 0) {
+			mantissa >>>= 1;
+			exp2++;
+		}
+		if (exp2 < 1 || exp2 > 0x7FE) {
+			// a subnormal value or an infinity
+			return Double.NaN;
+		}
+		return Double.longBitsToDouble(exp2 << 52 | mantissa & ((1L << 52) - 1));
+	}
+
+	private static long multiplyHigh(long x, long y) {
+		long x1 = x >> 32;
+		long x2 = x & MASK_32;
+		long y1 = y >> 32;
+		long y2 = y & MASK_32;
+		long z2 = x2 * y2;
+		long t = x1 * y2 + (z2 >>> 32);
+		long z1 = t & MASK_32;
+		long z0 = t >> 32;
+		z1 += x2 * y1;
+		return x1 * y1 + z0 + (z1 >> 32);
+	}
+
+	private static long unsignedMultiplyHigh(long x, long y) {
+		return multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+	}
+}
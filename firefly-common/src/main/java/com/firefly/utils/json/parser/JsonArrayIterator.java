@@ -0,0 +1,65 @@
+package com.firefly.utils.json.parser;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.firefly.utils.exception.CommonRuntimeException;
+import com.firefly.utils.json.JsonReader;
+import com.firefly.utils.json.exception.JsonException;
+
+/**
+ * Reads the elements of a JSON array one by one. Each element is bound to the
+ * element class when it is got, so the elements of a large array can be
+ * processed without keeping the whole array in the memory.
+ *
+ * @param <T> the element type
+ */
+public class JsonArrayIterator<T> implements Iterator<T> {
+
+	private final JsonReader reader;
+	private final Class<T> elementClass;
+	private boolean started;
+	private boolean end;
+
+	public JsonArrayIterator(JsonReader reader, Class<T> elementClass) {
+		this.reader = reader;
+		this.elementClass = elementClass;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (!started) {
+			started = true;
+			if (reader.isNull()) {
+				end = true;
+			} else {
+				if (!reader.isArray())
+					throw new JsonException("It is not a JSON array, the position is " + reader.position());
+				end = reader.isEmptyArray();
+			}
+		}
+		return !end;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+
+		T element;
+		try {
+			element = ParserStateMachine.toObject(reader, elementClass);
+		} catch (IOException e) {
+			throw new CommonRuntimeException(e);
+		}
+
+		char ch = reader.readAndSkipBlank();
+		if (ch == ']')
+			end = true;
+		else if (ch != ',')
+			throw new JsonException("json string array format error, the position is " + reader.position());
+		return element;
+	}
+
+}
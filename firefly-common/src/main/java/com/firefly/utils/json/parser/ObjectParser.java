@@ -3,30 +3,30 @@ package com.firefly.utils.json.parser;
 import com.firefly.utils.exception.CommonRuntimeException;
 import com.firefly.utils.json.JsonReader;
 import com.firefly.utils.json.Parser;
+import com.firefly.utils.json.compiler.BytecodeCompiler;
 import com.firefly.utils.json.compiler.DecodeCompiler;
 import com.firefly.utils.json.exception.JsonException;
+import com.firefly.utils.json.support.FieldTable;
 import com.firefly.utils.json.support.ParserMetaInfo;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.firefly.utils.json.support.PropertiesParser;
 
 public class ObjectParser implements Parser {
 
     private ParserMetaInfo[] parserMetaInfos;
     private int max;
-    private Map<String, ParserMetaInfo> map;
-    private boolean useMap;
+    private FieldTable fieldTable;
+    private PropertiesParser propertiesParser;
 
     public void init(Class<?> clazz) {
         parserMetaInfos = DecodeCompiler.compile(clazz);
         max = parserMetaInfos.length - 1;
-        if (max >= 8) {
-            map = new HashMap<String, ParserMetaInfo>();
-            for (ParserMetaInfo parserMetaInfo : parserMetaInfos) {
-                map.put(parserMetaInfo.getPropertyNameString(), parserMetaInfo);
-            }
-            useMap = true;
+        char[][] names = new char[parserMetaInfos.length][];
+        for (int i = 0; i < parserMetaInfos.length; i++) {
+            names[i] = parserMetaInfos[i].getPropertyName();
         }
+        fieldTable = new FieldTable(names);
+        if (BytecodeCompiler.enabled)
+            propertiesParser = BytecodeCompiler.createParser(clazz, parserMetaInfos);
     }
 
     @Override
@@ -39,7 +39,7 @@ public class ObjectParser implements Parser {
 
         Object obj = null;
         try {
-            obj = clazz.newInstance();
+            obj = propertiesParser != null ? propertiesParser.newInstance() : clazz.newInstance();
         } catch (Throwable e) {
             throw new CommonRuntimeException(e);
         }
@@ -48,20 +48,15 @@ public class ObjectParser implements Parser {
             return obj;
 
         for (int i = 0; ; i++) {
-            ParserMetaInfo parser = parserMetaInfos[i];
-            char[] field = reader.readField(parser.getPropertyName());
+            // the same order is checked first, then the name is found in the table
+            int index = reader.readFieldIndex(fieldTable, i);
             if (!reader.isColon())
                 throw new JsonException("missing ':'");
 
-            if (field == null) { // the same order，skip
-                parser.invoke(obj, reader);
-            } else {
-                ParserMetaInfo np = find(field);
-                if (np != null)
-                    np.invoke(obj, reader);
-                else
-                    reader.skipValue();
-            }
+            if (index >= 0)
+                invoke(obj, index, reader);
+            else
+                reader.skipValue();
 
             if (i == max)
                 break;
@@ -82,13 +77,12 @@ public class ObjectParser implements Parser {
             throw new JsonException("json string is not object format");
 
         for (; ; ) { // if JSON string fields is more than the meta information, continue reading
-            char[] field = reader.readChars();
+            int index = reader.readFieldIndex(fieldTable, -1);
             if (!reader.isColon())
                 throw new JsonException("missing ':'");
 
-            ParserMetaInfo np = find(field);
-            if (np != null)
-                np.invoke(obj, reader);
+            if (index >= 0)
+                invoke(obj, index, reader);
             else
                 reader.skipValue();
 
@@ -102,16 +96,16 @@ public class ObjectParser implements Parser {
         }
     }
 
-    private ParserMetaInfo find(char[] field) {
-        if (useMap) {
-            return map.get(new String(field));
-        } else {
-            for (ParserMetaInfo parserMetaInfo : parserMetaInfos) {
-                if (parserMetaInfo.equals(field))
-                    return parserMetaInfo;
+    private void invoke(Object obj, int index, JsonReader reader) {
+        if (propertiesParser != null) {
+            try {
+                propertiesParser.parseProperty(obj, index, reader);
+            } catch (Throwable e) {
+                throw new CommonRuntimeException(e);
             }
+        } else {
+            parserMetaInfos[index].invoke(obj, reader);
         }
-        return null;
     }
 
 }
@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -17,7 +18,10 @@ import com.firefly.utils.json.exception.JsonException;
 
 public class ParserStateMachine {
 	
-	private static final IdentityHashMap<Class<?>, Parser> PARSER_MAP = new IdentityHashMap<Class<?>, Parser>();
+	// the registry is read without lock, it is never modified after it has been published
+	private static volatile IdentityHashMap<Class<?>, Parser> PARSER_MAP = new IdentityHashMap<Class<?>, Parser>();
+	// the parsers that are being initialized by the thread that holds the lock
+	private static final Map<Class<?>, Parser> COMPILING = new HashMap<Class<?>, Parser>();
 	private static final Lock lock = new ReentrantLock();
 	
 	private static final TimestampParser TIMESTAMP = new TimestampParser();
@@ -65,36 +69,65 @@ public class ParserStateMachine {
 	}
 	
 	public static Parser getParser(Class<?> clazz, DateFormat dateFormat) {
+		Parser ret = PARSER_MAP.get(clazz);
+		if (dateFormat != null && clazz == Date.class) {
+			switch (dateFormat.type()) {
+			case DATE_PATTERN_STRING:
+				ret = new DateParser(dateFormat.value());
+				break;
+			case TIMESTAMP:
+				ret = TIMESTAMP;
+				break;
+			default:
+				break;
+			}
+		} else if(ret == null) {
+			ret = compile(clazz);
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates the parser of a class that is not registered yet. The parsers of
+	 * the recursive types are only visible to the compiling thread until the
+	 * outermost class has been initialized, then they are published together
+	 * in a new copy of the registry.
+	 */
+	private static Parser compile(Class<?> clazz) {
 		lock.lock();
 		try {
 			Parser ret = PARSER_MAP.get(clazz);
-			if (dateFormat != null && clazz == Date.class) {
-				switch (dateFormat.type()) {
-				case DATE_PATTERN_STRING:
-					ret = new DateParser(dateFormat.value());
-					break;
-				case TIMESTAMP:
-					ret = TIMESTAMP;
-					break;
-				default:
-					break;
-				}
-			} else if(ret == null) {
+			if (ret == null)
+				ret = COMPILING.get(clazz);
+			if (ret != null)
+				return ret;
+
+			boolean outermost = COMPILING.isEmpty();
+			try {
 				if (clazz.isEnum()) {
 					ret = new EnumParser(clazz);
-					PARSER_MAP.put(clazz, ret);
+					COMPILING.put(clazz, ret);
 				} else if (Collection.class.isAssignableFrom(clazz) 
 						|| Map.class.isAssignableFrom(clazz)) {
 					throw new JsonException("not support type " + clazz);
 				} else if (clazz.isArray()) {
 					Class<?> elementClass = clazz.getComponentType();
 					ret = new ArrayParser(elementClass);
-					PARSER_MAP.put(clazz, ret);
+					COMPILING.put(clazz, ret);
 				} else {
 					ret = new ObjectParser();
-					PARSER_MAP.put(clazz, ret);
+					COMPILING.put(clazz, ret);
 					((ObjectParser)ret).init(clazz);
 				}
+
+				if (outermost) {
+					IdentityHashMap<Class<?>, Parser> map = new IdentityHashMap<>(PARSER_MAP);
+					COMPILING.forEach(map::put);
+					PARSER_MAP = map;
+				}
+			} finally {
+				if (outermost)
+					COMPILING.clear();
 			}
 			return ret;
 		} finally {
@@ -0,0 +1,22 @@
+package com.firefly.utils.json.serializer;
+
+import java.io.IOException;
+
+import com.firefly.utils.json.JsonWriter;
+
+public class DoubleArraySerializer extends SimpleArraySerializer {
+
+	public DoubleArraySerializer(boolean primitive) {
+		super(primitive);
+	}
+
+	@Override
+	public void convertTo(JsonWriter writer, Object obj) throws IOException {
+		if(primitive) {
+			writer.writeDoubleArray((double[])obj);
+		} else {
+			writer.writeDoubleArray((Double[])obj);
+		}
+	}
+
+}
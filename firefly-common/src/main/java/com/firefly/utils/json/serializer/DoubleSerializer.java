@@ -0,0 +1,13 @@
+package com.firefly.utils.json.serializer;
+
+import com.firefly.utils.json.JsonWriter;
+import com.firefly.utils.json.Serializer;
+
+public class DoubleSerializer implements Serializer {
+
+	@Override
+	public void convertTo(JsonWriter writer, Object obj) {
+		writer.writeDouble((Double)obj);
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.firefly.utils.json.serializer;
+
+import java.io.IOException;
+
+import com.firefly.utils.json.JsonWriter;
+import com.firefly.utils.json.LazyJsonArray;
+import com.firefly.utils.json.LazyJsonObject;
+import com.firefly.utils.json.Serializer;
+
+/**
+ * Copies the original text of the lazy objects and arrays that have not been
+ * modified, the others are serialized by the map or the collection serializer.
+ */
+public class LazyJsonSerializer implements Serializer {
+
+	private final Serializer serializer;
+
+	public LazyJsonSerializer(Serializer serializer) {
+		this.serializer = serializer;
+	}
+
+	@Override
+	public void convertTo(JsonWriter writer, Object obj) throws IOException {
+		if (obj instanceof LazyJsonObject) {
+			LazyJsonObject object = (LazyJsonObject) obj;
+			if (!object.isModified()) {
+				object.writeRaw(writer);
+				return;
+			}
+		} else if (obj instanceof LazyJsonArray) {
+			LazyJsonArray array = (LazyJsonArray) obj;
+			if (!array.isModified()) {
+				array.writeRaw(writer);
+				return;
+			}
+		}
+		serializer.convertTo(writer, obj);
+	}
+
+}
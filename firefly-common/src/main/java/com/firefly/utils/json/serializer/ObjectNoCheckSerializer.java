@@ -7,23 +7,32 @@ import java.io.IOException;
 
 import com.firefly.utils.json.JsonWriter;
 import com.firefly.utils.json.Serializer;
+import com.firefly.utils.json.compiler.BytecodeCompiler;
 import com.firefly.utils.json.compiler.EncodeCompiler;
+import com.firefly.utils.json.support.PropertiesSerializer;
 import com.firefly.utils.json.support.SerializerMetaInfo;
 
 public class ObjectNoCheckSerializer implements Serializer {
 	
 	private SerializerMetaInfo[] serializerMetaInfos;
+	private PropertiesSerializer propertiesSerializer;
 	
 	public void init(Class<?> clazz) {
 		serializerMetaInfos = EncodeCompiler.compile(clazz);
+		if (BytecodeCompiler.enabled)
+			propertiesSerializer = BytecodeCompiler.createSerializer(clazz, serializerMetaInfos);
 	}
 
 	@Override
 	public void convertTo(JsonWriter writer, Object obj) throws IOException {
 		writer.append(OBJ_PRE);
-		for(SerializerMetaInfo metaInfo : serializerMetaInfos){
-			writer.write(metaInfo.getPropertyName());
-			metaInfo.toJson(obj, writer);
+		if (propertiesSerializer != null) {
+			propertiesSerializer.writeProperties(writer, obj);
+		} else {
+			for(SerializerMetaInfo metaInfo : serializerMetaInfos){
+				writer.writePropertyName(metaInfo);
+				metaInfo.toJson(obj, writer);
+			}
 		}
 		writer.append(OBJ_SUF);
 	}
@@ -7,15 +7,20 @@ import java.io.IOException;
 
 import com.firefly.utils.json.JsonWriter;
 import com.firefly.utils.json.Serializer;
+import com.firefly.utils.json.compiler.BytecodeCompiler;
 import com.firefly.utils.json.compiler.EncodeCompiler;
+import com.firefly.utils.json.support.PropertiesSerializer;
 import com.firefly.utils.json.support.SerializerMetaInfo;
 
 public class ObjectSerializer implements Serializer {
 	
 	private SerializerMetaInfo[] serializerMetaInfos;
+	private PropertiesSerializer propertiesSerializer;
 	
 	public void init(Class<?> clazz) {
 		serializerMetaInfos = EncodeCompiler.compile(clazz);
+		if (BytecodeCompiler.enabled)
+			propertiesSerializer = BytecodeCompiler.createSerializer(clazz, serializerMetaInfos);
 	}
 
 	@Override
@@ -27,9 +32,13 @@ public class ObjectSerializer implements Serializer {
 		
 		writer.pushRef(obj);
 		writer.append(OBJ_PRE);
-		for(SerializerMetaInfo metaInfo : serializerMetaInfos){
-			writer.write(metaInfo.getPropertyName());
-			metaInfo.toJson(obj, writer);
+		if (propertiesSerializer != null) {
+			propertiesSerializer.writeProperties(writer, obj);
+		} else {
+			for(SerializerMetaInfo metaInfo : serializerMetaInfos){
+				writer.writePropertyName(metaInfo);
+				metaInfo.toJson(obj, writer);
+			}
 		}
 		writer.append(OBJ_SUF);
 		writer.popRef();
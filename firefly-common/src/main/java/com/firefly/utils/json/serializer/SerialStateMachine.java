@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -14,12 +15,17 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import com.firefly.utils.collection.IdentityHashMap;
 import com.firefly.utils.json.JsonWriter;
+import com.firefly.utils.json.LazyJsonArray;
+import com.firefly.utils.json.LazyJsonObject;
 import com.firefly.utils.json.Serializer;
 import com.firefly.utils.json.annotation.CircularReferenceCheck;
 import com.firefly.utils.json.annotation.DateFormat;
 
 abstract public class SerialStateMachine {
-	private static final IdentityHashMap<Class<?>, Serializer> SERIAL_MAP = new IdentityHashMap<Class<?>, Serializer>();
+	// the registry is read without lock, it is never modified after it has been published
+	private static volatile IdentityHashMap<Class<?>, Serializer> SERIAL_MAP = new IdentityHashMap<Class<?>, Serializer>();
+	// the serializers that are being initialized by the thread that holds the lock
+	private static final Map<Class<?>, Serializer> COMPILING = new HashMap<Class<?>, Serializer>();
 	private static final Lock lock = new ReentrantLock();
 	
 	private static final Serializer MAP = new MapSerializer();
@@ -38,8 +44,10 @@ abstract public class SerialStateMachine {
 		SERIAL_MAP.put(boolean.class, new BoolSerializer());
 		SERIAL_MAP.put(String.class, new StringSerializer());
 		SERIAL_MAP.put(Date.class, new DateSerializer());
-		SERIAL_MAP.put(double.class, STRING_VALUE);
+		SERIAL_MAP.put(double.class, new DoubleSerializer());
+		SERIAL_MAP.put(float.class, new FloatSerializer());
 		SERIAL_MAP.put(long[].class, new LongArraySerializer(true));
+		SERIAL_MAP.put(double[].class, new DoubleArraySerializer(true));
 		SERIAL_MAP.put(int[].class, new IntegerArraySerializer(true));
 		SERIAL_MAP.put(short[].class, new ShortArraySerializer(true));
 		SERIAL_MAP.put(boolean[].class, new BooleanArraySerializer(true));
@@ -54,6 +62,7 @@ abstract public class SerialStateMachine {
 		SERIAL_MAP.put(Byte.class, SERIAL_MAP.get(byte.class));
 		SERIAL_MAP.put(Boolean.class, SERIAL_MAP.get(boolean.class));
 		SERIAL_MAP.put(Long[].class, new LongArraySerializer(false));
+		SERIAL_MAP.put(Double[].class, new DoubleArraySerializer(false));
 		SERIAL_MAP.put(Integer[].class, new IntegerArraySerializer(false));
 		SERIAL_MAP.put(Short[].class, new ShortArraySerializer(false));
 		SERIAL_MAP.put(Boolean[].class, new BooleanArraySerializer(false));
@@ -65,32 +74,54 @@ abstract public class SerialStateMachine {
 		SERIAL_MAP.put(java.sql.Time.class, SERIAL_MAP.get(Date.class));
 		SERIAL_MAP.put(java.sql.Timestamp.class, SERIAL_MAP.get(Date.class));
 
-		SERIAL_MAP.put(Double.class, STRING_VALUE);
-		SERIAL_MAP.put(float.class, STRING_VALUE);
-		SERIAL_MAP.put(Float.class, STRING_VALUE);
+		SERIAL_MAP.put(Double.class, SERIAL_MAP.get(double.class));
+		SERIAL_MAP.put(Float.class, SERIAL_MAP.get(float.class));
 		SERIAL_MAP.put(AtomicInteger.class, STRING_VALUE);
 		SERIAL_MAP.put(AtomicLong.class, STRING_VALUE);
 		SERIAL_MAP.put(BigDecimal.class, STRING_VALUE);
 		SERIAL_MAP.put(BigInteger.class, STRING_VALUE);
 		SERIAL_MAP.put(AtomicBoolean.class, STRING_VALUE);
+
+		SERIAL_MAP.put(LazyJsonObject.class, new LazyJsonSerializer(MAP));
+		SERIAL_MAP.put(LazyJsonArray.class, new LazyJsonSerializer(COLLECTION));
 	}
 
 	public static Serializer getSerializer(Class<?> clazz, DateFormat dateFormat) {
+		Serializer ret = SERIAL_MAP.get(clazz);
+		if (dateFormat != null && (clazz == Date.class || Date.class.isAssignableFrom(clazz))) {
+			switch (dateFormat.type()) {
+			case DATE_PATTERN_STRING:
+				ret = new DateSerializer(dateFormat.value());
+				break;
+			case TIMESTAMP:
+				ret = TIMESTAMP;
+				break;
+			default:
+				break;
+			}
+		} else if (ret == null) {
+			ret = compile(clazz);
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates the serializer of a class that is not registered yet. The
+	 * serializers of the recursive types are only visible to the compiling
+	 * thread until the outermost class has been initialized, then they are
+	 * published together in a new copy of the registry.
+	 */
+	private static Serializer compile(Class<?> clazz) {
 		lock.lock();
 		try {
 			Serializer ret = SERIAL_MAP.get(clazz);
-			if (dateFormat != null && (clazz == Date.class || Date.class.isAssignableFrom(clazz))) {
-				switch (dateFormat.type()) {
-				case DATE_PATTERN_STRING:
-					ret = new DateSerializer(dateFormat.value());
-					break;
-				case TIMESTAMP:
-					ret = TIMESTAMP;
-					break;
-				default:
-					break;
-				}
-			} else if (ret == null) {
+			if (ret == null)
+				ret = COMPILING.get(clazz);
+			if (ret != null)
+				return ret;
+
+			boolean outermost = COMPILING.isEmpty();
+			try {
 				if (clazz.isEnum())
 					ret = new EnumSerializer(clazz);
 				else if (Map.class.isAssignableFrom(clazz))
@@ -103,14 +134,23 @@ abstract public class SerialStateMachine {
 					ret = DYNAMIC;
 				else
 					ret = clazz.isAnnotationPresent(CircularReferenceCheck.class) ? new ObjectSerializer() : new ObjectNoCheckSerializer();
-					
-				SERIAL_MAP.put(clazz, ret);
-				
+
+				COMPILING.put(clazz, ret);
+
 				if(ret instanceof ObjectNoCheckSerializer) {
 					((ObjectNoCheckSerializer)ret).init(clazz);
 				} else if(ret instanceof ObjectSerializer) {
 					((ObjectSerializer)ret).init(clazz);
 				}
+
+				if (outermost) {
+					IdentityHashMap<Class<?>, Serializer> map = new IdentityHashMap<>(SERIAL_MAP);
+					COMPILING.forEach(map::put);
+					SERIAL_MAP = map;
+				}
+			} finally {
+				if (outermost)
+					COMPILING.clear();
 			}
 			return ret;
 		} finally {
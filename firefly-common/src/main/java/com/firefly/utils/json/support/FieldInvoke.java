@@ -18,6 +18,10 @@ public class FieldInvoke implements PropertyInvoke {
         }
     }
 
+    public Field getField() {
+        return field.field();
+    }
+
     @Override
     public Object get(Object obj) {
         return field.get(obj);
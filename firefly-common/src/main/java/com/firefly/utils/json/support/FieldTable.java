@@ -0,0 +1,155 @@
+package com.firefly.utils.json.support;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A perfect hash table of the property names of a class. The hash of a name
+ * is computed by the JSON reader or the binary reader while it scans the
+ * name, then the name is compared with the only candidate of its slot, so a
+ * property is found without creating a string.
+ * <p>
+ * The multiplier of the hash and the size of the table are chosen when the
+ * table is created, so that every name has its own slot.
+ */
+public class FieldTable {
+
+	private static final int MAX_EXTRA_BITS = 4;
+	private static final int MAX_MULTIPLIERS = 64;
+
+	private final char[][] names;
+	private final int multiplier;
+	private final int shift;
+	// the index of the name in each slot, -1 if the slot is empty
+	private final int[] slots;
+
+	public FieldTable(char[][] names) {
+		this.names = names;
+
+		int minBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(names.length - 1));
+		for (int bits = minBits; bits <= minBits + MAX_EXTRA_BITS; bits++) {
+			for (int i = 0; i < MAX_MULTIPLIERS; i++) {
+				int m = 31 + (i << 1);
+				int[] table = createSlots(names, m, bits);
+				if (table != null) {
+					multiplier = m;
+					shift = 32 - bits;
+					slots = table;
+					return;
+				}
+			}
+		}
+		// the names are compared one by one
+		multiplier = 31;
+		shift = 0;
+		slots = null;
+	}
+
+	private static int[] createSlots(char[][] names, int multiplier, int bits) {
+		int[] table = new int[1 << bits];
+		for (int i = 0; i < table.length; i++) {
+			table[i] = -1;
+		}
+
+		for (int i = 0; i < names.length; i++) {
+			int h = 0;
+			for (char c : names[i]) {
+				h = h * multiplier + c;
+			}
+			int slot = (h * 0x9E3779B9) >>> (32 - bits);
+			if (table[slot] >= 0)
+				return null;
+			table[slot] = i;
+		}
+		return table;
+	}
+
+	/**
+	 * The hash of a name is computed as h = h * multiplier + c for each
+	 * character, the initial value is 0.
+	 *
+	 * @return the multiplier of the hash
+	 */
+	public int getMultiplier() {
+		return multiplier;
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+	public char[] getName(int index) {
+		return names[index];
+	}
+
+	/**
+	 * Finds the index of the name.
+	 *
+	 * @param hash   the hash of the name
+	 * @param chars  the buffer that contains the name
+	 * @param offset the start of the name
+	 * @param length the length of the name
+	 * @return the index of the name, or -1 if the table does not contain it
+	 */
+	public int find(int hash, char[] chars, int offset, int length) {
+		if (slots == null) {
+			for (int i = 0; i < names.length; i++) {
+				if (equals(names[i], chars, offset, length))
+					return i;
+			}
+			return -1;
+		}
+
+		int index = slots[(hash * 0x9E3779B9) >>> shift];
+		return index >= 0 && equals(names[index], chars, offset, length) ? index : -1;
+	}
+
+	/**
+	 * Finds the index of an ASCII name.
+	 *
+	 * @param hash   the hash of the name
+	 * @param buffer the buffer that contains the ASCII bytes of the name
+	 * @param offset the start of the name
+	 * @param length the length of the name
+	 * @return the index of the name, or -1 if the table does not contain it
+	 */
+	public int find(int hash, ByteBuffer buffer, int offset, int length) {
+		if (slots == null) {
+			for (int i = 0; i < names.length; i++) {
+				if (equals(names[i], buffer, offset, length))
+					return i;
+			}
+			return -1;
+		}
+
+		int index = slots[(hash * 0x9E3779B9) >>> shift];
+		return index >= 0 && equals(names[index], buffer, offset, length) ? index : -1;
+	}
+
+	public int find(char[] name) {
+		int h = 0;
+		for (char c : name) {
+			h = h * multiplier + c;
+		}
+		return find(h, name, 0, name.length);
+	}
+
+	private static boolean equals(char[] name, char[] chars, int offset, int length) {
+		if (name.length != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (name[i] != chars[offset + i])
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean equals(char[] name, ByteBuffer buffer, int offset, int length) {
+		if (name.length != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (name[i] != buffer.get(offset + i))
+				return false;
+		}
+		return true;
+	}
+}
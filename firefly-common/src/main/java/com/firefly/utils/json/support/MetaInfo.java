@@ -1,9 +1,12 @@
 package com.firefly.utils.json.support;
 
+import com.firefly.utils.json.annotation.DateFormat;
+
 public class MetaInfo implements Comparable<MetaInfo> {
 	protected PropertyInvoke propertyInvoke;
 	protected char[] propertyName;
 	protected String propertyNameString;
+	protected DateFormat dateFormat;
 
 	public PropertyInvoke getPropertyInvoke() {
 		return propertyInvoke;
@@ -21,6 +24,17 @@ public class MetaInfo implements Comparable<MetaInfo> {
 		return propertyNameString;
 	}
 
+	/**
+	 * @return the date format annotation of the property, or null if it has not
+	 */
+	public DateFormat getDateFormat() {
+		return dateFormat;
+	}
+
+	public void setDateFormat(DateFormat dateFormat) {
+		this.dateFormat = dateFormat;
+	}
+
 	@Override
 	public int compareTo(MetaInfo o) {
 		return propertyNameString.compareTo(o.getPropertyNameString());
@@ -18,6 +18,10 @@ public class MethodInvoke implements PropertyInvoke {
         }
     }
 
+    public Method getMethod() {
+        return method.method();
+    }
+
     @Override
     public void set(Object obj, Object arg) {
         method.invoke(obj, arg);
@@ -0,0 +1,24 @@
+package com.firefly.utils.json.support;
+
+import java.io.IOException;
+
+import com.firefly.utils.json.JsonReader;
+
+/**
+ * Creates an object and sets its properties, it is generated for each class
+ * by the {@link com.firefly.utils.json.compiler.BytecodeCompiler}.
+ */
+public interface PropertiesParser {
+
+	Object newInstance();
+
+	/**
+	 * Reads a value and sets the property.
+	 *
+	 * @param obj    the object
+	 * @param index  the index of the property in the parser meta information
+	 * @param reader the JSON reader
+	 * @throws IOException if the reader fails
+	 */
+	void parseProperty(Object obj, int index, JsonReader reader) throws IOException;
+}
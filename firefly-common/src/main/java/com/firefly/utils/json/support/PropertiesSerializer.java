@@ -0,0 +1,21 @@
+package com.firefly.utils.json.support;
+
+import java.io.IOException;
+
+import com.firefly.utils.json.JsonWriter;
+
+/**
+ * Writes the properties of an object, it is generated for each class by the
+ * {@link com.firefly.utils.json.compiler.BytecodeCompiler}.
+ */
+public interface PropertiesSerializer {
+
+	/**
+	 * Writes the names and the values of the properties without the braces.
+	 *
+	 * @param writer the JSON writer
+	 * @param obj    the object
+	 * @throws IOException if the writer fails
+	 */
+	void writeProperties(JsonWriter writer, Object obj) throws IOException;
+}
@@ -4,6 +4,7 @@ import static com.firefly.utils.json.JsonStringSymbol.OBJ_SEPARATOR;
 import static com.firefly.utils.json.JsonStringSymbol.QUOTE;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import com.firefly.utils.json.JsonWriter;
 import com.firefly.utils.json.Serializer;
@@ -11,10 +12,16 @@ import com.firefly.utils.json.Serializer;
 public class SerializerMetaInfo extends MetaInfo {
 
 	private Serializer serializer;
+	private byte[] propertyNameBytes;
 
 	public void setPropertyName(String propertyName, boolean first) {
 		propertyNameString = propertyName;
 		this.propertyName = ((first ? "" : ",") + QUOTE + propertyName + QUOTE + OBJ_SEPARATOR).toCharArray();
+		this.propertyNameBytes = new String(this.propertyName).getBytes(StandardCharsets.UTF_8);
+	}
+
+	public byte[] getPropertyNameBytes() {
+		return propertyNameBytes;
 	}
 
 	public void setSerializer(Serializer serializer) {
@@ -1,6 +1,6 @@
 package com.firefly.utils.lang.pool;
 
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -16,7 +16,7 @@ public class PooledObject<T> {
 
     public PooledObject(T object) {
         this.object = object;
-        createTime = Millisecond100Clock.currentTimeMillis();
+        createTime = SystemClock.currentTimeMillis();
         activeTime = createTime;
     }
 
@@ -33,7 +33,7 @@ public class PooledObject<T> {
     }
 
     public T getObject() {
-        activeTime = Millisecond100Clock.currentTimeMillis();
+        activeTime = SystemClock.currentTimeMillis();
         return object;
     }
 
@@ -1,19 +1,36 @@
 package com.firefly.utils.log;
 
+import com.firefly.utils.ConvertUtils;
 import com.firefly.utils.VerifyUtils;
 import com.firefly.utils.log.file.FileLog;
+import com.firefly.utils.log.file.JsonLogLayout;
+import com.firefly.utils.log.file.TextLogLayout;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 public abstract class AbstractLogConfigParser implements LogConfigParser {
 
     protected FileLog createLog(String name, String level, String path, boolean console, int maxFileSize, Charset charset) {
+        return createLog(name, level, path, console, maxFileSize, charset, DEFAULT_OVERFLOW_POLICY);
+    }
+
+    /**
+     * Creates a log.
+     *
+     * @param overflowPolicy the overflow policy and its optional argument separated by a colon,
+     *                       e.g. "block", "drop-below-level", "drop-below-level:ERROR", "sample:100"
+     *                       "discard-oldest" or "discard-oldest:256"
+     */
+    protected FileLog createLog(String name, String level, String path, boolean console, int maxFileSize,
+                                Charset charset, String overflowPolicy) {
         FileLog fileLog = new FileLog();
         fileLog.setName(name);
         fileLog.setLevel(LogLevel.fromName(level));
         fileLog.setMaxFileSize(maxFileSize);
         fileLog.setCharset(charset);
+        setOverflowPolicy(fileLog, overflowPolicy);
 
         boolean createLogDirectorySuccess = false;
         if (VerifyUtils.isNotEmpty(path)) {
@@ -52,6 +69,83 @@ public abstract class AbstractLogConfigParser implements LogConfigParser {
         return fileLog;
     }
 
+    /**
+     * Sets the layout of a log. The JSON layout only writes UTF-8, so the
+     * charset of the log is replaced by UTF-8 if it is different.
+     *
+     * @param layout "text", "json" or the class name of a {@link LogLayout}
+     */
+    protected void setLayout(FileLog fileLog, String layout) {
+        LogLayout logLayout = createLayout(layout);
+        if (logLayout instanceof JsonLogLayout && !StandardCharsets.UTF_8.equals(fileLog.getCharset())) {
+            System.err.println("The log " + fileLog.getName() + " uses the json layout that only writes UTF-8. "
+                    + "It will use UTF-8 instead of the charset " + fileLog.getCharset());
+            fileLog.setCharset(StandardCharsets.UTF_8);
+        }
+        fileLog.setLayout(logLayout);
+    }
+
+    /**
+     * Creates the layout of a log.
+     *
+     * @param layout "text", "json" or the class name of a {@link LogLayout} that has a public no-arg constructor
+     * @return the layout, or the text layout if the layout is illegal
+     */
+    protected LogLayout createLayout(String layout) {
+        if (VerifyUtils.isEmpty(layout) || "text".equalsIgnoreCase(layout.trim())) {
+            return new TextLogLayout();
+        } else if ("json".equalsIgnoreCase(layout.trim())) {
+            return new JsonLogLayout();
+        }
+
+        try {
+            return (LogLayout) Class.forName(layout.trim()).newInstance();
+        } catch (Throwable t) {
+            System.err.println("create log layout " + layout + " exception, " + t.getMessage()
+                    + ". It will use the text layout");
+            return new TextLogLayout();
+        }
+    }
+
+    protected boolean isOverflowPolicy(String overflowPolicy) {
+        int i = overflowPolicy.indexOf(':');
+        return LogOverflowPolicy.fromName(i < 0 ? overflowPolicy : overflowPolicy.substring(0, i)) != null;
+    }
+
+    private void setOverflowPolicy(FileLog fileLog, String overflowPolicy) {
+        if (VerifyUtils.isEmpty(overflowPolicy))
+            return;
+
+        int i = overflowPolicy.indexOf(':');
+        String name = i < 0 ? overflowPolicy : overflowPolicy.substring(0, i);
+        String argument = i < 0 ? null : overflowPolicy.substring(i + 1).trim();
+        LogOverflowPolicy policy = LogOverflowPolicy.fromName(name);
+        if (policy == null) {
+            System.err.println("The log " + fileLog.getName() + " overflow policy " + overflowPolicy
+                    + " is illegal. It will use the block policy");
+            return;
+        }
+
+        fileLog.setOverflowPolicy(policy);
+        if (VerifyUtils.isNotEmpty(argument)) {
+            switch (policy) {
+                case DROP_BELOW_LEVEL:
+                    fileLog.setOverflowLevel(LogLevel.fromName(argument.toUpperCase()));
+                    break;
+                case SAMPLE:
+                    int sampleRate = ConvertUtils.convert(argument, DEFAULT_OVERFLOW_SAMPLE_RATE);
+                    fileLog.setSampleRate(sampleRate > 0 ? sampleRate : DEFAULT_OVERFLOW_SAMPLE_RATE);
+                    break;
+                case DISCARD_OLDEST:
+                    int bufferSize = ConvertUtils.convert(argument, DEFAULT_OVERFLOW_BUFFER_SIZE);
+                    fileLog.setOverflowBufferSize(bufferSize > 0 ? bufferSize : DEFAULT_OVERFLOW_BUFFER_SIZE);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     private boolean createLogDirectory(File file) {
         if (file.exists() && file.isDirectory()) {
             return true;
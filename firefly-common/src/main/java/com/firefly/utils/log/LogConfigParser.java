@@ -17,6 +17,13 @@ public interface LogConfigParser {
     public static final File DEFAULT_LOG_DIRECTORY = new File(System.getProperty("user.dir"), "logs");
     public static final boolean DEFAULT_CONSOLE_ENABLED = false;
     public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    public static final String DEFAULT_LAYOUT = "text";
+    public static final boolean DEFAULT_COMPRESS_ROLLED_FILES = false;
+    public static final int DEFAULT_MAX_ROLLED_FILES = 0;
+    public static final String DEFAULT_OVERFLOW_POLICY = "block";
+    public static final String DEFAULT_OVERFLOW_LEVEL = "WARN";
+    public static final int DEFAULT_OVERFLOW_SAMPLE_RATE = 10;
+    public static final int DEFAULT_OVERFLOW_BUFFER_SIZE = 1024;
 
     public boolean parse(Action1<FileLog> action);
 
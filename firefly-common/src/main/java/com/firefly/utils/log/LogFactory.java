@@ -5,11 +5,15 @@ import com.firefly.utils.collection.Trie;
 import com.firefly.utils.lang.AbstractLifeCycle;
 import com.firefly.utils.log.file.FileLog;
 import com.firefly.utils.log.file.FileLogTask;
-import com.firefly.utils.time.Millisecond100Clock;
 import com.firefly.utils.time.SafeSimpleDateFormat;
 
 public class LogFactory extends AbstractLifeCycle {
 	
+	/**
+	 * @deprecated use {@link com.firefly.utils.time.SystemClock#formatDay(long)}
+	 *             that caches the formatted day
+	 */
+	@Deprecated
 	public static final SafeSimpleDateFormat DAY_DATE_FORMAT = new SafeSimpleDateFormat("yyyy-MM-dd");
 
 	private final Trie<Log> logTree = new TreeTrie<>();
@@ -80,7 +84,6 @@ public class LogFactory extends AbstractLifeCycle {
 	@Override
 	protected void destroy() {
 		logTask.stop();
-		Millisecond100Clock.stop();
 	}
 
 }
@@ -2,25 +2,43 @@ package com.firefly.utils.log;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.AbstractCollection;
+import java.util.Arrays;
 
-import com.firefly.utils.StringUtils;
+import com.firefly.utils.time.SystemClock;
 
+/**
+ * A log event. The log task keeps the items in a ring buffer and reuses them,
+ * so an item is only valid until it has been written.
+ */
 public class LogItem {
-	
+
 	private String name, content, date, level;
 	private Object[] objs;
 	private Throwable throwable;
 	private StackTraceElement stackTraceElement;
 	private String logStr;
+	private Log log;
+	private long time;
+	private long nanoTime;
+	private Thread thread;
 
 	public void setThrowable(Throwable throwable) {
 		this.throwable = throwable;
 	}
 
+	public Throwable getThrowable() {
+		return throwable;
+	}
+
 	public void setObjs(Object[] objs) {
 		this.objs = objs;
 	}
 
+	public Object[] getObjs() {
+		return objs;
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -33,6 +51,10 @@ public class LogItem {
 		this.content = content;
 	}
 
+	public String getContent() {
+		return content;
+	}
+
 	public String getLevel() {
 		return level;
 	}
@@ -53,29 +75,140 @@ public class LogItem {
 		this.stackTraceElement = stackTraceElement;
 	}
 
-	@Override
-	public String toString() {
-		if (logStr == null) {
-			content = StringUtils.replace(content, objs);
-			if (throwable != null) {
-				StringWriter str = new StringWriter();
-				PrintWriter out = new PrintWriter(str);
-				try {
-					out.println();
-					out.println("$err_start");
-					throwable.printStackTrace(out);
-					out.println("$err_end");
-				} finally {
-					out.close();
+	/**
+	 * @return the log that writes the item, or null if it is found by the name
+	 */
+	public Log getLog() {
+		return log;
+	}
+
+	public void setLog(Log log) {
+		this.log = log;
+	}
+
+	/**
+	 * @return the time in milliseconds when the item was logged
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	public void setTime(long time) {
+		this.time = time;
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} when the item was added to the
+	 *         log task, it measures the write latency
+	 */
+	public long getNanoTime() {
+		return nanoTime;
+	}
+
+	public void setNanoTime(long nanoTime) {
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * @return the thread that logged the item
+	 */
+	public Thread getThread() {
+		return thread;
+	}
+
+	public void setThread(Thread thread) {
+		this.thread = thread;
+	}
+
+	/**
+	 * Releases the references of the item after it has been written.
+	 */
+	public void clear() {
+		name = null;
+		content = null;
+		date = null;
+		level = null;
+		objs = null;
+		throwable = null;
+		stackTraceElement = null;
+		logStr = null;
+		log = null;
+		time = 0;
+		nanoTime = 0;
+		thread = null;
+	}
+
+	/**
+	 * Appends the item like {@link #toString()}, the content is formatted
+	 * into the string builder directly.
+	 *
+	 * @param sb
+	 *            the string builder
+	 * @param date
+	 *            the formatted time of the item
+	 */
+	public void appendTo(StringBuilder sb, String date) {
+		sb.append(level).append(' ').append(date);
+		if (stackTraceElement != null) {
+			sb.append(' ').append(stackTraceElement);
+		}
+		sb.append('\t');
+		appendContent(sb);
+	}
+
+	private void appendContent(StringBuilder sb) {
+		if (objs == null || objs.length == 0 || content == null || !content.contains("{}")) {
+			sb.append(content);
+		} else {
+			// the same as StringUtils.replace
+			int cursor = 0;
+			int index = 0;
+			for (int start; (start = content.indexOf("{}", cursor)) != -1;) {
+				sb.append(content, cursor, start);
+				if (index < objs.length) {
+					Object obj = objs[index];
+					try {
+						if (obj instanceof AbstractCollection) {
+							sb.append(Arrays.toString(((AbstractCollection<?>) obj).toArray()));
+						} else {
+							sb.append(obj);
+						}
+					} catch (Throwable t) {
+						System.err.println("replace string exception, the parameter type is " + obj.getClass() + ", " + t.getMessage());
+					}
+				} else {
+					sb.append("{}");
 				}
-				content += str.toString();
+				cursor = start + 2;
+				index++;
 			}
+			sb.append(content, cursor, content.length());
+		}
 
-			if(stackTraceElement != null) {
-				logStr = level + " " + date + " " + stackTraceElement + "\t" + content;
-			} else {
-				logStr = level + " " + date + "\t" + content;
+		if (throwable != null) {
+			StringWriter str = new StringWriter();
+			PrintWriter out = new PrintWriter(str);
+			try {
+				out.println();
+				out.println("$err_start");
+				throwable.printStackTrace(out);
+				out.println("$err_end");
+			} finally {
+				out.close();
+			}
+			sb.append(str.getBuffer());
+		}
+	}
+
+	@Override
+	public String toString() {
+		if (logStr == null) {
+			if (date == null) {
+				date = SystemClock.formatDate(time);
 			}
+			StringBuilder sb = new StringBuilder();
+			appendTo(sb, date);
+			logStr = sb.toString();
 		}
 		return logStr;
 	}
@@ -0,0 +1,24 @@
+package com.firefly.utils.log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Formats the log items of a file log. The layout is only called by the log
+ * thread, so it can reuse its buffers.
+ */
+public interface LogLayout {
+
+	/**
+	 * Formats a log item as one line that ends with {@link Log#CL}.
+	 * 
+	 * @param item
+	 *            the log item
+	 * @param charset
+	 *            the charset of the log
+	 * @return a heap buffer whose bytes from the position to the limit are
+	 *         the line, it is reused by the next call
+	 */
+	ByteBuffer format(LogItem item, Charset charset);
+
+}
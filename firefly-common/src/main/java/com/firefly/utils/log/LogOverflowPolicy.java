@@ -0,0 +1,64 @@
+package com.firefly.utils.log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What a log does with an event when the buffer of the log task is full.
+ */
+public enum LogOverflowPolicy {
+
+	/**
+	 * The caller waits until the log thread has written an event.
+	 */
+	BLOCK("block"),
+
+	/**
+	 * The events below the overflow level (WARN by default) are dropped, the
+	 * others block.
+	 */
+	DROP_BELOW_LEVEL("drop-below-level"),
+
+	/**
+	 * The Nth of every N events is kept and blocks, the others are dropped.
+	 */
+	SAMPLE("sample"),
+
+	/**
+	 * The caller never waits. The event is kept in the overflow buffer of its
+	 * log (1024 events by default) until the log thread writes it, and the
+	 * oldest event in that buffer is discarded when it is full, so the events
+	 * of the other logs are never discarded.
+	 */
+	DISCARD_OLDEST("discard-oldest");
+
+	private final String name;
+	private static final Map<String, LogOverflowPolicy> policyNameMap = new HashMap<>();
+
+	static {
+		for (LogOverflowPolicy policy : LogOverflowPolicy.values()) {
+			policyNameMap.put(policy.name, policy);
+		}
+	}
+
+	private LogOverflowPolicy(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param name
+	 *            the policy name, e.g. "drop-below-level"
+	 * @return the policy, or null if the name is unknown
+	 */
+	public static LogOverflowPolicy fromName(String name) {
+		if (name == null)
+			return null;
+
+		return policyNameMap.get(name.trim().toLowerCase());
+	}
+
+}
@@ -4,6 +4,32 @@ import com.firefly.utils.lang.LifeCycle;
 
 public interface LogTask extends Runnable, LifeCycle {
 	
+	/**
+	 * Adds a log item, its fields are copied, so the item can be reused by the
+	 * caller.
+	 * 
+	 * @param logItem
+	 *            the log item
+	 */
 	void add(LogItem logItem);
+
+	/**
+	 * Adds a log event without creating a log item.
+	 * 
+	 * @param log
+	 *            the log that writes the event
+	 * @param level
+	 *            the level name
+	 * @param content
+	 *            the message template, the "{}" are replaced by the objects
+	 * @param objs
+	 *            the objects of the message
+	 * @param throwable
+	 *            the exception or null
+	 * @param stackTraceElement
+	 *            the caller or null
+	 */
+	void add(Log log, String level, String content, Object[] objs, Throwable throwable,
+			StackTraceElement stackTraceElement);
 	
 }
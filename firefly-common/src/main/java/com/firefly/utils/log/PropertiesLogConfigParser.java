@@ -11,6 +11,8 @@ import com.firefly.utils.log.file.FileLog;
 
 public class PropertiesLogConfigParser extends AbstractLogConfigParser {
 
+	private static final String LAYOUT_OPTION = "layout:";
+
 	@Override
 	public boolean parse(Action1<FileLog> action) {
 		try {
@@ -38,34 +40,58 @@ public class PropertiesLogConfigParser extends AbstractLogConfigParser {
 		return properties;
 	}
 
-	private void parseProperties(Properties properties, Action1<FileLog> fileLog) {
+	/**
+	 * The format is "name=level[,path][,console][,layout:name][,overflow-policy]",
+	 * e.g. "test=INFO,/var/log,console,layout:json,sample:100".
+	 */
+	private void parseProperties(Properties properties, Action1<FileLog> action) {
 		for (Entry<Object, Object> entry : properties.entrySet()) {
 			String name = (String) entry.getKey();
 			String value = (String) entry.getValue();
 
 			String[] strs = StringUtils.split(value, ',');
+			String overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+			String layout = DEFAULT_LAYOUT;
+			int length = strs.length;
+			while (length > 1) {
+				String option = strs[length - 1];
+				if (option.startsWith(LAYOUT_OPTION)) {
+					layout = option.substring(LAYOUT_OPTION.length());
+				} else if (isOverflowPolicy(option)) {
+					overflowPolicy = option;
+				} else {
+					break;
+				}
+				length--;
+			}
 
-			switch (strs.length) {
+			FileLog fileLog;
+			switch (length) {
 			case 1:
-				fileLog.call(createLog(name, strs[0], null, false, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET));
+				fileLog = createLog(name, strs[0], null, false, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET,
+						overflowPolicy);
 				break;
 			case 2:
 				if ("console".equalsIgnoreCase(strs[1])) {
-					fileLog.call(createLog(name, strs[0], null, true, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET));
+					fileLog = createLog(name, strs[0], null, true, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET,
+							overflowPolicy);
 				} else {
-					fileLog.call(createLog(name, strs[0], strs[1], false, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET));
+					fileLog = createLog(name, strs[0], strs[1], false, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET,
+							overflowPolicy);
 				}
 				break;
 			case 3:
-				fileLog.call(
-						createLog(name, strs[0], strs[1], "console".equalsIgnoreCase(strs[2]), DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET));
+				fileLog = createLog(name, strs[0], strs[1], "console".equalsIgnoreCase(strs[2]),
+						DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET, overflowPolicy);
 				break;
 			default:
 				System.err.println(
 						"The log " + name + " configuration format is illegal. It will use default log configuration");
-				fileLog.call(createLog(name, DEFAULT_LOG_LEVEL, null, false, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET));
-				break;
+				action.call(createLog(name, DEFAULT_LOG_LEVEL, null, false, DEFAULT_MAX_FILE_SIZE, DEFAULT_CHARSET));
+				continue;
 			}
+			setLayout(fileLog, layout);
+			action.call(fileLog);
 		}
 	}
 
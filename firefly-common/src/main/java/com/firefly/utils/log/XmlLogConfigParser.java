@@ -38,7 +38,15 @@ public class XmlLogConfigParser extends AbstractLogConfigParser {
 					System.err.println("the max log file less than 10MB, please set a larger file size");
 				}
 				String charset = dom.getTextValueByTagName(e, "charset", DEFAULT_CHARSET.name());
-				action.call(createLog(name, level, path, consoleEnabled, maxFileSize, Charset.forName(charset)));
+				String overflowPolicy = dom.getTextValueByTagName(e, "overflow-policy", DEFAULT_OVERFLOW_POLICY);
+				FileLog fileLog = createLog(name, level, path, consoleEnabled, maxFileSize, Charset.forName(charset),
+						overflowPolicy);
+				fileLog.setCompressRolledFiles(ConvertUtils.convert(
+						dom.getTextValueByTagName(e, "compress-rolled-files"), DEFAULT_COMPRESS_ROLLED_FILES));
+				fileLog.setMaxRolledFiles(ConvertUtils.convert(dom.getTextValueByTagName(e, "max-rolled-files"),
+						DEFAULT_MAX_ROLLED_FILES));
+				setLayout(fileLog, dom.getTextValueByTagName(e, "layout", DEFAULT_LAYOUT));
+				action.call(fileLog);
 			}
 		}
 		return true;
@@ -1,19 +1,19 @@
 package com.firefly.utils.log.file;
 
 import com.firefly.utils.log.*;
-import com.firefly.utils.time.SafeSimpleDateFormat;
 
-import java.io.*;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Date;
+import java.util.ArrayDeque;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class FileLog implements Log, Closeable {
 
     private static final boolean stackTrace = Boolean.getBoolean("debugMode");
+    private static final Object[] EMPTY = new Object[0];
 
     private LogLevel level;
     private String path;
@@ -22,132 +22,132 @@ public class FileLog implements Log, Closeable {
     private boolean fileOutput;
     private int maxFileSize;
     private Charset charset = LogConfigParser.DEFAULT_CHARSET;
-
-    private LogOutputStream output = new LogOutputStream();
+    private LogOverflowPolicy overflowPolicy = LogOverflowPolicy.BLOCK;
+    private LogLevel overflowLevel = LogLevel.fromName(LogConfigParser.DEFAULT_OVERFLOW_LEVEL);
+    private int sampleRate = LogConfigParser.DEFAULT_OVERFLOW_SAMPLE_RATE;
+    private int overflowBufferSize = LogConfigParser.DEFAULT_OVERFLOW_BUFFER_SIZE;
+    private boolean compressRolledFiles;
+    private int maxRolledFiles;
+    private LogLayout layout = new TextLogLayout();
+
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final LongAdder droppedCount = new LongAdder();
+    // the events of the discard-oldest policy that wait for the buffer of the log task
+    private final ArrayDeque<LogItem> overflowItems = new ArrayDeque<>();
+    // the items of the discarded and written overflow events, they are reused by the new events
+    private final ArrayDeque<LogItem> freeOverflowItems = new ArrayDeque<>();
+    private volatile boolean overflowing;
+
+    private final LogFileAppender output = new LogFileAppender(this);
 
     void write(LogItem logItem) {
-        Date date = new Date();
-        logItem.setDate(SafeSimpleDateFormat.defaultDateFormat.format(date));
+        ByteBuffer line = layout.format(logItem, charset);
+        byte[] bytes = line.array();
+        int off = line.arrayOffset() + line.position();
         if (consoleOutput) {
-            System.out.println(logItem.toString());
+            System.out.print(new String(bytes, off, line.remaining(), charset));
         }
 
         if (fileOutput) {
-            logItem.setDate(SafeSimpleDateFormat.defaultDateFormat.format(date));
-            output.write(logItem.toString(), date);
+            output.write(bytes, off, line.remaining(), logItem.getTime());
         }
     }
 
-    private class LogOutputStream {
-
-        private static final int bufferSize = 4 * 1024;
-        private BufferedOutputStream bufferedOutputStream;
-
-        private String currentDate = LogFactory.DAY_DATE_FORMAT.format(new Date());
-        private int writeSize;
-        private int currentBakIndex;
-
-        public void write(String str, Date date) {
-            byte[] text = (str + CL).getBytes(charset);
-            boolean success = initializeBufferedWriter(LogFactory.DAY_DATE_FORMAT.format(date), writeSize + text.length);
-            if (success) {
-                try {
-                    bufferedOutputStream.write(text);
-                    writeSize += text.length;
-                } catch (IOException e) {
-                    System.err.println("writer log exception, " + e.getMessage());
-                }
-            } else {
-                System.err.println("The log " + toString() + " can not get buffered writer!");
-            }
+    /**
+     * Decides whether an event is kept when the buffer of the log task is
+     * full.
+     *
+     * @param level the level name of the event
+     * @return true if the caller waits for the buffer, false if the event is dropped
+     */
+    boolean isKeptOnOverflow(String level) {
+        switch (overflowPolicy) {
+            case DROP_BELOW_LEVEL:
+                return LogLevel.fromName(level).getLevel() >= overflowLevel.getLevel();
+            case SAMPLE:
+                return overflowCount.incrementAndGet() % sampleRate == 0;
+            default:
+                return true;
         }
+    }
 
-        public void flush() {
-            if (bufferedOutputStream != null) {
-                try {
-                    bufferedOutputStream.flush();
-                } catch (IOException e) {
-                    System.err.println("flush log buffer exception, " + e.getMessage());
-                }
-            }
-        }
+    void drop() {
+        droppedCount.increment();
+    }
 
-        public void close() {
-            if (bufferedOutputStream != null) {
-                try {
-                    bufferedOutputStream.close();
-                } catch (IOException e) {
-                    System.err.println("close log writer exception, " + e.getMessage());
-                }
-            }
+    /**
+     * Takes an item for a new event of the discard-oldest policy. It is a free item of a discarded or written event,
+     * a new item is created only until the overflow buffer has been filled once.
+     *
+     * @return the item for the event
+     */
+    LogItem takeOverflowItem() {
+        synchronized (overflowItems) {
+            LogItem logItem = freeOverflowItems.pollFirst();
+            return logItem != null ? logItem : new LogItem();
         }
+    }
 
-        private boolean createNewBufferedOutputStream(String newDate) {
-            try {
-                File file = new File(path, getLogFileName(newDate));
-                bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(file, true), bufferSize);
-                currentDate = newDate;
-                writeSize = (int) file.length();
-                System.out.println("get new log buffer, the file path is " + file.getAbsolutePath() + " and the size is " + file.length());
-                return true;
-            } catch (IOException e) {
-                System.err.println("create log writer exception, " + e.getMessage());
-                return false;
+    /**
+     * Keeps an event of the discard-oldest policy until the log thread writes it.
+     *
+     * @param logItem the event
+     * @return true if the oldest kept event is discarded because the overflow buffer is full
+     */
+    boolean offerOverflow(LogItem logItem) {
+        synchronized (overflowItems) {
+            boolean discarded = false;
+            if (overflowItems.size() >= overflowBufferSize) {
+                recycle(overflowItems.pollFirst());
+                discarded = true;
             }
+            overflowItems.offerLast(logItem);
+            overflowing = true;
+            return discarded;
         }
+    }
 
-        private String getLogFileName(String date) {
-            return name + "." + date + ".txt";
+    /**
+     * @return the oldest kept event, or null if the overflow buffer is empty
+     */
+    LogItem pollOverflow() {
+        synchronized (overflowItems) {
+            LogItem logItem = overflowItems.pollFirst();
+            overflowing = !overflowItems.isEmpty();
+            return logItem;
         }
+    }
 
-        private String getBackupLogFileName(String date, int index) {
-            return getLogFileName(date) + "." + index + ".bak";
+    /**
+     * Releases the item of an overflow event that the log thread has written.
+     *
+     * @param logItem the written event
+     */
+    void releaseOverflow(LogItem logItem) {
+        synchronized (overflowItems) {
+            recycle(logItem);
         }
+    }
 
-        private boolean createNewLogFile(String date, int currentWriteSize) {
-            boolean ret;
-            try {
-                Path logPath = Paths.get(path, getLogFileName(date));
-                if (!Files.exists(logPath)) {
-                    ret = true;
-                } else {
-                    if (maxFileSize > 0) {
-                        if (!currentDate.equals(date)) {
-                            ret = true;
-                        } else {
-                            if (currentWriteSize < 0 || currentWriteSize > maxFileSize) {
-                                // create log file backup
-                                while (Files.exists(Paths.get(path, getBackupLogFileName(date, currentBakIndex)))) {
-                                    currentBakIndex++;
-                                }
-                                Files.move(logPath, Paths.get(path, getBackupLogFileName(date, currentBakIndex)));
-                                ret = true;
-                            } else {
-                                ret = false;
-                            }
-                        }
-                    } else {
-                        ret = !currentDate.equals(date);
-                    }
-                }
-                if (ret) {
-                    Files.createFile(logPath);
-                }
-            } catch (IOException e) {
-                System.err.println("create new log file exception, " + e.getMessage());
-                ret = false;
-            }
-            return ret;
+    private void recycle(LogItem logItem) {
+        if (freeOverflowItems.size() < overflowBufferSize) {
+            logItem.clear();
+            freeOverflowItems.offerLast(logItem);
         }
+    }
 
-        private boolean initializeBufferedWriter(String newDate, int currentWriteSize) {
-            if (createNewLogFile(newDate, currentWriteSize)) {
-                close();
-                return createNewBufferedOutputStream(newDate);
-            } else {
-                return bufferedOutputStream != null || createNewBufferedOutputStream(newDate);
-            }
-        }
+    /**
+     * @return true if the overflow buffer has events, the new events are kept behind them
+     */
+    boolean isOverflowing() {
+        return overflowing;
+    }
+
+    /**
+     * @return the number of the events of this log that are dropped by the overflow policy
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
     }
 
     public void flush() {
@@ -200,6 +200,41 @@ public class FileLog implements Log, Closeable {
         this.maxFileSize = maxFileSize;
     }
 
+    /**
+     * @return true if the rolled files are compressed by gzip
+     */
+    public boolean isCompressRolledFiles() {
+        return compressRolledFiles;
+    }
+
+    public void setCompressRolledFiles(boolean compressRolledFiles) {
+        this.compressRolledFiles = compressRolledFiles;
+    }
+
+    /**
+     * @return the max number of the rolled files that are kept, 0 means all the files are kept
+     */
+    public int getMaxRolledFiles() {
+        return maxRolledFiles;
+    }
+
+    public void setMaxRolledFiles(int maxRolledFiles) {
+        this.maxRolledFiles = maxRolledFiles;
+    }
+
+    public LogLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Sets the layout of the log, the layout is only called by the log thread.
+     *
+     * @param layout the layout, e.g. {@link TextLogLayout} or {@link JsonLogLayout}
+     */
+    public void setLayout(LogLayout layout) {
+        this.layout = layout;
+    }
+
     public Charset getCharset() {
         return charset;
     }
@@ -208,23 +243,56 @@ public class FileLog implements Log, Closeable {
         this.charset = charset;
     }
 
+    public LogOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(LogOverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * @return the lowest level that is kept by {@link LogOverflowPolicy#DROP_BELOW_LEVEL}
+     */
+    public LogLevel getOverflowLevel() {
+        return overflowLevel;
+    }
+
+    public void setOverflowLevel(LogLevel overflowLevel) {
+        this.overflowLevel = overflowLevel;
+    }
+
+    /**
+     * @return the N of {@link LogOverflowPolicy#SAMPLE}, one of every N events is kept
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * @return the max number of the events that {@link LogOverflowPolicy#DISCARD_OLDEST} keeps
+     */
+    public int getOverflowBufferSize() {
+        return overflowBufferSize;
+    }
+
+    public void setOverflowBufferSize(int overflowBufferSize) {
+        this.overflowBufferSize = overflowBufferSize;
+    }
+
     private void add(String str, String level, Throwable throwable, Object... objs) {
-        LogItem item = new LogItem();
-        item.setLevel(level);
-        item.setName(name);
-        item.setContent(str);
-        item.setObjs(objs);
-        item.setThrowable(throwable);
-        if (stackTrace) {
-            item.setStackTraceElement(getStackTraceElement());
-        }
-        LogFactory.getInstance().getLogTask().add(item);
+        LogFactory.getInstance().getLogTask().add(this, level, str, objs, throwable,
+                stackTrace ? getStackTraceElement() : null);
     }
 
     @Override
     public void trace(String str) {
         if (isTraceEnabled()) {
-            add(str, LogLevel.TRACE.getName(), null);
+            add(str, LogLevel.TRACE.getName(), null, EMPTY);
         }
     }
 
@@ -245,7 +313,7 @@ public class FileLog implements Log, Closeable {
     @Override
     public void debug(String str) {
         if (isDebugEnabled()) {
-            add(str, LogLevel.DEBUG.getName(), null);
+            add(str, LogLevel.DEBUG.getName(), null, EMPTY);
         }
     }
 
@@ -266,7 +334,7 @@ public class FileLog implements Log, Closeable {
     @Override
     public void info(String str) {
         if (isInfoEnabled()) {
-            add(str, LogLevel.INFO.getName(), null);
+            add(str, LogLevel.INFO.getName(), null, EMPTY);
         }
     }
 
@@ -287,7 +355,7 @@ public class FileLog implements Log, Closeable {
     @Override
     public void warn(String str) {
         if (isWarnEnabled()) {
-            add(str, LogLevel.WARN.getName(), null);
+            add(str, LogLevel.WARN.getName(), null, EMPTY);
         }
     }
 
@@ -322,7 +390,7 @@ public class FileLog implements Log, Closeable {
     @Override
     public void error(String str) {
         if (isErrorEnabled()) {
-            add(str, LogLevel.ERROR.getName(), null);
+            add(str, LogLevel.ERROR.getName(), null, EMPTY);
         }
     }
 
@@ -361,6 +429,10 @@ public class FileLog implements Log, Closeable {
                 ", fileOutput=" + fileOutput +
                 ", maxFileSize=" + maxFileSize +
                 ", charset=" + charset +
+                ", layout=" + layout.getClass().getSimpleName() +
+                ", compressRolledFiles=" + compressRolledFiles +
+                ", maxRolledFiles=" + maxRolledFiles +
+                ", overflowPolicy=" + overflowPolicy +
                 '}';
     }
 
@@ -388,6 +460,6 @@ public class FileLog implements Log, Closeable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        return Objects.hashCode(name);
     }
 }
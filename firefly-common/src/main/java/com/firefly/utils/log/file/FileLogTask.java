@@ -7,30 +7,63 @@ import com.firefly.utils.lang.AbstractLifeCycle;
 import com.firefly.utils.log.Log;
 import com.firefly.utils.log.LogFactory;
 import com.firefly.utils.log.LogItem;
+import com.firefly.utils.log.LogOverflowPolicy;
 import com.firefly.utils.log.LogTask;
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Writes the logs on a single thread. The log events are copied into the
+ * preallocated items of a ring buffer, so logging does not create objects on
+ * the caller thread, and the items are formatted and encoded by the log
+ * thread. When the ring buffer is full the event is handled by the
+ * {@link LogOverflowPolicy} of its log, the default policy waits for the log
+ * thread, and the discard-oldest policy keeps the event in the overflow buffer
+ * of its log.
+ * <p>
+ * The size of the ring buffer is set by the system property
+ * "com.firefly.utils.log.file.FileLogTask.bufferSize", it is rounded up to a
+ * power of two.
+ */
 public class FileLogTask extends AbstractLifeCycle implements LogTask {
 
-    private BlockingQueue<LogItem> queue = new LinkedTransferQueue<>();
+    public static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+
+    private final LogRingBuffer ringBuffer;
     private Thread thread = new Thread(this, "firefly log thread");
     private final Trie<Log> logTree;
 
+    // the discard-oldest logs that have events in their overflow buffers
+    private final Set<FileLog> overflowLogs = ConcurrentHashMap.newKeySet();
+    private final AtomicLong overflowItemCount = new AtomicLong();
+
+    private final LongAdder droppedCount = new LongAdder();
+    // the statistics of the log thread
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong totalWriteLatency = new AtomicLong();
+    private final AtomicLong maxWriteLatency = new AtomicLong();
+
     public FileLogTask(Trie<Log> logTree) {
+        this(logTree, Integer.getInteger(FileLogTask.class.getName() + ".bufferSize", DEFAULT_BUFFER_SIZE));
+    }
+
+    public FileLogTask(Trie<Log> logTree, int bufferSize) {
+        ringBuffer = new LogRingBuffer(bufferSize);
         thread.setPriority(Thread.MIN_PRIORITY);
+        ringBuffer.setConsumer(thread);
         this.logTree = logTree;
     }
 
     private long flushAllPerSecond(final long lastFlushedTime) {
         // flush all log buffer per one second
-        long timeDifference = Millisecond100Clock.currentTimeMillis() - lastFlushedTime;
+        long timeDifference = SystemClock.currentTimeMillis() - lastFlushedTime;
         if (timeDifference > 1000) {
             LogFactory.getInstance().flushAll();
-            return Millisecond100Clock.currentTimeMillis();
+            return SystemClock.currentTimeMillis();
         } else {
             return lastFlushedTime;
         }
@@ -38,16 +71,18 @@ public class FileLogTask extends AbstractLifeCycle implements LogTask {
 
     @Override
     public void run() {
-        long lastFlushedTime = Millisecond100Clock.currentTimeMillis();
+        long lastFlushedTime = SystemClock.currentTimeMillis();
         while (true) {
             try {
-                for (LogItem logItem; (logItem = queue.poll(1000, TimeUnit.MILLISECONDS)) != null; ) {
-                    Log log = LogFactory.getInstance().getLog(logItem.getName());
-                    if (log instanceof FileLog) {
-                        ((FileLog) log).write(logItem);
+                for (long sequence = ringBuffer.getNextSequence(); ringBuffer.isPublished(sequence); sequence++) {
+                    try {
+                        consume(ringBuffer.get(sequence));
+                    } finally {
+                        ringBuffer.release(sequence);
                     }
                     lastFlushedTime = flushAllPerSecond(lastFlushedTime);
                 }
+                consumeOverflowItems();
 
                 lastFlushedTime = flushAllPerSecond(lastFlushedTime);
             } catch (Throwable e) {
@@ -56,7 +91,7 @@ public class FileLogTask extends AbstractLifeCycle implements LogTask {
                 ThreadUtils.sleep(1000L);
             }
 
-            if (!start && queue.isEmpty()) {
+            if (!start && isEmpty()) {
                 for (String key : logTree.keySet()) {
                     Log log = logTree.get(key);
                     if (log instanceof FileLog) {
@@ -65,18 +100,194 @@ public class FileLogTask extends AbstractLifeCycle implements LogTask {
                 }
                 break;
             }
+            ringBuffer.await(1000L);
+        }
+    }
+
+    private void consume(LogItem logItem) {
+        Log log = logItem.getLog();
+        if (log == null) {
+            log = LogFactory.getInstance().getLog(logItem.getName());
+        }
+        if (log instanceof FileLog) {
+            write((FileLog) log, logItem);
+        }
+    }
+
+    private void consumeOverflowItems() {
+        for (FileLog fileLog : overflowLogs) {
+            // the callers add the log again after they keep a new event
+            overflowLogs.remove(fileLog);
+            for (LogItem logItem = fileLog.pollOverflow(); logItem != null; logItem = fileLog.pollOverflow()) {
+                try {
+                    write(fileLog, logItem);
+                } finally {
+                    fileLog.releaseOverflow(logItem);
+                }
+                overflowItemCount.decrementAndGet();
+            }
+        }
+    }
+
+    private void write(FileLog fileLog, LogItem logItem) {
+        fileLog.write(logItem);
+        long latency = System.nanoTime() - logItem.getNanoTime();
+        writtenCount.lazySet(writtenCount.get() + 1);
+        totalWriteLatency.lazySet(totalWriteLatency.get() + latency);
+        if (latency > maxWriteLatency.get()) {
+            maxWriteLatency.lazySet(latency);
+        }
+    }
+
+    private void drop(FileLog fileLog) {
+        droppedCount.increment();
+        if (fileLog != null) {
+            fileLog.drop();
+        }
+    }
+
+    /**
+     * Applies the overflow policy of the log when the ring buffer is full.
+     *
+     * @return the claimed sequence, or -1 if the event is dropped
+     */
+    private long overflow(FileLog fileLog, String level) {
+        if (Thread.currentThread() == thread) {
+            // the log thread can not wait for itself
+            drop(fileLog);
+            return -1;
+        }
+
+        if (fileLog != null) {
+            if (!fileLog.isKeptOnOverflow(level)) {
+                drop(fileLog);
+                return -1;
+            }
+        }
+        return ringBuffer.next();
+    }
+
+    /**
+     * Keeps the event in the overflow buffer of the discard-oldest log, the caller does not wait. The items of the
+     * discarded and written overflow events are reused, so the caller does not create objects after the overflow
+     * buffer has been filled once.
+     */
+    private void addOverflowItem(FileLog fileLog, String name, String level, String content, Object[] objs,
+                                 Throwable throwable, StackTraceElement stackTraceElement) {
+        LogItem logItem = fileLog.takeOverflowItem();
+        setLogItem(logItem, fileLog, name, level, content, objs, throwable, stackTraceElement);
+        if (fileLog.offerOverflow(logItem)) {
+            drop(fileLog);
+        } else {
+            overflowItemCount.incrementAndGet();
         }
+        overflowLogs.add(fileLog);
+        ringBuffer.wakeUp();
     }
 
     @Override
     public void add(LogItem logItem) {
+        if (VerifyUtils.isEmpty(logItem.getName()))
+            throw new IllegalArgumentException("log name is empty");
+
+        add(null, logItem.getName(), logItem.getLevel(), logItem.getContent(), logItem.getObjs(),
+                logItem.getThrowable(), logItem.getStackTraceElement());
+    }
+
+    @Override
+    public void add(Log log, String level, String content, Object[] objs, Throwable throwable,
+                    StackTraceElement stackTraceElement) {
+        add(log, log.getName(), level, content, objs, throwable, stackTraceElement);
+    }
+
+    private void add(Log log, String name, String level, String content, Object[] objs, Throwable throwable,
+                     StackTraceElement stackTraceElement) {
         if (!start)
             return;
 
-        if (VerifyUtils.isEmpty(logItem.getName()))
-            throw new IllegalArgumentException("log name is empty");
+        FileLog fileLog = log instanceof FileLog ? (FileLog) log : null;
+        // the new events of a log wait behind the events in its overflow buffer
+        long sequence = fileLog != null && fileLog.isOverflowing() ? -1 : ringBuffer.tryNext();
+        if (sequence < 0) {
+            if (fileLog != null && fileLog.getOverflowPolicy() == LogOverflowPolicy.DISCARD_OLDEST) {
+                addOverflowItem(fileLog, name, level, content, objs, throwable, stackTraceElement);
+                return;
+            }
+            sequence = overflow(fileLog, level);
+            if (sequence < 0)
+                return;
+        }
+
+        setLogItem(ringBuffer.get(sequence), log, name, level, content, objs, throwable, stackTraceElement);
+        ringBuffer.publish(sequence);
+    }
+
+    private void setLogItem(LogItem item, Log log, String name, String level, String content, Object[] objs,
+                            Throwable throwable, StackTraceElement stackTraceElement) {
+        item.setLog(log);
+        item.setName(name);
+        item.setLevel(level);
+        item.setContent(content);
+        item.setObjs(objs);
+        item.setThrowable(throwable);
+        item.setStackTraceElement(stackTraceElement);
+        item.setThread(Thread.currentThread());
+        item.setTime(System.currentTimeMillis());
+        item.setNanoTime(System.nanoTime());
+    }
+
+    /**
+     * @return true if all the log events have been written
+     */
+    public boolean isEmpty() {
+        return ringBuffer.isEmpty() && overflowItemCount.get() == 0;
+    }
+
+    public int getBufferSize() {
+        return ringBuffer.getBufferSize();
+    }
+
+    /**
+     * @return the number of the events that are added to the ring buffer
+     */
+    public long getEnqueuedCount() {
+        return ringBuffer.getCursor() + 1;
+    }
+
+    /**
+     * @return the number of the events that are dropped by the overflow policies,
+     * including the events that the discard-oldest logs discard from their overflow buffers
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return the number of the events that have been written
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * @return the number of the events in the ring buffer and the overflow buffers
+     */
+    public long getQueueDepth() {
+        return ringBuffer.size() + overflowItemCount.get();
+    }
+
+    /**
+     * @return the sum of the time in nanoseconds from adding each event until it has been written
+     */
+    public long getTotalWriteLatency() {
+        return totalWriteLatency.get();
+    }
 
-        queue.offer(logItem);
+    /**
+     * @return the max time in nanoseconds from adding an event until it has been written
+     */
+    public long getMaxWriteLatency() {
+        return maxWriteLatency.get();
     }
 
     @Override
@@ -88,5 +299,6 @@ public class FileLogTask extends AbstractLifeCycle implements LogTask {
     @Override
     protected void destroy() {
         start = false;
+        ringBuffer.wakeUp();
     }
 }
@@ -0,0 +1,151 @@
+package com.firefly.utils.log.file;
+
+import com.firefly.utils.json.io.JsonUtf8Writer;
+import com.firefly.utils.json.serializer.SerialStateMachine;
+import com.firefly.utils.log.Log;
+import com.firefly.utils.log.LogItem;
+import com.firefly.utils.log.LogLayout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Writes each item as a JSON object on one line, e.g.
+ * <pre>
+ * {"level":"INFO","timestamp":1477972800000,"logger":"test","thread":"main",
+ * "message":"user {} login","args":[{"id":1,"name":"Tom"}]}
+ * </pre>
+ * The message template is not formatted, its arguments are written as typed
+ * JSON values by the JSON serializers. The caller is written if it is
+ * recorded and the exception is written with its stack frames and causes.
+ * <p>
+ * The JSON is encoded to UTF-8 directly, whatever the charset of the log is,
+ * so the log config parsers set the charset of the log to UTF-8. If an
+ * argument can not be serialized, the arguments of the item are written as
+ * strings.
+ */
+public class JsonLogLayout implements LogLayout {
+
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    private JsonUtf8Writer writer = new JsonUtf8Writer(null, 1024);
+    private ByteBuffer line = ByteBuffer.wrap(writer.getBuf());
+
+    @Override
+    public ByteBuffer format(LogItem item, Charset charset) {
+        writer.reset();
+        try {
+            write(item, true);
+        } catch (Throwable t) {
+            // the writer may keep the references of the failed serializer
+            writer = new JsonUtf8Writer(null, 1024);
+            try {
+                write(item, false);
+            } catch (IOException e) {
+                System.err.println("write json log exception, " + e.getMessage());
+            }
+        }
+        writer.write(Log.CL);
+
+        byte[] buf = writer.getBuf();
+        if (line.array() != buf) {
+            line = ByteBuffer.wrap(buf);
+        }
+        line.clear();
+        line.limit(writer.size());
+        return line;
+    }
+
+    private void write(LogItem item, boolean typed) throws IOException {
+        writer.write("{\"level\":");
+        writeString(item.getLevel());
+        writer.write(",\"timestamp\":");
+        writer.writeLong(item.getTime());
+        writer.write(",\"logger\":");
+        writeString(item.getName());
+        if (item.getThread() != null) {
+            writer.write(",\"thread\":");
+            writeString(item.getThread().getName());
+        }
+        writer.write(",\"message\":");
+        writeString(item.getContent());
+
+        Object[] objs = item.getObjs();
+        if (objs != null && objs.length > 0) {
+            writer.write(",\"args\":[");
+            for (int i = 0; i < objs.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (typed || objs[i] == null) {
+                    SerialStateMachine.toJson(objs[i], writer);
+                } else {
+                    writer.writeStringWithQuote(toString(objs[i]));
+                }
+            }
+            writer.write(']');
+        }
+
+        if (item.getStackTraceElement() != null) {
+            writer.write(",\"caller\":");
+            writeStackTraceElement(item.getStackTraceElement());
+        }
+        if (item.getThrowable() != null) {
+            writer.write(",\"exception\":");
+            writeThrowable(item.getThrowable(), 0);
+        }
+        writer.write('}');
+    }
+
+    private static String toString(Object obj) {
+        try {
+            return obj.toString();
+        } catch (Throwable t) {
+            return obj.getClass().getName();
+        }
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writer.writeNull();
+        } else {
+            writer.writeStringWithQuote(value);
+        }
+    }
+
+    private void writeThrowable(Throwable t, int depth) {
+        writer.write("{\"class\":");
+        writer.writeStringWithQuote(t.getClass().getName());
+        writer.write(",\"message\":");
+        writeString(t.getMessage());
+        writer.write(",\"frames\":[");
+        StackTraceElement[] frames = t.getStackTrace();
+        for (int i = 0; i < frames.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeStackTraceElement(frames[i]);
+        }
+        writer.write(']');
+
+        Throwable cause = t.getCause();
+        if (cause != null && cause != t && depth < MAX_CAUSE_DEPTH) {
+            writer.write(",\"cause\":");
+            writeThrowable(cause, depth + 1);
+        }
+        writer.write('}');
+    }
+
+    private void writeStackTraceElement(StackTraceElement e) {
+        writer.write("{\"class\":");
+        writer.writeStringWithQuote(e.getClassName());
+        writer.write(",\"method\":");
+        writer.writeStringWithQuote(e.getMethodName());
+        writer.write(",\"file\":");
+        writeString(e.getFileName());
+        writer.write(",\"line\":");
+        writer.writeInt(e.getLineNumber());
+        writer.write('}');
+    }
+}
@@ -0,0 +1,267 @@
+package com.firefly.utils.log.file;
+
+import com.firefly.utils.time.SystemClock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends the log to the file "name.yyyy-MM-dd.txt". The bytes are gathered
+ * in a direct buffer and written to a file channel when the buffer is full or
+ * the log is flushed.
+ * <p>
+ * The file is rolled when the day changes or the size would exceed the max
+ * file size, the file of the same day is renamed "name.yyyy-MM-dd.txt.N.bak".
+ * The day of the file is read from the {@link SystemClock}, so no date is
+ * formatted for each write. The file is never rolled back to an earlier day, an
+ * item that is a little older than the current day, e.g. the clock steps back,
+ * is written to the current file. The rolled files are compressed by gzip and the
+ * oldest rolled files are deleted on a background thread. If the compressed file
+ * exists, a sequence number is appended, e.g. "name.yyyy-MM-dd.txt.1.gz".
+ * <p>
+ * It is only used by the log thread. The size of the buffer is set by the
+ * system property "com.firefly.utils.log.file.LogFileAppender.bufferSize".
+ */
+final class LogFileAppender {
+
+    private static final int bufferSize = Integer.getInteger(LogFileAppender.class.getName() + ".bufferSize",
+            128 * 1024);
+
+    private static class Holder {
+        private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "firefly log compression thread");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    private final FileLog log;
+
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private Path file;
+    private long fileSize;
+
+    // the day of the file from the start until the end
+    private long dayStart, dayEnd;
+    private String day;
+    // the time that the existence of the file has been checked
+    private long checkTime;
+    private int backupIndex;
+
+    LogFileAppender(FileLog log) {
+        this.log = log;
+    }
+
+    void write(byte[] bytes, int off, int len, long time) {
+        try {
+            if (channel == null || time >= dayEnd) {
+                roll(time, false);
+            } else if (log.getMaxFileSize() > 0 && fileSize + len > log.getMaxFileSize() && fileSize > 0) {
+                roll(time, true);
+            } else if (time - checkTime >= 1000 || time < checkTime) {
+                // the file is deleted or moved by others
+                checkTime = time;
+                if (!Files.exists(file)) {
+                    close();
+                    open();
+                }
+            }
+
+            if (buffer == null) {
+                buffer = ByteBuffer.allocateDirect(bufferSize);
+            }
+            if (len > buffer.remaining()) {
+                flush();
+                if (len > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(bytes, off, len));
+                    fileSize += len;
+                    return;
+                }
+            }
+            buffer.put(bytes, off, len);
+            fileSize += len;
+        } catch (IOException e) {
+            System.err.println("write log exception, " + e.getMessage());
+            close();
+        }
+    }
+
+    void flush() {
+        if (buffer == null || buffer.position() == 0 || channel == null) {
+            return;
+        }
+
+        buffer.flip();
+        try {
+            writeFully(buffer);
+        } catch (IOException e) {
+            System.err.println("flush log buffer exception, " + e.getMessage());
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    void close() {
+        if (channel != null) {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("close log file exception, " + e.getMessage());
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    private void roll(long time, boolean full) throws IOException {
+        Path rolled = null;
+        if (day == null || time >= dayEnd) {
+            dayStart = SystemClock.getDayStart(time);
+            dayEnd = SystemClock.getDayEnd(time);
+            day = SystemClock.formatDay(time);
+            backupIndex = 0;
+
+            if (channel != null) {
+                // the file of the last day is completed
+                rolled = file;
+            }
+        } else if (full) {
+            rolled = backup();
+        }
+
+        close();
+        open();
+        if (log.getMaxFileSize() > 0 && fileSize >= log.getMaxFileSize()) {
+            // the file of the same day is full when the log starts
+            close();
+            Path backup = backup();
+            open();
+            submit(backup);
+        }
+        checkTime = time;
+        submit(rolled);
+    }
+
+    private Path backup() throws IOException {
+        close();
+        Path backup;
+        do {
+            backup = Paths.get(log.getPath(), getLogFileName(day) + "." + backupIndex++ + ".bak");
+        } while (Files.exists(backup) || Files.exists(Paths.get(backup + ".gz")));
+        Files.move(file, backup);
+        return backup;
+    }
+
+    private void open() throws IOException {
+        file = Paths.get(log.getPath(), getLogFileName(day));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        System.out.println("get new log file channel, the file path is " + file.toAbsolutePath()
+                + " and the size is " + fileSize);
+    }
+
+    private String getLogFileName(String date) {
+        return log.getName() + "." + date + ".txt";
+    }
+
+    private void submit(Path rolled) {
+        boolean compress = rolled != null && log.isCompressRolledFiles();
+        int maxRolledFiles = log.getMaxRolledFiles();
+        if (!compress && maxRolledFiles <= 0) {
+            return;
+        }
+
+        String path = log.getPath();
+        String name = log.getName();
+        Path current = file;
+        Holder.executor.submit(() -> {
+            if (compress) {
+                compress(rolled);
+            }
+            if (maxRolledFiles > 0) {
+                prune(path, name, current, maxRolledFiles);
+            }
+        });
+    }
+
+    private void compress(Path rolled) {
+        Path tmp = Paths.get(rolled + ".gz.tmp");
+        try {
+            try (InputStream in = Files.newInputStream(rolled);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                byte[] buf = new byte[64 * 1024];
+                for (int n; (n = in.read(buf)) != -1; ) {
+                    out.write(buf, 0, n);
+                }
+            }
+            // the file of a day is rolled again if the clock steps back or the log restarts
+            Path compressed = Paths.get(rolled + ".gz");
+            for (int i = 1; Files.exists(compressed); i++) {
+                compressed = Paths.get(rolled + "." + i + ".gz");
+            }
+            Files.move(tmp, compressed);
+            Files.delete(rolled);
+        } catch (IOException e) {
+            System.err.println("compress log file exception, " + e.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void prune(String path, String name, Path current, int maxRolledFiles) {
+        Pattern rolledFileName = Pattern.compile(Pattern.quote(name)
+                + "\\.(\\d{4}-\\d{2}-\\d{2})\\.txt(?:\\.(\\d+)\\.bak)?(?:\\.(\\d+))?(?:\\.gz)?");
+        // sorted by the day, the backup index and the sequence number of the compressed file,
+        // the file of a day is rolled after its backups
+        TreeMap<String, Path> rolledFiles = new TreeMap<>();
+        try (Stream<Path> files = Files.list(Paths.get(path))) {
+            files.filter(p -> !p.equals(current)).forEach(p -> {
+                String fileName = p.getFileName().toString();
+                Matcher matcher = rolledFileName.matcher(fileName);
+                if (matcher.matches()) {
+                    long index = matcher.group(2) == null ? Integer.MAX_VALUE : Long.parseLong(matcher.group(2));
+                    long sequence = matcher.group(3) == null ? 0 : Long.parseLong(matcher.group(3));
+                    rolledFiles.put(String.format("%s.%019d.%019d.%s", matcher.group(1), index, sequence, fileName), p);
+                }
+            });
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("list log files exception, " + e.getMessage());
+            return;
+        }
+
+        for (int i = rolledFiles.size() - maxRolledFiles; i > 0; i--) {
+            Path file = rolledFiles.pollFirstEntry().getValue();
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                System.err.println("delete log file " + file + " exception, " + e.getMessage());
+            }
+        }
+    }
+}
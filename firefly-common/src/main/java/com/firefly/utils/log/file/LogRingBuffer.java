@@ -0,0 +1,166 @@
+package com.firefly.utils.log.file;
+
+import com.firefly.utils.log.LogItem;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A ring buffer of preallocated log items that has many producers and one
+ * consumer. A producer claims a sequence by {@link #next()}, sets the fields
+ * of the item and publishes it by {@link #publish(long)}. The consumer reads
+ * the published items in order and releases each one after it has been
+ * written, then the producers can reuse its slot.
+ */
+final class LogRingBuffer {
+
+    private final LogItem[] entries;
+    private final int mask;
+
+    // the last claimed sequence
+    private final AtomicLong cursor = new AtomicLong(-1);
+    // the sequence that is published in each slot
+    private final AtomicLongArray published;
+
+    // the padding keeps the consumer sequence away from the cache line of the cursor
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+    // the last released sequence
+    private volatile long released = -1;
+    @SuppressWarnings("unused")
+    private long q1, q2, q3, q4, q5, q6, q7;
+
+    private volatile Thread consumer;
+    private volatile boolean waiting;
+
+    LogRingBuffer(int bufferSize) {
+        int size = 1;
+        while (size < bufferSize) {
+            size <<= 1;
+        }
+        entries = new LogItem[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = new LogItem();
+        }
+        mask = size - 1;
+        published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    int getBufferSize() {
+        return entries.length;
+    }
+
+    void setConsumer(Thread consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Claims the next item, it waits until the consumer has released the
+     * item of the slot.
+     *
+     * @return the sequence of the item
+     */
+    long next() {
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        for (int i = 0; wrapPoint > released; i++) {
+            if (i < 100) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Claims the next item only if its slot has been released.
+     *
+     * @return the sequence of the item, or -1 if the buffer is full
+     */
+    long tryNext() {
+        for (;;) {
+            long current = cursor.get();
+            long sequence = current + 1;
+            if (sequence - entries.length > released)
+                return -1;
+            if (cursor.compareAndSet(current, sequence))
+                return sequence;
+        }
+    }
+
+    LogItem get(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    void publish(long sequence) {
+        published.set((int) sequence & mask, sequence);
+        if (waiting) {
+            Thread t = consumer;
+            if (t != null)
+                LockSupport.unpark(t);
+        }
+    }
+
+    boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    /**
+     * @return the sequence that the consumer reads next
+     */
+    long getNextSequence() {
+        return released + 1;
+    }
+
+    void release(long sequence) {
+        get(sequence).clear();
+        released = sequence;
+    }
+
+    boolean isEmpty() {
+        return cursor.get() == released;
+    }
+
+    /**
+     * @return the last claimed sequence
+     */
+    long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * @return the number of the claimed items that have not been released
+     */
+    long size() {
+        return cursor.get() - released;
+    }
+
+    /**
+     * The consumer waits until the next item is published or the timeout
+     * elapses.
+     *
+     * @param timeout the timeout in milliseconds
+     */
+    void await(long timeout) {
+        waiting = true;
+        try {
+            if (!isPublished(getNextSequence())) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(timeout));
+            }
+        } finally {
+            waiting = false;
+        }
+    }
+
+    void wakeUp() {
+        Thread t = consumer;
+        if (t != null)
+            LockSupport.unpark(t);
+    }
+}
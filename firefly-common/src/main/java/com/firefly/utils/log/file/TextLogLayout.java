@@ -0,0 +1,62 @@
+package com.firefly.utils.log.file;
+
+import com.firefly.utils.log.Log;
+import com.firefly.utils.log.LogItem;
+import com.firefly.utils.log.LogLayout;
+import com.firefly.utils.time.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * The default layout, it writes the items like {@link LogItem#toString()},
+ * e.g. "INFO 2016-11-01 12:00:00\tmessage".
+ */
+public class TextLogLayout implements LogLayout {
+
+    private final StringBuilder text = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private CharBuffer charBuffer = CharBuffer.wrap(chars);
+    private ByteBuffer byteBuffer = ByteBuffer.allocate(512);
+    private CharsetEncoder encoder;
+
+    @Override
+    public ByteBuffer format(LogItem item, Charset charset) {
+        text.setLength(0);
+        item.appendTo(text, SystemClock.formatDate(item.getTime()));
+        text.append(Log.CL);
+        return encode(text, charset);
+    }
+
+    private ByteBuffer encode(StringBuilder str, Charset charset) {
+        int len = str.length();
+        if (len > chars.length) {
+            chars = new char[Math.max(len, chars.length * 2)];
+            charBuffer = CharBuffer.wrap(chars);
+        }
+        str.getChars(0, len, chars, 0);
+        charBuffer.clear().limit(len);
+
+        if (encoder == null || !encoder.charset().equals(charset)) {
+            encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        int maxLength = (int) Math.ceil(len * (double) encoder.maxBytesPerChar());
+        if (maxLength > byteBuffer.capacity()) {
+            byteBuffer = ByteBuffer.allocate(Math.max(maxLength, byteBuffer.capacity() * 2));
+        }
+        byteBuffer.clear();
+        encoder.reset();
+        CoderResult result = encoder.encode(charBuffer, byteBuffer, true);
+        if (!result.isUnderflow() || !encoder.flush(byteBuffer).isUnderflow()) {
+            System.err.println("encode log exception, " + result);
+        }
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+}
@@ -6,6 +6,11 @@ import com.firefly.utils.lang.AbstractLifeCycle;
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * @deprecated use {@link com.firefly.utils.concurrent.TimingWheelScheduler}
+ *             that has multiple levels and does not drift
+ */
+@Deprecated
 public class HashTimeWheel extends AbstractLifeCycle {
 
     private int maxTimers = 60; // slot's number in wheel
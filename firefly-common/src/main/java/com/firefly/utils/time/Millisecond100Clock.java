@@ -1,16 +1,19 @@
 package com.firefly.utils.time;
 
+/**
+ * @deprecated use {@link SystemClock} whose tick is configurable
+ */
+@Deprecated
 public class Millisecond100Clock {
-	private static final TimeProvider TIME_PROVIDER = new TimeProvider(100);
-	static {
-		TIME_PROVIDER.start();
-	}
-	
+
 	public static long currentTimeMillis() {
-		return TIME_PROVIDER.currentTimeMillis();
+		return SystemClock.currentTimeMillis();
 	}
-	
+
+	/**
+	 * The {@link SystemClock} is updated by a daemon thread, it need not be
+	 * stopped.
+	 */
 	public static void stop() {
-		TIME_PROVIDER.stop();
 	}
 }
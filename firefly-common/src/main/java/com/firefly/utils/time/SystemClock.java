@@ -0,0 +1,163 @@
+package com.firefly.utils.time;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A clock that is updated by a daemon thread once a tick, so reading the
+ * time is only a volatile read. The tick is set in milliseconds by the
+ * system property "com.firefly.utils.time.SystemClock.tick", e.g. 1, 10 or
+ * 100, the default is 10.
+ * <p>
+ * It also caches the formatted times that are used on the hot paths. A
+ * formatted time is computed once when a time of another second or day is
+ * formatted, and then it is shared by all the threads.
+ */
+public final class SystemClock {
+
+	public static final int DEFAULT_TICK = 10;
+
+	private static final int tick = Math.max(1,
+			Integer.getInteger(SystemClock.class.getName() + ".tick", DEFAULT_TICK));
+	private static final SafeSimpleDateFormat dayDateFormat = new SafeSimpleDateFormat("yyyy-MM-dd");
+
+	private static volatile long currentTimeMillis = System.currentTimeMillis();
+	private static volatile long nanoTime = System.nanoTime();
+
+	private static volatile TimeWindow date = new TimeWindow(0, 0, null);
+	private static volatile TimeWindow day = new TimeWindow(0, 0, null);
+
+	static {
+		Thread thread = new Thread(() -> {
+			long tickNanos = TimeUnit.MILLISECONDS.toNanos(tick);
+			while (true) {
+				LockSupport.parkNanos(tickNanos);
+				currentTimeMillis = System.currentTimeMillis();
+				nanoTime = System.nanoTime();
+			}
+		}, "firefly system clock " + tick + "ms");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * The formatted time from the start until the end.
+	 */
+	private static final class TimeWindow {
+		private final long start, end;
+		private final String value;
+
+		private TimeWindow(long start, long end, String value) {
+			this.start = start;
+			this.end = end;
+			this.value = value;
+		}
+
+		private boolean contains(long time) {
+			return time >= start && time < end;
+		}
+	}
+
+	private SystemClock() {
+	}
+
+	/**
+	 * @return the tick in milliseconds
+	 */
+	public static int getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return the current time in milliseconds, it is updated once a tick
+	 */
+	public static long currentTimeMillis() {
+		return currentTimeMillis;
+	}
+
+	/**
+	 * Gets the monotonic time of {@link System#nanoTime()} that is updated
+	 * once a tick, it only measures the elapsed time.
+	 *
+	 * @return the monotonic time in nanoseconds
+	 */
+	public static long nanoTime() {
+		return nanoTime;
+	}
+
+	/**
+	 * Formats the time like {@link SafeSimpleDateFormat#defaultDateFormat},
+	 * e.g. "2016-11-01 12:00:00".
+	 *
+	 * @param time
+	 *            the time in milliseconds
+	 * @return the formatted time, it is cached until another second is
+	 *         formatted
+	 */
+	public static String formatDate(long time) {
+		TimeWindow w = date;
+		if (!w.contains(time)) {
+			long start = time - Math.floorMod(time, 1000L);
+			w = new TimeWindow(start, start + 1000L, SafeSimpleDateFormat.defaultDateFormat.format(new Date(start)));
+			date = w;
+		}
+		return w.value;
+	}
+
+	/**
+	 * @return the current time that is formatted by
+	 *         {@link #formatDate(long)}
+	 */
+	public static String getDate() {
+		return formatDate(currentTimeMillis);
+	}
+
+	/**
+	 * Formats the day of the time in the default time zone, e.g.
+	 * "2016-11-01".
+	 *
+	 * @param time
+	 *            the time in milliseconds
+	 * @return the formatted day, it is cached until another day is formatted
+	 */
+	public static String formatDay(long time) {
+		return getDay(time).value;
+	}
+
+	/**
+	 * @param time
+	 *            the time in milliseconds
+	 * @return the start time of the day in milliseconds
+	 */
+	public static long getDayStart(long time) {
+		return getDay(time).start;
+	}
+
+	/**
+	 * @param time
+	 *            the time in milliseconds
+	 * @return the start time of the next day in milliseconds
+	 */
+	public static long getDayEnd(long time) {
+		return getDay(time).end;
+	}
+
+	private static TimeWindow getDay(long time) {
+		TimeWindow w = day;
+		if (!w.contains(time)) {
+			Calendar calendar = Calendar.getInstance();
+			calendar.setTimeInMillis(time);
+			calendar.set(Calendar.HOUR_OF_DAY, 0);
+			calendar.set(Calendar.MINUTE, 0);
+			calendar.set(Calendar.SECOND, 0);
+			calendar.set(Calendar.MILLISECOND, 0);
+			long start = calendar.getTimeInMillis();
+			calendar.add(Calendar.DAY_OF_MONTH, 1);
+			w = new TimeWindow(start, calendar.getTimeInMillis(), dayDateFormat.format(new Date(start)));
+			day = w;
+		}
+		return w;
+	}
+}
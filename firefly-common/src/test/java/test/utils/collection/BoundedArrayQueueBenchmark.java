@@ -0,0 +1,91 @@
+package test.utils.collection;
+
+import com.firefly.utils.collection.BlockingArrayQueue;
+import com.firefly.utils.collection.MpmcArrayQueue;
+import com.firefly.utils.collection.MpscArrayQueue;
+import com.firefly.utils.collection.SpscArrayQueue;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Supplier;
+
+/**
+ * Measures the throughput of offering and polling through the bounded queues
+ * with the different numbers of producers and consumers.
+ */
+public class BoundedArrayQueueBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final Integer ELEMENT = 1;
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < 2; i++) {
+            // the first round warms up
+            System.out.println("round " + i);
+            test("SpscArrayQueue", () -> new SpscArrayQueue<>(CAPACITY), 1, 1, 20_000_000);
+            test("MpscArrayQueue", () -> new MpscArrayQueue<>(CAPACITY), 1, 1, 20_000_000);
+            test("MpmcArrayQueue", () -> new MpmcArrayQueue<>(CAPACITY), 1, 1, 20_000_000);
+            test("ArrayBlockingQueue", () -> new ArrayBlockingQueue<>(CAPACITY), 1, 1, 20_000_000);
+            test("BlockingArrayQueue", () -> new BlockingArrayQueue<>(CAPACITY, 0, CAPACITY), 1, 1, 20_000_000);
+
+            test("MpscArrayQueue", () -> new MpscArrayQueue<>(CAPACITY), 4, 1, 20_000_000);
+            test("MpmcArrayQueue", () -> new MpmcArrayQueue<>(CAPACITY), 4, 1, 20_000_000);
+            test("ArrayBlockingQueue", () -> new ArrayBlockingQueue<>(CAPACITY), 4, 1, 20_000_000);
+            test("BlockingArrayQueue", () -> new BlockingArrayQueue<>(CAPACITY, 0, CAPACITY), 4, 1, 20_000_000);
+
+            test("MpmcArrayQueue", () -> new MpmcArrayQueue<>(CAPACITY), 4, 4, 20_000_000);
+            test("ArrayBlockingQueue", () -> new ArrayBlockingQueue<>(CAPACITY), 4, 4, 20_000_000);
+            test("BlockingArrayQueue", () -> new BlockingArrayQueue<>(CAPACITY, 0, CAPACITY), 4, 4, 20_000_000);
+        }
+    }
+
+    public static void test(String name, Supplier<Queue<Integer>> factory, int producerNum, int consumerNum,
+                            int count) throws Exception {
+        Queue<Integer> queue = factory.get();
+        int producerCount = count / producerNum;
+        int consumerCount = count / consumerNum;
+        CyclicBarrier barrier = new CyclicBarrier(producerNum + consumerNum + 1);
+        Thread[] threads = new Thread[producerNum + consumerNum];
+        for (int i = 0; i < producerNum; i++) {
+            threads[i] = new Thread(() -> {
+                await(barrier);
+                for (int j = 0; j < producerCount; j++) {
+                    while (!queue.offer(ELEMENT)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        for (int i = producerNum; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                await(barrier);
+                for (int j = 0; j < consumerCount; j++) {
+                    while (queue.poll() == null) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        await(barrier);
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long time = System.nanoTime() - start;
+        System.out.println(name + " " + producerNum + "P" + consumerNum + "C: "
+                + (count * 1000L / Math.max(1, time / 1000_000)) / 1000_000.0 + "M ops/s");
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
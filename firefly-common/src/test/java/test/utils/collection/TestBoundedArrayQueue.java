@@ -0,0 +1,223 @@
+package test.utils.collection;
+
+import com.firefly.utils.collection.AbstractBoundedArrayQueue;
+import com.firefly.utils.collection.MpmcArrayQueue;
+import com.firefly.utils.collection.MpscArrayQueue;
+import com.firefly.utils.collection.SpscArrayQueue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+import static org.hamcrest.Matchers.*;
+
+public class TestBoundedArrayQueue {
+
+    private static final int COUNT = 200_000;
+
+    @Test
+    public void testMpmc() {
+        testQueue(MpmcArrayQueue::new);
+    }
+
+    @Test
+    public void testSpsc() {
+        testQueue(SpscArrayQueue::new);
+    }
+
+    @Test
+    public void testMpsc() {
+        testQueue(MpscArrayQueue::new);
+    }
+
+    private void testQueue(IntFunction<AbstractBoundedArrayQueue<Integer>> factory) {
+        AbstractBoundedArrayQueue<Integer> queue = factory.apply(5);
+        Assert.assertThat(queue.isEmpty(), is(true));
+        Assert.assertThat(queue.poll(), nullValue());
+        Assert.assertThat(queue.peek(), nullValue());
+
+        // the capacity is rounded up to 8
+        Assert.assertThat(queue.getCapacity(), is(8));
+        for (int i = 0; i < 8; i++) {
+            Assert.assertThat(queue.offer(i), is(true));
+        }
+        Assert.assertThat(queue.offer(8), is(false));
+        Assert.assertThat(queue.size(), is(8));
+        Assert.assertThat(queue.peek(), is(0));
+
+        // the indexes go around the array
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertThat(queue.poll(), is(round * 5 + i));
+            }
+            for (int i = 0; i < 5; i++) {
+                Assert.assertThat(queue.offer(round * 5 + i + 8), is(true));
+            }
+            Assert.assertThat(queue.offer(-1), is(false));
+        }
+        Assert.assertThat(queue.size(), is(8));
+        queue.clear();
+        Assert.assertThat(queue.size(), is(0));
+        Assert.assertThat(queue.isEmpty(), is(true));
+        Assert.assertThat(queue.poll(), nullValue());
+
+        try {
+            queue.offer(null);
+            Assert.fail();
+        } catch (NullPointerException ignored) {
+        }
+
+        // the iterator goes around the array too
+        for (int i = 0; i < 8; i++) {
+            queue.offer(i);
+        }
+        for (int i = 0; i < 5; i++) {
+            queue.poll();
+            queue.offer(i + 8);
+        }
+        Assert.assertThat(new ArrayList<>(queue), contains(5, 6, 7, 8, 9, 10, 11, 12));
+        Assert.assertThat(queue.contains(12), is(true));
+        Assert.assertThat(queue.contains(4), is(false));
+        Assert.assertThat(queue.toArray(new Integer[0]), arrayContaining(5, 6, 7, 8, 9, 10, 11, 12));
+
+        // the elements that are taken after the iterator is created are skipped,
+        // except the next one that the iterator has read
+        Iterator<Integer> iterator = queue.iterator();
+        Assert.assertThat(iterator.next(), is(5));
+        queue.poll();
+        queue.poll();
+        queue.poll();
+        Assert.assertThat(iterator.next(), is(6));
+        Assert.assertThat(iterator.next(), is(8));
+        queue.clear();
+        Assert.assertThat(iterator.next(), is(9));
+        Assert.assertThat(iterator.hasNext(), is(false));
+        try {
+            iterator.next();
+            Assert.fail();
+        } catch (NoSuchElementException ignored) {
+        }
+        try {
+            queue.remove(1);
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+
+        queue.offer(10);
+        try {
+            queue.iterator().remove();
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+        try {
+            queue.removeIf(i -> i == 10);
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+        Assert.assertThat(queue.removeIf(i -> i == 11), is(false));
+        Assert.assertThat(queue.peek(), is(10));
+    }
+
+    @Test
+    public void testMpmcConcurrency() throws Exception {
+        testConcurrency(new MpmcArrayQueue<>(64), 4, 4);
+        testConcurrency(new MpmcArrayQueue<>(2), 3, 3);
+    }
+
+    @Test
+    public void testSpscConcurrency() throws Exception {
+        testConcurrency(new SpscArrayQueue<>(64), 1, 1);
+        testConcurrency(new SpscArrayQueue<>(2), 1, 1);
+    }
+
+    @Test
+    public void testMpscConcurrency() throws Exception {
+        testConcurrency(new MpscArrayQueue<>(64), 4, 1);
+        testConcurrency(new MpscArrayQueue<>(2), 3, 1);
+    }
+
+    /**
+     * Each producer offers the increasing numbers, every number must be polled
+     * once, and each consumer must poll the numbers of a producer in order.
+     */
+    private void testConcurrency(AbstractBoundedArrayQueue<Long> queue, int producerNum, int consumerNum)
+            throws Exception {
+        AtomicReferenceArray<AtomicInteger> received = new AtomicReferenceArray<>(producerNum * COUNT);
+        for (int i = 0; i < received.length(); i++) {
+            received.set(i, new AtomicInteger());
+        }
+        AtomicLong consumed = new AtomicLong();
+        AtomicReference<String> error = new AtomicReference<>();
+        CyclicBarrier barrier = new CyclicBarrier(producerNum + consumerNum);
+        long total = (long) producerNum * COUNT;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producerNum; p++) {
+            long base = (long) p * COUNT;
+            threads.add(new Thread(() -> {
+                await(barrier);
+                for (long i = 0; i < COUNT; i++) {
+                    while (!queue.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < consumerNum; c++) {
+            threads.add(new Thread(() -> {
+                long[] last = new long[producerNum];
+                Arrays.fill(last, -1);
+                await(barrier);
+                while (consumed.get() < total) {
+                    Long value = queue.poll();
+                    if (value == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    consumed.incrementAndGet();
+                    int producer = (int) (value / COUNT);
+                    if (value <= last[producer]) {
+                        error.compareAndSet(null, "the order of the producer " + producer + " is broken, "
+                                + last[producer] + " -> " + value);
+                    }
+                    last[producer] = value;
+                    received.get(value.intValue()).incrementAndGet();
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join(60_000);
+            Assert.assertThat(thread.isAlive(), is(false));
+        }
+
+        Assert.assertThat(error.get(), nullValue());
+        Assert.assertThat(consumed.get(), is(total));
+        for (int i = 0; i < received.length(); i++) {
+            if (received.get(i).get() != 1) {
+                Assert.fail("the element " + i + " is polled " + received.get(i).get() + " times");
+            }
+        }
+        Assert.assertThat(queue.poll(), nullValue());
+        Assert.assertThat(queue.isEmpty(), is(true));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package test.utils.concurrent;
+
+import com.firefly.utils.concurrent.Callback;
+import com.firefly.utils.concurrent.OrderedExecutor;
+import com.firefly.utils.concurrent.Promise;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.*;
+
+public class OrderedExecutorTest {
+
+    private final OrderedExecutor executor = new OrderedExecutor(4, 8, "test ordered executor");
+
+    @After
+    public void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    public void testOrderPerKey() throws Exception {
+        int keys = 16, producers = 4, count = 20_000;
+        int[] last = new int[keys * producers];
+        AtomicReference<String> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(keys * producers * count);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= count; i++) {
+                    for (int k = 0; k < keys; k++) {
+                        int value = i, index = k * producers + producer;
+                        // the tasks of a key are not run at the same time, so the array needs no lock
+                        executor.execute(k, () -> {
+                            if (last[index] != value - 1) {
+                                error.compareAndSet(null, "the order of " + index + " is broken, "
+                                        + last[index] + " -> " + value);
+                            }
+                            last[index] = value;
+                            latch.countDown();
+                        });
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertThat(latch.await(60, TimeUnit.SECONDS), is(true));
+        Assert.assertThat(error.get(), nullValue());
+        waitIdle();
+        Assert.assertThat(executor.getPendingCount(), is(0L));
+    }
+
+    @Test
+    public void testFairness() throws Exception {
+        OrderedExecutor single = new OrderedExecutor(1, 2, "test fair executor");
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            List<String> trace = new CopyOnWriteArrayList<>();
+            single.execute("hot", () -> await(blocked));
+            for (int i = 0; i < 5; i++) {
+                int x = i;
+                single.execute("hot", () -> trace.add("hot" + x));
+            }
+            single.execute("cold", () -> trace.add("cold"));
+
+            Map<Object, Integer> hotKeys = single.getHotKeys(1);
+            Assert.assertThat(hotKeys.size(), is(1));
+            Assert.assertThat(hotKeys.get("hot"), is(6));
+            Assert.assertThat(single.getQueueDepth("cold"), is(1));
+            Assert.assertThat(single.getKeyCount(), is(2));
+
+            blocked.countDown();
+            single.submit("hot", () -> null).get(10, TimeUnit.SECONDS);
+            single.submit("cold", () -> null).get(10, TimeUnit.SECONDS);
+            // the hot key yields the thread after a batch of 2 tasks
+            Assert.assertThat(trace.indexOf("cold"), lessThan(trace.indexOf("hot4")));
+        } finally {
+            single.stop();
+        }
+    }
+
+    @Test
+    public void testIdleKeys() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(i, () -> {
+            });
+        }
+        Assert.assertThat(executor.submit("last", () -> "ok").get(10, TimeUnit.SECONDS), is("ok"));
+        waitIdle();
+        Assert.assertThat(executor.getKeyCount(), is(0));
+        Assert.assertThat(executor.getQueueDepth(1), is(0));
+        Assert.assertThat(executor.getHotKeys(10).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testException() throws Exception {
+        executor.execute("key", () -> {
+            throw new IllegalStateException("test exception");
+        });
+        Assert.assertThat(executor.submit("key", () -> 1).get(10, TimeUnit.SECONDS), is(1));
+
+        CompletableFuture<Object> future = executor.submit("key", () -> {
+            throw new IllegalStateException("test exception");
+        });
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    public void testContinuations() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<String> trace = new CopyOnWriteArrayList<>();
+        executor.execute("key", () -> {
+            await(blocked);
+            trace.add("task");
+        });
+
+        // the continuations complete on other threads, but they are run after the task of the key
+        Callback callback = executor.callback("key", new Callback() {
+            @Override
+            public void succeeded() {
+                trace.add("callback");
+            }
+        });
+        Promise<String> promise = executor.promise("key", new Promise<String>() {
+            @Override
+            public void failed(Throwable x) {
+                trace.add("promise " + x.getMessage());
+            }
+        });
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> "future")
+                                                            .thenApplyAsync(s -> {
+                                                                trace.add(s);
+                                                                return s;
+                                                            }, executor.executor("key"));
+        new Thread(callback::succeeded).start();
+        new Thread(() -> promise.failed(new IllegalStateException("failure"))).start();
+
+        while (executor.getQueueDepth("key") < 4) {
+            Thread.sleep(10);
+        }
+        Assert.assertThat(trace.isEmpty(), is(true));
+        blocked.countDown();
+        future.get(10, TimeUnit.SECONDS);
+        executor.submit("key", () -> null).get(10, TimeUnit.SECONDS);
+        Assert.assertThat(trace.size(), is(4));
+        Assert.assertThat(trace.get(0), is("task"));
+        Assert.assertThat(trace, hasItems("callback", "promise failure", "future"));
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        Assert.assertThat(executor.submit("key", () -> 1).get(10, TimeUnit.SECONDS), is(1));
+        executor.stop();
+        Assert.assertThat(executor.isStopped(), is(true));
+        Assert.assertThat(executor.submit("key", () -> 2).get(10, TimeUnit.SECONDS), is(2));
+        Assert.assertThat(executor.isStarted(), is(true));
+    }
+
+    private void waitIdle() throws InterruptedException {
+        // the lane is removed after its last task completes the future
+        for (int i = 0; i < 100 && executor.getKeyCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
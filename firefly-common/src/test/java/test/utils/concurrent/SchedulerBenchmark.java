@@ -0,0 +1,78 @@
+package test.utils.concurrent;
+
+import com.firefly.utils.concurrent.Scheduler;
+import com.firefly.utils.concurrent.Schedulers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules 1M concurrent timers from several threads, cancels a half of them
+ * like the idle timeouts that are rescheduled, and measures the expiration
+ * delay of the others.
+ */
+public class SchedulerBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        // warm up
+        test("ScheduledThreadPoolExecutor", Schedulers.createScheduler(), 4, 200_000);
+        test("TimingWheelScheduler", Schedulers.createTimingWheelScheduler(), 4, 200_000);
+
+        test("ScheduledThreadPoolExecutor", Schedulers.createScheduler(), 4, 1_000_000);
+        test("TimingWheelScheduler", Schedulers.createTimingWheelScheduler(), 4, 1_000_000);
+    }
+
+    public static void test(String name, Scheduler scheduler, int threadNum, int timerNum)
+            throws InterruptedException {
+        int size = timerNum / threadNum;
+        CountDownLatch expired = new CountDownLatch(threadNum * size / 2);
+        AtomicLong totalLateness = new AtomicLong();
+        AtomicLong maxLateness = new AtomicLong();
+        AtomicLong scheduleTime = new AtomicLong();
+        AtomicLong cancelTime = new AtomicLong();
+
+        Thread[] threads = new Thread[threadNum];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                Scheduler.Future[] futures = new Scheduler.Future[size];
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long start = System.nanoTime();
+                for (int j = 0; j < size; j++) {
+                    long delay = 1000 + random.nextInt(2000);
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+                    futures[j] = scheduler.schedule(() -> {
+                        long lateness = System.nanoTime() - deadline;
+                        totalLateness.addAndGet(lateness);
+                        maxLateness.accumulateAndGet(lateness, Math::max);
+                        expired.countDown();
+                    }, delay, TimeUnit.MILLISECONDS);
+                }
+                scheduleTime.addAndGet(System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int j = 0; j < size; j += 2) {
+                    futures[j].cancel();
+                }
+                cancelTime.addAndGet(System.nanoTime() - start);
+            }, "scheduler benchmark " + i);
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        expired.await();
+        scheduler.stop();
+
+        int count = threadNum * size;
+        System.out.println(name + ", timers: " + count
+                + ", schedule: " + scheduleTime.get() / count + "ns/op"
+                + ", cancel: " + cancelTime.get() / (count / 2) + "ns/op"
+                + ", avg lateness: " + TimeUnit.NANOSECONDS.toMicros(totalLateness.get() / (count / 2)) + "us"
+                + ", max lateness: " + TimeUnit.NANOSECONDS.toMillis(maxLateness.get()) + "ms");
+    }
+}
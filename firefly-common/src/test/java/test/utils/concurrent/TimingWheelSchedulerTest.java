@@ -0,0 +1,140 @@
+package test.utils.concurrent;
+
+import com.firefly.utils.concurrent.Scheduler;
+import com.firefly.utils.concurrent.TimingWheelScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.*;
+
+public class TimingWheelSchedulerTest {
+
+    private TimingWheelScheduler scheduler;
+
+    @After
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void testSchedule() throws InterruptedException {
+        // the small wheel moves the timers down through several levels
+        scheduler = new TimingWheelScheduler(1, TimeUnit.MILLISECONDS, 4, null);
+        int[] delays = {0, 1, 3, 4, 5, 17, 63, 64, 65, 200, 333, 700};
+        CountDownLatch latch = new CountDownLatch(delays.length);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<Long> lateness = Collections.synchronizedList(new ArrayList<>());
+        for (int i = delays.length - 1; i >= 0; i--) {
+            int delay = delays[i];
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            scheduler.schedule(() -> {
+                lateness.add(System.nanoTime() - deadline);
+                order.add(delay);
+                latch.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        Assert.assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        for (int i = 1; i < order.size(); i++) {
+            Assert.assertThat(order.get(i), greaterThanOrEqualTo(order.get(i - 1)));
+        }
+        for (long nanos : lateness) {
+            Assert.assertThat(nanos, greaterThanOrEqualTo(0L));
+        }
+        Assert.assertThat(scheduler.getWheelSize(), is(4));
+        Assert.assertThat(scheduler.getPendingCount(), is(0L));
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        scheduler = new TimingWheelScheduler(1, TimeUnit.MILLISECONDS, 8, null);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        List<Scheduler.Future> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(scheduler.schedule(cancelledRuns::incrementAndGet, 50 + i % 100, TimeUnit.MILLISECONDS));
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        Scheduler.Future future = scheduler.schedule(latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+        for (Scheduler.Future f : futures) {
+            Assert.assertThat(f.cancel(), is(true));
+            Assert.assertThat(f.cancel(), is(false));
+        }
+        Assert.assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        Assert.assertThat(future.cancel(), is(false));
+        Thread.sleep(50);
+        Assert.assertThat(cancelledRuns.get(), is(0));
+        Assert.assertThat(scheduler.getPendingCount(), is(0L));
+    }
+
+    @Test
+    public void testPeriodic() throws InterruptedException {
+        scheduler = new TimingWheelScheduler();
+        CountDownLatch rate = new CountDownLatch(5);
+        CountDownLatch delay = new CountDownLatch(5);
+        Scheduler.Future rateFuture = scheduler.scheduleAtFixedRate(rate::countDown, 0, 10, TimeUnit.MILLISECONDS);
+        Scheduler.Future delayFuture = scheduler.scheduleWithFixedDelay(delay::countDown, 5, 10, TimeUnit.MILLISECONDS);
+        Assert.assertThat(rate.await(5, TimeUnit.SECONDS), is(true));
+        Assert.assertThat(delay.await(5, TimeUnit.SECONDS), is(true));
+        Assert.assertThat(rateFuture.cancel(), is(true));
+        Assert.assertThat(delayFuture.cancel(), is(true));
+
+        // the periodic task is not run again after it fails
+        AtomicInteger failures = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(() -> {
+            failures.incrementAndGet();
+            throw new IllegalStateException("periodic task failure");
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+        Assert.assertThat(failures.get(), is(1));
+    }
+
+    @Test
+    public void testExecutor() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "test timing wheel executor"));
+        try {
+            scheduler = new TimingWheelScheduler(10, TimeUnit.MILLISECONDS, 64, executor);
+            CountDownLatch latch = new CountDownLatch(100);
+            AtomicReference<String> threadName = new AtomicReference<>();
+            for (int i = 0; i < 100; i++) {
+                scheduler.schedule(() -> {
+                    threadName.set(Thread.currentThread().getName());
+                    latch.countDown();
+                }, 20, TimeUnit.MILLISECONDS);
+            }
+            Assert.assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+            Assert.assertThat(threadName.get(), is("test timing wheel executor"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStop() throws InterruptedException {
+        scheduler = new TimingWheelScheduler();
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        scheduler.stop();
+        Thread.sleep(100);
+        Assert.assertThat(runs.get(), is(0));
+
+        // the scheduler is started again by the next task
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.schedule(latch::countDown, 10, TimeUnit.MILLISECONDS);
+        Assert.assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        Assert.assertThat(runs.get(), is(0));
+    }
+}
@@ -0,0 +1,51 @@
+package test.utils.json.binary;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.binary.Binary;
+
+import test.utils.json.github.JsonBenchmark;
+import test.utils.json.github.MediaContent;
+
+public class BinaryBenchmark {
+
+	public static void main(String[] args) {
+		MediaContent record = JsonBenchmark.createRecord();
+		String json = Json.toJson(record);
+		byte[] jsonBytes = Json.toJsonBytes(record);
+		byte[] bytes = Binary.toBytes(record);
+		System.out.println("json size: " + jsonBytes.length + ", binary size: " + bytes.length);
+
+		final int times = 1000 * 1000;
+		for (int round = 0; round < 3; round++) {
+			System.out.println("======================");
+			long start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				jsonBytes = Json.toJsonBytes(record);
+			}
+			long jsonSerializer = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				bytes = Binary.toBytes(record);
+			}
+			long binarySerializer = System.currentTimeMillis() - start;
+
+			MediaContent r = null;
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				r = Json.toObject(json, MediaContent.class);
+			}
+			long jsonParser = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				r = Binary.toObject(bytes, MediaContent.class);
+			}
+			long binaryParser = System.currentTimeMillis() - start;
+
+			System.out.println("json serializer: " + jsonSerializer + ", binary serializer: " + binarySerializer);
+			System.out.println("json parser: " + jsonParser + ", binary parser: " + binaryParser);
+			System.out.println(r);
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package test.utils.json.binary;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.binary.Binary;
+
+import test.utils.json.Book;
+import test.utils.json.DateFormatObject;
+import test.utils.json.github.JsonBenchmark;
+import test.utils.json.github.Media;
+import test.utils.json.github.MediaContent;
+import test.utils.json.github.Player;
+
+public class TestBinary {
+
+	public static class Values {
+		public int i;
+		public long l;
+		public char c;
+		public boolean flag;
+		public float f;
+		public double d;
+		public Integer boxed;
+		public Double nullDouble;
+		public String str;
+		public BigDecimal decimal;
+		public byte[] bytes;
+		public int[] ints;
+		public String[] strings;
+		public Map<String, List<Integer>> map;
+		public Player player;
+		public Values next;
+	}
+
+	public static class Named {
+		public String title;
+		public int width;
+	}
+
+	public static class Localized {
+		public String title;
+		public int width;
+		public String 名称;
+	}
+
+	public static class LocalizedName {
+		public String 名称;
+		public int zero;
+	}
+
+	public static class Width {
+		public int a;
+		public int width;
+	}
+
+	private static Values createValues() {
+		Values v = new Values();
+		v.i = Integer.MIN_VALUE;
+		v.l = Long.MAX_VALUE;
+		v.c = '中';
+		v.flag = true;
+		v.f = 1.5F;
+		v.d = -0.1;
+		v.str = "binary \"str\" 中文 😀";
+		v.decimal = new BigDecimal("12345678901234567890.123");
+		v.bytes = new byte[]{0, -1, 127};
+		v.ints = new int[]{-1, 0, 300};
+		v.strings = new String[]{"a", "", "c"};
+		v.map = new HashMap<>();
+		v.map.put("k", Arrays.asList(1, null, 3));
+		v.player = Player.FLASH;
+		v.next = new Values();
+		v.next.boxed = 7;
+		return v;
+	}
+
+	@Test
+	public void testMediaContent() {
+		MediaContent record = JsonBenchmark.createRecord();
+		byte[] bytes = Binary.toBytes(record);
+		MediaContent r = Binary.toObject(bytes, MediaContent.class);
+		Assert.assertThat(Json.toJson(r), is(Json.toJson(record)));
+		Assert.assertThat(bytes.length, lessThan(Json.toJsonBytes(record).length));
+	}
+
+	@Test
+	public void testValues() {
+		Values v = createValues();
+		Values r = Binary.toObject(Binary.toBytes(v), Values.class);
+		Assert.assertThat(Json.toJson(r), is(Json.toJson(v)));
+		Assert.assertThat(r.nullDouble, nullValue());
+		Assert.assertThat(r.next.boxed, is(7));
+		Assert.assertThat(r.next.next, nullValue());
+		Assert.assertThat(r.map.get("k"), is(Arrays.asList(1, null, 3)));
+		Assert.assertThat(r.bytes, is(v.bytes));
+	}
+
+	@Test
+	public void testTransient() {
+		Book book = new Book();
+		book.setTitle("title");
+		book.setText("text");
+		book.setSell(true);
+		book.setId(3);
+		book.setPrice(1.5);
+		book.author = "author";
+		book.extInfo = "ext";
+
+		Book r = Binary.toObject(Binary.toBytes(book), Book.class);
+		Assert.assertThat(r.getTitle(), nullValue());
+		Assert.assertThat(r.getText(), nullValue());
+		Assert.assertThat(r.getSell(), nullValue());
+		Assert.assertThat(r.extInfo, nullValue());
+		Assert.assertThat(r.getId(), is(3));
+		Assert.assertThat(r.getPrice(), is(1.5));
+		Assert.assertThat(r.author, is("author"));
+	}
+
+	@Test
+	public void testDateFormat() {
+		Calendar cal = Calendar.getInstance();
+		cal.set(2015, Calendar.JANUARY, 25, 14, 53, 12);
+		DateFormatObject obj = new DateFormatObject();
+		obj.init(cal);
+
+		DateFormatObject r = Binary.toObject(Binary.toBytes(obj), DateFormatObject.class);
+		// the timestamps keep the milliseconds
+		Assert.assertThat(r.getDateDefault(), is(obj.getDateDefault()));
+		Assert.assertThat(r.getDateFieldTimestamp(), is(obj.getDateFieldTimestamp()));
+		Assert.assertThat(r.getDateList(), is(obj.getDateList()));
+
+		// the patterns are applied like the JSON
+		DateFormatObject j = Json.toObject(Json.toJson(obj), DateFormatObject.class);
+		Assert.assertThat(r.getDateMethodFormat(), is(j.getDateMethodFormat()));
+		Assert.assertThat(r.getDateFieldDefaultFormat(), is(j.getDateFieldDefaultFormat()));
+		Assert.assertThat(r.dateFieldFormat1, is(j.dateFieldFormat1));
+		Assert.assertThat(r.title, is(obj.title));
+	}
+
+	@Test
+	public void testStreaming() {
+		Values v = createValues();
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			s.append("中文 😀 ").append(i);
+		}
+		v.str = s.toString();
+		byte[] bytes = Binary.toBytes(v);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Binary.toBytes(v, out);
+		Assert.assertThat(out.toByteArray(), is(bytes));
+
+		for (int bufferSize : new int[]{1, 7, 64, 1024}) {
+			List<ByteBuffer> buffers = new ArrayList<>();
+			Binary.toByteBuffers(v, bufferSize, buffers::add);
+			ByteBuffer all = ByteBuffer.allocate(bytes.length);
+			buffers.forEach(all::put);
+			Assert.assertThat(all.position(), is(bytes.length));
+			Assert.assertThat(all.array(), is(bytes));
+		}
+
+		Values r = Binary.toObject(ByteBuffer.wrap(bytes), Values.class);
+		Assert.assertThat(r.str, is(v.str));
+	}
+
+	@Test
+	public void testConsecutiveObjects() {
+		Media media = JsonBenchmark.createRecord().getMedia();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+		buffer.put(Binary.toBytes(media)).put(Binary.toBytes(media)).put(Binary.toBytes(null)).flip();
+
+		// the unknown properties are skipped
+		Named named = Binary.toObject(buffer, Named.class);
+		Assert.assertThat(named.title, is(media.getTitle()));
+		Assert.assertThat(named.width, is(media.getWidth()));
+
+		Media r = Binary.toObject(buffer, Media.class);
+		Assert.assertThat(Json.toJson(r), is(Json.toJson(media)));
+		Assert.assertThat(Binary.toObject(buffer, Media.class), nullValue());
+		Assert.assertThat(buffer.hasRemaining(), is(false));
+	}
+
+	@Test
+	public void testPropertyLookup() {
+		Localized localized = new Localized();
+		localized.title = "title";
+		localized.width = 640;
+		localized.名称 = "名称";
+		byte[] bytes = Binary.toBytes(localized);
+
+		// the properties that are not in the expected order are found by the hash of the names
+		LocalizedName name = Binary.toObject(ByteBuffer.wrap(bytes), LocalizedName.class);
+		Assert.assertThat(name.名称, is("名称"));
+		Assert.assertThat(name.zero, is(0));
+		Width width = Binary.toObject(ByteBuffer.wrap(bytes), Width.class);
+		Assert.assertThat(width.width, is(640));
+		Assert.assertThat(width.a, is(0));
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes).flip();
+		Assert.assertThat(Binary.toObject(buffer, LocalizedName.class).名称, is("名称"));
+	}
+}
@@ -0,0 +1,232 @@
+package test.utils.json.compiler;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.JsonWriter;
+import com.firefly.utils.json.compiler.BytecodeCompiler;
+import com.firefly.utils.json.compiler.DecodeCompiler;
+import com.firefly.utils.json.compiler.EncodeCompiler;
+import com.firefly.utils.json.io.JsonStringReader;
+import com.firefly.utils.json.io.JsonStringWriter;
+import com.firefly.utils.json.parser.ObjectParser;
+import com.firefly.utils.json.serializer.ObjectNoCheckSerializer;
+
+import test.utils.json.github.JsonBenchmark;
+import test.utils.json.github.MediaContent;
+import test.utils.json.github.Player;
+
+public class TestBytecodeCompiler {
+
+	public static class Primitives {
+		private int i;
+		private long l;
+		private short s;
+		private boolean flag;
+		private char c;
+		private float f;
+		private double d;
+		private String str;
+		private Integer boxed;
+		private Player player;
+		private List<String> list;
+		public int[] array;
+
+		public int getI() {
+			return i;
+		}
+
+		public void setI(int i) {
+			this.i = i;
+		}
+
+		public long getL() {
+			return l;
+		}
+
+		public void setL(long l) {
+			this.l = l;
+		}
+
+		public short getS() {
+			return s;
+		}
+
+		public void setS(short s) {
+			this.s = s;
+		}
+
+		public boolean isFlag() {
+			return flag;
+		}
+
+		public void setFlag(boolean flag) {
+			this.flag = flag;
+		}
+
+		public char getC() {
+			return c;
+		}
+
+		public void setC(char c) {
+			this.c = c;
+		}
+
+		public float getF() {
+			return f;
+		}
+
+		public void setF(float f) {
+			this.f = f;
+		}
+
+		public double getD() {
+			return d;
+		}
+
+		public void setD(double d) {
+			this.d = d;
+		}
+
+		public String getStr() {
+			return str;
+		}
+
+		public void setStr(String str) {
+			this.str = str;
+		}
+
+		public Integer getBoxed() {
+			return boxed;
+		}
+
+		public void setBoxed(Integer boxed) {
+			this.boxed = boxed;
+		}
+
+		public Player getPlayer() {
+			return player;
+		}
+
+		public void setPlayer(Player player) {
+			this.player = player;
+		}
+
+		public List<String> getList() {
+			return list;
+		}
+
+		public void setList(List<String> list) {
+			this.list = list;
+		}
+	}
+
+	static class Hidden {
+		private int i;
+
+		public int getI() {
+			return i;
+		}
+
+		public void setI(int i) {
+			this.i = i;
+		}
+	}
+
+	private static String toJson(ObjectNoCheckSerializer serializer, Object obj) throws IOException {
+		try (JsonWriter writer = new JsonStringWriter()) {
+			serializer.convertTo(writer, obj);
+			return writer.toString();
+		}
+	}
+
+	private static Object toObject(ObjectParser parser, String json, Class<?> clazz) throws IOException {
+		try (JsonStringReader reader = new JsonStringReader(json)) {
+			return parser.convertTo(reader, clazz);
+		}
+	}
+
+	private static ObjectNoCheckSerializer createSerializer(Class<?> clazz) {
+		ObjectNoCheckSerializer serializer = new ObjectNoCheckSerializer();
+		boolean enabled = BytecodeCompiler.enabled;
+		BytecodeCompiler.enabled = true;
+		try {
+			serializer.init(clazz);
+		} finally {
+			BytecodeCompiler.enabled = enabled;
+		}
+		return serializer;
+	}
+
+	private static ObjectParser createParser(Class<?> clazz) {
+		ObjectParser parser = new ObjectParser();
+		boolean enabled = BytecodeCompiler.enabled;
+		BytecodeCompiler.enabled = true;
+		try {
+			parser.init(clazz);
+		} finally {
+			BytecodeCompiler.enabled = enabled;
+		}
+		return parser;
+	}
+
+	@Test
+	public void testPrimitives() throws IOException {
+		Primitives p = new Primitives();
+		p.setI(Integer.MIN_VALUE);
+		p.setL(Long.MAX_VALUE);
+		p.setS((short) -3);
+		p.setFlag(true);
+		p.setC('x');
+		p.setF(1.5F);
+		p.setD(-0.25);
+		p.setStr("中文 \"str\"");
+		p.setBoxed(10);
+		p.setPlayer(Player.FLASH);
+		p.setList(Arrays.asList("a", "b"));
+		p.array = new int[]{1, 2};
+
+		String json = Json.toJson(p);
+		ObjectNoCheckSerializer serializer = createSerializer(Primitives.class);
+		Assert.assertThat(toJson(serializer, p), is(json));
+
+		ObjectParser parser = createParser(Primitives.class);
+		Primitives p2 = (Primitives) toObject(parser, json, Primitives.class);
+		Assert.assertThat(Json.toJson(p2), is(json));
+
+		// the properties in a different order are found by the name
+		String reordered = "{\"str\":null,\"i\":3,\"unknown\":[1,{}],\"flag\":\"true\",\"c\":\"y\",\"d\":1.0E10,\"array\":[3]}";
+		Primitives p3 = (Primitives) toObject(parser, reordered, Primitives.class);
+		Assert.assertThat(Json.toJson(p3), is(Json.toJson(Json.toObject(reordered, Primitives.class))));
+		Assert.assertThat(p3.getStr(), nullValue());
+		Assert.assertThat(p3.getI(), is(3));
+		Assert.assertThat(p3.getC(), is('y'));
+		Assert.assertThat(p3.array[0], is(3));
+	}
+
+	@Test
+	public void testMediaContent() throws IOException {
+		MediaContent record = JsonBenchmark.createRecord();
+		String json = Json.toJson(record);
+		Assert.assertThat(toJson(createSerializer(MediaContent.class), record), is(json));
+
+		MediaContent r = (MediaContent) toObject(createParser(MediaContent.class), json, MediaContent.class);
+		Assert.assertThat(Json.toJson(r), is(json));
+	}
+
+	@Test
+	public void testInaccessibleClass() {
+		Assert.assertThat(BytecodeCompiler.createSerializer(Hidden.class, EncodeCompiler.compile(Hidden.class)), nullValue());
+		Assert.assertThat(BytecodeCompiler.createParser(Hidden.class, DecodeCompiler.compile(Hidden.class)), nullValue());
+		Assert.assertThat(BytecodeCompiler.createParser(Primitives.class, DecodeCompiler.compile(Primitives.class)), notNullValue());
+	}
+}
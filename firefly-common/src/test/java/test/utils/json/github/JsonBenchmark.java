@@ -6,6 +6,7 @@ import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.firefly.utils.json.Json;
 import com.firefly.utils.json.JsonObject;
+import com.firefly.utils.json.compiler.BytecodeCompiler;
 
 public class JsonBenchmark {
 	public static MediaContent createRecord() {
@@ -62,7 +63,12 @@ public class JsonBenchmark {
         System.out.println();
     }
     
+    /**
+     * Run it with -Dcom.firefly.utils.json.compiler.BytecodeCompiler.enabled=true
+     * to compare the generated serializers and parsers with the default ones.
+     */
     public static void main(String[] args) throws Throwable {
+    	System.out.println("bytecode compiler enabled: " + BytecodeCompiler.enabled);
     	init();
     	final int times = 1000 * 1000 * 1;
     	long fastjsonTotal = 0L;
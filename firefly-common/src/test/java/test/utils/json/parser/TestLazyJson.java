@@ -0,0 +1,108 @@
+package test.utils.json.parser;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.JsonArray;
+import com.firefly.utils.json.JsonObject;
+import com.firefly.utils.json.LazyJsonArray;
+import com.firefly.utils.json.LazyJsonObject;
+import com.firefly.utils.json.exception.JsonException;
+
+import test.utils.json.github.JsonBenchmark;
+
+public class TestLazyJson {
+
+	private static final String JSON = " {\"key1\":333, \"arrayKey\":[444, \"array\", {\"a\" : [ ] }], \"key2\" :  {\"key3\" : \"he\\\"llo\", \"key4\":\"wor]ld}\" },"
+			+ " \"booleanKey\" : true, \"nullKey\": null, \"emptyKey\":{}, \"key1\": 555 }   ";
+
+	@Test
+	public void testGet() {
+		JsonObject object = Json.toLazyJsonObject(JSON);
+		Assert.assertThat(object, instanceOf(LazyJsonObject.class));
+		Assert.assertThat(object.getInteger("key1"), is(555));
+		Assert.assertThat(object.getJsonArray("arrayKey").getInteger(0), is(444));
+		Assert.assertThat(object.getJsonArray("arrayKey").getString(1), is("array"));
+		Assert.assertThat(object.getJsonArray("arrayKey").getJsonObject(2).getJsonArray("a").size(), is(0));
+		Assert.assertThat(object.getJsonObject("key2").getString("key3"), is("he\"llo"));
+		Assert.assertThat(object.getJsonObject("key2").getString("key4"), is("wor]ld}"));
+		Assert.assertThat(object.getBoolean("booleanKey"), is(true));
+		Assert.assertThat(object.getJsonObject("nullKey"), nullValue());
+		Assert.assertThat(object.getJsonObject("emptyKey").isEmpty(), is(true));
+		Assert.assertThat(object.get("unknown"), nullValue());
+		Assert.assertThat(object.containsKey("booleanKey"), is(true));
+		Assert.assertThat(object.containsKey("unknown"), is(false));
+
+		JsonArray array = Json.toLazyJsonArray("[333,444,{\"key\" : \"hello\", \"keyObject\" : [\"object0\",\"object1\"  ]},666]");
+		Assert.assertThat(array, instanceOf(LazyJsonArray.class));
+		Assert.assertThat(array.size(), is(4));
+		Assert.assertThat(array.getInteger(3), is(666));
+		Assert.assertThat(array.getJsonObject(2).getJsonArray("keyObject").getString(1), is("object1"));
+	}
+
+	@Test
+	public void testEqualsToParsedObject() {
+		Assert.assertThat(Json.toLazyJsonObject(JSON), is(Json.toJsonObject(JSON)));
+		Assert.assertThat(Json.toJsonObject(JSON).equals(Json.toLazyJsonObject(JSON)), is(true));
+		Assert.assertThat(Json.toLazyJsonObject(JSON).hashCode(), is(Json.toJsonObject(JSON).hashCode()));
+
+		String json = Json.toJson(JsonBenchmark.createRecord());
+		Assert.assertThat(Json.toLazyJsonObject(json), is(Json.toJsonObject(json)));
+	}
+
+	@Test
+	public void testCopyUnmodifiedText() {
+		JsonObject object = Json.toLazyJsonObject(JSON);
+		Assert.assertThat(Json.toJson(object), is(JSON.trim()));
+
+		object.getJsonObject("key2").getString("key3");
+		Assert.assertThat(object.size(), is(6));
+		Assert.assertThat(Json.toJson(object), is(JSON.trim()));
+
+		String json = "[1, {\"a\" : 1}, [2 , 3]]";
+		Assert.assertThat(Json.toJson(Json.toLazyJsonArray(json)), is(json));
+	}
+
+	@Test
+	public void testModify() {
+		JsonObject object = Json.toLazyJsonObject(JSON);
+		JsonObject key2 = object.getJsonObject("key2");
+		key2.put("key5", "new");
+
+		JsonObject parsed = Json.toJsonObject(Json.toJson(object));
+		Assert.assertThat(parsed.getJsonObject("key2").getString("key5"), is("new"));
+		Assert.assertThat(parsed.getJsonObject("key2").getString("key3"), is("he\"llo"));
+		Assert.assertThat(parsed.getInteger("key1"), is(555));
+		// the unmodified array is copied
+		Assert.assertThat(Json.toJson(object).contains("\"arrayKey\":[444, \"array\", {\"a\" : [ ] }]"), is(true));
+
+		JsonArray array = Json.toLazyJsonArray("[1, {\"a\" : 1}, [2 , 3]]");
+		array.getJsonArray(2).add("4");
+		Assert.assertThat(Json.toJson(array), is("[\"1\",{\"a\" : 1},[\"2\",\"3\",\"4\"]]"));
+	}
+
+	@Test
+	public void testClone() {
+		JsonObject object = Json.toLazyJsonObject(JSON);
+		JsonObject copy = (JsonObject) object.clone();
+		copy.remove("key1");
+		Assert.assertThat(object.getInteger("key1"), is(555));
+		Assert.assertThat(copy.containsKey("key1"), is(false));
+		Assert.assertThat(Json.toJson(object), is(JSON.trim()));
+	}
+
+	@Test(expected = JsonException.class)
+	public void testNotObject() {
+		Json.toLazyJsonObject("[1, 2]");
+	}
+
+	@Test(expected = JsonException.class)
+	public void testNotComplete() {
+		Json.toLazyJsonArray("[1, [2]");
+	}
+}
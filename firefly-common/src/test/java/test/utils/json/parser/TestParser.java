@@ -12,6 +12,11 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -621,6 +626,94 @@ public class TestParser {
 		System.out.println(obj2);
 	}
 
+	public static class Chain {
+		private int id;
+		private Chain next;
+		private Link[] links;
+
+		public int getId() {
+			return id;
+		}
+
+		public void setId(int id) {
+			this.id = id;
+		}
+
+		public Chain getNext() {
+			return next;
+		}
+
+		public void setNext(Chain next) {
+			this.next = next;
+		}
+
+		public Link[] getLinks() {
+			return links;
+		}
+
+		public void setLinks(Link[] links) {
+			this.links = links;
+		}
+	}
+
+	public static class Link {
+		private String name;
+		private Chain chain;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Chain getChain() {
+			return chain;
+		}
+
+		public void setChain(Chain chain) {
+			this.chain = chain;
+		}
+	}
+
+	@Test
+	public void testConcurrentRegistration() throws Exception {
+		int threads = 16;
+		CyclicBarrier barrier = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Chain>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				final int id = i;
+				futures.add(executor.submit(() -> {
+					Chain chain = new Chain();
+					chain.setId(id);
+					chain.setNext(new Chain());
+					chain.getNext().setId(id + 1);
+					Link link = new Link();
+					link.setName("link" + id);
+					link.setChain(new Chain());
+					chain.setLinks(new Link[] { link });
+
+					// all the threads register the recursive types at the same time
+					barrier.await();
+					return Json.toObject(Json.toJson(chain), Chain.class);
+				}));
+			}
+			for (int i = 0; i < threads; i++) {
+				Chain chain = futures.get(i).get(10, TimeUnit.SECONDS);
+				Assert.assertThat(chain.getId(), is(i));
+				Assert.assertThat(chain.getNext().getId(), is(i + 1));
+				Assert.assertThat(chain.getNext().getNext(), nullValue());
+				Assert.assertThat(chain.getLinks()[0].getName(), is("link" + i));
+				Assert.assertThat(chain.getLinks()[0].getChain().getId(), is(0));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	public static void main6(String[] args) {
 		SpecialPropertyObject s = new SpecialPropertyObject();
 		System.out.println(s);
@@ -0,0 +1,176 @@
+package test.utils.json.reader;
+
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.JsonReader;
+import com.firefly.utils.json.io.JsonUtf8Reader;
+import com.firefly.utils.json.support.FieldTable;
+
+import test.utils.json.SimpleObj;
+import test.utils.json.github.JsonBenchmark;
+import test.utils.json.github.MediaContent;
+
+public class TestJsonUtf8Reader {
+
+	private static SimpleObj createSimpleObj(int i) {
+		SimpleObj obj = new SimpleObj();
+		obj.setId(i);
+		obj.setName("中文 \"name\" 😀 " + i);
+		obj.setAge(i % 100);
+		obj.setDate(Long.MIN_VALUE + i);
+		obj.setWeight(i + 0.5F);
+		obj.setHeight(i * 1.25);
+		SimpleObj contact = new SimpleObj();
+		contact.setName("é\\ß\n" + i);
+		obj.setContact1(contact);
+		return obj;
+	}
+
+	private static List<ByteBuffer> split(byte[] bytes, int... positions) {
+		List<ByteBuffer> list = new ArrayList<>();
+		int start = 0;
+		for (int p : positions) {
+			list.add(ByteBuffer.wrap(bytes, start, p - start));
+			start = p;
+		}
+		list.add(ByteBuffer.wrap(bytes, start, bytes.length - start));
+		return list;
+	}
+
+	@Test
+	public void testSplitAtEveryByte() {
+		String json = Json.toJson(createSimpleObj(1));
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		String expected = Json.toJson(Json.toObject(json, SimpleObj.class));
+		for (int i = 0; i <= bytes.length; i++) {
+			SimpleObj obj = Json.toObject(split(bytes, i), SimpleObj.class);
+			Assert.assertThat(Json.toJson(obj), is(expected));
+		}
+
+		List<ByteBuffer> single = new ArrayList<>();
+		for (int i = 0; i < bytes.length; i++) {
+			single.add(ByteBuffer.wrap(bytes, i, 1));
+		}
+		Assert.assertThat(Json.toJson(Json.toObject(single, SimpleObj.class)), is(expected));
+		// the positions of the buffers are not changed
+		Assert.assertThat(single.get(0).remaining(), is(1));
+	}
+
+	@Test
+	public void testLargeDocument() {
+		MediaContent record = JsonBenchmark.createRecord();
+		List<MediaContent> list = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			list.add(record);
+		}
+		String json = Json.toJson(list.toArray(new MediaContent[0]));
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+		MediaContent[] array = Json.toObject(split(bytes, 100, 5000, 5001, 20000), MediaContent[].class);
+		Assert.assertThat(Json.toJson(array), is(json));
+		array = Json.toObject(new ByteArrayInputStream(bytes), MediaContent[].class);
+		Assert.assertThat(Json.toJson(array), is(json));
+
+		Assert.assertThat(Json.toJsonArray(split(bytes, 3, 7)).toString(), is(Json.toJsonArray(json).toString()));
+		String object = Json.toJson(record);
+		Assert.assertThat(Json.toJsonObject(split(object.getBytes(StandardCharsets.UTF_8), 11)).toString(),
+				is(Json.toJsonObject(object).toString()));
+	}
+
+	@Test
+	public void testIterator() {
+		StringBuilder json = new StringBuilder("  [");
+		for (int i = 0; i < 10000; i++) {
+			if (i > 0)
+				json.append(" ,\n");
+			json.append(Json.toJson(createSimpleObj(i)));
+		}
+		json.append("]  ");
+		byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+
+		Iterator<SimpleObj> iterator = Json.toIterator(new ByteArrayInputStream(bytes), SimpleObj.class);
+		int i = 0;
+		while (iterator.hasNext()) {
+			SimpleObj obj = iterator.next();
+			String expected = Json.toJson(Json.toObject(Json.toJson(createSimpleObj(i)), SimpleObj.class));
+			Assert.assertThat(Json.toJson(obj), is(expected));
+			i++;
+		}
+		Assert.assertThat(i, is(10000));
+
+		Assert.assertThat(Json.toIterator(new ByteArrayInputStream("[ ]".getBytes()), SimpleObj.class).hasNext(), is(false));
+		Assert.assertThat(Json.toIterator(new ByteArrayInputStream("null".getBytes()), SimpleObj.class).hasNext(), is(false));
+	}
+
+	@Test
+	public void testValues() throws IOException {
+		byte[] bytes = "{\"a\": 3332.44 , \"b\":\"-12\", \"c\" : null, \"d\":\"\\u4e2d\\t\"}".getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i <= bytes.length; i++) {
+			JsonReader reader = new JsonUtf8Reader(split(bytes, i));
+			Assert.assertThat(reader.isObject(), is(true));
+			Assert.assertThat(reader.readField("a".toCharArray()), is((char[]) null));
+			Assert.assertThat(reader.isColon(), is(true));
+			Assert.assertThat(reader.readDouble(), is(3332.44));
+			Assert.assertThat(reader.isComma(), is(true));
+			Assert.assertThat(new String(reader.readField("a".toCharArray())), is("b"));
+			Assert.assertThat(reader.isColon(), is(true));
+			Assert.assertThat(reader.readInt(), is(-12));
+			Assert.assertThat(reader.isComma(), is(true));
+			Assert.assertThat(new String(reader.readChars()), is("c"));
+			Assert.assertThat(reader.isColon(), is(true));
+			Assert.assertThat(reader.isNull(), is(true));
+			Assert.assertThat(reader.isComma(), is(true));
+			Assert.assertThat(reader.readField("d".toCharArray()), is((char[]) null));
+			Assert.assertThat(reader.isColon(), is(true));
+			Assert.assertThat(reader.readString(), is("中\t"));
+			Assert.assertThat(reader.readAndSkipBlank(), is('}'));
+			Assert.assertThat(reader.isEnd(), is(true));
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testReadFieldIndex() throws IOException {
+		FieldTable table = new FieldTable(new char[][]{"名称".toCharArray(), "id".toCharArray()});
+		byte[] bytes = "{\"id\":1,\"名称\":2,\"名\":3}".getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i <= bytes.length; i++) {
+			JsonReader reader = new JsonUtf8Reader(split(bytes, i));
+			Assert.assertThat(reader.isObject(), is(true));
+			Assert.assertThat(reader.readFieldIndex(table, 0), is(1));
+			Assert.assertThat(reader.isColon(), is(true));
+			Assert.assertThat(reader.readInt(), is(1));
+			Assert.assertThat(reader.isComma(), is(true));
+			Assert.assertThat(reader.readFieldIndex(table, 0), is(0));
+			Assert.assertThat(reader.isColon(), is(true));
+			Assert.assertThat(reader.readInt(), is(2));
+			Assert.assertThat(reader.isComma(), is(true));
+			Assert.assertThat(reader.readFieldIndex(table, -1), is(-1));
+			Assert.assertThat(reader.isColon(), is(true));
+			Assert.assertThat(reader.readInt(), is(3));
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testMalformedInput() {
+		byte[] bytes = Arrays.copyOf("\"a".getBytes(), 6);
+		bytes[2] = (byte) 0xff;
+		bytes[3] = (byte) 0xe4;
+		bytes[4] = 'b';
+		bytes[5] = '"';
+		Assert.assertThat(Json.toObject(ByteBuffer.wrap(bytes), String.class), is("a\ufffd\ufffdb"));
+	}
+}
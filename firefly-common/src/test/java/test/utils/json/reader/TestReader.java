@@ -8,6 +8,7 @@ import org.junit.Test;
 
 import com.firefly.utils.json.JsonReader;
 import com.firefly.utils.json.io.JsonStringReader;
+import com.firefly.utils.json.support.FieldTable;
 
 import static org.hamcrest.Matchers.*;
 
@@ -387,6 +388,37 @@ public class TestReader {
 		reader.close();
 	}
 	
+	@Test
+	public void testReadFieldIndex() throws IOException {
+		// "Aa" and "BB" have the same string hash code
+		FieldTable table = new FieldTable(new char[][]{"Aa".toCharArray(), "BB".toCharArray(), "name".toCharArray(), "id".toCharArray()});
+		Assert.assertThat(table.find("BB".toCharArray()), is(1));
+		Assert.assertThat(table.find("Ab".toCharArray()), is(-1));
+		
+		JsonReader reader = new JsonStringReader("{ \"BB\" : 1, \"id\":2, \"Aa\":3, \"nam\":4, \"name\":5}");
+		Assert.assertThat(reader.isObject(), is(true));
+		Assert.assertThat(reader.readFieldIndex(table, 0), is(1));
+		Assert.assertThat(reader.isColon(), is(true));
+		Assert.assertThat(reader.readInt(), is(1));
+		Assert.assertThat(reader.isComma(), is(true));
+		Assert.assertThat(reader.readFieldIndex(table, 3), is(3));
+		Assert.assertThat(reader.isColon(), is(true));
+		Assert.assertThat(reader.readInt(), is(2));
+		Assert.assertThat(reader.isComma(), is(true));
+		Assert.assertThat(reader.readFieldIndex(table, -1), is(0));
+		Assert.assertThat(reader.isColon(), is(true));
+		Assert.assertThat(reader.readInt(), is(3));
+		Assert.assertThat(reader.isComma(), is(true));
+		Assert.assertThat(reader.readFieldIndex(table, 2), is(-1));
+		Assert.assertThat(reader.isColon(), is(true));
+		Assert.assertThat(reader.readInt(), is(4));
+		Assert.assertThat(reader.isComma(), is(true));
+		Assert.assertThat(reader.readFieldIndex(table, 2), is(2));
+		Assert.assertThat(reader.isColon(), is(true));
+		Assert.assertThat(reader.readInt(), is(5));
+		reader.close();
+	}
+	
 	public static void main(String[] args) throws IOException {
 		JsonReader reader = new JsonStringReader("{ \"testField\": [ [[{} , {\"t1\" : { \"t2\": {\"t3\" : [\"332f\", \"dsfdsf\\\"sd\"] } } }],[]], [[3,4]] ], \"ssdd\" : \"sdf\\\"sdfsdf\" }");
 		reader.isObject();
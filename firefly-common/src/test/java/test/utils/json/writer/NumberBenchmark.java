@@ -0,0 +1,78 @@
+package test.utils.json.writer;
+
+import java.util.Random;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.io.NumberUtils;
+
+public class NumberBenchmark {
+
+	public static void main(String[] args) {
+		Random random = new Random(38);
+		double[] samples = new double[1000];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = random.nextDouble() * Math.pow(10, random.nextInt(8) - 2);
+		}
+		String json = Json.toJson(samples);
+		char[][] chars = new char[samples.length][];
+		for (int i = 0; i < samples.length; i++) {
+			chars[i] = Double.toString(samples[i]).toCharArray();
+		}
+		char[] buf = new char[NumberUtils.MAX_CHARS];
+
+		final int times = 2000;
+		for (int round = 0; round < 3; round++) {
+			System.out.println("======================");
+			long size = 0;
+			long start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				for (double d : samples) {
+					size += Double.toString(d).length();
+				}
+			}
+			long jdkWriter = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				for (double d : samples) {
+					size += NumberUtils.getChars(d, buf, 0);
+				}
+			}
+			long writer = System.currentTimeMillis() - start;
+
+			double sum = 0;
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				for (char[] c : chars) {
+					sum += Double.parseDouble(new String(c));
+				}
+			}
+			long jdkParser = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				for (char[] c : chars) {
+					sum += NumberUtils.parseDouble(c, 0, c.length);
+				}
+			}
+			long parser = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				size += Json.toJson(samples).length();
+			}
+			long jsonSerializer = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < times; i++) {
+				sum += Json.toObject(json, double[].class)[0];
+			}
+			long jsonParser = System.currentTimeMillis() - start;
+
+			System.out.println("Double.toString: " + jdkWriter + ", NumberUtils.getChars: " + writer);
+			System.out.println("Double.parseDouble: " + jdkParser + ", NumberUtils.parseDouble: " + parser);
+			System.out.println("json serializer: " + jsonSerializer + ", json parser: " + jsonParser);
+			System.out.println(size + sum);
+		}
+	}
+}
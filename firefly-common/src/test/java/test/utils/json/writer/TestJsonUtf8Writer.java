@@ -0,0 +1,105 @@
+package test.utils.json.writer;
+
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.io.JsonUtf8Writer;
+import com.firefly.utils.json.serializer.SerialStateMachine;
+
+import test.utils.json.Node;
+import test.utils.json.SimpleObj;
+import test.utils.json.github.JsonBenchmark;
+import test.utils.json.github.MediaContent;
+
+public class TestJsonUtf8Writer {
+
+	private static void assertSameJson(Object obj) {
+		byte[] expected = Json.toJson(obj).getBytes(StandardCharsets.UTF_8);
+		Assert.assertThat(new String(Json.toJsonBytes(obj), StandardCharsets.UTF_8),
+				is(new String(expected, StandardCharsets.UTF_8)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Json.toJson(obj, out);
+		Assert.assertThat(out.toByteArray(), is(expected));
+	}
+
+	@Test
+	public void testObject() {
+		MediaContent record = JsonBenchmark.createRecord();
+		assertSameJson(record);
+		assertSameJson(Json.toObject(Json.toJson(record), MediaContent.class));
+
+		Node node = new Node();
+		node.setId(Integer.MIN_VALUE);
+		node.setText("节点\n\"text\"");
+		node.setFlag(true);
+		node.setSex('女');
+		node.setTimestamp(new Date(1000L));
+		node.setRig(new int[] { 1, -2, Integer.MAX_VALUE });
+		node.setRbool(new boolean[] { true, false });
+		node.setRlong(new Long[] { Long.MIN_VALUE, 0L, Long.MAX_VALUE });
+		Map<String, Object> map = new HashMap<>();
+		map.put("key", "value");
+		node.setMap(map);
+		Node child = new Node();
+		child.setNode(node);
+		node.setNode(child);
+		assertSameJson(node);
+	}
+
+	@Test
+	public void testEscape() {
+		List<String> list = new ArrayList<>();
+		list.add("ascii / \\ \" \b \f \r \t \u0001 \u001f \u007f");
+		list.add("latin é ß \u0080 \u009f ­");
+		list.add("cjk 中文   ‌ ﻿ ！ ￰");
+		list.add("emoji 😀 tail");
+		list.add("");
+		for (String str : list) {
+			assertSameJson(str);
+		}
+		assertSameJson(list);
+		assertSameJson(list.toArray(new String[0]));
+	}
+
+	@Test
+	public void testMalformedSurrogate() {
+		Assert.assertThat(new String(Json.toJsonBytes("a\ud83db\ude00"), StandardCharsets.UTF_8), is("\"a?b?\""));
+	}
+
+	@Test
+	public void testSmallBuffer() throws IOException {
+		SimpleObj obj = new SimpleObj();
+		obj.setName("中文 name 😀");
+		obj.setDate(Long.MIN_VALUE);
+		SimpleObj contact = new SimpleObj();
+		contact.setName(obj.getName());
+		obj.setContact1(contact);
+		String json = Json.toJson(obj);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonUtf8Writer writer = new JsonUtf8Writer(out, 8)) {
+			for (int i = 0; i < 100; i++) {
+				SerialStateMachine.toJson(obj, writer);
+				Assert.assertThat(writer.size() <= 20, is(true));
+			}
+		}
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			expected.append(json);
+		}
+		Assert.assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is(expected.toString()));
+	}
+}
@@ -0,0 +1,188 @@
+package test.utils.json.writer;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.io.NumberUtils;
+
+public class TestNumberUtils {
+
+	public static class Telemetry {
+		public double value;
+		public float ratio;
+		public Double boxed;
+		public double[] samples;
+		public Double[] boxedSamples;
+	}
+
+	private static String toString(double d) {
+		char[] buf = new char[NumberUtils.MAX_CHARS];
+		return new String(buf, 0, NumberUtils.getChars(d, buf, 0));
+	}
+
+	private static String toString(float f) {
+		char[] buf = new char[NumberUtils.MAX_CHARS];
+		return new String(buf, 0, NumberUtils.getChars(f, buf, 0));
+	}
+
+	private static double parseDouble(String s) {
+		return NumberUtils.parseDouble(s.toCharArray(), 0, s.length());
+	}
+
+	private static float parseFloat(String s) {
+		return NumberUtils.parseFloat(s.toCharArray(), 0, s.length());
+	}
+
+	@Test
+	public void testToChars() {
+		Assert.assertThat(toString(0.0), is("0.0"));
+		Assert.assertThat(toString(-0.0), is("-0.0"));
+		Assert.assertThat(toString(1.0), is("1.0"));
+		Assert.assertThat(toString(0.1), is("0.1"));
+		Assert.assertThat(toString(-17.4432), is("-17.4432"));
+		Assert.assertThat(toString(9999999.0), is("9999999.0"));
+		Assert.assertThat(toString(1.0E7), is("1.0E7"));
+		Assert.assertThat(toString(0.001), is("0.001"));
+		Assert.assertThat(toString(1.0E-4), is("1.0E-4"));
+		Assert.assertThat(toString(Double.MAX_VALUE), is("1.7976931348623157E308"));
+		Assert.assertThat(toString(Double.MIN_VALUE), is("4.9E-324"));
+		Assert.assertThat(toString(-Double.MIN_NORMAL), is("-2.2250738585072014E-308"));
+		Assert.assertThat(toString(Double.NaN), is("NaN"));
+		Assert.assertThat(toString(Double.NEGATIVE_INFINITY), is("-Infinity"));
+
+		// Double.toString writes more digits than they need
+		Assert.assertThat(toString(2.0E23), is("2.0E23"));
+		Assert.assertThat(toString(1.0E23), is("1.0E23"));
+
+		Assert.assertThat(toString(1.5F), is("1.5"));
+		Assert.assertThat(toString(0.3F), is("0.3"));
+		Assert.assertThat(toString(Float.MAX_VALUE), is("3.4028235E38"));
+		Assert.assertThat(toString(Float.MIN_VALUE), is("1.4E-45"));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Random random = new Random(38);
+		for (int i = 0; i < 200000; i++) {
+			double d = i % 2 == 0 ? Double.longBitsToDouble(random.nextLong())
+					: random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+			if (Double.isNaN(d))
+				continue;
+			String s = toString(d);
+			String jdk = Double.toString(d);
+			Assert.assertThat(Double.parseDouble(s), is(d));
+			Assert.assertThat(s.length(), lessThanOrEqualTo(jdk.length()));
+			Assert.assertThat(Double.doubleToRawLongBits(parseDouble(jdk)), is(Double.doubleToRawLongBits(d)));
+			Assert.assertThat(Double.doubleToRawLongBits(parseDouble(s)), is(Double.doubleToRawLongBits(d)));
+
+			float f = Float.intBitsToFloat(random.nextInt());
+			if (Float.isNaN(f))
+				continue;
+			s = toString(f);
+			Assert.assertThat(Float.parseFloat(s), is(f));
+			Assert.assertThat(s.length(), lessThanOrEqualTo(Float.toString(f).length()));
+			Assert.assertThat(parseFloat(s), is(f));
+		}
+	}
+
+	@Test
+	public void testShortest() {
+		Random random = new Random(38);
+		for (int i = 0; i < 20000; i++) {
+			double d = Math.abs(Double.longBitsToDouble(random.nextLong()));
+			if (Double.isNaN(d) || Double.isInfinite(d))
+				continue;
+			BigDecimal decimal = new BigDecimal(toString(d));
+			int digits = decimal.stripTrailingZeros().precision();
+			if (digits > 1) {
+				// no decimal that has less digits is read back as the same value
+				BigDecimal exact = new BigDecimal(d);
+				BigDecimal down = exact.round(new MathContext(digits - 1, RoundingMode.FLOOR));
+				BigDecimal up = exact.round(new MathContext(digits - 1, RoundingMode.CEILING));
+				Assert.assertThat(Double.parseDouble(down.toString()) == d, is(false));
+				Assert.assertThat(Double.parseDouble(up.toString()) == d, is(false));
+			}
+		}
+	}
+
+	@Test
+	public void testParse() {
+		Random random = new Random(38);
+		for (int i = 0; i < 200000; i++) {
+			StringBuilder s = new StringBuilder();
+			if (random.nextBoolean())
+				s.append('-');
+			int n = 1 + random.nextInt(25);
+			for (int j = 0; j < n; j++) {
+				s.append((char) ('0' + random.nextInt(10)));
+			}
+			if (random.nextBoolean()) {
+				s.append('.');
+				n = random.nextInt(20);
+				for (int j = 0; j < n; j++) {
+					s.append((char) ('0' + random.nextInt(10)));
+				}
+			}
+			if (random.nextBoolean()) {
+				s.append(random.nextBoolean() ? 'e' : 'E').append(random.nextInt(700) - 350);
+			}
+			String str = s.toString();
+			Assert.assertThat(Double.doubleToRawLongBits(parseDouble(str)),
+					is(Double.doubleToRawLongBits(Double.parseDouble(str))));
+			Assert.assertThat(Float.floatToRawIntBits(parseFloat(str)), is(Float.floatToRawIntBits(Float.parseFloat(str))));
+		}
+
+		// the other formats are parsed by the JDK
+		String[] values = { "-0", ".5", "5.", "+1e+3", "1e400", "1e-400", "2.4703282292062328e-324",
+				"1.7976931348623159e308", "9007199254740993", "123456789012345678901234567890", " 1.5 ", "1.5d",
+				"NaN", "-Infinity", "0x1p3" };
+		for (String str : values) {
+			Assert.assertThat(Double.doubleToRawLongBits(parseDouble(str)),
+					is(Double.doubleToRawLongBits(Double.parseDouble(str))));
+			Assert.assertThat(Float.floatToRawIntBits(parseFloat(str)), is(Float.floatToRawIntBits(Float.parseFloat(str))));
+		}
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void testParseError() {
+		parseDouble("1.2.3");
+	}
+
+	@Test
+	public void testJson() {
+		Telemetry t = new Telemetry();
+		t.value = 2.0E23;
+		t.ratio = 0.1F;
+		t.boxed = -0.0;
+		t.samples = new double[] { 0.1, 1.0E-7, 100.0, Double.MIN_VALUE };
+		t.boxedSamples = new Double[] { 1.5, null };
+
+		String json = Json.toJson(t);
+		Assert.assertThat(json, is("{\"boxed\":-0.0,\"boxedSamples\":[1.5,null],\"ratio\":0.1,"
+				+ "\"samples\":[0.1,1.0E-7,100.0,4.9E-324],\"value\":2.0E23}"));
+		Assert.assertThat(new String(Json.toJsonBytes(t), StandardCharsets.UTF_8), is(json));
+		Assert.assertThat(Json.toJson(new double[0]), is("[]"));
+
+		t.boxedSamples = new Double[] { 1.5, 1.0E300 };
+		json = Json.toJson(t);
+		Telemetry r = Json.toObject(json, Telemetry.class);
+		Assert.assertThat(Json.toJson(r), is(json));
+		r = Json.toObject(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)), Telemetry.class);
+		Assert.assertThat(Json.toJson(r), is(json));
+
+		r = Json.toObject("{\"value\":\"1.25\",\"ratio\":\" 2.5\"}", Telemetry.class);
+		Assert.assertThat(r.value, is(1.25));
+		Assert.assertThat(r.ratio, is(2.5F));
+	}
+}
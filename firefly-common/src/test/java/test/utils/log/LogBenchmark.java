@@ -1,19 +1,27 @@
 package test.utils.log;
 
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.firefly.utils.log.Log;
 import com.firefly.utils.log.LogFactory;
+import com.firefly.utils.log.file.FileLogTask;
 
 public class LogBenchmark {
 
 	private static final Log log = LogFactory.getInstance().getLog("test-INFO");
+	private static final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws InterruptedException {
+		// warm up
+		test(4, 1_000_000, 20);
 		test(4, 5_000_000, 20);
+		LogFactory.getInstance().stop();
 	}
 
-	public static void test(int threadNum, int messageNum, int messageSize) {
+	public static void test(int threadNum, int messageNum, int messageSize) throws InterruptedException {
 		StringBuilder data = new StringBuilder(messageSize);
 		for (int i = 0; i < messageSize; i++) {
 			data.append("a");
@@ -21,29 +29,52 @@ public class LogBenchmark {
 		String str = data.toString();
 
 		final Phaser phaser = new Phaser(threadNum + 1);
+		final AtomicLong callerAllocated = new AtomicLong();
 
 		Thread[] threads = new Thread[threadNum];
 		int size = messageNum / threadNum;
 		System.out.println("size: " + size);
 		for (int i = 0; i < threads.length; i++) {
 			threads[i] = new Thread(() -> {
+				long id = Thread.currentThread().getId();
+				long allocated = threadMXBean.getThreadAllocatedBytes(id);
 				for (int j = 0; j < size; j++) {
 					log.info(str);
 				}
+				callerAllocated.addAndGet(threadMXBean.getThreadAllocatedBytes(id) - allocated);
 //				System.out.println(Thread.currentThread().getName() + " arrived");
 				phaser.arrive();
 			} , "test-thread-" + i);
 		}
 
+		Thread logThread = getLogThread();
+		long logAllocated = threadMXBean.getThreadAllocatedBytes(logThread.getId());
 		long start = System.currentTimeMillis();
 		for (int i = 0; i < threads.length; i++) {
 			threads[i].start();
 		}
 		phaser.arriveAndAwaitAdvance();
 		long end = System.currentTimeMillis();
-		long time = (end - start) / 1000;
-		System.out.println("time: " + time);
-		System.out.println("msg/sec: " + (messageNum / time));
+		FileLogTask logTask = (FileLogTask) LogFactory.getInstance().getLogTask();
+		while (!logTask.isEmpty()) {
+			Thread.sleep(10);
+		}
+		long written = System.currentTimeMillis();
+		logAllocated = threadMXBean.getThreadAllocatedBytes(logThread.getId()) - logAllocated;
+
+		long time = Math.max(1, end - start);
+		System.out.println("time: " + time + "ms, written: " + (written - start) + "ms");
+		System.out.println("msg/sec: " + (messageNum * 1000L / time));
+		System.out.println("caller allocated bytes/event: " + (double) callerAllocated.get() / messageNum);
+		System.out.println("log thread allocated bytes/event: " + (double) logAllocated / messageNum);
+	}
+
+	private static Thread getLogThread() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("firefly log thread"))
+				return thread;
+		}
+		throw new IllegalStateException("the log thread is not found");
 	}
 
 }
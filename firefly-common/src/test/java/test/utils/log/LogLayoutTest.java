@@ -0,0 +1,153 @@
+package test.utils.log;
+
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.JsonArray;
+import com.firefly.utils.json.JsonObject;
+import com.firefly.utils.log.Log;
+import com.firefly.utils.log.LogItem;
+import com.firefly.utils.log.LogLevel;
+import com.firefly.utils.log.file.JsonLogLayout;
+import com.firefly.utils.log.file.TextLogLayout;
+import com.firefly.utils.time.SafeSimpleDateFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.hamcrest.Matchers.*;
+
+public class LogLayoutTest {
+
+    public static class User {
+        public int id;
+        public String name;
+
+        public User(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    public static class BrokenUser {
+        public String getName() {
+            throw new IllegalStateException("broken");
+        }
+
+        @Override
+        public String toString() {
+            return "broken user";
+        }
+    }
+
+    private static LogItem createItem(String content, Object... objs) {
+        LogItem item = new LogItem();
+        item.setName("test-layout");
+        item.setLevel(LogLevel.INFO.getName());
+        item.setContent(content);
+        item.setObjs(objs);
+        item.setTime(1477972800123L);
+        item.setThread(Thread.currentThread());
+        return item;
+    }
+
+    private static String toString(ByteBuffer line, Charset charset) {
+        return new String(line.array(), line.arrayOffset() + line.position(), line.remaining(), charset);
+    }
+
+    private static String formatLine(JsonLogLayout layout, LogItem item) {
+        String line = toString(layout.format(item, StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        Assert.assertThat(line, endsWith(Log.CL));
+        Assert.assertThat(line.indexOf('\n'), is(line.length() - 1));
+        return line.trim();
+    }
+
+    private static JsonObject format(JsonLogLayout layout, LogItem item) {
+        return Json.toJsonObject(formatLine(layout, item));
+    }
+
+    @Test
+    public void testText() {
+        TextLogLayout layout = new TextLogLayout();
+        LogItem item = createItem("user {} login 测试", "Tom");
+        String date = SafeSimpleDateFormat.defaultDateFormat.format(new Date(item.getTime()));
+        Assert.assertThat(toString(layout.format(item, Charset.forName("GBK")), Charset.forName("GBK")),
+                is("INFO " + date + "\tuser Tom login 测试" + Log.CL));
+        Assert.assertThat(toString(layout.format(item, StandardCharsets.UTF_8), StandardCharsets.UTF_8),
+                is(item.toString() + Log.CL));
+    }
+
+    @Test
+    public void testJson() {
+        JsonLogLayout layout = new JsonLogLayout();
+        LogItem item = createItem("user {} login {} times, \"{}\"", new User(1, "Tom\t测试"), 3, null);
+        String line = formatLine(layout, item);
+        Assert.assertThat(line, containsString(",\"message\":\"user {} login {} times, \\\"{}\\\"\","));
+        Assert.assertThat(line, containsString(",3,null]"));
+        JsonObject json = Json.toJsonObject(line);
+        Assert.assertThat(json.getString("level"), is("INFO"));
+        Assert.assertThat(json.getLong("timestamp"), is(1477972800123L));
+        Assert.assertThat(json.getString("logger"), is("test-layout"));
+        Assert.assertThat(json.getString("thread"), is(Thread.currentThread().getName()));
+        Assert.assertThat(json.getString("message"), is("user {} login {} times, \"{}\""));
+
+        JsonArray args = json.getJsonArray("args");
+        Assert.assertThat(args.size(), is(3));
+        Assert.assertThat(args.getJsonObject(0).getInteger("id"), is(1));
+        Assert.assertThat(args.getJsonObject(0).getString("name"), is("Tom\t测试"));
+        Assert.assertThat(args.getInteger(1), is(3));
+        Assert.assertThat(json.containsKey("exception"), is(false));
+
+        item = createItem("no arguments");
+        json = format(layout, item);
+        Assert.assertThat(json.getString("message"), is("no arguments"));
+        Assert.assertThat(json.containsKey("args"), is(false));
+    }
+
+    @Test
+    public void testJsonException() {
+        JsonLogLayout layout = new JsonLogLayout();
+        LogItem item = createItem("failure");
+        item.setThrowable(new IllegalStateException("outer", new IllegalArgumentException()));
+        item.setStackTraceElement(new StackTraceElement("test.Foo", "bar", "Foo.java", 12));
+        String line = formatLine(layout, item);
+        Assert.assertThat(line, containsString("\"cause\":{\"class\":\"java.lang.IllegalArgumentException\","
+                + "\"message\":null,"));
+        JsonObject json = Json.toJsonObject(line);
+
+        JsonObject caller = json.getJsonObject("caller");
+        Assert.assertThat(caller.getString("class"), is("test.Foo"));
+        Assert.assertThat(caller.getString("method"), is("bar"));
+        Assert.assertThat(caller.getString("file"), is("Foo.java"));
+        Assert.assertThat(caller.getInteger("line"), is(12));
+
+        JsonObject exception = json.getJsonObject("exception");
+        Assert.assertThat(exception.getString("class"), is(IllegalStateException.class.getName()));
+        Assert.assertThat(exception.getString("message"), is("outer"));
+        JsonArray frames = exception.getJsonArray("frames");
+        Assert.assertThat(frames.size(), is(item.getThrowable().getStackTrace().length));
+        Assert.assertThat(frames.getJsonObject(0).getString("method"), is("testJsonException"));
+
+        JsonObject cause = exception.getJsonObject("cause");
+        Assert.assertThat(cause.getString("class"), is(IllegalArgumentException.class.getName()));
+        Assert.assertThat(cause.containsKey("cause"), is(false));
+    }
+
+    @Test
+    public void testJsonFallback() {
+        JsonLogLayout layout = new JsonLogLayout();
+        char[] chars = new char[5000];
+        Arrays.fill(chars, 'a');
+        String large = new String(chars);
+
+        // the arguments are written as strings when one of them can not be serialized
+        JsonObject json = format(layout, createItem("{} {} {}", new BrokenUser(), 1, large));
+        Assert.assertThat(json.getJsonArray("args"), contains("broken user", "1", large));
+
+        json = format(layout, createItem("{}", new User(2, "Jerry")));
+        Assert.assertThat(json.getJsonArray("args").getJsonObject(0).getString("name"), is("Jerry"));
+    }
+}
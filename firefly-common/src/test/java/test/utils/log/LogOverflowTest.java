@@ -0,0 +1,230 @@
+package test.utils.log;
+
+import com.firefly.utils.collection.TreeTrie;
+import com.firefly.utils.log.Log;
+import com.firefly.utils.log.LogLevel;
+import com.firefly.utils.log.LogOverflowPolicy;
+import com.firefly.utils.log.file.FileLog;
+import com.firefly.utils.log.file.FileLogTask;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+
+public class LogOverflowTest {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private final PrintStream out = System.out;
+    private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch resume = new CountDownLatch(1);
+    private FileLogTask task;
+
+    @Before
+    public void init() {
+        // the log thread waits in the console output of the "stall" event, so the ring buffer is filled
+        System.setOut(new PrintStream(out, true) {
+            @Override
+            public void print(String s) {
+                if (!s.contains("\toverflow ")) {
+                    super.print(s);
+                    return;
+                }
+                String line = s.substring(s.indexOf('\t') + 1, s.length() - Log.CL.length());
+                lines.add(line);
+                if (line.endsWith("stall")) {
+                    writing.countDown();
+                    try {
+                        resume.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }
+        });
+        task = new FileLogTask(new TreeTrie<>(), 4);
+        task.start();
+    }
+
+    @After
+    public void destroy() {
+        resume.countDown();
+        task.stop();
+        System.setOut(out);
+    }
+
+    private FileLog createLog(LogOverflowPolicy overflowPolicy) {
+        FileLog log = new FileLog();
+        log.setName("test-" + overflowPolicy.getName());
+        log.setLevel(LogLevel.TRACE);
+        log.setConsoleOutput(true);
+        log.setOverflowPolicy(overflowPolicy);
+        return log;
+    }
+
+    private void add(FileLog log, LogLevel level, String content) {
+        task.add(log, level.getName(), "overflow " + content, EMPTY, null, null);
+    }
+
+    private void fill(FileLog log) throws InterruptedException {
+        add(log, LogLevel.INFO, "stall");
+        Assert.assertThat(writing.await(5, TimeUnit.SECONDS), is(true));
+        for (int i = 1; i < task.getBufferSize(); i++) {
+            add(log, LogLevel.INFO, "fill" + i);
+        }
+        Assert.assertThat(task.getQueueDepth(), is((long) task.getBufferSize()));
+    }
+
+    private Thread addAsync(FileLog log, LogLevel level, String content) {
+        Thread thread = new Thread(() -> add(log, level, content));
+        thread.start();
+        return thread;
+    }
+
+    private void awaitEnqueued(long count) throws InterruptedException {
+        for (int i = 0; i < 500 && task.getEnqueuedCount() < count; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertThat(task.getEnqueuedCount(), is(count));
+    }
+
+    private void awaitWritten() throws InterruptedException {
+        for (int i = 0; i < 500 && !task.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertThat(task.isEmpty(), is(true));
+    }
+
+    @Test(timeout = 10000)
+    public void testBlock() throws InterruptedException {
+        FileLog log = createLog(LogOverflowPolicy.BLOCK);
+        fill(log);
+        // all the items of the ring buffer are used before the caller waits
+        Assert.assertThat(task.getEnqueuedCount(), is((long) task.getBufferSize()));
+
+        Thread block = addAsync(log, LogLevel.INFO, "block");
+        block.join(200);
+        Assert.assertThat(block.isAlive(), is(true));
+        resume.countDown();
+        block.join();
+        awaitWritten();
+
+        Assert.assertThat(lines, contains("overflow stall", "overflow fill1", "overflow fill2", "overflow fill3",
+                "overflow block"));
+        Assert.assertThat(log.getDroppedCount(), is(0L));
+        Assert.assertThat(task.getWrittenCount(), is(5L));
+    }
+
+    @Test
+    public void testDropBelowLevel() throws InterruptedException {
+        FileLog log = createLog(LogOverflowPolicy.DROP_BELOW_LEVEL);
+        fill(log);
+
+        add(log, LogLevel.DEBUG, "debug");
+        add(log, LogLevel.INFO, "info");
+        Assert.assertThat(log.getDroppedCount(), is(2L));
+
+        Thread warn = addAsync(log, LogLevel.WARN, "warn");
+        awaitEnqueued(5);
+        resume.countDown();
+        warn.join();
+        awaitWritten();
+
+        Assert.assertThat(lines, contains("overflow stall", "overflow fill1", "overflow fill2", "overflow fill3",
+                "overflow warn"));
+        Assert.assertThat(task.getDroppedCount(), is(2L));
+        Assert.assertThat(task.getWrittenCount(), is(5L));
+        Assert.assertThat(task.getQueueDepth(), is(0L));
+        Assert.assertThat(task.getMaxWriteLatency(), greaterThan(0L));
+        Assert.assertThat(task.getTotalWriteLatency(), greaterThanOrEqualTo(task.getMaxWriteLatency()));
+    }
+
+    @Test
+    public void testSample() throws InterruptedException {
+        FileLog log = createLog(LogOverflowPolicy.SAMPLE);
+        log.setSampleRate(3);
+        fill(log);
+
+        add(log, LogLevel.ERROR, "sample1");
+        add(log, LogLevel.ERROR, "sample2");
+        Assert.assertThat(log.getDroppedCount(), is(2L));
+
+        Thread sample = addAsync(log, LogLevel.INFO, "sample3");
+        awaitEnqueued(5);
+        resume.countDown();
+        sample.join();
+        awaitWritten();
+
+        Assert.assertThat(lines, contains("overflow stall", "overflow fill1", "overflow fill2", "overflow fill3",
+                "overflow sample3"));
+        Assert.assertThat(task.getWrittenCount(), is(5L));
+    }
+
+    @Test(timeout = 10000)
+    public void testDiscardOldest() throws InterruptedException {
+        FileLog log = createLog(LogOverflowPolicy.DISCARD_OLDEST);
+        log.setOverflowBufferSize(2);
+        FileLog quietLog = createLog(LogOverflowPolicy.DISCARD_OLDEST);
+        quietLog.setName("test-quiet");
+        fill(quietLog);
+
+        // the caller does not wait, the oldest event in the overflow buffer is discarded
+        add(log, LogLevel.INFO, "oldest");
+        add(log, LogLevel.INFO, "older");
+        add(log, LogLevel.INFO, "newest");
+        Assert.assertThat(log.getDroppedCount(), is(1L));
+        Assert.assertThat(task.getQueueDepth(), is(6L));
+        resume.countDown();
+        awaitWritten();
+
+        // the events of the other discard-oldest log are not discarded
+        Assert.assertThat(lines, contains("overflow stall", "overflow fill1", "overflow fill2", "overflow fill3",
+                "overflow older", "overflow newest"));
+        Assert.assertThat(quietLog.getDroppedCount(), is(0L));
+        Assert.assertThat(task.getEnqueuedCount(), is(4L));
+        Assert.assertThat(task.getWrittenCount(), is(6L));
+        Assert.assertThat(task.getDroppedCount(), is(1L));
+        Assert.assertThat(task.getQueueDepth(), is(0L));
+
+        // the new events are written through the ring buffer again
+        add(log, LogLevel.INFO, "after");
+        awaitWritten();
+        Assert.assertThat(lines.get(lines.size() - 1), is("overflow after"));
+        Assert.assertThat(task.getEnqueuedCount(), is(5L));
+    }
+
+    @Test(timeout = 10000)
+    public void testDiscardOldestReusesItems() throws InterruptedException {
+        FileLog log = createLog(LogOverflowPolicy.DISCARD_OLDEST);
+        log.setOverflowBufferSize(2);
+        fill(log);
+        for (int i = 0; i < 3; i++) {
+            add(log, LogLevel.INFO, "overflow");
+        }
+
+        // the items of the discarded events are reused by the caller
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            task.add(log, "INFO", "overflow discarded", EMPTY, null, null);
+        }
+        allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocated;
+        Assert.assertThat(allocated, lessThan(1024L));
+        Assert.assertThat(log.getDroppedCount(), is(1001L));
+        resume.countDown();
+        awaitWritten();
+        Assert.assertThat(lines.subList(lines.size() - 2, lines.size()),
+                contains("overflow discarded", "overflow discarded"));
+    }
+}
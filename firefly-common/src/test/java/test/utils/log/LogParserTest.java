@@ -2,6 +2,10 @@ package test.utils.log;
 
 import static org.hamcrest.Matchers.*;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -9,8 +13,13 @@ import com.firefly.utils.collection.TreeTrie;
 import com.firefly.utils.collection.Trie;
 import com.firefly.utils.log.Log;
 import com.firefly.utils.log.LogConfigParser;
+import com.firefly.utils.log.LogLevel;
+import com.firefly.utils.log.LogOverflowPolicy;
 import com.firefly.utils.log.PropertiesLogConfigParser;
 import com.firefly.utils.log.XmlLogConfigParser;
+import com.firefly.utils.log.file.FileLog;
+import com.firefly.utils.log.file.JsonLogLayout;
+import com.firefly.utils.log.file.TextLogLayout;
 
 public class LogParserTest {
 
@@ -38,5 +47,24 @@ public class LogParserTest {
 				Assert.assertThat(xml, is(p));
 			}
 		}
+
+		for (Trie<Log> logTree : Arrays.asList(xmlLogTree, propertiesLogTree)) {
+			FileLog log = (FileLog) logTree.get("test.overflow");
+			Assert.assertThat(log.getLevel(), is(LogLevel.DEBUG));
+			Assert.assertThat(log.getOverflowPolicy(), is(LogOverflowPolicy.SAMPLE));
+			Assert.assertThat(log.getSampleRate(), is(100));
+
+			Assert.assertThat(log.getLayout(), instanceOf(JsonLogLayout.class));
+
+			log = (FileLog) logTree.get("test-INFO");
+			Assert.assertThat(log.getOverflowPolicy(), is(LogOverflowPolicy.BLOCK));
+			Assert.assertThat(log.getLayout(), instanceOf(TextLogLayout.class));
+		}
+
+		// the json layout only writes UTF-8
+		FileLog log = (FileLog) xmlLogTree.get("test.json-gbk");
+		Assert.assertThat(log.getLayout(), instanceOf(JsonLogLayout.class));
+		Assert.assertThat(log.getCharset(), is(StandardCharsets.UTF_8));
+		Assert.assertThat(((FileLog) xmlLogTree.get("test.gbk")).getCharset(), is(Charset.forName("GBK")));
 	}
 }
@@ -0,0 +1,170 @@
+package test.utils.log;
+
+import com.firefly.utils.collection.TreeTrie;
+import com.firefly.utils.collection.Trie;
+import com.firefly.utils.log.Log;
+import com.firefly.utils.log.LogItem;
+import com.firefly.utils.log.LogLevel;
+import com.firefly.utils.log.file.FileLog;
+import com.firefly.utils.log.file.FileLogTask;
+import com.firefly.utils.time.SystemClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.Matchers.*;
+
+public class LogRollingTest {
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        InputStream in = Files.newInputStream(file.toPath());
+        if (file.getName().endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                lines.add(line.substring(line.indexOf('\t') + 1));
+            }
+        }
+        return lines;
+    }
+
+    private static File[] listFiles(File dir, String suffix) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(suffix));
+        return files == null ? new File[0] : files;
+    }
+
+    @Test
+    public void testRolling() throws Exception {
+        File dir = Files.createTempDirectory("firefly-log").toFile();
+        FileLog log = new FileLog();
+        log.setName("test-rolling");
+        log.setLevel(LogLevel.INFO);
+        log.setPath(dir.getAbsolutePath());
+        log.setFileOutput(true);
+        log.setMaxFileSize(1000);
+        log.setCompressRolledFiles(true);
+        log.setMaxRolledFiles(3);
+
+        Trie<Log> logTree = new TreeTrie<>();
+        logTree.put(log.getName(), log);
+        FileLogTask task = new FileLogTask(logTree);
+        task.start();
+        int count = 300;
+        for (int i = 0; i < count; i++) {
+            task.add(log, LogLevel.INFO.getName(), "rolling {}", new Object[]{i}, null, null);
+        }
+        for (int i = 0; i < 500 && !task.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        log.flush();
+        task.stop();
+
+        // the rolled files are compressed and pruned on the background thread
+        for (int i = 0; i < 500 && (listFiles(dir, ".gz").length != 3 || listFiles(dir, ".bak").length > 0
+                || listFiles(dir, ".tmp").length > 0); i++) {
+            Thread.sleep(10);
+        }
+        File[] rolledFiles = listFiles(dir, ".gz");
+        File[] currentFiles = listFiles(dir, ".txt");
+        Assert.assertThat(rolledFiles.length, is(3));
+        Assert.assertThat(listFiles(dir, ".bak").length, is(0));
+        Assert.assertThat(currentFiles.length, is(1));
+
+        // the rolled files keep the latest lines in order
+        Arrays.sort(rolledFiles, (f1, f2) -> {
+            String n1 = f1.getName(), n2 = f2.getName();
+            return Integer.compare(Integer.parseInt(n1.substring(n1.indexOf(".txt.") + 5, n1.indexOf(".bak"))),
+                    Integer.parseInt(n2.substring(n2.indexOf(".txt.") + 5, n2.indexOf(".bak"))));
+        });
+        List<String> lines = new ArrayList<>();
+        for (File file : rolledFiles) {
+            Assert.assertThat(file.length(), lessThan(1000L));
+            lines.addAll(readLines(file));
+        }
+        Assert.assertThat(currentFiles[0].length(), lessThanOrEqualTo(1000L));
+        lines.addAll(readLines(currentFiles[0]));
+
+        int first = count - lines.size();
+        Assert.assertThat(first, greaterThan(0));
+        for (int i = 0; i < lines.size(); i++) {
+            Assert.assertThat(lines.get(i), is("rolling " + (first + i)));
+        }
+
+        for (File file : listFiles(dir, "")) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testClockStepsBack() throws Exception {
+        File dir = Files.createTempDirectory("firefly-log").toFile();
+        FileLog log = new FileLog();
+        log.setName("test-clock");
+        log.setLevel(LogLevel.INFO);
+        log.setPath(dir.getAbsolutePath());
+        log.setFileOutput(true);
+        log.setCompressRolledFiles(true);
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2016, Calendar.NOVEMBER, 2);
+        long midnight = calendar.getTimeInMillis();
+        String lastDay = SystemClock.formatDay(midnight - 1);
+        String today = SystemClock.formatDay(midnight);
+
+        // the file of the last day has been compressed by the last run
+        File compressed = new File(dir, "test-clock." + lastDay + ".txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed.toPath()))) {
+            out.write("INFO 2016-11-01 00:00:00\tlast run\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // the items are written by the log thread
+        Method write = FileLog.class.getDeclaredMethod("write", LogItem.class);
+        write.setAccessible(true);
+        write.invoke(log, newLogItem("before midnight", midnight - 200));
+        write.invoke(log, newLogItem("after midnight", midnight + 100));
+        // the item is logged before midnight but it arrives late
+        write.invoke(log, newLogItem("late", midnight - 100));
+        log.close();
+
+        File rolled = new File(dir, "test-clock." + lastDay + ".txt.1.gz");
+        for (int i = 0; i < 500 && !rolled.exists(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertThat(readLines(compressed), contains("last run"));
+        Assert.assertThat(readLines(rolled), contains("before midnight"));
+        Assert.assertThat(readLines(new File(dir, "test-clock." + today + ".txt")), contains("after midnight", "late"));
+        Assert.assertThat(listFiles(dir, "").length, is(3));
+
+        for (File file : listFiles(dir, "")) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    private static LogItem newLogItem(String content, long time) {
+        LogItem item = new LogItem();
+        item.setLevel(LogLevel.INFO.getName());
+        item.setContent(content);
+        item.setTime(time);
+        return item;
+    }
+}
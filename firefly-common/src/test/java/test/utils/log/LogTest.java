@@ -5,6 +5,7 @@ import com.firefly.utils.io.FileUtils;
 import com.firefly.utils.log.Log;
 import com.firefly.utils.log.LogFactory;
 import com.firefly.utils.log.file.FileLog;
+import com.firefly.utils.time.SystemClock;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -13,7 +14,6 @@ import test.utils.log.foo.bar.Bar;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Date;
 
 public class LogTest {
 
@@ -53,7 +53,7 @@ public class LogTest {
     private File getFile(Log log) {
         if (log instanceof FileLog) {
             FileLog fileLog = (FileLog) log;
-            File file = new File(fileLog.getPath(), fileLog.getName() + "." + LogFactory.DAY_DATE_FORMAT.format(new Date()) + ".txt");
+            File file = new File(fileLog.getPath(), fileLog.getName() + "." + SystemClock.formatDay(System.currentTimeMillis()) + ".txt");
             if (file.exists())
                 return file;
             else
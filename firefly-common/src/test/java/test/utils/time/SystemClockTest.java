@@ -0,0 +1,61 @@
+package test.utils.time;
+
+import com.firefly.utils.time.SafeSimpleDateFormat;
+import com.firefly.utils.time.SystemClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.hamcrest.Matchers.*;
+
+public class SystemClockTest {
+
+    @Test
+    public void testCurrentTime() throws InterruptedException {
+        long time = SystemClock.currentTimeMillis();
+        long nanoTime = SystemClock.nanoTime();
+        Assert.assertThat(SystemClock.getTick(), is(SystemClock.DEFAULT_TICK));
+        Assert.assertThat(Math.abs(System.currentTimeMillis() - time), lessThan(1000L));
+
+        Thread.sleep(SystemClock.getTick() * 10);
+        Assert.assertThat(SystemClock.currentTimeMillis(), greaterThan(time));
+        Assert.assertThat(SystemClock.nanoTime(), greaterThan(nanoTime));
+    }
+
+    @Test
+    public void testFormatDate() {
+        long time = 1477972800123L;
+        String date = SafeSimpleDateFormat.defaultDateFormat.format(new Date(time));
+        Assert.assertThat(SystemClock.formatDate(time), is(date));
+        Assert.assertThat(SystemClock.formatDate(time + 1), sameInstance(SystemClock.formatDate(time)));
+        Assert.assertThat(SystemClock.formatDate(time + 1000),
+                is(SafeSimpleDateFormat.defaultDateFormat.format(new Date(time + 1000))));
+        Assert.assertThat(SystemClock.formatDate(time - 1000),
+                is(SafeSimpleDateFormat.defaultDateFormat.format(new Date(time - 1000))));
+        Assert.assertThat(SystemClock.formatDate(-1L),
+                is(SafeSimpleDateFormat.defaultDateFormat.format(new Date(-1L))));
+    }
+
+    @Test
+    public void testDay() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2016, Calendar.NOVEMBER, 1, 0, 0, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long start = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        long end = calendar.getTimeInMillis();
+
+        long time = start + 12 * 3600 * 1000L;
+        Assert.assertThat(SystemClock.formatDay(time), is("2016-11-01"));
+        Assert.assertThat(SystemClock.getDayStart(time), is(start));
+        Assert.assertThat(SystemClock.getDayEnd(time), is(end));
+        Assert.assertThat(SystemClock.formatDay(start), is("2016-11-01"));
+        Assert.assertThat(SystemClock.formatDay(end - 1), is("2016-11-01"));
+        Assert.assertThat(SystemClock.formatDay(end), is("2016-11-02"));
+        Assert.assertThat(SystemClock.getDayStart(end), is(end));
+        Assert.assertThat(SystemClock.formatDay(start - 1), is("2016-10-31"));
+        Assert.assertThat(SystemClock.getDayEnd(start - 1), is(start));
+    }
+}
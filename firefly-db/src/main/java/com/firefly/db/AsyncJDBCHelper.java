@@ -0,0 +1,477 @@
+package com.firefly.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.firefly.utils.concurrent.Promise;
+import com.firefly.utils.function.Action1;
+import com.firefly.utils.function.Func0;
+import com.firefly.utils.function.Func1;
+import com.firefly.utils.function.Func2;
+import com.firefly.utils.lang.AbstractLifeCycle;
+
+/**
+ * The asynchronous version of the {@link JDBCHelper}. The database operations
+ * run on a bounded thread pool, and the results are returned by the
+ * {@link Promise.Completable}, so the network threads are never blocked by
+ * the database.
+ * <p>
+ * The max number of the threads should be the max size of the connection
+ * pool, the extra threads only wait for the connections. If the queue of the
+ * thread pool is full, the operation fails with a
+ * {@link RejectedExecutionException}.
+ * <p>
+ * The non-async stages of the returned futures run on the database threads,
+ * use the async stages with an executor if the stages take a long time.
+ * <p>
+ * The thread pool is started by the constructor. After {@link #stop()}, the
+ * queued operations still run, but the new operations fail with a
+ * {@link RejectedExecutionException}.
+ */
+public class AsyncJDBCHelper extends AbstractLifeCycle {
+
+	private final static Logger log = LoggerFactory.getLogger("firefly-system");
+
+	public static final int DEFAULT_QUEUE_SIZE = 10_000;
+
+	private final JDBCHelper jdbcHelper;
+	private final int maxThreads;
+	private final int queueSize;
+	private volatile ThreadPoolExecutor executor;
+
+	private final LongAdder completedCount = new LongAdder();
+	private final LongAdder failedCount = new LongAdder();
+	private final LongAdder rejectedCount = new LongAdder();
+	private final LongAdder queueWaitTime = new LongAdder();
+	private final LongAdder executionTime = new LongAdder();
+	private final LongAccumulator maxQueueWaitTime = new LongAccumulator(Long::max, 0);
+	private final LongAccumulator maxExecutionTime = new LongAccumulator(Long::max, 0);
+
+	public AsyncJDBCHelper(DataSource dataSource, int maxThreads) {
+		this(new JDBCHelper(dataSource), maxThreads, DEFAULT_QUEUE_SIZE);
+	}
+
+	/**
+	 * @param jdbcHelper
+	 *            the helper that runs the database operations
+	 * @param maxThreads
+	 *            the max number of the database threads, it should be the
+	 *            max size of the connection pool
+	 * @param queueSize
+	 *            the max number of the operations that wait for the threads
+	 */
+	public AsyncJDBCHelper(JDBCHelper jdbcHelper, int maxThreads, int queueSize) {
+		if (maxThreads <= 0) {
+			throw new IllegalArgumentException("the max threads must be greater than 0");
+		}
+		if (queueSize <= 0) {
+			throw new IllegalArgumentException("the queue size must be greater than 0");
+		}
+		this.jdbcHelper = jdbcHelper;
+		this.maxThreads = maxThreads;
+		this.queueSize = queueSize;
+		start();
+	}
+
+	public JDBCHelper getJdbcHelper() {
+		return jdbcHelper;
+	}
+
+	/**
+	 * Runs a function of the {@link JDBCHelper} on a database thread.
+	 *
+	 * @param func
+	 *            the function that calls the helper
+	 * @return the result of the function
+	 */
+	public <T> Promise.Completable<T> execute(Func1<JDBCHelper, T> func) {
+		Promise.Completable<T> promise = new Promise.Completable<>();
+		submit(() -> func.call(jdbcHelper), promise);
+		return promise;
+	}
+
+	private <T> boolean submit(Func0<T> func, Promise.Completable<T> promise) {
+		long submitTime = System.nanoTime();
+		try {
+			executor.execute(() -> {
+				long startTime = System.nanoTime();
+				queueWaitTime.add(startTime - submitTime);
+				maxQueueWaitTime.accumulate(startTime - submitTime);
+				T ret;
+				try {
+					ret = func.call();
+				} catch (Throwable t) {
+					record(startTime, failedCount);
+					promise.failed(t);
+					return;
+				}
+				record(startTime, completedCount);
+				promise.succeeded(ret);
+			});
+			return true;
+		} catch (RejectedExecutionException e) {
+			rejectedCount.increment();
+			log.error("the database task is rejected", e);
+			promise.failed(e);
+			return false;
+		}
+	}
+
+	private void record(long startTime, LongAdder count) {
+		long time = System.nanoTime() - startTime;
+		executionTime.add(time);
+		maxExecutionTime.accumulate(time);
+		count.increment();
+	}
+
+	public <T> Promise.Completable<T> queryForSingleColumn(String sql, Object... params) {
+		return execute(helper -> helper.queryForSingleColumn(sql, params));
+	}
+
+	public <T> Promise.Completable<T> queryForObject(String sql, Class<T> t, Object... params) {
+		return execute(helper -> helper.queryForObject(sql, t, params));
+	}
+
+	public <T> Promise.Completable<T> queryById(Class<T> t, Object id) {
+		return execute(helper -> helper.queryById(t, id));
+	}
+
+	public <K, V> Promise.Completable<Map<K, V>> queryForBeanMap(String sql, Class<V> t, Object... params) {
+		return execute(helper -> helper.queryForBeanMap(sql, t, params));
+	}
+
+	public <T> Promise.Completable<List<T>> queryForList(String sql, Class<T> t, Object... params) {
+		return execute(helper -> helper.queryForList(sql, t, params));
+	}
+
+	/**
+	 * The handler is called on the database thread.
+	 *
+	 * @see JDBCHelper#queryForBatch(String, Class, int, Action1, Object...)
+	 */
+	public <T> Promise.Completable<Long> queryForBatch(String sql, Class<T> t, int batchSize,
+			Action1<List<T>> handler, Object... params) {
+		return execute(helper -> helper.queryForBatch(sql, t, batchSize, handler, params));
+	}
+
+	public Promise.Completable<Integer> update(String sql, Object... params) {
+		return execute(helper -> helper.update(sql, params));
+	}
+
+	public Promise.Completable<Integer> updateObject(Object object) {
+		return execute(helper -> helper.updateObject(object));
+	}
+
+	public Promise.Completable<Integer> updateObjects(List<?> objects) {
+		return execute(helper -> helper.updateObjects(objects));
+	}
+
+	public <T> Promise.Completable<T> insert(String sql, Object... params) {
+		return execute(helper -> helper.insert(sql, params));
+	}
+
+	public <T> Promise.Completable<T> insertObject(Object object) {
+		return execute(helper -> helper.insertObject(object));
+	}
+
+	public <T> Promise.Completable<List<T>> insertObjects(List<?> objects) {
+		return execute(helper -> helper.insertObjects(objects));
+	}
+
+	public Promise.Completable<Integer> deleteById(Class<?> t, Object id) {
+		return execute(helper -> helper.deleteById(t, id));
+	}
+
+	/**
+	 * Runs the function in a transaction on a database thread. The
+	 * transaction is committed if the function returns, or rolled back if the
+	 * function throws an exception, and then the returned future fails with
+	 * the exception.
+	 *
+	 * @param func
+	 *            the function that runs in the transaction
+	 * @return the result of the function
+	 */
+	public <T> Promise.Completable<T> executeTransaction(Func2<Connection, JDBCHelper, T> func) {
+		return execute(helper -> {
+			Connection connection = helper.getConnection();
+			helper.setAutoCommit(connection, false);
+			try {
+				T ret = func.call(connection, helper);
+				helper.commit(connection);
+				return ret;
+			} catch (Throwable t) {
+				helper.rollback(connection);
+				throw t;
+			} finally {
+				helper.setAutoCommit(connection, true);
+				helper.close(connection);
+			}
+		});
+	}
+
+	/**
+	 * Begins a transaction that can be used by the asynchronous steps. The
+	 * steps of the transaction run on the same connection one by one in the
+	 * order that they are called, and the transaction holds the connection
+	 * until it is committed or rolled back.
+	 *
+	 * @return the transaction
+	 */
+	public Promise.Completable<AsyncTransaction> beginTransaction() {
+		return execute(helper -> {
+			Connection connection = helper.getConnection();
+			try {
+				connection.setAutoCommit(false);
+			} catch (SQLException e) {
+				helper.close(connection);
+				log.error("begin transaction exception", e);
+				throw new DBException(e);
+			}
+			return new AsyncTransaction(connection);
+		});
+	}
+
+	public class AsyncTransaction {
+
+		private final Connection connection;
+		private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+		private boolean ended;
+
+		private AsyncTransaction(Connection connection) {
+			this.connection = connection;
+		}
+
+		public Connection getConnection() {
+			return connection;
+		}
+
+		/**
+		 * Runs a step of the transaction on a database thread after the
+		 * previous steps complete. The transaction is not rolled back if the
+		 * step fails, the caller decides to roll back or not.
+		 *
+		 * @param func
+		 *            the step that uses the connection of the transaction
+		 * @return the result of the step
+		 */
+		public synchronized <T> Promise.Completable<T> execute(Func2<Connection, JDBCHelper, T> func) {
+			Promise.Completable<T> promise = new Promise.Completable<>();
+			if (ended) {
+				promise.failed(new IllegalStateException("the transaction has ended"));
+				return promise;
+			}
+			CompletableFuture<?> previous = last;
+			last = promise;
+			previous.whenComplete((r, e) -> submit(() -> func.call(connection, jdbcHelper), promise));
+			return promise;
+		}
+
+		public <T> Promise.Completable<T> queryForSingleColumn(String sql, Object... params) {
+			return execute((connection, helper) -> helper.queryForSingleColumn(connection, sql, params));
+		}
+
+		public <T> Promise.Completable<T> queryForObject(String sql, Class<T> t, Object... params) {
+			return execute((connection, helper) -> helper.queryForObject(connection, sql, t, params));
+		}
+
+		public <T> Promise.Completable<T> queryById(Class<T> t, Object id) {
+			return execute((connection, helper) -> helper.queryById(connection, t, id));
+		}
+
+		public <K, V> Promise.Completable<Map<K, V>> queryForBeanMap(String sql, Class<V> t, Object... params) {
+			return execute((connection, helper) -> helper.queryForBeanMap(connection, sql, t, params));
+		}
+
+		public <T> Promise.Completable<List<T>> queryForList(String sql, Class<T> t, Object... params) {
+			return execute((connection, helper) -> helper.queryForList(connection, sql, t, params));
+		}
+
+		public Promise.Completable<Integer> update(String sql, Object... params) {
+			return execute((connection, helper) -> helper.update(connection, sql, params));
+		}
+
+		public Promise.Completable<Integer> updateObject(Object object) {
+			return execute((connection, helper) -> helper.updateObject(connection, object));
+		}
+
+		public Promise.Completable<Integer> updateObjects(List<?> objects) {
+			return execute((connection, helper) -> helper.updateObjects(connection, objects));
+		}
+
+		public <T> Promise.Completable<T> insert(String sql, Object... params) {
+			return execute((connection, helper) -> helper.insert(connection, sql, params));
+		}
+
+		public <T> Promise.Completable<T> insertObject(Object object) {
+			return execute((connection, helper) -> helper.insertObject(connection, object));
+		}
+
+		public <T> Promise.Completable<List<T>> insertObjects(List<?> objects) {
+			return execute((connection, helper) -> helper.insertObjects(connection, objects));
+		}
+
+		public Promise.Completable<Integer> deleteById(Class<?> t, Object id) {
+			return execute((connection, helper) -> helper.deleteById(connection, t, id));
+		}
+
+		/**
+		 * Commits the transaction after the previous steps complete, and
+		 * releases the connection. If the queue of the database threads is
+		 * full, the transaction is rolled back on the current thread and the
+		 * future fails with a {@link RejectedExecutionException}.
+		 *
+		 * @return the future that completes when the transaction is committed
+		 */
+		public Promise.Completable<Void> commit() {
+			return end(true);
+		}
+
+		/**
+		 * Rolls back the transaction after the previous steps complete, and
+		 * releases the connection. If the queue of the database threads is
+		 * full, it runs on the current thread.
+		 *
+		 * @return the future that completes when the transaction is rolled
+		 *         back
+		 */
+		public Promise.Completable<Void> rollback() {
+			return end(false);
+		}
+
+		private synchronized Promise.Completable<Void> end(boolean commit) {
+			Promise.Completable<Void> promise = new Promise.Completable<>();
+			if (ended) {
+				promise.failed(new IllegalStateException("the transaction has ended"));
+				return promise;
+			}
+			ended = true;
+			CompletableFuture<?> previous = last;
+			last = promise;
+			previous.whenComplete((r, e) -> {
+				if (!submit(() -> {
+					end(connection, commit);
+					return null;
+				}, promise)) {
+					// the queue is full, the connection must be released anyway
+					try {
+						end(connection, false);
+					} catch (Throwable t) {
+						log.error("release the connection of the rejected transaction exception", t);
+					}
+				}
+			});
+			return promise;
+		}
+
+		private void end(Connection connection, boolean commit) {
+			try {
+				if (commit) {
+					connection.commit();
+				} else {
+					connection.rollback();
+				}
+			} catch (SQLException e) {
+				log.error("end transaction exception", e);
+				throw new DBException(e);
+			} finally {
+				jdbcHelper.setAutoCommit(connection, true);
+				jdbcHelper.close(connection);
+			}
+		}
+
+		public synchronized boolean isEnded() {
+			return ended;
+		}
+	}
+
+	/**
+	 * @return the number of the operations that are waiting for the threads
+	 */
+	public int getQueueSize() {
+		ThreadPoolExecutor e = executor;
+		return e == null ? 0 : e.getQueue().size();
+	}
+
+	/**
+	 * @return the number of the threads that are running the operations
+	 */
+	public int getActiveCount() {
+		ThreadPoolExecutor e = executor;
+		return e == null ? 0 : e.getActiveCount();
+	}
+
+	public long getCompletedCount() {
+		return completedCount.sum();
+	}
+
+	public long getFailedCount() {
+		return failedCount.sum();
+	}
+
+	/**
+	 * @return the number of the operations that are rejected because the
+	 *         queue is full
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	/**
+	 * @param unit
+	 *            the time unit of the result
+	 * @return the average time that the operations wait in the queue
+	 */
+	public long getAverageQueueWaitTime(TimeUnit unit) {
+		long count = completedCount.sum() + failedCount.sum();
+		return count == 0 ? 0 : unit.convert(queueWaitTime.sum() / count, TimeUnit.NANOSECONDS);
+	}
+
+	public long getMaxQueueWaitTime(TimeUnit unit) {
+		return unit.convert(maxQueueWaitTime.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param unit
+	 *            the time unit of the result
+	 * @return the average time that the operations run on the threads
+	 */
+	public long getAverageExecutionTime(TimeUnit unit) {
+		long count = completedCount.sum() + failedCount.sum();
+		return count == 0 ? 0 : unit.convert(executionTime.sum() / count, TimeUnit.NANOSECONDS);
+	}
+
+	public long getMaxExecutionTime(TimeUnit unit) {
+		return unit.convert(maxExecutionTime.get(), TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	protected void init() {
+		AtomicInteger threadIndex = new AtomicInteger();
+		executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueSize),
+				r -> new Thread(r, "firefly async jdbc-" + threadIndex.getAndIncrement()));
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	protected void destroy() {
+		executor.shutdown();
+	}
+
+}
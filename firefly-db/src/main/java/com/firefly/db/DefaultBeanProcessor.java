@@ -19,8 +19,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.dbutils.BeanProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.firefly.db.annotation.Column;
 import com.firefly.db.annotation.Id;
@@ -32,11 +35,15 @@ import com.firefly.utils.collection.ConcurrentReferenceHashMap;
 
 public class DefaultBeanProcessor extends BeanProcessor {
 
+	private final static Logger log = LoggerFactory.getLogger("firefly-system");
+
 	protected final ConcurrentReferenceHashMap<Class<?>, Map<String, Mapper>> mapperCache = new ConcurrentReferenceHashMap<>(
 			128);
 	protected final ConcurrentReferenceHashMap<Class<?>, SQLMapper> insertCache = new ConcurrentReferenceHashMap<>(128);
 	protected final ConcurrentReferenceHashMap<Class<?>, SQLMapper> queryCache = new ConcurrentReferenceHashMap<>(128);
 	protected final ConcurrentReferenceHashMap<Class<?>, SQLMapper> deleteCache = new ConcurrentReferenceHashMap<>(128);
+	// the row mappers are not soft references, a collected row mapper would generate a new class for the same query
+	protected final ConcurrentHashMap<RowMapperKey, RowMapper<?>> rowMapperCache = new ConcurrentHashMap<>(128);
 
 	/**
 	 * Set a bean's primitive properties to these defaults when SQL NULL is
@@ -58,10 +65,7 @@ public class DefaultBeanProcessor extends BeanProcessor {
 
 	@Override
 	public <T> T toBean(ResultSet rs, Class<T> type) throws SQLException {
-		PropertyDescriptor[] props = this.propertyDescriptors(type);
-		ResultSetMetaData rsmd = rs.getMetaData();
-		int[] columnToProperty = this.mapColumnsToProperties(rsmd, props, type);
-		return this.createBean(rs, type, props, columnToProperty);
+		return this.getRowMapper(rs.getMetaData(), type).mapRow(rs);
 	}
 
 	@Override
@@ -72,17 +76,108 @@ public class DefaultBeanProcessor extends BeanProcessor {
 			return results;
 		}
 
-		PropertyDescriptor[] props = this.propertyDescriptors(type);
-		ResultSetMetaData rsmd = rs.getMetaData();
-		int[] columnToProperty = this.mapColumnsToProperties(rsmd, props, type);
+		RowMapper<T> rowMapper = this.getRowMapper(rs.getMetaData(), type);
 
 		do {
-			results.add(this.createBean(rs, type, props, columnToProperty));
+			results.add(rowMapper.mapRow(rs));
 		} while (rs.next());
 
 		return results;
 	}
 
+	/**
+	 * Gets the row mapper of the bean type and the columns of the result set.
+	 * The row mappers are cached by the bean type and the column labels, so
+	 * the bean introspection, the column mapping and the class generation run
+	 * once for each query shape of this processor.
+	 *
+	 * @param rsmd
+	 *            the metadata of the result set
+	 * @param type
+	 *            the bean type
+	 * @return the row mapper
+	 * @throws SQLException
+	 *             if a database access error occurs or the bean introspection
+	 *             failed
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> RowMapper<T> getRowMapper(ResultSetMetaData rsmd, Class<T> type) throws SQLException {
+		int cols = rsmd.getColumnCount();
+		String[] columns = new String[cols];
+		for (int col = 1; col <= cols; col++) {
+			String columnName = rsmd.getColumnLabel(col);
+			if (null == columnName || 0 == columnName.length()) {
+				columnName = rsmd.getColumnName(col);
+			}
+			columns[col - 1] = columnName;
+		}
+
+		RowMapperKey key = new RowMapperKey(type, columns);
+		RowMapper<T> rowMapper = (RowMapper<T>) rowMapperCache.get(key);
+		if (rowMapper == null) {
+			rowMapper = this.createRowMapper(rsmd, type);
+			RowMapper<T> old = (RowMapper<T>) rowMapperCache.putIfAbsent(key, rowMapper);
+			if (old != null) {
+				rowMapper = old;
+			}
+		}
+		return rowMapper;
+	}
+
+	/**
+	 * Creates a row mapper that is generated by
+	 * {@link RowMapperFactoryUsingJavassist}. If the bean can not be accessed
+	 * by the generated class, the row mapper sets the properties by
+	 * reflection.
+	 *
+	 * @param rsmd
+	 *            the metadata of the result set
+	 * @param type
+	 *            the bean type
+	 * @return the row mapper
+	 * @throws SQLException
+	 *             if a database access error occurs or the bean introspection
+	 *             failed
+	 */
+	protected <T> RowMapper<T> createRowMapper(ResultSetMetaData rsmd, Class<T> type) throws SQLException {
+		PropertyDescriptor[] props = this.propertyDescriptors(type);
+		int[] columnToProperty = this.mapColumnsToProperties(rsmd, props, type);
+		try {
+			return RowMapperFactoryUsingJavassist.INSTANCE.createRowMapper(type, props, columnToProperty);
+		} catch (Throwable t) {
+			log.info("generate the row mapper of {} failed, it uses reflection to set properties. {}", type.getName(),
+					t.toString());
+			return rs -> this.createBean(rs, type, props, columnToProperty);
+		}
+	}
+
+	protected static class RowMapperKey {
+		private final Class<?> type;
+		private final String[] columns;
+		private final int hash;
+
+		public RowMapperKey(Class<?> type, String[] columns) {
+			this.type = type;
+			this.columns = columns;
+			this.hash = type.hashCode() * 31 + Arrays.hashCode(columns);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof RowMapperKey))
+				return false;
+			RowMapperKey that = (RowMapperKey) o;
+			return type == that.type && Arrays.equals(columns, that.columns);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
 	public SQLMapper generateDeleteSQL(Class<?> t) {
 		return deleteCache.get(t, (key) -> {
 			return _generateDeleteSQL(key);
@@ -496,32 +591,7 @@ public class DefaultBeanProcessor extends BeanProcessor {
 
 		Class<?>[] params = setter.getParameterTypes();
 		try {
-			// convert types for some popular ones
-			if (value instanceof java.util.Date) {
-				final String targetType = params[0].getName();
-				if ("java.sql.Date".equals(targetType)) {
-					value = new java.sql.Date(((java.util.Date) value).getTime());
-				} else if ("java.sql.Time".equals(targetType)) {
-					value = new java.sql.Time(((java.util.Date) value).getTime());
-				} else if ("java.sql.Timestamp".equals(targetType)) {
-					Timestamp tsValue = (Timestamp) value;
-					int nanos = tsValue.getNanos();
-					value = new java.sql.Timestamp(tsValue.getTime());
-					((Timestamp) value).setNanos(nanos);
-				}
-			} else if (value instanceof String && params[0].isEnum()) {
-				value = Enum.valueOf(params[0].asSubclass(Enum.class), (String) value);
-			}
-
-			// Don't call setter if the value object isn't the right type
-			if (this.isCompatibleType(value, params[0])) {
-				setter.invoke(target, new Object[] { value });
-			} else {
-				throw new SQLException("Cannot set " + prop.getName() + ": incompatible types, cannot convert "
-						+ value.getClass().getName() + " to " + params[0].getName());
-				// value cannot be null here because isCompatibleType allows
-				// null
-			}
+			setter.invoke(target, new Object[] { convert(value, params[0], prop.getName()) });
 
 		} catch (IllegalArgumentException e) {
 			throw new SQLException("Cannot set " + prop.getName() + ": " + e.getMessage());
@@ -534,6 +604,53 @@ public class DefaultBeanProcessor extends BeanProcessor {
 		}
 	}
 
+	/**
+	 * Converts a column value to the type of the property. The generated row
+	 * mappers call it for the columns that are not read by the typed getters.
+	 *
+	 * @param value
+	 *            The value of the column.
+	 * @param type
+	 *            The parameter type of the setter.
+	 * @param propertyName
+	 *            The property name.
+	 * @return The value that can be passed into the setter.
+	 * @throws SQLException
+	 *             if the value can not be converted to the type.
+	 */
+	public static Object convert(Object value, Class<?> type, String propertyName) throws SQLException {
+		// convert types for some popular ones
+		if (value instanceof java.util.Date) {
+			final String targetType = type.getName();
+			if ("java.sql.Date".equals(targetType)) {
+				value = new java.sql.Date(((java.util.Date) value).getTime());
+			} else if ("java.sql.Time".equals(targetType)) {
+				value = new java.sql.Time(((java.util.Date) value).getTime());
+			} else if ("java.sql.Timestamp".equals(targetType)) {
+				Timestamp tsValue = (Timestamp) value;
+				int nanos = tsValue.getNanos();
+				value = new java.sql.Timestamp(tsValue.getTime());
+				((Timestamp) value).setNanos(nanos);
+			}
+		} else if (value instanceof String && type.isEnum()) {
+			try {
+				value = Enum.valueOf(type.asSubclass(Enum.class), (String) value);
+			} catch (IllegalArgumentException e) {
+				throw new SQLException("Cannot set " + propertyName + ": " + e.getMessage());
+			}
+		}
+
+		// Don't call setter if the value object isn't the right type
+		if (isCompatibleType(value, type)) {
+			return value;
+		} else {
+			throw new SQLException("Cannot set " + propertyName + ": incompatible types, cannot convert "
+					+ value.getClass().getName() + " to " + type.getName());
+			// value cannot be null here because isCompatibleType allows
+			// null
+		}
+	}
+
 	/**
 	 * ResultSet.getObject() returns an Integer object for an INT column. The
 	 * setter method for the property might take an Integer or a primitive int.
@@ -547,7 +664,7 @@ public class DefaultBeanProcessor extends BeanProcessor {
 	 *            The setter's parameter type (non-null)
 	 * @return boolean True if the value is compatible (null => true)
 	 */
-	private boolean isCompatibleType(Object value, Class<?> type) {
+	private static boolean isCompatibleType(Object value, Class<?> type) {
 		// Do object check first, then primitives
 		if (value == null || type.isInstance(value)) {
 			return true;
@@ -5,6 +5,8 @@ import com.firefly.db.DefaultBeanProcessor.SQLMapper;
 import com.firefly.utils.Assert;
 import com.firefly.utils.ReflectUtils;
 import com.firefly.utils.classproxy.ClassProxyFactoryUsingJavassist;
+import com.firefly.utils.function.Action0;
+import com.firefly.utils.function.Action1;
 import com.firefly.utils.function.Func2;
 import org.apache.commons.dbutils.BasicRowProcessor;
 import org.apache.commons.dbutils.BeanProcessor;
@@ -17,18 +19,42 @@ import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class JDBCHelper {
 
 	private final static Logger log = LoggerFactory.getLogger("firefly-system");
 
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	// a conservative max number of the parameters of a multi-row insert statement for all the databases,
+	// it is the smallest limit of the databases in MULTI_VALUES_DATABASES (PostgreSQL)
+	private static final int MAX_PARAMETERS = 32767;
+	// the drivers of these databases return a generated key for each row of a multi-row insert
+	private static final Set<String> MULTI_VALUES_DATABASES = new HashSet<>(
+			Arrays.asList("MySQL", "MariaDB", "PostgreSQL"));
+
 	private final DataSource dataSource;
 	private final QueryRunner runner;
 	private final DefaultBeanProcessor defaultBeanProcessor;
+	private volatile int fetchSize = DEFAULT_FETCH_SIZE;
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+	private volatile Boolean multiValuesInsert;
 
 	public JDBCHelper(DataSource dataSource) {
 		this(dataSource, getQueryRunner(dataSource, log.isDebugEnabled() || log.isTraceEnabled()),
@@ -93,6 +119,61 @@ public class JDBCHelper {
 		return defaultBeanProcessor;
 	}
 
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets the number of the rows that the streaming queries fetch from the
+	 * database at a time. Some drivers need their own settings to use a
+	 * cursor, for example, the MySQL driver needs the useCursorFetch=true
+	 * connection property.
+	 *
+	 * @param fetchSize
+	 *            the fetch size of the streaming queries, the default value is
+	 *            1000
+	 */
+	public void setFetchSize(int fetchSize) {
+		Assert.isTrue(fetchSize > 0, "the fetch size must be greater than 0");
+		this.fetchSize = fetchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the max number of the objects that the bulk insert and update send
+	 * to the database in a round trip.
+	 *
+	 * @param batchSize
+	 *            the max number of the objects of a chunk, the default value
+	 *            is 500
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "the batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	public Boolean getMultiValuesInsert() {
+		return multiValuesInsert;
+	}
+
+	/**
+	 * Sets whether the bulk insert uses a multi-row
+	 * <code>INSERT ... VALUES (...), (...)</code> statement instead of a JDBC
+	 * batch. If it is null, the multi-row insert is used for MySQL, MariaDB
+	 * and PostgreSQL, because their drivers return the generated keys of all
+	 * rows.
+	 *
+	 * @param multiValuesInsert
+	 *            whether the bulk insert uses the multi-row insert statement,
+	 *            or null to detect it by the database product name
+	 */
+	public void setMultiValuesInsert(Boolean multiValuesInsert) {
+		this.multiValuesInsert = multiValuesInsert;
+	}
+
 	public <T> T queryForSingleColumn(String sql, Object... params) {
 		try (Connection connection = dataSource.getConnection()) {
 			return this.queryForSingleColumn(connection, sql, params);
@@ -215,6 +296,182 @@ public class JDBCHelper {
 		}
 	}
 
+	/**
+	 * Queries the rows by a forward-only and read-only cursor, the rows are
+	 * converted to the beans when the stream reads them. The stream holds a
+	 * connection until the last row is read or the stream is closed, so use it
+	 * in a try-with-resources statement.
+	 *
+	 * @param sql
+	 *            the query SQL
+	 * @param t
+	 *            the bean type
+	 * @param params
+	 *            the SQL parameters
+	 * @return the stream of the beans
+	 */
+	public <T> Stream<T> stream(String sql, Class<T> t, Object... params) {
+		return toStream(this.iterate(sql, t, params));
+	}
+
+	/**
+	 * Queries the rows by a forward-only and read-only cursor of the
+	 * connection. The stream closes the statement, but it does not close the
+	 * connection.
+	 *
+	 * @param connection
+	 *            the database connection
+	 * @param sql
+	 *            the query SQL
+	 * @param t
+	 *            the bean type
+	 * @param params
+	 *            the SQL parameters
+	 * @return the stream of the beans
+	 */
+	public <T> Stream<T> stream(Connection connection, String sql, Class<T> t, Object... params) {
+		return toStream(this.iterate(connection, sql, t, params));
+	}
+
+	private static <T> Stream<T> toStream(ResultSetIterator<T> iterator) {
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * The iterator version of {@link #stream(String, Class, Object...)}.
+	 *
+	 * @param sql
+	 *            the query SQL
+	 * @param t
+	 *            the bean type
+	 * @param params
+	 *            the SQL parameters
+	 * @return the iterator of the beans
+	 */
+	public <T> ResultSetIterator<T> iterate(String sql, Class<T> t, Object... params) {
+		Connection connection = this.getConnection();
+		try {
+			// some drivers only use the cursor in a transaction
+			connection.setAutoCommit(false);
+			connection.setReadOnly(true);
+		} catch (SQLException e) {
+			closeStreamConnection(connection);
+			log.error("query exception, sql: {}", e, sql);
+			throw new DBException(e);
+		}
+
+		try {
+			return this.iterate(connection, sql, t, () -> closeStreamConnection(connection), params);
+		} catch (DBException e) {
+			closeStreamConnection(connection);
+			throw e;
+		}
+	}
+
+	/**
+	 * The iterator version of
+	 * {@link #stream(Connection, String, Class, Object...)}.
+	 *
+	 * @param connection
+	 *            the database connection
+	 * @param sql
+	 *            the query SQL
+	 * @param t
+	 *            the bean type
+	 * @param params
+	 *            the SQL parameters
+	 * @return the iterator of the beans
+	 */
+	public <T> ResultSetIterator<T> iterate(Connection connection, String sql, Class<T> t, Object... params) {
+		return this.iterate(connection, sql, t, null, params);
+	}
+
+	private <T> ResultSetIterator<T> iterate(Connection connection, String sql, Class<T> t, Action0 closeAction,
+			Object... params) {
+		PreparedStatement statement = null;
+		try {
+			statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(fetchSize);
+			runner.fillStatement(statement, params);
+			ResultSet rs = statement.executeQuery();
+			rs.setFetchSize(fetchSize);
+			RowMapper<T> rowMapper = defaultBeanProcessor.getRowMapper(rs.getMetaData(), t);
+			return new ResultSetIterator<>(rs, statement, rowMapper, closeAction);
+		} catch (SQLException e) {
+			if (statement != null) {
+				try {
+					statement.close();
+				} catch (SQLException ignored) {
+				}
+			}
+			log.error("query exception, sql: {}", e, sql);
+			throw new DBException(e);
+		}
+	}
+
+	private void closeStreamConnection(Connection connection) {
+		try {
+			connection.commit();
+			connection.setReadOnly(false);
+			connection.setAutoCommit(true);
+		} catch (SQLException e) {
+			log.error("reset connection exception", e);
+		}
+		close(connection);
+	}
+
+	/**
+	 * Queries the rows by a forward-only and read-only cursor, and passes the
+	 * beans to the handler in batches, so only a batch of the beans is in the
+	 * memory at a time.
+	 *
+	 * @param sql
+	 *            the query SQL
+	 * @param t
+	 *            the bean type
+	 * @param batchSize
+	 *            the max number of the beans of a batch
+	 * @param handler
+	 *            receives the batches of the beans, the list of a batch is not
+	 *            reused
+	 * @param params
+	 *            the SQL parameters
+	 * @return the number of the rows
+	 */
+	public <T> long queryForBatch(String sql, Class<T> t, int batchSize, Action1<List<T>> handler,
+			Object... params) {
+		try (ResultSetIterator<T> iterator = this.iterate(sql, t, params)) {
+			return handleBatch(iterator, batchSize, handler);
+		}
+	}
+
+	public <T> long queryForBatch(Connection connection, String sql, Class<T> t, int batchSize,
+			Action1<List<T>> handler, Object... params) {
+		try (ResultSetIterator<T> iterator = this.iterate(connection, sql, t, params)) {
+			return handleBatch(iterator, batchSize, handler);
+		}
+	}
+
+	private static <T> long handleBatch(Iterator<T> iterator, int batchSize, Action1<List<T>> handler) {
+		Assert.isTrue(batchSize > 0, "the batch size must be greater than 0");
+		long count = 0;
+		List<T> batch = new ArrayList<>(batchSize);
+		while (iterator.hasNext()) {
+			batch.add(iterator.next());
+			count++;
+			if (batch.size() == batchSize) {
+				handler.call(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		if (!batch.isEmpty()) {
+			handler.call(batch);
+		}
+		return count;
+	}
+
 	public int update(String sql, Object... params) {
 		try (Connection connection = dataSource.getConnection()) {
 			connection.setAutoCommit(true);
@@ -241,15 +498,93 @@ public class JDBCHelper {
 		Assert.notNull(sqlMapper, "the sql mapper must not be null");
 		Assert.notEmpty(sqlMapper.propertyMap, "the property map must not be empty");
 
-		Object[] params = new Object[sqlMapper.propertyMap.size()];
-		sqlMapper.propertyMap.forEach((property, index) -> {
+		Object[] params = getParams(object, sqlMapper.propertyMap);
+		return this.update(connection, sqlMapper.sql, params);
+	}
+
+	public int updateObjects(List<?> objects) {
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			boolean committed = false;
+			try {
+				int ret = this.updateObjects(connection, objects);
+				connection.commit();
+				committed = true;
+				return ret;
+			} finally {
+				// enabling the auto-commit commits the pending transaction, it is rolled back first
+				if (!committed) {
+					rollbackQuietly(connection);
+				}
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			log.error("update exception", e);
+			throw new DBException(e);
+		}
+	}
+
+	/**
+	 * Updates the objects by the JDBC batches. The update statement only sets
+	 * the non-null properties, so the adjacent objects that set the same
+	 * properties are sent in a batch of at most {@link #getBatchSize()}
+	 * objects.
+	 *
+	 * @param connection
+	 *            the database connection
+	 * @param objects
+	 *            the objects
+	 * @return the number of the updated rows
+	 */
+	public int updateObjects(Connection connection, List<?> objects) {
+		int rows = 0;
+		String sql = null;
+		List<Object[]> batch = new ArrayList<>();
+		for (Object object : objects) {
+			SQLMapper sqlMapper = defaultBeanProcessor.generateUpdateSQL(object.getClass(), object);
+			Assert.notNull(sqlMapper, "the sql mapper must not be null");
+			Assert.notEmpty(sqlMapper.propertyMap, "the property map must not be empty");
+
+			if (!batch.isEmpty() && (!sqlMapper.sql.equals(sql) || batch.size() == batchSize)) {
+				rows += this.updateBatch(connection, sql, batch);
+				batch.clear();
+			}
+			sql = sqlMapper.sql;
+			batch.add(getParams(object, sqlMapper.propertyMap));
+		}
+		if (!batch.isEmpty()) {
+			rows += this.updateBatch(connection, sql, batch);
+		}
+		return rows;
+	}
+
+	private int updateBatch(Connection connection, String sql, List<Object[]> batch) {
+		try {
+			int rows = 0;
+			for (int row : runner.batch(connection, sql, batch.toArray(new Object[batch.size()][]))) {
+				if (row > 0) {
+					rows += row;
+				} else if (row == Statement.SUCCESS_NO_INFO) {
+					rows++;
+				}
+			}
+			return rows;
+		} catch (SQLException e) {
+			log.error("update batch exception, sql: {}", e, sql);
+			throw new DBException(e);
+		}
+	}
+
+	private static Object[] getParams(Object object, Map<String, Integer> propertyMap) {
+		Object[] params = new Object[propertyMap.size()];
+		propertyMap.forEach((property, index) -> {
 			try {
 				Object value = ReflectUtils.get(object, property);
 				params[index] = value;
 			} catch (Throwable e) {
 			}
 		});
-		return this.update(connection, sqlMapper.sql, params);
+		return params;
 	}
 
 	public int update(Connection connection, String sql, Object... params) {
@@ -288,14 +623,7 @@ public class JDBCHelper {
 		Assert.notNull(sqlMapper, "the sql mapper must not be null");
 		Assert.notEmpty(sqlMapper.propertyMap, "the property map must not be empty");
 
-		Object[] params = new Object[sqlMapper.propertyMap.size()];
-		sqlMapper.propertyMap.forEach((property, index) -> {
-			try {
-				Object value = ReflectUtils.get(object, property);
-				params[index] = value;
-			} catch (Throwable e) {
-			}
-		});
+		Object[] params = getParams(object, sqlMapper.propertyMap);
 		T ret = this.insert(connection, sqlMapper.sql, params);
 		if (ret != null) {
 			Mapper idMapper = defaultBeanProcessor.getIdMapper(t);
@@ -309,6 +637,163 @@ public class JDBCHelper {
 		return ret;
 	}
 
+	public <T> List<T> insertObjects(List<?> objects) {
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			boolean committed = false;
+			try {
+				List<T> ret = this.insertObjects(connection, objects);
+				connection.commit();
+				committed = true;
+				return ret;
+			} finally {
+				// enabling the auto-commit commits the pending transaction, it is rolled back first
+				if (!committed) {
+					rollbackQuietly(connection);
+				}
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			log.error("insert exception", e);
+			throw new DBException(e);
+		}
+	}
+
+	/**
+	 * Inserts the objects in the chunks of at most {@link #getBatchSize()}
+	 * objects, a chunk is sent by a multi-row insert statement or a JDBC batch
+	 * (see {@link #setMultiValuesInsert(Boolean)}). If the database returns a
+	 * generated key for each row of a chunk, the keys are set to the id
+	 * properties of the objects.
+	 *
+	 * @param connection
+	 *            the database connection
+	 * @param objects
+	 *            the objects
+	 * @return the generated keys
+	 */
+	public <T> List<T> insertObjects(Connection connection, List<?> objects) {
+		List<T> keys = new ArrayList<>();
+		boolean multiValues = isMultiValuesInsert(connection);
+		int from = 0;
+		while (from < objects.size()) {
+			Class<?> t = objects.get(from).getClass();
+			SQLMapper sqlMapper = defaultBeanProcessor.generateInsertSQL(t);
+			Assert.notNull(sqlMapper, "the sql mapper must not be null");
+			Assert.notEmpty(sqlMapper.propertyMap, "the property map must not be empty");
+
+			int chunkSize = batchSize;
+			if (multiValues) {
+				chunkSize = Math.max(1, Math.min(chunkSize, MAX_PARAMETERS / sqlMapper.propertyMap.size()));
+			}
+			// the chunk only contains the adjacent objects of the same type
+			int to = from + 1;
+			while (to < objects.size() && to - from < chunkSize && objects.get(to).getClass() == t) {
+				to++;
+			}
+
+			List<?> chunk = objects.subList(from, to);
+			Mapper idMapper = defaultBeanProcessor.getIdMapper(t);
+			List<T> chunkKeys = multiValues ? this.insertMultiValues(connection, sqlMapper, idMapper, chunk)
+					: this.insertBatch(connection, sqlMapper, idMapper, chunk);
+			if (idMapper != null && chunkKeys.size() == chunk.size()) {
+				for (int i = 0; i < chunk.size(); i++) {
+					try {
+						ReflectUtils.set(chunk.get(i), idMapper.propertyName, chunkKeys.get(i));
+					} catch (Throwable e) {
+					}
+				}
+			}
+			keys.addAll(chunkKeys);
+			from = to;
+		}
+		return keys;
+	}
+
+	private boolean isMultiValuesInsert(Connection connection) {
+		Boolean multiValues = multiValuesInsert;
+		if (multiValues == null) {
+			try {
+				String productName = connection.getMetaData().getDatabaseProductName();
+				multiValues = MULTI_VALUES_DATABASES.contains(productName);
+				log.debug("the database is {}, the multi-row insert is {}", productName, multiValues);
+			} catch (SQLException e) {
+				log.error("get database metadata exception", e);
+				multiValues = false;
+			}
+			multiValuesInsert = multiValues;
+		}
+		return multiValues;
+	}
+
+	private <T> List<T> insertMultiValues(Connection connection, SQLMapper sqlMapper, Mapper idMapper,
+			List<?> chunk) {
+		// the insert SQL ends with the placeholders of a row, the other rows are appended
+		int columns = sqlMapper.propertyMap.size();
+		StringBuilder values = new StringBuilder(columns * 3 + 2);
+		values.append(", (");
+		for (int i = 0; i < columns; i++) {
+			values.append(i == 0 ? "?" : ", ?");
+		}
+		values.append(')');
+		String sql = sqlMapper.sql;
+		StringBuilder multiValuesSQL = new StringBuilder(sql.length() + values.length() * chunk.size());
+		multiValuesSQL.append(sql);
+		Object[] params = new Object[columns * chunk.size()];
+		for (int i = 0; i < chunk.size(); i++) {
+			if (i > 0) {
+				multiValuesSQL.append(values);
+			}
+			System.arraycopy(getParams(chunk.get(i), sqlMapper.propertyMap), 0, params, i * columns, columns);
+		}
+
+		try (PreparedStatement statement = prepareInsert(connection, multiValuesSQL.toString(), idMapper)) {
+			runner.fillStatement(statement, params);
+			statement.executeUpdate();
+			return getGeneratedKeys(statement);
+		} catch (SQLException e) {
+			log.error("insert exception, sql: {}", e, sql);
+			throw new DBException(e);
+		}
+	}
+
+	private <T> List<T> insertBatch(Connection connection, SQLMapper sqlMapper, Mapper idMapper, List<?> chunk) {
+		try (PreparedStatement statement = prepareInsert(connection, sqlMapper.sql, idMapper)) {
+			for (Object object : chunk) {
+				runner.fillStatement(statement, getParams(object, sqlMapper.propertyMap));
+				statement.addBatch();
+			}
+			statement.executeBatch();
+			return getGeneratedKeys(statement);
+		} catch (SQLException e) {
+			log.error("insert batch exception, sql: {}", e, sqlMapper.sql);
+			throw new DBException(e);
+		}
+	}
+
+	private static PreparedStatement prepareInsert(Connection connection, String sql, Mapper idMapper)
+			throws SQLException {
+		if (idMapper != null) {
+			// some drivers return all the columns of the rows for RETURN_GENERATED_KEYS, e.g. PostgreSQL
+			return connection.prepareStatement(sql, new String[] { idMapper.columnName });
+		} else {
+			return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> getGeneratedKeys(Statement statement) throws SQLException {
+		List<T> keys = new ArrayList<>();
+		try (ResultSet rs = statement.getGeneratedKeys()) {
+			if (rs != null) {
+				while (rs.next()) {
+					keys.add((T) rs.getObject(1));
+				}
+			}
+		}
+		return keys;
+	}
+
 	public <T> T insert(Connection connection, String sql, Object... params) {
 		try {
 			return runner.insert(connection, sql, new ScalarHandler<T>(), params);
@@ -352,6 +837,14 @@ public class JDBCHelper {
 		}
 	}
 
+	private void rollbackQuietly(Connection connection) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			log.error("transaction rollback exception", e);
+		}
+	}
+
 	public void setAutoCommit(Connection connection, boolean autoCommit) {
 		try {
 			connection.setAutoCommit(autoCommit);
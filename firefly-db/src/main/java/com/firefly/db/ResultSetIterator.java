@@ -0,0 +1,114 @@
+package com.firefly.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.firefly.utils.function.Action0;
+
+/**
+ * Iterates the rows of a {@link ResultSet} and converts each row to an object
+ * when it is read, so the result set is not loaded into the memory. The
+ * iterator closes the result set and the statement when the last row is read,
+ * when a database access error occurs or when it is closed, so use it in a
+ * try-with-resources statement if the rows may not be read to the end.
+ *
+ * @param <T>
+ *            the type of the row object
+ */
+public class ResultSetIterator<T> implements Iterator<T>, AutoCloseable {
+
+	private final static Logger log = LoggerFactory.getLogger("firefly-system");
+
+	private final ResultSet rs;
+	private final Statement statement;
+	private final RowMapper<T> rowMapper;
+	private final Action0 closeAction;
+	private boolean hasNext;
+	private boolean moved;
+	private boolean closed;
+
+	/**
+	 * @param rs
+	 *            the result set
+	 * @param statement
+	 *            the statement of the result set
+	 * @param rowMapper
+	 *            converts the rows to the objects
+	 * @param closeAction
+	 *            it is called after the statement is closed, it can be null
+	 */
+	public ResultSetIterator(ResultSet rs, Statement statement, RowMapper<T> rowMapper, Action0 closeAction) {
+		this.rs = rs;
+		this.statement = statement;
+		this.rowMapper = rowMapper;
+		this.closeAction = closeAction;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (!moved) {
+			try {
+				hasNext = rs.next();
+				moved = true;
+			} catch (SQLException e) {
+				close();
+				log.error("read result set exception", e);
+				throw new DBException(e);
+			}
+			if (!hasNext) {
+				close();
+			}
+		}
+		return hasNext;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		moved = false;
+		try {
+			return rowMapper.mapRow(rs);
+		} catch (SQLException e) {
+			close();
+			log.error("map row exception", e);
+			throw new DBException(e);
+		}
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			rs.close();
+		} catch (SQLException e) {
+			log.error("close result set exception", e);
+		}
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			log.error("close statement exception", e);
+		}
+		if (closeAction != null) {
+			closeAction.call();
+		}
+	}
+
+}
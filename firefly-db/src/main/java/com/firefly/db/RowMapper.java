@@ -0,0 +1,25 @@
+package com.firefly.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converts the current row of a {@link ResultSet} to an object.
+ *
+ * @param <T>
+ *            the type of the object
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+	/**
+	 * @param rs
+	 *            the result set that is positioned at the row, this method
+	 *            does not move the cursor
+	 * @return the object of the row
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	T mapRow(ResultSet rs) throws SQLException;
+
+}
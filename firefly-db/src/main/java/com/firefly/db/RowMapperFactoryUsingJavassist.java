@@ -0,0 +1,166 @@
+package com.firefly.db;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.firefly.utils.StringUtils;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+
+/**
+ * Generates the {@link RowMapper} classes that read the columns by index with
+ * the typed getters of the {@link java.sql.ResultSet} and call the setters of
+ * the bean directly. The columns of the other types are read by
+ * <code>getObject</code> and converted by
+ * {@link DefaultBeanProcessor#convert(Object, Class, String)}.
+ */
+public class RowMapperFactoryUsingJavassist {
+
+	public static final RowMapperFactoryUsingJavassist INSTANCE = new RowMapperFactoryUsingJavassist();
+
+	private static final Map<Class<?>, String> getterMap = new HashMap<>();
+	private static final Map<Class<?>, Class<?>> wrapperMap = new HashMap<>();
+
+	static {
+		getterMap.put(int.class, "getInt");
+		getterMap.put(long.class, "getLong");
+		getterMap.put(double.class, "getDouble");
+		getterMap.put(float.class, "getFloat");
+		getterMap.put(short.class, "getShort");
+		getterMap.put(byte.class, "getByte");
+		getterMap.put(boolean.class, "getBoolean");
+
+		wrapperMap.put(Integer.class, int.class);
+		wrapperMap.put(Long.class, long.class);
+		wrapperMap.put(Double.class, double.class);
+		wrapperMap.put(Float.class, float.class);
+		wrapperMap.put(Short.class, short.class);
+		wrapperMap.put(Byte.class, byte.class);
+		wrapperMap.put(Boolean.class, boolean.class);
+	}
+
+	private RowMapperFactoryUsingJavassist() {
+	}
+
+	/**
+	 * @param type
+	 *            the bean type, it must be a public class that has a public
+	 *            constructor without parameters
+	 * @param props
+	 *            the properties of the bean
+	 * @param columnToProperty
+	 *            the property index of each column, it is negative if the
+	 *            column is not mapped, the index 0 is not used
+	 * @return the generated row mapper
+	 * @throws Throwable
+	 *             if the bean can not be accessed by the generated class
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> RowMapper<T> createRowMapper(Class<T> type, PropertyDescriptor[] props, int[] columnToProperty)
+			throws Throwable {
+		if (!Modifier.isPublic(type.getModifiers()) || type.getCanonicalName() == null) {
+			throw new IllegalArgumentException("the bean type " + type.getName() + " is not public");
+		}
+		type.getConstructor();
+
+		ClassPool classPool = ClassPool.getDefault();
+		classPool.insertClassPath(new ClassClassPath(RowMapper.class));
+		classPool.insertClassPath(new ClassClassPath(type));
+
+		CtClass cc = classPool.makeClass("com.firefly.db.RowMapper" + UUID.randomUUID().toString().replace("-", ""));
+		Class<?>[] types = new Class<?>[columnToProperty.length];
+		Class<?> rowMapperClass;
+		try {
+			cc.addInterface(classPool.get(RowMapper.class.getName()));
+			cc.addField(CtField.make("private java.lang.Class[] types;", cc));
+
+			CtConstructor constructor = new CtConstructor(new CtClass[] { classPool.get(Class[].class.getName()) }, cc);
+			constructor.setBody("{this.types = $1;}");
+			cc.addConstructor(constructor);
+
+			cc.addMethod(CtMethod.make(createMapRowMethodCode(type, props, columnToProperty, types), cc));
+
+			ClassLoader classLoader = type.getClassLoader() != null ? type.getClassLoader()
+					: RowMapper.class.getClassLoader();
+			rowMapperClass = cc.toClass(classLoader, null);
+		} finally {
+			// the class pool keeps the generated classes until they are detached
+			cc.detach();
+		}
+		return (RowMapper<T>) rowMapperClass.getConstructor(Class[].class).newInstance((Object) types);
+	}
+
+	private String createMapRowMethodCode(Class<?> type, PropertyDescriptor[] props, int[] columnToProperty,
+			Class<?>[] types) {
+		String beanType = type.getCanonicalName();
+		StringBuilder code = new StringBuilder();
+		code.append("public Object mapRow(java.sql.ResultSet rs) throws java.sql.SQLException {\n");
+		code.append(StringUtils.replace("\t{} bean = new {}();\n", beanType, beanType));
+
+		for (int i = 1; i < columnToProperty.length; i++) {
+			if (columnToProperty[i] < 0) {
+				continue;
+			}
+
+			PropertyDescriptor prop = props[columnToProperty[i]];
+			Method setter = prop.getWriteMethod();
+			if (setter == null) {
+				continue;
+			}
+			if (!Modifier.isPublic(setter.getDeclaringClass().getModifiers())) {
+				throw new IllegalArgumentException("the setter " + setter + " is not public");
+			}
+
+			Class<?> paramType = setter.getParameterTypes()[0];
+			String set = "bean." + setter.getName();
+			if (getterMap.containsKey(paramType)) {
+				// the typed getter returns the default value of the primitive if it is SQL NULL
+				code.append(StringUtils.replace("\t{}(rs.{}({}));\n", set, getterMap.get(paramType), i));
+			} else if (wrapperMap.containsKey(paramType)) {
+				Class<?> primitiveType = wrapperMap.get(paramType);
+				String wrapper = paramType.getCanonicalName();
+				code.append(StringUtils.replace("\t{} v{} = rs.{}({});\n", primitiveType.getName(), i,
+						getterMap.get(primitiveType), i));
+				code.append(StringUtils.replace("\tif (rs.wasNull()) {}(({}) null); else {}({}.valueOf(v{}));\n", set,
+						wrapper, set, wrapper, i));
+			} else if (paramType == String.class) {
+				code.append(StringUtils.replace("\t{}(rs.getString({}));\n", set, i));
+			} else if (paramType == Timestamp.class) {
+				code.append(StringUtils.replace("\t{}(rs.getTimestamp({}));\n", set, i));
+			} else {
+				Class<?> componentType = paramType;
+				while (componentType.isArray()) {
+					componentType = componentType.getComponentType();
+				}
+				if (!componentType.isPrimitive() && !Modifier.isPublic(componentType.getModifiers())) {
+					throw new IllegalArgumentException("the property type " + paramType.getName() + " is not public");
+				}
+				types[i] = paramType;
+				code.append(StringUtils.replace(
+						"\tObject v{} = com.firefly.db.DefaultBeanProcessor.convert(rs.getObject({}), types[{}], \"{}\");\n",
+						i, i, i, prop.getName()));
+				if (paramType == char.class) {
+					code.append(StringUtils.replace(
+							"\tif (v{} == null) {}((char) 0); else {}(((java.lang.Character) v{}).charValue());\n", i,
+							set, set, i));
+				} else {
+					code.append(StringUtils.replace("\t{}(({}) v{});\n", set, paramType.getCanonicalName(), i));
+				}
+			}
+		}
+
+		code.append("\treturn bean;\n");
+		code.append('}');
+		return code.toString();
+	}
+}
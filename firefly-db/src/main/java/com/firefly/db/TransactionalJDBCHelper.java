@@ -1,6 +1,7 @@
 package com.firefly.db;
 
 import com.firefly.utils.Assert;
+import com.firefly.utils.function.Action1;
 import com.firefly.utils.function.Func1;
 import com.firefly.utils.function.Func2;
 import org.apache.commons.dbutils.BeanProcessor;
@@ -69,6 +70,11 @@ public class TransactionalJDBCHelper {
         return _executeTransaction((connection, helper) -> helper.queryForList(connection, sql, t, beanProcessor, params));
     }
 
+    public <T> long queryForBatch(String sql, Class<T> t, int batchSize, Action1<List<T>> handler, Object... params) {
+        Long ret = _executeTransaction((connection, helper) -> helper.queryForBatch(connection, sql, t, batchSize, handler, params));
+        return ret != null ? ret : -1;
+    }
+
     public int update(String sql, Object... params) {
         Integer ret = _executeTransaction((connection, helper) -> helper.update(connection, sql, params));
         return ret != null ? ret : -1;
@@ -79,6 +85,11 @@ public class TransactionalJDBCHelper {
         return ret != null ? ret : -1;
     }
 
+    public int updateObjects(List<?> objects) {
+        Integer ret = _executeTransaction((connection, helper) -> helper.updateObjects(connection, objects));
+        return ret != null ? ret : -1;
+    }
+
     public <T> T insert(String sql, Object... params) {
         return _executeTransaction((connection, helper) -> helper.insert(connection, sql, params));
     }
@@ -87,6 +98,10 @@ public class TransactionalJDBCHelper {
         return _executeTransaction((connection, helper) -> helper.insertObject(connection, object));
     }
 
+    public <T> List<T> insertObjects(List<?> objects) {
+        return _executeTransaction((connection, helper) -> helper.insertObjects(connection, objects));
+    }
+
     public int deleteById(Class<?> t, Object id) {
         Integer ret = _executeTransaction((connection, helper) -> helper.deleteById(connection, t, id));
         return ret != null ? ret : -1;
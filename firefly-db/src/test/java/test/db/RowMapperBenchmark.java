@@ -0,0 +1,76 @@
+package test.db;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.apache.commons.dbutils.BeanProcessor;
+
+import com.firefly.db.JDBCHelper;
+import com.firefly.utils.log.LogFactory;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Compares the generated row mappers of the DefaultBeanProcessor with the
+ * reflective BeanProcessor of commons-dbutils when querying 10k rows from H2.
+ */
+public class RowMapperBenchmark {
+
+	private static final int ROWS = 10_000;
+	private static final int QUERIES = 100;
+	private static final String SQL = "select id, name, stock, sold, price, available, cost, create_time as createTime, "
+			+ "update_time as updateTime, status from `test`.`product`";
+
+	public static void main(String[] args) throws Exception {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:benchmark");
+		config.setDriverClassName("org.h2.Driver");
+		config.setAutoCommit(false);
+		HikariDataSource ds = new HikariDataSource(config);
+		JDBCHelper jdbcHelper = new JDBCHelper(ds);
+
+		jdbcHelper.update("create schema test");
+		jdbcHelper.update("set mode MySQL");
+		jdbcHelper.update("CREATE TABLE `test`.`product`(id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), "
+				+ "stock INT, sold INT, price DOUBLE, available BOOLEAN, cost DECIMAL(10, 2), "
+				+ "create_time TIMESTAMP, update_time TIMESTAMP, status VARCHAR(32))");
+		Object[][] params = new Object[ROWS][];
+		for (int i = 0; i < ROWS; i++) {
+			params[i] = new Object[] { "product" + i, i, i * 2, i * 1.5, true, new BigDecimal(i + ".25"),
+					new Timestamp(i * 1000L), new Timestamp(i * 2000L), "ON_SALE" };
+		}
+		try (Connection connection = jdbcHelper.getConnection()) {
+			connection.setAutoCommit(true);
+			jdbcHelper.getRunner().batch(connection,
+					"insert into `test`.`product`(name, stock, sold, price, available, cost, create_time, update_time, status) "
+							+ "values(?,?,?,?,?,?,?,?,?)",
+					params);
+		}
+
+		BeanProcessor reflection = new BeanProcessor();
+		for (int i = 0; i < 2; i++) {
+			// the first round warms up
+			System.out.println("round " + i);
+			test("reflection", () -> jdbcHelper.queryForList(SQL, Product.class, reflection));
+			test("generated", () -> jdbcHelper.queryForList(SQL, Product.class));
+		}
+		ds.close();
+		LogFactory.getInstance().stop();
+	}
+
+	private static void test(String name, QueryTask task) {
+		long start = System.nanoTime();
+		int rows = 0;
+		for (int i = 0; i < QUERIES; i++) {
+			rows += task.query().size();
+		}
+		long time = System.nanoTime() - start;
+		System.out.println(name + ": " + (time / QUERIES / 1000) + " us/query, " + (time / rows) + " ns/row");
+	}
+
+	private interface QueryTask {
+		List<Product> query();
+	}
+}
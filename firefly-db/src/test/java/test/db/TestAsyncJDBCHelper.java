@@ -0,0 +1,286 @@
+package test.db;
+
+import static org.hamcrest.Matchers.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.firefly.db.AsyncJDBCHelper;
+import com.firefly.db.AsyncJDBCHelper.AsyncTransaction;
+import com.firefly.db.DBException;
+import com.firefly.db.JDBCHelper;
+import com.firefly.utils.concurrent.Promise;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class TestAsyncJDBCHelper {
+
+	private static JDBCHelper jdbcHelper;
+	private static AsyncJDBCHelper asyncHelper;
+	private int size = 10;
+
+	@BeforeClass
+	public static void init() {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:test_async");
+		config.setDriverClassName("org.h2.Driver");
+		config.setAutoCommit(false);
+		config.setMaximumPoolSize(2);
+		config.setConnectionTimeout(250);
+		HikariDataSource ds = new HikariDataSource(config);
+		jdbcHelper = new JDBCHelper(ds);
+		asyncHelper = new AsyncJDBCHelper(jdbcHelper, 2, 100);
+	}
+
+	@AfterClass
+	public static void destroy() {
+		asyncHelper.stop();
+	}
+
+	@Before
+	public void before() {
+		jdbcHelper.update("drop schema if exists test");
+		jdbcHelper.update("create schema test");
+		jdbcHelper.update("set mode MySQL");
+		jdbcHelper.update(
+				"CREATE TABLE `test`.`user`(id BIGINT AUTO_INCREMENT PRIMARY KEY, pt_name VARCHAR(255), pt_password VARCHAR(255), other_info VARCHAR(255))");
+		for (int i = 1; i <= size; i++) {
+			User user = new User();
+			user.setName("name" + i);
+			user.setPassword("pwd" + i);
+			jdbcHelper.insertObject(user);
+		}
+	}
+
+	@After
+	public void after() {
+		jdbcHelper.update("DROP TABLE IF EXISTS `test`.`user`");
+	}
+
+	@Test
+	public void testQuery() throws Exception {
+		User user = asyncHelper.queryById(User.class, 1L).get();
+		Assert.assertThat(user.getName(), is("name1"));
+
+		List<Promise.Completable<User>> promises = new ArrayList<>();
+		for (long i = 1; i <= size; i++) {
+			promises.add(asyncHelper.queryById(User.class, i));
+		}
+		for (int i = 0; i < size; i++) {
+			Assert.assertThat(promises.get(i).get().getPassword(), is("pwd" + (i + 1)));
+		}
+
+		Long count = asyncHelper.<Long> queryForSingleColumn("select count(*) from `test`.`user`").get();
+		Assert.assertThat(count, is((long) size));
+		List<User> list = asyncHelper.queryForList("select * from `test`.`user` where id > ?", User.class, 5L).get();
+		Assert.assertThat(list.size(), is(5));
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		User user = new User();
+		user.setName("async");
+		user.setPassword("async pwd");
+		Long id = asyncHelper.<Long> insertObject(user).get();
+		Assert.assertThat(id, is(size + 1L));
+
+		user.setId(id);
+		user.setName("async updated");
+		Assert.assertThat(asyncHelper.updateObject(user).get(), is(1));
+		Assert.assertThat(asyncHelper.queryById(User.class, id).get().getName(), is("async updated"));
+		Assert.assertThat(asyncHelper.deleteById(User.class, id).get(), is(1));
+		Assert.assertThat(asyncHelper.queryById(User.class, id).get(), nullValue());
+	}
+
+	@Test
+	public void testException() throws Exception {
+		try {
+			asyncHelper.queryForList("select * from `test`.`no_table`", User.class).get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertThat(e.getCause(), instanceOf(DBException.class));
+		}
+		Assert.assertThat(asyncHelper.getFailedCount(), greaterThan(0L));
+	}
+
+	@Test
+	public void testExecuteTransaction() throws Exception {
+		Integer rows = asyncHelper.executeTransaction((connection, helper) -> {
+			helper.update(connection, "update `test`.`user` set pt_name = ? where id = ?", "tx1", 1L);
+			return helper.update(connection, "update `test`.`user` set pt_name = ? where id = ?", "tx2", 2L);
+		}).get();
+		Assert.assertThat(rows, is(1));
+		Assert.assertThat(jdbcHelper.queryById(User.class, 2L).getName(), is("tx2"));
+
+		try {
+			asyncHelper.executeTransaction((connection, helper) -> {
+				helper.update(connection, "update `test`.`user` set pt_name = ? where id = ?", "rollback", 1L);
+				throw new IllegalStateException("rollback");
+			}).get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+		}
+		Assert.assertThat(jdbcHelper.queryById(User.class, 1L).getName(), is("tx1"));
+	}
+
+	@Test
+	public void testAsyncTransaction() throws Exception {
+		AsyncTransaction tx = asyncHelper.beginTransaction().get();
+		List<Connection> connections = new ArrayList<>();
+		// the steps are called without waiting, they run in order on the same connection
+		for (long i = 1; i <= size; i++) {
+			tx.update("update `test`.`user` set pt_name = ? where id = ?", "tx" + i, i);
+			tx.execute((connection, helper) -> connections.add(connection));
+		}
+		Promise.Completable<User> user = tx.queryById(User.class, (long) size);
+		tx.commit().get();
+		Assert.assertThat(user.get().getName(), is("tx" + size));
+		Assert.assertThat(connections.size(), is(size));
+		connections.forEach(c -> Assert.assertThat(c, sameInstance(tx.getConnection())));
+		Assert.assertThat(jdbcHelper.queryById(User.class, 1L).getName(), is("tx1"));
+
+		try {
+			tx.update("update `test`.`user` set pt_name = ?", "ended").get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+		}
+
+		AsyncTransaction tx2 = asyncHelper.beginTransaction().get();
+		tx2.update("update `test`.`user` set pt_name = ?", "rollback");
+		Assert.assertThat(tx2.<Long> queryForSingleColumn(
+				"select count(*) from `test`.`user` where pt_name = 'rollback'").get(), is((long) size));
+		tx2.rollback().get();
+		Assert.assertThat(jdbcHelper.queryById(User.class, 2L).getName(), is("tx2"));
+		// the connections are returned to the pool
+		Assert.assertThat(asyncHelper.queryById(User.class, 1L).get(1, TimeUnit.SECONDS), notNullValue());
+	}
+
+	@Test
+	public void testRejectedCommit() throws Exception {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:test_async");
+		config.setDriverClassName("org.h2.Driver");
+		config.setAutoCommit(false);
+		config.setMaximumPoolSize(1);
+		config.setConnectionTimeout(250);
+		HikariDataSource ds = new HikariDataSource(config);
+		AsyncJDBCHelper helper = new AsyncJDBCHelper(new JDBCHelper(ds), 1, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			AsyncTransaction tx = helper.beginTransaction().get();
+			tx.update("update `test`.`user` set pt_name = ? where id = ?", "rejected", 1L).get();
+			Assert.assertThat(isConnectionReleased(ds), is(false));
+
+			// the thread is blocked and the queue is full
+			helper.execute(h -> {
+				started.countDown();
+				try {
+					latch.await();
+				} catch (InterruptedException ignored) {
+				}
+				return null;
+			});
+			started.await();
+			helper.execute(h -> null);
+
+			try {
+				tx.commit().get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+			}
+			Assert.assertThat(tx.isEnded(), is(true));
+			Assert.assertThat(isConnectionReleased(ds), is(true));
+			Assert.assertThat(helper.getRejectedCount(), is(1L));
+		} finally {
+			latch.countDown();
+			helper.stop();
+			ds.close();
+		}
+		// the transaction is rolled back
+		Assert.assertThat(jdbcHelper.queryById(User.class, 1L).getName(), is("name1"));
+	}
+
+	@Test
+	public void testStopped() throws Exception {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:test_async");
+		config.setDriverClassName("org.h2.Driver");
+		config.setAutoCommit(false);
+		config.setMaximumPoolSize(1);
+		config.setConnectionTimeout(250);
+		HikariDataSource ds = new HikariDataSource(config);
+		AsyncJDBCHelper helper = new AsyncJDBCHelper(new JDBCHelper(ds), 1, 1);
+		try {
+			Assert.assertThat(helper.isStarted(), is(true));
+			Assert.assertThat(Thread.currentThread().getName(), not(startsWith("firefly async jdbc")));
+			Assert.assertThat(helper.execute(h -> Thread.currentThread().getName()).get(), is("firefly async jdbc-0"));
+
+			AsyncTransaction tx = helper.beginTransaction().get();
+			tx.update("update `test`.`user` set pt_name = ? where id = ?", "stopped", 1L).get();
+			helper.stop();
+
+			// the helper is not restarted by the new operations
+			try {
+				helper.execute(h -> null).get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+			}
+			try {
+				tx.commit().get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+			}
+			Assert.assertThat(helper.isStopped(), is(true));
+			Assert.assertThat(isConnectionReleased(ds), is(true));
+		} finally {
+			helper.stop();
+			ds.close();
+		}
+		// the transaction is rolled back
+		Assert.assertThat(jdbcHelper.queryById(User.class, 1L).getName(), is("name1"));
+	}
+
+	@Test
+	public void testMetrics() throws Exception {
+		long completed = asyncHelper.getCompletedCount();
+		asyncHelper.execute(helper -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException ignored) {
+			}
+			return null;
+		}).get();
+		Assert.assertThat(asyncHelper.getCompletedCount(), is(completed + 1));
+		Assert.assertThat(asyncHelper.getMaxExecutionTime(TimeUnit.MILLISECONDS), greaterThanOrEqualTo(50L));
+		Assert.assertThat(asyncHelper.getAverageExecutionTime(TimeUnit.NANOSECONDS), greaterThan(0L));
+		Assert.assertThat(asyncHelper.getAverageQueueWaitTime(TimeUnit.NANOSECONDS), greaterThanOrEqualTo(0L));
+		Assert.assertThat(asyncHelper.getQueueSize(), is(0));
+	}
+
+	private boolean isConnectionReleased(HikariDataSource ds) {
+		try (Connection ignored = ds.getConnection()) {
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package test.db;
+
+import static org.hamcrest.Matchers.*;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firefly.db.DBException;
+import com.firefly.db.JDBCHelper;
+import com.firefly.db.TransactionalJDBCHelper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class TestBulkOperation {
+
+	private JDBCHelper jdbcHelper;
+	private int size = 1234;
+
+	public TestBulkOperation() {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:test_bulk");
+		config.setDriverClassName("org.h2.Driver");
+		config.setAutoCommit(false);
+		HikariDataSource ds = new HikariDataSource(config);
+		jdbcHelper = new JDBCHelper(ds);
+		jdbcHelper.setBatchSize(100);
+	}
+
+	@Before
+	public void before() {
+		jdbcHelper.update("drop schema if exists test");
+		jdbcHelper.update("create schema test");
+		jdbcHelper.update("set mode MySQL");
+		jdbcHelper.update(
+				"CREATE TABLE `test`.`user`(id BIGINT AUTO_INCREMENT PRIMARY KEY, pt_name VARCHAR(255), pt_password VARCHAR(255), other_info VARCHAR(255))");
+	}
+
+	@After
+	public void after() {
+		jdbcHelper.update("DROP TABLE IF EXISTS `test`.`user`");
+	}
+
+	@Test
+	public void testInsertObjects() {
+		List<User> users = createUsers();
+		List<Long> keys = jdbcHelper.insertObjects(users);
+		Assert.assertThat(keys.size(), is(size));
+		for (int i = 0; i < size; i++) {
+			Assert.assertThat(keys.get(i), is(i + 1L));
+			Assert.assertThat(users.get(i).getId(), is(i + 1L));
+		}
+		assertUsers("name", "pwd");
+	}
+
+	@Test
+	public void testMultiValuesInsert() {
+		jdbcHelper.setMultiValuesInsert(true);
+		List<User> users = createUsers();
+		jdbcHelper.insertObjects(users);
+		// H2 only returns the last key of a multi-row insert, so the keys are not set to the objects
+		Assert.assertThat(users.get(0).getId(), nullValue());
+		assertUsers("name", "pwd");
+	}
+
+	@Test
+	public void testUpdateObjects() {
+		List<User> users = createUsers();
+		jdbcHelper.insertObjects(users);
+
+		List<User> updates = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			User user = new User();
+			user.setId(users.get(i).getId());
+			user.setName("new name" + (i + 1));
+			// the updates that set the different columns are sent by the different batches
+			user.setPassword(i % 3 == 0 ? null : "new pwd" + (i + 1));
+			updates.add(user);
+		}
+		Assert.assertThat(jdbcHelper.updateObjects(updates), is(size));
+
+		for (long i = 1; i <= size; i++) {
+			User user = jdbcHelper.queryById(User.class, i);
+			Assert.assertThat(user.getName(), is("new name" + i));
+			Assert.assertThat(user.getPassword(), is((i - 1) % 3 == 0 ? "pwd" + i : "new pwd" + i));
+		}
+	}
+
+	@Test
+	public void testRollback() {
+		List<User> users = createUsers();
+		StringBuilder longName = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			longName.append('a');
+		}
+		users.get(size - 1).setName(longName.toString());
+		try {
+			jdbcHelper.insertObjects(users);
+			Assert.fail();
+		} catch (DBException ignored) {
+		}
+		Long count = jdbcHelper.queryForSingleColumn("select count(*) from `test`.`user`");
+		Assert.assertThat(count, is(0L));
+	}
+
+	@Test
+	public void testRollbackOnError() {
+		try {
+			jdbcHelper.insertObjects(brokenList(createUsers()));
+			Assert.fail();
+		} catch (Error ignored) {
+		}
+		Long count = jdbcHelper.queryForSingleColumn("select count(*) from `test`.`user`");
+		Assert.assertThat(count, is(0L));
+
+		List<User> users = createUsers();
+		jdbcHelper.insertObjects(users);
+		users.forEach(user -> user.setName(user.getName() + "_updated"));
+		try {
+			jdbcHelper.updateObjects(brokenList(users));
+			Assert.fail();
+		} catch (Error ignored) {
+		}
+		assertUsers("name", "pwd");
+	}
+
+	@Test
+	public void testTransactionalJDBCHelper() {
+		TransactionalJDBCHelper helper = new TransactionalJDBCHelper(jdbcHelper);
+		List<User> users = createUsers();
+		List<Long> keys = helper.insertObjects(users);
+		Assert.assertThat(keys.size(), is(size));
+		Assert.assertThat(users.get(size - 1).getId(), is((long) size));
+
+		users.forEach(user -> user.setName(user.getName() + "_updated"));
+		Assert.assertThat(helper.updateObjects(users), is(size));
+		User user = helper.queryById(User.class, 1L);
+		Assert.assertThat(user.getName(), is("name1_updated"));
+	}
+
+	private List<User> createUsers() {
+		List<User> users = new ArrayList<>();
+		for (int i = 1; i <= size; i++) {
+			User user = new User();
+			user.setName("name" + i);
+			user.setPassword("pwd" + i);
+			users.add(user);
+		}
+		return users;
+	}
+
+	// the error is thrown after the first chunks have been sent
+	private List<User> brokenList(List<User> users) {
+		return new AbstractList<User>() {
+
+			@Override
+			public User get(int index) {
+				if (index == size / 2) {
+					throw new Error("the list is broken");
+				}
+				return users.get(index);
+			}
+
+			@Override
+			public int size() {
+				return users.size();
+			}
+		};
+	}
+
+	private void assertUsers(String name, String password) {
+		List<User> list = jdbcHelper.queryForList("select * from `test`.`user` order by id", User.class);
+		Assert.assertThat(list.size(), is(size));
+		for (int i = 1; i <= size; i++) {
+			User user = list.get(i - 1);
+			Assert.assertThat(user.getName(), is(name + i));
+			Assert.assertThat(user.getPassword(), is(password + i));
+		}
+	}
+}
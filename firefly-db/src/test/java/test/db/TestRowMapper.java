@@ -0,0 +1,160 @@
+package test.db;
+
+import static org.hamcrest.Matchers.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firefly.db.DefaultBeanProcessor;
+import com.firefly.db.JDBCHelper;
+import com.firefly.db.RowMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javassist.ClassPool;
+
+public class TestRowMapper {
+
+	private JDBCHelper jdbcHelper;
+	private int size = 10;
+
+	public TestRowMapper() {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:test_row_mapper");
+		config.setDriverClassName("org.h2.Driver");
+		config.setAutoCommit(false);
+		HikariDataSource ds = new HikariDataSource(config);
+		jdbcHelper = new JDBCHelper(ds);
+	}
+
+	@Before
+	public void before() {
+		jdbcHelper.update("drop schema if exists test");
+		jdbcHelper.update("create schema test");
+		jdbcHelper.update("set mode MySQL");
+		jdbcHelper.update("CREATE TABLE `test`.`product`(id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), "
+				+ "stock INT, sold INT, price DOUBLE, available BOOLEAN, cost DECIMAL(10, 2), "
+				+ "create_time TIMESTAMP, update_time TIMESTAMP, status VARCHAR(32), level VARCHAR(32))");
+
+		for (int i = 1; i <= size; i++) {
+			if (i % 2 == 0) {
+				jdbcHelper.insert("insert into `test`.`product`(name, stock, sold, price, available, cost, "
+						+ "create_time, update_time, status, level) values(?,?,?,?,?,?,?,?,?,?)", "product" + i, i,
+						i * 2, i * 1.5, true, new BigDecimal(i + ".25"), new Timestamp(i * 1000L),
+						new Timestamp(i * 2000L), "ON_SALE", "HIGH");
+			} else {
+				jdbcHelper.insert("insert into `test`.`product`(name) values(?)", "product" + i);
+			}
+		}
+	}
+
+	@After
+	public void after() {
+		jdbcHelper.update("DROP TABLE IF EXISTS `test`.`product`");
+	}
+
+	@Test
+	public void test() {
+		List<Product> list = jdbcHelper.queryForList("select * from `test`.`product` order by id", Product.class);
+		Assert.assertThat(list.size(), is(size));
+		for (int i = 1; i <= size; i++) {
+			Product product = list.get(i - 1);
+			Assert.assertThat(product.getId(), is((long) i));
+			Assert.assertThat(product.getName(), is("product" + i));
+			if (i % 2 == 0) {
+				Assert.assertThat(product.getStock(), is(i));
+				Assert.assertThat(product.getSold(), is(i * 2));
+				Assert.assertThat(product.getPrice(), is(i * 1.5));
+				Assert.assertThat(product.isAvailable(), is(true));
+				Assert.assertThat(product.getCost(), is(new BigDecimal(i + ".25")));
+				Assert.assertThat(product.getCreateTime(), is(new Timestamp(i * 1000L)));
+				Assert.assertThat(product.getUpdateTime().getTime(), is(i * 2000L));
+				Assert.assertThat(product.getStatus(), is(Product.Status.ON_SALE));
+			} else {
+				// the SQL NULL is the default value of the primitive
+				Assert.assertThat(product.getStock(), is(0));
+				Assert.assertThat(product.getSold(), nullValue());
+				Assert.assertThat(product.getPrice(), is(0.0));
+				Assert.assertThat(product.isAvailable(), is(false));
+				Assert.assertThat(product.getCost(), nullValue());
+				Assert.assertThat(product.getCreateTime(), nullValue());
+				Assert.assertThat(product.getUpdateTime(), nullValue());
+				Assert.assertThat(product.getStatus(), nullValue());
+			}
+		}
+
+		Product product = jdbcHelper.queryForObject("select id, name, sold from `test`.`product` where id = ?",
+				Product.class, 2L);
+		Assert.assertThat(product.getName(), is("product2"));
+		Assert.assertThat(product.getSold(), is(4));
+		Assert.assertThat(product.getStock(), is(0));
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		DefaultBeanProcessor processor = jdbcHelper.getDefaultBeanProcessor();
+		RowMapper<Product> rowMapper = getRowMapper(processor, "select * from `test`.`product`", Product.class);
+		Assert.assertThat(rowMapper.getClass().getName(), startsWith("com.firefly.db.RowMapper"));
+		Assert.assertThat(getRowMapper(processor, "select * from `test`.`product` where id = 1", Product.class),
+				sameInstance(rowMapper));
+		Assert.assertThat(getRowMapper(processor, "select id, name from `test`.`product`", Product.class),
+				not(sameInstance(rowMapper)));
+		// the generated class is detached from the class pool
+		Assert.assertThat(ClassPool.getDefault().getOrNull(rowMapper.getClass().getName()), nullValue());
+	}
+
+	@Test
+	public void testReflectionRowMapper() throws Exception {
+		// the property type is not public, so the row mapper can not be generated
+		DefaultBeanProcessor processor = jdbcHelper.getDefaultBeanProcessor();
+		RowMapper<LevelProduct> rowMapper = getRowMapper(processor, "select * from `test`.`product`",
+				LevelProduct.class);
+		Assert.assertThat(rowMapper.getClass().getName(), not(startsWith("com.firefly.db.RowMapper")));
+
+		List<LevelProduct> list = jdbcHelper.queryForList("select * from `test`.`product` order by id",
+				LevelProduct.class);
+		Assert.assertThat(list.size(), is(size));
+		Assert.assertThat(list.get(0).getLevel(), nullValue());
+		Assert.assertThat(list.get(1).getLevel(), is(Level.HIGH));
+		Assert.assertThat(list.get(1).getName(), is("product2"));
+	}
+
+	private <T> RowMapper<T> getRowMapper(DefaultBeanProcessor processor, String sql, Class<T> type)
+			throws Exception {
+		try (Connection connection = jdbcHelper.getConnection()) {
+			return jdbcHelper.getRunner().query(connection, sql, rs -> processor.getRowMapper(rs.getMetaData(), type));
+		}
+	}
+
+	enum Level {
+		LOW, HIGH
+	}
+
+	public static class LevelProduct {
+		private String name;
+		private Level level;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		Level getLevel() {
+			return level;
+		}
+
+		public void setLevel(Level level) {
+			this.level = level;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package test.db;
+
+import static org.hamcrest.Matchers.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firefly.db.DBException;
+import com.firefly.db.JDBCHelper;
+import com.firefly.db.ResultSetIterator;
+import com.firefly.db.TransactionalJDBCHelper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class TestStreamQuery {
+
+	private static final String SQL = "select * from `test`.`user` order by id";
+
+	private JDBCHelper jdbcHelper;
+	private int size = 2500;
+
+	public TestStreamQuery() {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:test_stream");
+		config.setDriverClassName("org.h2.Driver");
+		config.setAutoCommit(false);
+		// a leaked connection makes the next query time out
+		config.setMaximumPoolSize(1);
+		config.setConnectionTimeout(250);
+		HikariDataSource ds = new HikariDataSource(config);
+		jdbcHelper = new JDBCHelper(ds);
+		jdbcHelper.setFetchSize(100);
+	}
+
+	@Before
+	public void before() throws Exception {
+		jdbcHelper.update("drop schema if exists test");
+		jdbcHelper.update("create schema test");
+		jdbcHelper.update("set mode MySQL");
+		jdbcHelper.update(
+				"CREATE TABLE `test`.`user`(id BIGINT AUTO_INCREMENT PRIMARY KEY, pt_name VARCHAR(255), pt_password VARCHAR(255), other_info VARCHAR(255))");
+
+		Object[][] params = new Object[size][2];
+		for (int i = 0; i < size; i++) {
+			params[i][0] = "name" + (i + 1);
+			params[i][1] = "pwd" + (i + 1);
+		}
+		try (Connection connection = jdbcHelper.getConnection()) {
+			connection.setAutoCommit(true);
+			jdbcHelper.getRunner().batch(connection, "insert into `test`.`user`(pt_name, pt_password) values(?,?)",
+					params);
+		}
+	}
+
+	@After
+	public void after() {
+		jdbcHelper.update("DROP TABLE IF EXISTS `test`.`user`");
+	}
+
+	@Test
+	public void testStream() {
+		try (Stream<User> stream = jdbcHelper.stream(SQL, User.class)) {
+			List<Long> ids = stream.map(User::getId).collect(Collectors.toList());
+			Assert.assertThat(ids.size(), is(size));
+			for (int i = 0; i < size; i++) {
+				Assert.assertThat(ids.get(i), is(i + 1L));
+			}
+		}
+		Assert.assertThat(isConnectionReleased(), is(true));
+
+		// the connection is released when the stream is closed before the end
+		try (Stream<User> stream = jdbcHelper.stream("select * from `test`.`user` where id > ? order by id",
+				User.class, 10L)) {
+			User user = stream.findFirst().orElse(null);
+			Assert.assertThat(user.getId(), is(11L));
+			Assert.assertThat(user.getName(), is("name11"));
+			Assert.assertThat(user.getPassword(), is("pwd11"));
+			Assert.assertThat(isConnectionReleased(), is(false));
+		}
+		Assert.assertThat(isConnectionReleased(), is(true));
+	}
+
+	@Test
+	public void testIterator() {
+		ResultSetIterator<User> iterator = jdbcHelper.iterate(SQL, User.class);
+		int count = 0;
+		while (iterator.hasNext()) {
+			Assert.assertThat(iterator.next().getId(), is(++count + 0L));
+		}
+		Assert.assertThat(count, is(size));
+		// the iterator is closed after the last row
+		Assert.assertThat(iterator.isClosed(), is(true));
+		Assert.assertThat(isConnectionReleased(), is(true));
+		try {
+			iterator.next();
+			Assert.fail();
+		} catch (NoSuchElementException ignored) {
+		}
+
+		try (ResultSetIterator<User> it = jdbcHelper.iterate("select * from `test`.`user` where id > ?", User.class,
+				(long) size)) {
+			Assert.assertThat(it.hasNext(), is(false));
+		}
+		Assert.assertThat(isConnectionReleased(), is(true));
+	}
+
+	@Test
+	public void testQueryForBatch() {
+		List<Integer> batchSizes = new ArrayList<>();
+		List<Long> ids = new ArrayList<>();
+		long count = jdbcHelper.queryForBatch(SQL, User.class, 1000, batch -> {
+			batchSizes.add(batch.size());
+			batch.forEach(user -> ids.add(user.getId()));
+		});
+		Assert.assertThat(count, is((long) size));
+		Assert.assertThat(batchSizes, contains(1000, 1000, 500));
+		Assert.assertThat(ids.get(size - 1), is((long) size));
+		Assert.assertThat(isConnectionReleased(), is(true));
+
+		TransactionalJDBCHelper transactionalJDBCHelper = new TransactionalJDBCHelper(jdbcHelper);
+		batchSizes.clear();
+		count = transactionalJDBCHelper.queryForBatch(SQL, User.class, 1000, batch -> batchSizes.add(batch.size()));
+		Assert.assertThat(count, is((long) size));
+		Assert.assertThat(batchSizes, contains(1000, 1000, 500));
+		Assert.assertThat(isConnectionReleased(), is(true));
+	}
+
+	@Test
+	public void testException() {
+		try {
+			jdbcHelper.stream("select * from `test`.`no_table`", User.class);
+			Assert.fail();
+		} catch (DBException ignored) {
+		}
+		Assert.assertThat(isConnectionReleased(), is(true));
+	}
+
+	private boolean isConnectionReleased() {
+		try (Connection ignored = jdbcHelper.getDataSource().getConnection()) {
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+}
@@ -1,10 +1,8 @@
 package com.firefly.net;
 
 import com.firefly.utils.concurrent.Callback;
-import com.firefly.utils.io.BufferUtils;
 
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 public class ByteBufferArrayOutputEntry extends AbstractOutputEntry<ByteBuffer[]> {
 
@@ -19,7 +17,11 @@ public class ByteBufferArrayOutputEntry extends AbstractOutputEntry<ByteBuffer[]
 
     @Override
     public long remaining() {
-        return BufferUtils.remaining(Arrays.asList(data));
+        long count = 0;
+        for (ByteBuffer buffer : data) {
+            count += buffer.remaining();
+        }
+        return count;
     }
 
 }
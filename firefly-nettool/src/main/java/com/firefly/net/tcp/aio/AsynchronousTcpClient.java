@@ -4,7 +4,7 @@ import com.firefly.net.*;
 import com.firefly.net.event.DefaultEventManager;
 import com.firefly.utils.lang.AbstractLifeCycle;
 import com.firefly.utils.log.LogFactory;
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,7 +67,7 @@ public class AsynchronousTcpClient extends AbstractLifeCycle implements Client {
     public void connect(String host, int port, int id) {
         start();
         try {
-            final long start = Millisecond100Clock.currentTimeMillis();
+            final long start = SystemClock.currentTimeMillis();
             final AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open(group);
             socketChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
             socketChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
@@ -77,7 +77,7 @@ public class AsynchronousTcpClient extends AbstractLifeCycle implements Client {
                 @Override
                 public void completed(Void result, Integer sessionId) {
                     worker.registerChannel(socketChannel, sessionId);
-                    long end = Millisecond100Clock.currentTimeMillis();
+                    long end = SystemClock.currentTimeMillis();
                     monitor.info("AsynchronousTcpClient connection establishment time -> {}", (end - start));
                 }
 
@@ -118,7 +118,6 @@ public class AsynchronousTcpClient extends AbstractLifeCycle implements Client {
             group.shutdown();
         }
         LogFactory.getInstance().stop();
-        Millisecond100Clock.stop();
     }
 
 }
@@ -5,7 +5,6 @@ import com.firefly.net.event.DefaultEventManager;
 import com.firefly.net.exception.NetException;
 import com.firefly.utils.lang.AbstractLifeCycle;
 import com.firefly.utils.log.LogFactory;
-import com.firefly.utils.time.Millisecond100Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -129,7 +128,6 @@ public class AsynchronousTcpServer extends AbstractLifeCycle implements Server {
             group.shutdown();
         }
         LogFactory.getInstance().stop();
-        Millisecond100Clock.stop();
     }
 
 }
@@ -8,7 +8,7 @@ import com.firefly.utils.concurrent.Callback;
 import com.firefly.utils.concurrent.CountingCallback;
 import com.firefly.utils.io.BufferReaderHandler;
 import com.firefly.utils.io.BufferUtils;
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 import com.firefly.utils.time.SafeSimpleDateFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,7 +54,7 @@ public class AsynchronousTcpSession implements Session {
     AsynchronousTcpSession(int sessionId, Config config, EventManager eventManager,
                            AsynchronousSocketChannel socketChannel) {
         this.sessionId = sessionId;
-        this.openTime = Millisecond100Clock.currentTimeMillis();
+        this.openTime = SystemClock.currentTimeMillis();
         this.config = config;
         this.eventManager = eventManager;
         this.socketChannel = socketChannel;
@@ -75,7 +75,7 @@ public class AsynchronousTcpSession implements Session {
 
                     @Override
                     public void completed(Integer currentReadBytes, AsynchronousTcpSession session) {
-                        session.lastReadTime = Millisecond100Clock.currentTimeMillis();
+                        session.lastReadTime = SystemClock.currentTimeMillis();
                         if (currentReadBytes < 0) {
                             if (log.isDebugEnabled()) {
                                 log.debug("the session {} input is closed, {}", session.getSessionId(),
@@ -148,7 +148,7 @@ public class AsynchronousTcpSession implements Session {
 
 
         private void writingCompletedCallback(Callback callback, long currentWritenBytes) {
-            lastWrittenTime = Millisecond100Clock.currentTimeMillis();
+            lastWrittenTime = SystemClock.currentTimeMillis();
             if (currentWritenBytes < 0) {
                 if (log.isDebugEnabled()) {
                     log.debug("the session {} output is closed, {}", getSessionId(), currentWritenBytes);
@@ -321,7 +321,7 @@ public class AsynchronousTcpSession implements Session {
         if (!isOpen())
             return;
 
-        closeTime = Millisecond100Clock.currentTimeMillis();
+        closeTime = SystemClock.currentTimeMillis();
         try {
             socketChannel.close();
         } catch (AsynchronousCloseException e) {
@@ -381,7 +381,7 @@ public class AsynchronousTcpSession implements Session {
         if (closeTime > 0) {
             return closeTime - openTime;
         } else {
-            return Millisecond100Clock.currentTimeMillis() - openTime;
+            return SystemClock.currentTimeMillis() - openTime;
         }
     }
 
@@ -10,7 +10,6 @@ import com.firefly.net.tcp.aio.AsynchronousTcpClient;
 import com.firefly.utils.concurrent.Promise;
 import com.firefly.utils.lang.AbstractLifeCycle;
 import com.firefly.utils.log.LogFactory;
-import com.firefly.utils.time.Millisecond100Clock;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -81,7 +80,6 @@ public class HTTP2Client extends AbstractLifeCycle {
         }
         AbstractHTTP2Connection.stopScheduler();
         LogFactory.getInstance().stop();
-        Millisecond100Clock.stop();
     }
 
 }
@@ -16,7 +16,7 @@ import com.firefly.utils.lang.AbstractLifeCycle;
 import com.firefly.utils.lang.pool.AsynchronousPool;
 import com.firefly.utils.lang.pool.BoundedAsynchronousPool;
 import com.firefly.utils.lang.pool.PooledObject;
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -110,7 +110,7 @@ public class SimpleHTTPClient extends AbstractLifeCycle {
         }
 
         public RequestBuilder jsonBody(Object obj) {
-            return put(HttpHeader.CONTENT_TYPE, MimeTypes.Type.APPLICATION_JSON.asString()).body(Json.toJson(obj));
+            return put(HttpHeader.CONTENT_TYPE, MimeTypes.Type.APPLICATION_JSON.asString()).write(ByteBuffer.wrap(Json.toJsonBytes(obj)));
         }
 
         public RequestBuilder body(String content) {
@@ -370,7 +370,7 @@ public class SimpleHTTPClient extends AbstractLifeCycle {
     }
 
     protected void send(RequestBuilder r) {
-        long start = Millisecond100Clock.currentTimeMillis();
+        long start = SystemClock.currentTimeMillis();
         AsynchronousPool<HTTPClientConnection> pool = getPool(r);
         pool.take().thenAccept(o -> {
             HTTPClientConnection connection = o.getObject();
@@ -495,7 +495,7 @@ public class SimpleHTTPClient extends AbstractLifeCycle {
             } else {
                 connection.send(r.request, handler);
             }
-            long end = Millisecond100Clock.currentTimeMillis();
+            long end = SystemClock.currentTimeMillis();
             monitor.info("SimpleHTTPClient take connection {} total time: {}", connection.getSessionId(), (end - start));
         }).exceptionally(e -> {
             log.error("SimpleHTTPClient sends message exception", e);
@@ -80,15 +80,15 @@ public class SimpleResponse {
     }
 
     public <T> T getJsonBody(Class<T> clazz) {
-        return Json.toObject(getStringBody(), clazz);
+        return stringBody == null ? Json.toObject(responseBody, clazz) : Json.toObject(stringBody, clazz);
     }
 
     public JsonObject getJsonObjectBody() {
-        return Json.toJsonObject(getStringBody());
+        return stringBody == null ? Json.toJsonObject(responseBody) : Json.toJsonObject(stringBody);
     }
 
     public JsonArray getJsonArrayBody() {
-        return Json.toJsonArray(getStringBody());
+        return stringBody == null ? Json.toJsonArray(responseBody) : Json.toJsonArray(stringBody);
     }
 
     public List<Cookie> getCookies() {
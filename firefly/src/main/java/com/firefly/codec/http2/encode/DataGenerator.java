@@ -48,6 +48,46 @@ public class DataGenerator {
 		return new Pair<>(length, list);
 	}
 
+	/**
+	 * Generates one DATA frame into the buffers of the current flush cycle.
+	 * The frame header is written into the scratch buffer and the payload is
+	 * appended by reference.
+	 *
+	 * @param frame
+	 *            the DATA frame
+	 * @param maxLength
+	 *            the max payload length allowed by the flow control windows
+	 * @param buffers
+	 *            the buffers of the current flush cycle
+	 * @return the generated payload length
+	 */
+	public int generate(DataFrame frame, int maxLength, FrameBuffers buffers) {
+		int streamId = frame.getStreamId();
+		if (streamId < 0)
+			throw new IllegalArgumentException("Invalid stream id: " + streamId);
+
+		ByteBuffer data = frame.getData();
+		int dataLength = data.remaining();
+		int length = Math.min(dataLength, Math.min(headerGenerator.getMaxFrameSize(), maxLength));
+		boolean last = frame.isEndStream();
+		if (length != dataLength) {
+			int limit = data.limit();
+			int newLimit = data.position() + length;
+			data.limit(newLimit);
+			ByteBuffer slice = data.slice();
+			data.position(newLimit);
+			data.limit(limit);
+			data = slice;
+			last = false;
+		}
+
+		ByteBuffer header = buffers.scratch(Frame.HEADER_LENGTH);
+		headerGenerator.generate(header, FrameType.DATA, length, last ? Flags.END_STREAM : Flags.NONE, streamId);
+		if (length > 0)
+			buffers.append(data);
+		return length;
+	}
+
 	private void generateFrame(int streamId, ByteBuffer data, boolean last, List<ByteBuffer> list) {
 		int length = data.remaining();
 
@@ -0,0 +1,121 @@
+package com.firefly.codec.http2.encode;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.firefly.utils.io.BufferUtils;
+
+/**
+ * <p>
+ * The buffers of one flush cycle of a HTTP/2 connection.
+ * </p>
+ * <p>
+ * Frame headers and small control frames are written into a scratch buffer
+ * that is reused by every flush cycle of the connection. The consecutive bytes
+ * written into the scratch buffer are exposed as one slice, and the DATA
+ * payloads are appended by reference between the slices, so generating a frame
+ * does not allocate a buffer for it.
+ * </p>
+ * <p>
+ * The buffers are valid until {@link #clear()} is called, that is until the
+ * write of the flush cycle has completed. This class is not thread safe.
+ * </p>
+ */
+public class FrameBuffers {
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private final List<ByteBuffer> buffers = new ArrayList<>();
+	private ByteBuffer scratch;
+	private int mark;
+	private ByteBuffer[] array = BufferUtils.EMPTY_BYTE_BUFFER_ARRAY;
+
+	public FrameBuffers() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public FrameBuffers(int capacity) {
+		scratch = ByteBuffer.allocateDirect(capacity);
+	}
+
+	/**
+	 * Gets the scratch buffer, in fill mode, with at least {@code length} bytes
+	 * remaining.
+	 *
+	 * @param length
+	 *            the number of bytes the caller will write
+	 * @return the scratch buffer
+	 */
+	public ByteBuffer scratch(int length) {
+		if (scratch.remaining() < length) {
+			// The slices of the current scratch buffer are still referenced
+			// until the end of the flush cycle, so they are not overwritten.
+			cut();
+			scratch = ByteBuffer.allocateDirect(Math.max(scratch.capacity() * 2, length));
+			mark = 0;
+		}
+		return scratch;
+	}
+
+	/**
+	 * Appends the given buffer by reference.
+	 *
+	 * @param buffer
+	 *            the buffer in flush mode
+	 */
+	public void append(ByteBuffer buffer) {
+		cut();
+		if (buffer.hasRemaining())
+			buffers.add(buffer);
+	}
+
+	private void cut() {
+		int position = scratch.position();
+		if (position > mark) {
+			ByteBuffer slice = scratch.duplicate();
+			slice.limit(position);
+			slice.position(mark);
+			buffers.add(slice);
+			mark = position;
+		}
+	}
+
+	public boolean isEmpty() {
+		return buffers.isEmpty() && scratch.position() == mark;
+	}
+
+	public long remaining() {
+		return BufferUtils.remaining(buffers) + scratch.position() - mark;
+	}
+
+	/**
+	 * Gets the buffers to write. The returned array is reused by the next flush
+	 * cycles that generate the same number of buffers.
+	 *
+	 * @return the buffers to write
+	 */
+	public ByteBuffer[] toArray() {
+		cut();
+		int size = buffers.size();
+		if (array.length != size)
+			array = new ByteBuffer[size];
+		return buffers.toArray(array);
+	}
+
+	/**
+	 * Releases the buffers of the flush cycle and rewinds the scratch buffer.
+	 */
+	public void clear() {
+		buffers.clear();
+		Arrays.fill(array, null);
+		scratch.clear();
+		mark = 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s@%x[buffers=%d,scratch=%d/%d]", getClass().getSimpleName(), hashCode(),
+				buffers.size(), scratch.position(), scratch.capacity());
+	}
+}
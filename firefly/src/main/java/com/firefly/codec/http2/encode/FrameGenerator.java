@@ -21,5 +21,32 @@ public abstract class FrameGenerator {
 		return headerGenerator.generate(frameType, Frame.HEADER_LENGTH + length, length, flags, streamId);
 	}
 
+	protected ByteBuffer generateHeader(FrameBuffers buffers, FrameType frameType, int length, int flags, int streamId) {
+		ByteBuffer header = buffers.scratch(Frame.HEADER_LENGTH + length);
+		headerGenerator.generate(header, frameType, length, flags, streamId);
+		return header;
+	}
+
 	public abstract List<ByteBuffer> generate(Frame frame);
+
+	/**
+	 * Generates the frame into the buffers of the current flush cycle. By
+	 * default the buffers of {@link #generate(Frame)} are appended by
+	 * reference, the generators of small frames write them into the scratch
+	 * buffer instead.
+	 *
+	 * @param frame
+	 *            the frame to generate
+	 * @param buffers
+	 *            the buffers of the current flush cycle
+	 * @return the generated bytes
+	 */
+	public int generate(Frame frame, FrameBuffers buffers) {
+		int length = 0;
+		for (ByteBuffer buffer : generate(frame)) {
+			length += buffer.remaining();
+			buffers.append(buffer);
+		}
+		return length;
+	}
 }
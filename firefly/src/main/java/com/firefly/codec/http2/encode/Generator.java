@@ -57,9 +57,17 @@ public class Generator {
 		return generators[frame.getType().getType()].generate(frame);
 	}
 
+	public int control(Frame frame, FrameBuffers buffers) {
+		return generators[frame.getType().getType()].generate(frame, buffers);
+	}
+
 	public Pair<Integer, List<ByteBuffer>> data(DataFrame frame, int maxLength) {
 		return dataGenerator.generate(frame, maxLength);
 	}
+
+	public int data(DataFrame frame, int maxLength, FrameBuffers buffers) {
+		return dataGenerator.generate(frame, maxLength, buffers);
+	}
 	
 	public void setMaxHeaderListSize(int value) {
         hpackEncoder.setMaxHeaderListSize(value);
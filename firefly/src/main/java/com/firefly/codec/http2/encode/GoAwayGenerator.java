@@ -11,6 +11,9 @@ import com.firefly.codec.http2.frame.GoAwayFrame;
 import com.firefly.utils.io.BufferUtils;
 
 public class GoAwayGenerator extends FrameGenerator {
+	// The last streamId + the error code.
+	private static final int FIXED_LENGTH = 4 + 4;
+
 	public GoAwayGenerator(HeaderGenerator headerGenerator) {
 		super(headerGenerator);
 	}
@@ -22,29 +25,52 @@ public class GoAwayGenerator extends FrameGenerator {
 				generateGoAway(goAwayFrame.getLastStreamId(), goAwayFrame.getError(), goAwayFrame.getPayload()));
 	}
 
+	@Override
+	public int generate(Frame frame, FrameBuffers buffers) {
+		GoAwayFrame goAwayFrame = (GoAwayFrame) frame;
+		int lastStreamId = goAwayFrame.getLastStreamId();
+		checkLastStreamId(lastStreamId);
+		byte[] payload = truncate(goAwayFrame.getPayload());
+		int length = getLength(payload);
+		ByteBuffer header = generateHeader(buffers, FrameType.GO_AWAY, length, Flags.NONE, 0);
+		putGoAway(header, lastStreamId, goAwayFrame.getError(), payload);
+		return Frame.HEADER_LENGTH + length;
+	}
+
 	public ByteBuffer generateGoAway(int lastStreamId, int error, byte[] payload) {
+		checkLastStreamId(lastStreamId);
+
+		payload = truncate(payload);
+		ByteBuffer header = generateHeader(FrameType.GO_AWAY, getLength(payload), Flags.NONE, 0);
+		putGoAway(header, lastStreamId, error, payload);
+
+		BufferUtils.flipToFlush(header, 0);
+		return header;
+	}
+
+	private void checkLastStreamId(int lastStreamId) {
 		if (lastStreamId < 0)
 			throw new IllegalArgumentException("Invalid last stream id: " + lastStreamId);
+	}
 
-		// The last streamId + the error code.
-		int fixedLength = 4 + 4;
-
+	private byte[] truncate(byte[] payload) {
 		// Make sure we don't exceed the default frame max length.
-		int maxPayloadLength = Frame.DEFAULT_MAX_LENGTH - fixedLength;
+		int maxPayloadLength = Frame.DEFAULT_MAX_LENGTH - FIXED_LENGTH;
 		if (payload != null && payload.length > maxPayloadLength)
-			payload = Arrays.copyOfRange(payload, 0, maxPayloadLength);
+			return Arrays.copyOfRange(payload, 0, maxPayloadLength);
+		return payload;
+	}
 
-		int length = fixedLength + (payload != null ? payload.length : 0);
-		ByteBuffer header = generateHeader(FrameType.GO_AWAY, length, Flags.NONE, 0);
+	private int getLength(byte[] payload) {
+		return FIXED_LENGTH + (payload != null ? payload.length : 0);
+	}
 
+	private void putGoAway(ByteBuffer header, int lastStreamId, int error, byte[] payload) {
 		header.putInt(lastStreamId);
 		header.putInt(error);
 
 		if (payload != null) {
 			header.put(payload);
 		}
-
-		BufferUtils.flipToFlush(header, 0);
-		return header;
 	}
 }
@@ -21,9 +21,18 @@ public class PingGenerator extends FrameGenerator {
 		return Arrays.asList(generatePing(pingFrame.getPayload(), pingFrame.isReply()));
 	}
 
+	@Override
+	public int generate(Frame frame, FrameBuffers buffers) {
+		PingFrame pingFrame = (PingFrame) frame;
+		checkPayload(pingFrame.getPayload());
+		ByteBuffer header = generateHeader(buffers, FrameType.PING, PingFrame.PING_LENGTH,
+				pingFrame.isReply() ? Flags.ACK : Flags.NONE, 0);
+		header.put(pingFrame.getPayload());
+		return Frame.HEADER_LENGTH + PingFrame.PING_LENGTH;
+	}
+
 	public ByteBuffer generatePing(byte[] payload, boolean reply) {
-		if (payload.length != PingFrame.PING_LENGTH)
-			throw new IllegalArgumentException("Invalid payload length: " + payload.length);
+		checkPayload(payload);
 
 		ByteBuffer header = generateHeader(FrameType.PING, PingFrame.PING_LENGTH, reply ? Flags.ACK : Flags.NONE, 0);
 
@@ -32,4 +41,9 @@ public class PingGenerator extends FrameGenerator {
 		BufferUtils.flipToFlush(header, 0);
 		return header;
 	}
+
+	private void checkPayload(byte[] payload) {
+		if (payload.length != PingFrame.PING_LENGTH)
+			throw new IllegalArgumentException("Invalid payload length: " + payload.length);
+	}
 }
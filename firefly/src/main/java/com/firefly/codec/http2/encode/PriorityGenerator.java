@@ -22,6 +22,17 @@ public class PriorityGenerator extends FrameGenerator {
 				priorityFrame.getWeight(), priorityFrame.isExclusive()));
 	}
 
+	@Override
+	public int generate(Frame frame, FrameBuffers buffers) {
+		PriorityFrame priorityFrame = (PriorityFrame) frame;
+		int streamId = priorityFrame.getStreamId();
+		ByteBuffer header = generateHeader(buffers, FrameType.PRIORITY, PriorityFrame.PRIORITY_LENGTH, Flags.NONE,
+				streamId);
+		generatePriorityBody(header, streamId, priorityFrame.getParentStreamId(), priorityFrame.getWeight(),
+				priorityFrame.isExclusive());
+		return Frame.HEADER_LENGTH + PriorityFrame.PRIORITY_LENGTH;
+	}
+
 	public ByteBuffer generatePriority(int streamId, int parentStreamId, int weight, boolean exclusive) {
 		ByteBuffer header = generateHeader(FrameType.PRIORITY, PriorityFrame.PRIORITY_LENGTH, Flags.NONE, streamId);
 		generatePriorityBody(header, streamId, parentStreamId, weight, exclusive);
@@ -21,9 +21,22 @@ public class ResetGenerator extends FrameGenerator {
 		return Arrays.asList(generateReset(resetFrame.getStreamId(), resetFrame.getError()));
 	}
 
-	public ByteBuffer generateReset(int streamId, int error) {
+	@Override
+	public int generate(Frame frame, FrameBuffers buffers) {
+		ResetFrame resetFrame = (ResetFrame) frame;
+		checkStreamId(resetFrame.getStreamId());
+		ByteBuffer header = generateHeader(buffers, FrameType.RST_STREAM, 4, Flags.NONE, resetFrame.getStreamId());
+		header.putInt(resetFrame.getError());
+		return Frame.HEADER_LENGTH + 4;
+	}
+
+	private void checkStreamId(int streamId) {
 		if (streamId < 0)
 			throw new IllegalArgumentException("Invalid stream id: " + streamId);
+	}
+
+	public ByteBuffer generateReset(int streamId, int error) {
+		checkStreamId(streamId);
 
 		ByteBuffer header = generateHeader(FrameType.RST_STREAM, 4, Flags.NONE, streamId);
 		header.putInt(error);
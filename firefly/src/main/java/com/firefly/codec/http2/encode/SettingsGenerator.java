@@ -22,21 +22,40 @@ public class SettingsGenerator extends FrameGenerator {
 		return Arrays.asList(generateSettings(settingsFrame.getSettings(), settingsFrame.isReply()));
 	}
 
+	@Override
+	public int generate(Frame frame, FrameBuffers buffers) {
+		SettingsFrame settingsFrame = (SettingsFrame) frame;
+		Map<Integer, Integer> settings = settingsFrame.getSettings();
+		int length = getSettingsLength(settings);
+		ByteBuffer header = generateHeader(buffers, FrameType.SETTINGS, length,
+				settingsFrame.isReply() ? Flags.ACK : Flags.NONE, 0);
+		putSettings(header, settings);
+		return Frame.HEADER_LENGTH + length;
+	}
+
 	public ByteBuffer generateSettings(Map<Integer, Integer> settings, boolean reply) {
+		int length = getSettingsLength(settings);
+
+		ByteBuffer header = generateHeader(FrameType.SETTINGS, length, reply ? Flags.ACK : Flags.NONE, 0);
+		putSettings(header, settings);
+
+		BufferUtils.flipToFlush(header, 0);
+		return header;
+	}
+
+	private int getSettingsLength(Map<Integer, Integer> settings) {
 		// Two bytes for the identifier, four bytes for the value.
 		int entryLength = 2 + 4;
 		int length = entryLength * settings.size();
 		if (length > getMaxFrameSize())
 			throw new IllegalArgumentException("Invalid settings, too big");
+		return length;
+	}
 
-		ByteBuffer header = generateHeader(FrameType.SETTINGS, length, reply ? Flags.ACK : Flags.NONE, 0);
-
+	private void putSettings(ByteBuffer header, Map<Integer, Integer> settings) {
 		for (Map.Entry<Integer, Integer> entry : settings.entrySet()) {
 			header.putShort(entry.getKey().shortValue());
 			header.putInt(entry.getValue());
 		}
-
-		BufferUtils.flipToFlush(header, 0);
-		return header;
 	}
 }
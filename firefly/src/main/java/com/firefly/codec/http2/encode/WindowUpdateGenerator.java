@@ -21,9 +21,23 @@ public class WindowUpdateGenerator extends FrameGenerator {
 		return Arrays.asList(generateWindowUpdate(windowUpdateFrame.getStreamId(), windowUpdateFrame.getWindowDelta()));
 	}
 
-	public ByteBuffer generateWindowUpdate(int streamId, int windowUpdate) {
+	@Override
+	public int generate(Frame frame, FrameBuffers buffers) {
+		WindowUpdateFrame windowUpdateFrame = (WindowUpdateFrame) frame;
+		checkWindowUpdate(windowUpdateFrame.getWindowDelta());
+		ByteBuffer header = generateHeader(buffers, FrameType.WINDOW_UPDATE, 4, Flags.NONE,
+				windowUpdateFrame.getStreamId());
+		header.putInt(windowUpdateFrame.getWindowDelta());
+		return Frame.HEADER_LENGTH + 4;
+	}
+
+	private void checkWindowUpdate(int windowUpdate) {
 		if (windowUpdate < 0)
 			throw new IllegalArgumentException("Invalid window update: " + windowUpdate);
+	}
+
+	public ByteBuffer generateWindowUpdate(int streamId, int windowUpdate) {
+		checkWindowUpdate(windowUpdate);
 
 		ByteBuffer header = generateHeader(FrameType.WINDOW_UPDATE, 4, Flags.NONE, streamId);
 		header.putInt(windowUpdate);
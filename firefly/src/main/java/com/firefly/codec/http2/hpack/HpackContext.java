@@ -195,6 +195,14 @@ public class HpackContext {
         return _nameMap.get(StringUtils.asciiToLowerCase(name));
     }
 
+    /**
+     * @param lowerCaseName the lower case field name
+     * @return the most recently added dynamic table entry with the name, or null
+     */
+    public Entry getDynamic(String lowerCaseName) {
+        return _nameMap.get(lowerCaseName);
+    }
+
     public Entry get(int index) {
         if (index <= STATIC_SIZE)
             return __staticTable[index];
@@ -7,12 +7,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Hpack Decoder
  * <p>
  * This is not thread safe and may only be called by 1 thread at a time.
  * </p>
+ * <p>
+ * A literal field that is equal to the most recent dynamic table entry of
+ * its name, or to the last literal decoded for its header, is emitted as that
+ * identical field instance, so the values repeated by the requests of a
+ * connection are not allocated again. Huffman encoded strings are decoded
+ * into a char buffer reused by the connection.
+ * </p>
  */
 public class HpackDecoder {
     public static final Logger log = LoggerFactory.getLogger("firefly-system");
@@ -21,6 +29,8 @@ public class HpackDecoder {
 
     private final HpackContext _context;
     private final MetaDataBuilder _builder;
+    private final HttpField[] _literals = new HttpField[HttpHeader.UNKNOWN.ordinal()];
+    private char[] _chars = new char[256];
     private int _localMaxDynamicTableSize;
 
     /**
@@ -130,7 +140,7 @@ public class HpackDecoder {
                     int length = NBitInteger.decode(buffer, 7);
                     _builder.checkSize(length, huffmanName);
                     if (huffmanName)
-                        name = Huffman.decode(buffer, length);
+                        name = new String(_chars, 0, huffmanDecode(buffer, length));
                     else
                         name = toASCIIString(buffer, length);
                     for (int i = 0; i < name.length(); i++) {
@@ -146,14 +156,34 @@ public class HpackDecoder {
                 boolean huffmanValue = (buffer.get() & 0x80) == 0x80;
                 int length = NBitInteger.decode(buffer, 7);
                 _builder.checkSize(length, huffmanValue);
-                if (huffmanValue)
-                    value = Huffman.decode(buffer, length);
-                else
-                    value = toASCIIString(buffer, length);
+
+                HttpField field = null;
+                HttpField dynamicField = getDynamicField(name);
+                HttpField literalField = header == null ? null : _literals[header.ordinal()];
+                if (huffmanValue) {
+                    int count = huffmanDecode(buffer, length);
+                    if (equals(dynamicField, name, _chars, count))
+                        field = dynamicField;
+                    else if (equals(literalField, name, _chars, count))
+                        field = literalField;
+                    value = field == null ? new String(_chars, 0, count) : field.getValue();
+                } else {
+                    if (equals(dynamicField, name, buffer, length))
+                        field = dynamicField;
+                    else if (equals(literalField, name, buffer, length))
+                        field = literalField;
+                    if (field == null) {
+                        value = toASCIIString(buffer, length);
+                    } else {
+                        buffer.position(buffer.position() + length);
+                        value = field.getValue();
+                    }
+                }
 
                 // Make the new field
-                HttpField field;
-                if (header == null) {
+                if (field != null) {
+                    // reuse the identical field
+                } else if (header == null) {
                     // just make a normal field and bypass header name lookup
                     field = new HttpField(null, name, value);
                 } else {
@@ -182,6 +212,7 @@ public class HpackDecoder {
                             field = new HttpField(header, name, value);
                             break;
                     }
+                    _literals[header.ordinal()] = field;
                 }
 
                 if (log.isDebugEnabled()) {
@@ -208,16 +239,62 @@ public class HpackDecoder {
         return _builder.build();
     }
 
+    private HttpField getDynamicField(String name) {
+        Entry entry = _context.getDynamic(name);
+        return entry == null ? null : entry.getHttpField();
+    }
+
+    private int huffmanDecode(ByteBuffer buffer, int length) {
+        int max = Huffman.maxDecodedLength(length);
+        if (_chars.length < max)
+            _chars = new char[Math.max(max, _chars.length * 2)];
+        return Huffman.decode(buffer, length, _chars);
+    }
+
+    private static boolean equals(HttpField field, String name, char[] chars, int length) {
+        if (field == null || !field.getName().equals(name))
+            return false;
+        String value = field.getValue();
+        if (value == null || value.length() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean equals(HttpField field, String name, ByteBuffer buffer, int length) {
+        if (field == null || !field.getName().equals(name))
+            return false;
+        String value = field.getValue();
+        if (value == null || value.length() != length)
+            return false;
+        byte[] array = buffer.array();
+        int start = buffer.arrayOffset() + buffer.position();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != (char) (0x7f & array[start + i]))
+                return false;
+        }
+        return true;
+    }
+
     public static String toASCIIString(ByteBuffer buffer, int length) {
-        StringBuilder builder = new StringBuilder(length);
         int position = buffer.position();
         int start = buffer.arrayOffset() + position;
         int end = start + length;
         buffer.position(position + length);
         byte[] array = buffer.array();
-        for (int i = start; i < end; i++)
-            builder.append((char) (0x7f & array[i]));
-        return builder.toString();
+        for (int i = start; i < end; i++) {
+            if (array[i] < 0) {
+                // not ASCII, drop the high bits
+                StringBuilder builder = new StringBuilder(length);
+                for (int j = start; j < end; j++)
+                    builder.append((char) (0x7f & array[j]));
+                return builder.toString();
+            }
+        }
+        return new String(array, start, length, StandardCharsets.ISO_8859_1);
     }
 
     @Override
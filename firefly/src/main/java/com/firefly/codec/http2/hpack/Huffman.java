@@ -326,7 +326,35 @@ public class Huffman {
 	}
 
 	public static String decode(ByteBuffer buffer, int length) {
-		StringBuilder out = new StringBuilder(length * 2);
+		char[] chars = new char[maxDecodedLength(length)];
+		int count = decode(buffer, length, chars);
+		return new String(chars, 0, count);
+	}
+
+	/**
+	 * @param length
+	 *            the length of the Huffman encoded octets
+	 * @return the max number of characters the octets can decode to, the
+	 *         shortest code is 5 bits long
+	 */
+	public static int maxDecodedLength(int length) {
+		return length * 8 / 5;
+	}
+
+	/**
+	 * Decodes the Huffman encoded octets into the given characters.
+	 *
+	 * @param buffer
+	 *            the buffer positioned at the encoded octets
+	 * @param length
+	 *            the length of the encoded octets
+	 * @param chars
+	 *            the decoded characters, at least
+	 *            {@link #maxDecodedLength(int)} long
+	 * @return the number of decoded characters
+	 */
+	public static int decode(ByteBuffer buffer, int length, char[] chars) {
+		int count = 0;
 		int node = 0;
 		int current = 0;
 		int bits = 0;
@@ -346,7 +374,7 @@ public class Huffman {
 				node = tree[node * 256 + c];
 				if (rowbits[node] != 0) {
 					// terminal node
-					out.append(rowsym[node]);
+					chars[count++] = rowsym[node];
 					bits -= rowbits[node];
 					node = 0;
 				} else {
@@ -365,12 +393,12 @@ public class Huffman {
 			if (rowbits[node] == 0)
 				throw new IllegalStateException();
 
-			out.append(rowsym[node]);
+			chars[count++] = rowsym[node];
 			bits -= rowbits[node];
 			node = 0;
 		}
 
-		return out.toString();
+		return count;
 	}
 
 	public static int octetsNeeded(String s) {
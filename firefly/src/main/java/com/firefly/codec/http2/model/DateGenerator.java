@@ -5,9 +5,12 @@ import java.util.GregorianCalendar;
 import java.util.TimeZone;
 
 import com.firefly.utils.StringUtils;
+import com.firefly.utils.time.SystemClock;
 
 /**
- * ThreadLocal Date formatters for HTTP style dates.
+ * ThreadLocal Date formatters for HTTP style dates. The date of the current
+ * second is cached, so the "Date" header of the responses is formatted once a
+ * second.
  */
 public class DateGenerator {
 	private static final TimeZone __GMT = TimeZone.getTimeZone("GMT");
@@ -27,6 +30,18 @@ public class DateGenerator {
 		}
 	};
 
+	private static final class CachedDate {
+		private final long second;
+		private final HttpField field;
+
+		private CachedDate(long second, HttpField field) {
+			this.second = second;
+			this.field = field;
+		}
+	}
+
+	private static volatile CachedDate __cachedDate = new CachedDate(Long.MIN_VALUE, null);
+
 	public final static String __01Jan1970 = DateGenerator.formatDate(0);
 
 	/**
@@ -37,9 +52,41 @@ public class DateGenerator {
 	 * @return the formatted date
 	 */
 	public static String formatDate(long date) {
+		CachedDate cachedDate = __cachedDate;
+		if (cachedDate.second == Math.floorDiv(date, 1000L)) {
+			return cachedDate.field.getValue();
+		}
 		return __dateGenerator.get().doFormatDate(date);
 	}
 
+	/**
+	 * Get the "Date" header of the current time that is read from the
+	 * {@link SystemClock}. The field is pre-encoded and it is recomputed once a
+	 * second.
+	 * 
+	 * @return the "Date" header
+	 */
+	public static HttpField getDateField() {
+		long second = Math.floorDiv(SystemClock.currentTimeMillis(), 1000L);
+		CachedDate cachedDate = __cachedDate;
+		if (cachedDate.second != second) {
+			String date = __dateGenerator.get().doFormatDate(second * 1000L);
+			cachedDate = new CachedDate(second, new PreEncodedHttpField(HttpHeader.DATE, date));
+			__cachedDate = cachedDate;
+		}
+		return cachedDate.field;
+	}
+
+	/**
+	 * Format HTTP date of the current time that is read from the
+	 * {@link SystemClock}.
+	 * 
+	 * @return the formatted date
+	 */
+	public static String getCurrentDate() {
+		return getDateField().getValue();
+	}
+
 	/**
 	 * Format "EEE, dd-MMM-yyyy HH:mm:ss 'GMT'" for cookies
 	 * 
@@ -17,7 +17,7 @@ abstract public class AbstractHTTP2Connection extends AbstractHTTPConnection {
     protected final Parser parser;
     protected final Generator generator;
 
-    protected static final Scheduler scheduler = Schedulers.createScheduler();
+    protected static final Scheduler scheduler = Schedulers.createTimingWheelScheduler();
 
     public static void stopScheduler() {
         scheduler.stop();
@@ -32,6 +32,11 @@ abstract public class AbstractHTTP2Connection extends AbstractHTTPConnection {
             case "buffer":
                 flowControl = new BufferingFlowControlStrategy(config.getInitialStreamSendWindow(), 0.5f);
                 break;
+            case "adaptive":
+                flowControl = new AdaptiveFlowControlStrategy(config.getInitialStreamSendWindow(),
+                        config.getInitialSessionRecvWindow(), config.getMaxSessionRecvWindow(),
+                        config.getMaxStreamRecvWindow());
+                break;
             case "simple":
                 flowControl = new SimpleFlowControlStrategy(config.getInitialStreamSendWindow());
                 break;
@@ -41,6 +46,8 @@ abstract public class AbstractHTTP2Connection extends AbstractHTTPConnection {
         }
         this.generator = new Generator(config.getMaxDynamicTableSize(), config.getMaxHeaderBlockFragment());
         this.http2Session = initHTTP2Session(config, flowControl, listener);
+        if (config.isCorkingEnabled())
+            this.http2Session.setCorking(config.getCorkingFlushThreshold(), config.getCorkingMaxDelay());
         this.parser = initParser(config);
     }
 
@@ -169,6 +169,8 @@ abstract public class AbstractHTTP2OutputStream extends HTTPOutputStream {
 
 			isWriting = true;
 			getStream().data(dataFrame, frameCallback);
+			if (closed)
+				flush();
 		}
 	}
 
@@ -184,6 +186,19 @@ abstract public class AbstractHTTP2OutputStream extends HTTPOutputStream {
 
 			isWriting = true;
 			getStream().headers(headersFrame, frameCallback);
+			if (closed)
+				flush();
+		}
+	}
+
+	/**
+	 * Writes the frames held back by the corking mode of the HTTP/2 session.
+	 */
+	@Override
+	public void flush() {
+		Session session = getStream().getSession();
+		if (session instanceof SessionSPI) {
+			((SessionSPI) session).flush();
 		}
 	}
 
@@ -203,6 +218,7 @@ abstract public class AbstractHTTP2OutputStream extends HTTPOutputStream {
 				closed = true;
 			}
 		}
+		flush();
 	}
 
 	protected synchronized void commit(final boolean endStream) throws IOException {
@@ -244,6 +260,7 @@ abstract public class AbstractHTTP2OutputStream extends HTTPOutputStream {
 
 		@Override
 		public void succeeded() {
+			boolean complete;
 			synchronized (AbstractHTTP2OutputStream.this) {
 				isWriting = false;
 				final Frame frame = frames.poll();
@@ -266,6 +283,10 @@ abstract public class AbstractHTTP2OutputStream extends HTTPOutputStream {
 					log.debug("the stream {} outputs http2 frame successfully, and the queue size is {}",
 							getStream().getId(), frames.size());
 				}
+				complete = closed && !isWriting;
+			}
+			if (complete) {
+				onComplete();
 			}
 		}
 
@@ -279,5 +300,27 @@ abstract public class AbstractHTTP2OutputStream extends HTTPOutputStream {
 
 	}
 
+	/**
+	 * Resets the state of the output stream, so that it can write the next
+	 * message with the same meta data object. It is invoked by the owner that
+	 * recycles the output stream after the last frame has been written.
+	 */
+	public synchronized void reset() {
+		closed = false;
+		commited = false;
+		isChunked = false;
+		size = 0;
+		contentLength = 0;
+		isWriting = false;
+		frames.clear();
+		currentDataFrame = null;
+	}
+
+	/**
+	 * Invoked when the last frame of the message has been written.
+	 */
+	protected void onComplete() {
+	}
+
 	abstract protected Stream getStream();
 }
@@ -0,0 +1,343 @@
+package com.firefly.codec.http2.stream;
+
+import com.firefly.codec.http2.frame.Frame;
+import com.firefly.codec.http2.frame.PingFrame;
+import com.firefly.codec.http2.frame.SettingsFrame;
+import com.firefly.codec.http2.frame.WindowUpdateFrame;
+import com.firefly.utils.concurrent.Callback;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * A flow control strategy that sizes the receive windows from the measured
+ * bandwidth-delay product (BDP) of the connection.
+ * </p>
+ * <p>
+ * While data is being received, a PING frame is sent at most once per PING
+ * interval and the bytes received until its reply arrives are counted. This
+ * sample approximates the BDP, and the sample divided by the PING round trip
+ * time is the delivery rate. When the sample gets close to the current
+ * window, the sender is throttled by flow control rather than by the link,
+ * so the session and stream receive windows are doubled, up to the
+ * configured ceilings. The stream windows never go below the initial stream
+ * window that the session advertised.
+ * </p>
+ * <p>
+ * When the usage of the tenured heap after the last collection goes above
+ * the memory pressure ratio, the windows are halved again. The stream
+ * windows shrink with a SETTINGS_INITIAL_WINDOW_SIZE update, the session
+ * window shrinks by withholding the WINDOW_UPDATE credit that would take it
+ * above its new target.
+ * </p>
+ * <p>
+ * WINDOW_UPDATE frames are accumulated as in
+ * {@link BufferingFlowControlStrategy}.
+ * </p>
+ */
+public class AdaptiveFlowControlStrategy extends AbstractFlowControlStrategy {
+	private static final long BDP_PING_MASK = 0xFFFFFFFF00000000L;
+	private static final long BDP_PING_MAGIC = 0x4244505000000000L;
+	// the pools that support the usage threshold are the tenured pools
+	private static final List<MemoryPoolMXBean> tenuredPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+					&& pool.isCollectionUsageThresholdSupported())
+			.collect(Collectors.toList());
+
+	private final AtomicInteger sessionLevel = new AtomicInteger();
+	private final Map<StreamSPI, AtomicInteger> streamLevels = new ConcurrentHashMap<>();
+	private final AtomicInteger sessionRecvWindowTarget = new AtomicInteger();
+	private final AtomicBoolean pinging = new AtomicBoolean();
+	private final AtomicLong sampleBytes = new AtomicLong();
+	private final AtomicInteger pingSequence = new AtomicInteger();
+	private final int minSessionRecvWindow;
+	private final int maxSessionRecvWindow;
+	private final int maxStreamRecvWindow;
+	private volatile int minStreamRecvWindow;
+	private volatile int streamRecvWindowTarget;
+	private volatile int adaptedStreamRecvWindow = -1;
+	private volatile long pingPayload;
+	private volatile long pingTime;
+	private volatile long nextPingTime = System.nanoTime();
+	private volatile long pingInterval = TimeUnit.SECONDS.toNanos(1);
+	private volatile long smoothedRoundTripTime;
+	private volatile long deliveryRate;
+	private float bufferRatio = 0.5f;
+	private float memoryPressureRatio = 0.85f;
+
+	public AdaptiveFlowControlStrategy(int initialStreamSendWindow, int initialSessionRecvWindow,
+			int maxSessionRecvWindow, int maxStreamRecvWindow) {
+		super(initialStreamSendWindow);
+		this.minSessionRecvWindow = Math.max(DEFAULT_WINDOW_SIZE, initialSessionRecvWindow);
+		this.maxSessionRecvWindow = Math.max(minSessionRecvWindow, maxSessionRecvWindow);
+		this.maxStreamRecvWindow = Math.max(DEFAULT_WINDOW_SIZE, maxStreamRecvWindow);
+		this.sessionRecvWindowTarget.set(minSessionRecvWindow);
+		this.minStreamRecvWindow = getInitialStreamRecvWindow();
+		this.streamRecvWindowTarget = minStreamRecvWindow;
+	}
+
+	public float getBufferRatio() {
+		return bufferRatio;
+	}
+
+	public void setBufferRatio(float bufferRatio) {
+		this.bufferRatio = bufferRatio;
+	}
+
+	public float getMemoryPressureRatio() {
+		return memoryPressureRatio;
+	}
+
+	public void setMemoryPressureRatio(float memoryPressureRatio) {
+		this.memoryPressureRatio = memoryPressureRatio;
+	}
+
+	/**
+	 * @return the min interval between the BDP PING frames in milliseconds
+	 */
+	public long getPingInterval() {
+		return TimeUnit.NANOSECONDS.toMillis(pingInterval);
+	}
+
+	/**
+	 * The peers may treat the frequent PING frames as a flood, so a BDP PING
+	 * is sent at most once per interval, the default is 1 second.
+	 *
+	 * @param pingInterval
+	 *            the min interval between the BDP PING frames in milliseconds
+	 */
+	public void setPingInterval(long pingInterval) {
+		this.pingInterval = TimeUnit.MILLISECONDS.toNanos(pingInterval);
+	}
+
+	public int getSessionRecvWindowTarget() {
+		return sessionRecvWindowTarget.get();
+	}
+
+	public int getStreamRecvWindowTarget() {
+		return streamRecvWindowTarget;
+	}
+
+	/**
+	 * @return the smoothed PING round trip time in milliseconds
+	 */
+	public long getRoundTripTime() {
+		return TimeUnit.NANOSECONDS.toMillis(smoothedRoundTripTime);
+	}
+
+	/**
+	 * @return the last measured delivery rate in bytes per second
+	 */
+	public long getDeliveryRate() {
+		return deliveryRate;
+	}
+
+	@Override
+	public void onStreamCreated(StreamSPI stream) {
+		super.onStreamCreated(stream);
+		streamLevels.put(stream, new AtomicInteger());
+	}
+
+	@Override
+	public void onStreamDestroyed(StreamSPI stream) {
+		streamLevels.remove(stream);
+		super.onStreamDestroyed(stream);
+	}
+
+	@Override
+	public void updateInitialStreamWindow(SessionSPI session, int initialStreamWindow, boolean local) {
+		super.updateInitialStreamWindow(session, initialStreamWindow, local);
+		if (local && initialStreamWindow != adaptedStreamRecvWindow) {
+			// The window is advertised by the application, the adapted windows never go below it.
+			minStreamRecvWindow = initialStreamWindow;
+			streamRecvWindowTarget = initialStreamWindow;
+		}
+	}
+
+	@Override
+	public void onDataReceived(SessionSPI session, StreamSPI stream, int length) {
+		super.onDataReceived(session, stream, length);
+
+		if (!pinging.get() && System.nanoTime() - nextPingTime >= 0 && pinging.compareAndSet(false, true)) {
+			// Start a new BDP sample, the reply of the PING closes it.
+			long payload = BDP_PING_MAGIC | (pingSequence.incrementAndGet() & 0xFFFFFFFFL);
+			sampleBytes.set(length);
+			pingPayload = payload;
+			pingTime = System.nanoTime();
+			session.ping(new PingFrame(payload, false), new Callback() {
+				@Override
+				public void failed(Throwable x) {
+					endSample();
+				}
+			});
+		} else {
+			sampleBytes.addAndGet(length);
+		}
+	}
+
+	@Override
+	public boolean onPingReply(SessionSPI session, PingFrame frame) {
+		long payload = frame.getPayloadAsLong();
+		if ((payload & BDP_PING_MASK) != BDP_PING_MAGIC)
+			return false;
+		if (payload != pingPayload)
+			return true;
+
+		long rtt = Math.max(1L, System.nanoTime() - pingTime);
+		long sample = sampleBytes.get();
+		long srtt = smoothedRoundTripTime;
+		smoothedRoundTripTime = srtt == 0 ? rtt : (srtt * 7 + rtt) / 8;
+		deliveryRate = sample * TimeUnit.SECONDS.toNanos(1) / rtt;
+		if (log.isDebugEnabled())
+			log.debug("BDP sample {} bytes, rtt {}us, delivery rate {} B/s for {}", sample,
+					TimeUnit.NANOSECONDS.toMicros(rtt), deliveryRate, session);
+
+		if (isUnderMemoryPressure())
+			shrink(session);
+		else
+			grow(session, sample);
+		endSample();
+		return true;
+	}
+
+	private void endSample() {
+		nextPingTime = pingTime + pingInterval;
+		pinging.set(false);
+	}
+
+	/**
+	 * The heap usage includes the garbage that is not collected yet, so the
+	 * usage of the tenured pools after the last collection is checked.
+	 *
+	 * @return true if the collection usage of a tenured pool is above the
+	 *         memory pressure ratio
+	 */
+	protected boolean isUnderMemoryPressure() {
+		for (MemoryPoolMXBean pool : tenuredPools) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if (usage != null && usage.getMax() > 0 && usage.getUsed() > usage.getMax() * memoryPressureRatio)
+				return true;
+		}
+		return false;
+	}
+
+	private void grow(SessionSPI session, long sample) {
+		int sessionTarget = sessionRecvWindowTarget.get();
+		if (sample * 3 >= sessionTarget * 2L && sessionTarget < maxSessionRecvWindow) {
+			int newTarget = (int) Math.min(maxSessionRecvWindow, Math.max(sample * 2, sessionTarget * 2L));
+			if (sessionRecvWindowTarget.compareAndSet(sessionTarget, newTarget)) {
+				int delta = newTarget - sessionTarget;
+				session.updateRecvWindow(delta);
+				if (log.isDebugEnabled())
+					log.debug("Enlarged session recv window {} -> {} for {}", sessionTarget, newTarget, session);
+				session.frames(null, Callback.NOOP, new WindowUpdateFrame(0, delta), Frame.EMPTY_ARRAY);
+			}
+		}
+
+		int streamTarget = streamRecvWindowTarget;
+		if (sample * 3 >= streamTarget * 2L && streamTarget < maxStreamRecvWindow) {
+			int newTarget = (int) Math.min(maxStreamRecvWindow, Math.max(sample * 2, streamTarget * 2L));
+			updateStreamRecvWindowTarget(session, streamTarget, newTarget);
+		}
+	}
+
+	private void shrink(SessionSPI session) {
+		int sessionTarget = sessionRecvWindowTarget.get();
+		int newSessionTarget = Math.max(minSessionRecvWindow, sessionTarget / 2);
+		if (newSessionTarget < sessionTarget && sessionRecvWindowTarget.compareAndSet(sessionTarget, newSessionTarget)) {
+			// The session window cannot be reduced with a frame,
+			// so the credit above the target is withheld when the data is consumed.
+			if (log.isDebugEnabled())
+				log.debug("Memory pressure, reduced session recv window target {} -> {} for {}", sessionTarget,
+						newSessionTarget, session);
+		}
+
+		int streamTarget = streamRecvWindowTarget;
+		int newStreamTarget = Math.max(minStreamRecvWindow, streamTarget / 2);
+		if (newStreamTarget < streamTarget)
+			updateStreamRecvWindowTarget(session, streamTarget, newStreamTarget);
+	}
+
+	private void updateStreamRecvWindowTarget(SessionSPI session, int oldTarget, int newTarget) {
+		if (newTarget < minStreamRecvWindow)
+			return;
+		streamRecvWindowTarget = newTarget;
+		adaptedStreamRecvWindow = newTarget;
+		if (log.isDebugEnabled())
+			log.debug("Updated stream recv window target {} -> {} for {}", oldTarget, newTarget, session);
+		// The stream recv windows are updated when the SETTINGS frame is written.
+		Map<Integer, Integer> settings = Collections.singletonMap(SettingsFrame.INITIAL_WINDOW_SIZE, newTarget);
+		session.settings(new SettingsFrame(settings, false), Callback.NOOP);
+	}
+
+	@Override
+	public void onDataConsumed(SessionSPI session, StreamSPI stream, int length) {
+		if (length <= 0)
+			return;
+
+		float ratio = bufferRatio;
+
+		WindowUpdateFrame windowFrame = null;
+		int level = sessionLevel.addAndGet(length);
+		int target = sessionRecvWindowTarget.get();
+		int maxLevel = (int) (target * ratio);
+		if (level > maxLevel) {
+			if (sessionLevel.compareAndSet(level, 0)) {
+				// Withhold the credit that would take the window above its target.
+				int credit = Math.min(level, target - session.updateRecvWindow(0));
+				if (credit > 0) {
+					session.updateRecvWindow(credit);
+					windowFrame = new WindowUpdateFrame(0, credit);
+				}
+				if (log.isDebugEnabled())
+					log.debug("Data consumed, {} bytes, updated session recv window by {}/{} for {}", length, credit,
+							maxLevel, session);
+			}
+		}
+
+		Frame[] windowFrames = Frame.EMPTY_ARRAY;
+		if (stream != null && !stream.isClosed()) {
+			AtomicInteger streamLevel = streamLevels.get(stream);
+			if (streamLevel != null) {
+				level = streamLevel.addAndGet(length);
+				maxLevel = (int) (getInitialStreamRecvWindow() * ratio);
+				if (level > maxLevel) {
+					level = streamLevel.getAndSet(0);
+					stream.updateRecvWindow(level);
+					if (log.isDebugEnabled())
+						log.debug("Data consumed, {} bytes, updated stream recv window by {}/{} for {}", length,
+								level, maxLevel, stream);
+					WindowUpdateFrame frame = new WindowUpdateFrame(stream.getId(), level);
+					if (windowFrame == null)
+						windowFrame = frame;
+					else
+						windowFrames = new Frame[] { frame };
+				}
+			}
+		}
+
+		if (windowFrame != null)
+			session.frames(stream, Callback.NOOP, windowFrame, windowFrames);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%s@%x[ratio=%.2f,sessionTarget=%d,streamTarget=%d,rtt=%dms,rate=%dB/s,sessionStallTime=%dms,streamsStallTime=%dms]",
+				getClass().getSimpleName(), hashCode(), bufferRatio, sessionRecvWindowTarget.get(),
+				streamRecvWindowTarget, getRoundTripTime(), deliveryRate, getSessionStallTime(),
+				getStreamsStallTime());
+	}
+}
@@ -4,23 +4,26 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 /**
+ * Buffers the bytes that are written to a {@link HTTPOutputStream}.
+ * <p>
+ * The buffer is at least {@link #MIN_BUFFER_SIZE} bytes. A write that is smaller than
+ * {@link #MIN_BUFFER_SIZE} is always copied into the buffer, so the caller can reuse
+ * its array as soon as the write returns. A larger array may be passed to the
+ * {@link HTTPOutputStream} by reference, and it must not be changed until it is sent.
+ *
  * @author Pengtao Qiu
  */
 public class BufferedHTTPOutputStream extends OutputStream {
 
-    private int bufferSize;
+    public static final int MIN_BUFFER_SIZE = 1024;
+
     private HTTPOutputStream output;
     private byte[] buf;
     private int count;
 
     public BufferedHTTPOutputStream(HTTPOutputStream output, int bufferSize) {
-        this.bufferSize = bufferSize;
         this.output = output;
-        if (bufferSize > 1024) {
-            this.buf = new byte[bufferSize];
-        } else {
-            this.buf = new byte[1024];
-        }
+        this.buf = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
     }
 
     @Override
@@ -58,7 +61,8 @@ public class BufferedHTTPOutputStream extends OutputStream {
         if (count > 0) {
             output.write(buf, 0, count);
             count = 0;
-            buf = new byte[bufferSize];
+            // the written buffer is held by the output, the new one keeps the size
+            buf = new byte[buf.length];
         }
     }
 
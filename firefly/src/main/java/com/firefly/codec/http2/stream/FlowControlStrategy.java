@@ -1,5 +1,6 @@
 package com.firefly.codec.http2.stream;
 
+import com.firefly.codec.http2.frame.PingFrame;
 import com.firefly.codec.http2.frame.WindowUpdateFrame;
 
 public interface FlowControlStrategy {
@@ -22,4 +23,13 @@ public interface FlowControlStrategy {
 	public void onDataSending(StreamSPI stream, int length);
 
 	public void onDataSent(StreamSPI stream, int length);
+
+	/**
+	 * @param session the session that received the PING reply
+	 * @param frame   the PING reply
+	 * @return true if the PING was sent by this strategy and must not be notified to the session listener
+	 */
+	public default boolean onPingReply(SessionSPI session, PingFrame frame) {
+		return false;
+	}
 }
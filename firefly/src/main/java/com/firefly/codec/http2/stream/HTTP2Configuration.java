@@ -18,6 +18,16 @@ public class HTTP2Configuration {
     private String flowControlStrategy = "buffer";
     private int initialStreamSendWindow = FlowControlStrategy.DEFAULT_WINDOW_SIZE;
     private int initialSessionRecvWindow = FlowControlStrategy.DEFAULT_WINDOW_SIZE;
+    // the ceilings of the receive windows of the "adaptive" flow control strategy
+    private int maxSessionRecvWindow = 8 * 1024 * 1024;
+    private int maxStreamRecvWindow = 4 * 1024 * 1024;
+    // the corking mode holds back the frames until the flush threshold (bytes) or the max delay (microseconds)
+    private boolean corkingEnabled;
+    private int corkingFlushThreshold = 16 * 1024;
+    private long corkingMaxDelay = 500;
+    // the server reuses the per stream request handling objects, up to the max recycled stream objects per connection
+    private boolean streamObjectRecycling;
+    private int maxRecycledStreamObjects = 64;
     private int maxConcurrentStreams = -1;
     private int maxHeaderBlockFragment = 0;
     private int maxRequestHeadLength = 4 * 1024;
@@ -64,6 +74,62 @@ public class HTTP2Configuration {
         this.initialSessionRecvWindow = initialSessionRecvWindow;
     }
 
+    public int getMaxSessionRecvWindow() {
+        return maxSessionRecvWindow;
+    }
+
+    public void setMaxSessionRecvWindow(int maxSessionRecvWindow) {
+        this.maxSessionRecvWindow = maxSessionRecvWindow;
+    }
+
+    public int getMaxStreamRecvWindow() {
+        return maxStreamRecvWindow;
+    }
+
+    public void setMaxStreamRecvWindow(int maxStreamRecvWindow) {
+        this.maxStreamRecvWindow = maxStreamRecvWindow;
+    }
+
+    public boolean isCorkingEnabled() {
+        return corkingEnabled;
+    }
+
+    public void setCorkingEnabled(boolean corkingEnabled) {
+        this.corkingEnabled = corkingEnabled;
+    }
+
+    public int getCorkingFlushThreshold() {
+        return corkingFlushThreshold;
+    }
+
+    public void setCorkingFlushThreshold(int corkingFlushThreshold) {
+        this.corkingFlushThreshold = corkingFlushThreshold;
+    }
+
+    public long getCorkingMaxDelay() {
+        return corkingMaxDelay;
+    }
+
+    public void setCorkingMaxDelay(long corkingMaxDelay) {
+        this.corkingMaxDelay = corkingMaxDelay;
+    }
+
+    public boolean isStreamObjectRecycling() {
+        return streamObjectRecycling;
+    }
+
+    public void setStreamObjectRecycling(boolean streamObjectRecycling) {
+        this.streamObjectRecycling = streamObjectRecycling;
+    }
+
+    public int getMaxRecycledStreamObjects() {
+        return maxRecycledStreamObjects;
+    }
+
+    public void setMaxRecycledStreamObjects(int maxRecycledStreamObjects) {
+        this.maxRecycledStreamObjects = maxRecycledStreamObjects;
+    }
+
     public int getInitialStreamSendWindow() {
         return initialStreamSendWindow;
     }
@@ -1,17 +1,19 @@
 package com.firefly.codec.http2.stream;
 
+import com.firefly.codec.http2.encode.FrameBuffers;
 import com.firefly.codec.http2.frame.Frame;
 import com.firefly.codec.http2.frame.WindowUpdateFrame;
 import com.firefly.net.ByteBufferArrayOutputEntry;
 import com.firefly.utils.concurrent.Callback;
 import com.firefly.utils.concurrent.IteratingCallback;
-import com.firefly.utils.io.BufferUtils;
+import com.firefly.utils.concurrent.Scheduler;
 import com.firefly.utils.io.EofException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class HTTP2Flusher extends IteratingCallback {
     private static Logger log = LoggerFactory.getLogger("firefly-system");
@@ -21,14 +23,50 @@ public class HTTP2Flusher extends IteratingCallback {
     private final Queue<Entry> entries = new ArrayDeque<>();
     private final List<Entry> actives = new ArrayList<>();
     private final HTTP2Session session;
-    private final Queue<ByteBuffer> buffers = new LinkedList<>();
+    private final FrameBuffers buffers = new FrameBuffers();
     private Entry stalled;
     private Throwable terminated;
+    private boolean corking;
+    private int flushThreshold;
+    private long maxFlushDelay;
+    private boolean flushRequested;
+    private boolean urgent;
+    private Scheduler.Future flushTask;
 
     public HTTP2Flusher(HTTP2Session session) {
         this.session = session;
     }
 
+    /**
+     * Enables the corking mode. The generated frames are held back until they
+     * reach the flush threshold, the max delay expires or {@link #flush()} is
+     * called, so that the frames of many streams share one write.
+     *
+     * @param flushThreshold the buffered bytes that trigger a write
+     * @param maxFlushDelay  the max time in microseconds a frame is held back
+     */
+    public synchronized void setCorking(int flushThreshold, long maxFlushDelay) {
+        this.corking = flushThreshold > 0 && maxFlushDelay > 0;
+        this.flushThreshold = flushThreshold;
+        this.maxFlushDelay = maxFlushDelay;
+    }
+
+    public synchronized boolean isCorking() {
+        return corking;
+    }
+
+    /**
+     * Writes the frames held back by the corking mode.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (!corking)
+                return;
+            flushRequested = true;
+        }
+        iterate();
+    }
+
     public void window(StreamSPI stream, WindowUpdateFrame frame) {
         Throwable closed;
         synchronized (this) {
@@ -103,7 +141,7 @@ public class HTTP2Flusher extends IteratingCallback {
         }
 
 
-        if (entries.isEmpty()) {
+        if (entries.isEmpty() && buffers.isEmpty()) {
             if (log.isDebugEnabled())
                 log.debug("Flushed {}", session);
             return Action.IDLE;
@@ -121,6 +159,9 @@ public class HTTP2Flusher extends IteratingCallback {
                 continue;
             }
 
+            if (!isCorkable(entry))
+                urgent = true;
+
             try {
                 if (entry.generate(buffers)) {
                     if (entry.dataRemaining() > 0)
@@ -143,22 +184,62 @@ public class HTTP2Flusher extends IteratingCallback {
             return Action.IDLE;
         }
 
+        if (cork()) {
+            if (log.isDebugEnabled())
+                log.debug("Corked {} ({} bytes) for {} frames", buffers, buffers.remaining(), actives.size());
+            return Action.IDLE;
+        }
+
         if (log.isDebugEnabled())
-            log.debug("Writing {} buffers ({} bytes) for {} frames {}", buffers.size(), getBufferTotalLength(),
+            log.debug("Writing {} ({} bytes) for {} frames {}", buffers, buffers.remaining(),
                     actives.size(), actives.toString());
 
-        ByteBufferArrayOutputEntry outputEntry = new ByteBufferArrayOutputEntry(this,
-                buffers.toArray(BufferUtils.EMPTY_BYTE_BUFFER_ARRAY));
+        ByteBufferArrayOutputEntry outputEntry = new ByteBufferArrayOutputEntry(this, buffers.toArray());
         session.getEndPoint().encode(outputEntry);
         return Action.SCHEDULED;
     }
 
-    private int getBufferTotalLength() {
-        int length = 0;
-        for (ByteBuffer buf : buffers) {
-            length += buf.remaining();
+    private boolean isCorkable(Entry entry) {
+        switch (entry.frame.getType()) {
+            case DATA:
+            case HEADERS:
+            case PUSH_PROMISE:
+            case PRIORITY:
+                return true;
+            default:
+                // The other frames affect the peer's flow control,
+                // liveness or connection state, write them right away.
+                return false;
+        }
+    }
+
+    private boolean cork() {
+        Scheduler.Future task;
+        synchronized (this) {
+            if (!corking)
+                return false;
+
+            if (!flushRequested && !urgent && buffers.remaining() < flushThreshold) {
+                if (flushTask != null)
+                    return true;
+                try {
+                    flushTask = session.getScheduler().schedule(this::flush, maxFlushDelay, TimeUnit.MICROSECONDS);
+                    return true;
+                } catch (RejectedExecutionException x) {
+                    // The scheduler has been stopped, nothing would flush the held back frames.
+                    if (log.isDebugEnabled())
+                        log.debug("Could not schedule the flush task, write the frames right away", x);
+                }
+            }
+
+            flushRequested = false;
+            urgent = false;
+            task = flushTask;
+            flushTask = null;
         }
-        return length;
+        if (task != null)
+            task.cancel();
+        return false;
     }
 
     @Override
@@ -206,6 +287,7 @@ public class HTTP2Flusher extends IteratingCallback {
     @Override
     protected void onCompleteFailure(Throwable x) {
         buffers.clear();
+        cancelFlushTask();
 
         Throwable closed;
         synchronized (this) {
@@ -226,6 +308,16 @@ public class HTTP2Flusher extends IteratingCallback {
             session.abort(x);
     }
 
+    private void cancelFlushTask() {
+        Scheduler.Future task;
+        synchronized (this) {
+            task = flushTask;
+            flushTask = null;
+        }
+        if (task != null)
+            task.cancel();
+    }
+
     void terminate(Throwable cause) {
         Throwable closed;
         synchronized (this) {
@@ -257,7 +349,7 @@ public class HTTP2Flusher extends IteratingCallback {
             return 0;
         }
 
-        protected abstract boolean generate(Queue<ByteBuffer> buffers);
+        protected abstract boolean generate(FrameBuffers buffers);
 
         private void complete() {
             if (reset)
@@ -1,16 +1,15 @@
 package com.firefly.codec.http2.stream;
 
 import com.firefly.codec.http2.decode.Parser;
+import com.firefly.codec.http2.encode.FrameBuffers;
 import com.firefly.codec.http2.encode.Generator;
 import com.firefly.codec.http2.frame.*;
 import com.firefly.utils.concurrent.*;
-import com.firefly.utils.lang.Pair;
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -61,7 +60,7 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
         this.sendWindow.set(FlowControlStrategy.DEFAULT_WINDOW_SIZE);
         this.recvWindow.set(FlowControlStrategy.DEFAULT_WINDOW_SIZE);
         this.pushEnabled = true; // SPEC: by default, push is enabled.
-        this.idleTime = Millisecond100Clock.currentTimeMillis();
+        this.idleTime = SystemClock.currentTimeMillis();
     }
 
     public FlowControlStrategy getFlowControlStrategy() {
@@ -100,6 +99,19 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
         this.initialSessionRecvWindow = initialSessionRecvWindow;
     }
 
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public void setCorking(int flushThreshold, long maxFlushDelay) {
+        flusher.setCorking(flushThreshold, maxFlushDelay);
+    }
+
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
     public com.firefly.net.Session getEndPoint() {
         return endPoint;
     }
@@ -263,7 +275,8 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
             log.debug("Received {}", frame);
 
         if (frame.isReply()) {
-            notifyPing(this, frame);
+            if (!flowControl.onPingReply(this, frame))
+                notifyPing(this, frame);
         } else {
             PingFrame reply = new PingFrame(frame.getPayload(), true);
             control(null, Callback.NOOP, reply);
@@ -723,7 +736,7 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
     public boolean onIdleTimeout() {
         switch (closed.get()) {
             case NOT_CLOSED: {
-                long elapsed = Millisecond100Clock.currentTimeMillis() - idleTime;
+                long elapsed = SystemClock.currentTimeMillis() - idleTime;
                 if (elapsed < endPoint.getIdleTimeout())
                     return false;
                 return notifyIdleTimeout(this);
@@ -740,7 +753,7 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
     }
 
     private void notIdle() {
-        idleTime = Millisecond100Clock.currentTimeMillis();
+        idleTime = SystemClock.currentTimeMillis();
     }
 
     @Override
@@ -876,8 +889,8 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
             super(frame, stream, callback);
         }
 
-        protected boolean generate(Queue<ByteBuffer> buffers) {
-            buffers.addAll(generator.control(frame));
+        protected boolean generate(FrameBuffers buffers) {
+            bytes = generator.control(frame, buffers);
             if (log.isDebugEnabled())
                 log.debug("Generated {}", frame);
             prepare();
@@ -978,9 +991,7 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
             return dataRemaining;
         }
 
-        protected boolean generate(Queue<ByteBuffer> buffers) {
-            int toWrite = dataRemaining();
-
+        protected boolean generate(FrameBuffers buffers) {
             int sessionSendWindow = getSendWindow();
             int streamSendWindow = stream.updateSendWindow(0);
             int window = Math.min(streamSendWindow, sessionSendWindow);
@@ -989,10 +1000,8 @@ public abstract class HTTP2Session implements SessionSPI, Parser.Listener {
 
             int length = Math.min(dataRemaining, window);
 
-            Pair<Integer, List<ByteBuffer>> pair = generator.data((DataFrame) frame, length);
-            buffers.addAll(pair.second);
             // Only one DATA frame is generated.
-            bytes = pair.first;
+            bytes = generator.data((DataFrame) frame, length, buffers);
             int written = bytes;
             if (log.isDebugEnabled())
                 log.debug("Generated {}, length/window/data={}/{}/{}", frame, written, window, dataRemaining);
@@ -107,6 +107,11 @@ public interface SessionSPI extends Session {
      */
     public void onFrame(Frame frame);
 
+    /**
+     * <p>Writes the frames held back by the corking mode, if it is enabled.</p>
+     */
+    public void flush();
+
     /**
      * @return the number of bytes written by this session
      */
@@ -8,7 +8,6 @@ import com.firefly.net.Server;
 import com.firefly.net.tcp.aio.AsynchronousTcpServer;
 import com.firefly.utils.lang.AbstractLifeCycle;
 import com.firefly.utils.log.LogFactory;
-import com.firefly.utils.time.Millisecond100Clock;
 
 public class HTTP2Server extends AbstractLifeCycle {
 
@@ -75,7 +74,6 @@ public class HTTP2Server extends AbstractLifeCycle {
         }
         AbstractHTTP2Connection.stopScheduler();
         LogFactory.getInstance().stop();
-        Millisecond100Clock.stop();
     }
 
 }
@@ -27,6 +27,8 @@ public class HTTP2ServerConnection extends AbstractHTTP2Connection implements HT
 		http2ServerSession.setMaxLocalStreams(config.getMaxConcurrentStreams());
 		http2ServerSession.setMaxRemoteStreams(config.getMaxConcurrentStreams());
 		http2ServerSession.setInitialSessionRecvWindow(config.getInitialSessionRecvWindow());
+		if (config.isStreamObjectRecycling())
+			http2ServerSession.setMaxRecycledStreamObjects(config.getMaxRecycledStreamObjects());
 		return http2ServerSession;
 	}
 
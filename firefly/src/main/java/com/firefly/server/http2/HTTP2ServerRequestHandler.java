@@ -1,15 +1,11 @@
 package com.firefly.server.http2;
 
-import com.firefly.codec.http2.frame.DataFrame;
-import com.firefly.codec.http2.frame.ErrorCode;
 import com.firefly.codec.http2.frame.HeadersFrame;
-import com.firefly.codec.http2.frame.ResetFrame;
 import com.firefly.codec.http2.model.*;
 import com.firefly.codec.http2.stream.AbstractHTTP2OutputStream;
 import com.firefly.codec.http2.stream.Stream;
 import com.firefly.codec.http2.stream.Stream.Listener;
-import com.firefly.utils.VerifyUtils;
-import com.firefly.utils.concurrent.Callback;
+import com.firefly.codec.http2.stream.StreamSPI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,15 +31,23 @@ public class HTTP2ServerRequestHandler extends ServerSessionListener.Adapter {
             log.debug("the remote stream {} is created, the header is {}", stream.getId(), headersFrame.getMetaData());
         }
 
-        final MetaData.Request request = (MetaData.Request) headersFrame.getMetaData();
-        final MetaData.Response response = new HTTPServerResponse();
-        final AbstractHTTP2OutputStream output = new AbstractHTTP2OutputStream(response, false) {
+        final HTTP2ServerStreamContext context;
+        if (stream.getSession() instanceof HTTP2ServerSession) {
+            HTTP2ServerSession session = (HTTP2ServerSession) stream.getSession();
+            context = session.acquireStreamContext();
+            context.init(session, serverHTTPHandler, connection, stream, (MetaData.Request) headersFrame.getMetaData());
+        } else {
+            context = new HTTP2ServerStreamContext();
+            context.init(null, serverHTTPHandler, connection, stream, (MetaData.Request) headersFrame.getMetaData());
+        }
+        // the handler may complete the response and close the stream before this method returns
+        if (stream instanceof StreamSPI) {
+            ((StreamSPI) stream).setListener(context);
+        }
 
-            @Override
-            protected Stream getStream() {
-                return stream;
-            }
-        };
+        final MetaData.Request request = context.getRequest();
+        final MetaData.Response response = context.getResponse();
+        final AbstractHTTP2OutputStream output = context.getOutput();
 
         String expectedValue = request.getFields().get(HttpHeader.EXPECT);
         if ("100-continue".equalsIgnoreCase(expectedValue)) {
@@ -58,71 +62,11 @@ public class HTTP2ServerRequestHandler extends ServerSessionListener.Adapter {
             serverHTTPHandler.headerComplete(request, response, output, connection);
 
             if (headersFrame.isEndStream()) {
-                serverHTTPHandler.messageComplete(request, response, output, connection);
+                context.messageComplete();
             }
         }
 
-        return new Listener.Adapter() {
-
-            @Override
-            public void onHeaders(Stream stream, HeadersFrame endHeaderframe) {
-                if (log.isDebugEnabled()) {
-                    log.debug("the stream {} received the end frame {}", stream.getId(), endHeaderframe);
-                }
-                if (endHeaderframe.isEndStream()) {
-                    String trailerName = request.getFields().get(HttpHeader.TRAILER);
-                    if (VerifyUtils.isNotEmpty(trailerName)) {
-                        if (endHeaderframe.getMetaData().getFields().containsKey(trailerName)) {
-                            request.getFields().add(trailerName,
-                                    endHeaderframe.getMetaData().getFields().get(trailerName));
-                            serverHTTPHandler.messageComplete(request, response, output, connection);
-                        } else {
-                            throw new IllegalArgumentException(
-                                    "the stream " + stream.getId() + " received illegal meta data");
-                        }
-                    } else {
-                        throw new IllegalArgumentException(
-                                "the stream " + stream.getId() + " received illegal meta data");
-                    }
-                } else {
-                    throw new IllegalArgumentException("the stream " + stream.getId() + " received illegal meta data");
-                }
-            }
-
-            @Override
-            public void onData(Stream stream, DataFrame dataFrame, Callback callback) {
-                try {
-                    serverHTTPHandler.content(dataFrame.getData(), request, response, output, connection);
-                    callback.succeeded();
-                } catch (Throwable t) {
-                    callback.failed(t);
-                }
-
-                if (dataFrame.isEndStream()) {
-                    serverHTTPHandler.contentComplete(request, response, output, connection);
-                    serverHTTPHandler.messageComplete(request, response, output, connection);
-                }
-            }
-
-            @Override
-            public void onReset(Stream stream, ResetFrame resetFrame) {
-                ErrorCode errorCode = ErrorCode.from(resetFrame.getError());
-                String reason = errorCode == null ? "error=" + resetFrame.getError() : errorCode.name().toLowerCase();
-                int status = HttpStatus.INTERNAL_SERVER_ERROR_500;
-                if (errorCode != null) {
-                    switch (errorCode) {
-                        case PROTOCOL_ERROR:
-                            status = HttpStatus.BAD_REQUEST_400;
-                            break;
-                        default:
-                            status = HttpStatus.INTERNAL_SERVER_ERROR_500;
-                            break;
-                    }
-                }
-                serverHTTPHandler.badMessage(status, reason, request, response, output, connection);
-            }
-
-        };
+        return context;
     }
 
 }
@@ -10,6 +10,7 @@ import com.firefly.utils.concurrent.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Map;
 
@@ -17,6 +18,8 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
 	private static Logger log = LoggerFactory.getLogger("firefly-system");
 
 	private final ServerSessionListener listener;
+	private final ArrayDeque<HTTP2ServerStreamContext> recycledStreamContexts = new ArrayDeque<>();
+	private volatile int maxRecycledStreamObjects;
 
 	public HTTP2ServerSession(Scheduler scheduler, com.firefly.net.Session endPoint, Generator generator,
 			ServerSessionListener listener, FlowControlStrategy flowControl, int streamIdleTimeout) {
@@ -24,6 +27,49 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
 		this.listener = listener;
 	}
 
+	public boolean isStreamObjectRecycling() {
+		return maxRecycledStreamObjects > 0;
+	}
+
+	public int getMaxRecycledStreamObjects() {
+		return maxRecycledStreamObjects;
+	}
+
+	/**
+	 * Enables the recycling of the stream objects of this connection.
+	 *
+	 * @param maxRecycledStreamObjects
+	 *            the max number of idle stream objects kept by this session, 0
+	 *            disables the recycling
+	 */
+	public void setMaxRecycledStreamObjects(int maxRecycledStreamObjects) {
+		this.maxRecycledStreamObjects = maxRecycledStreamObjects;
+	}
+
+	HTTP2ServerStreamContext acquireStreamContext() {
+		synchronized (recycledStreamContexts) {
+			HTTP2ServerStreamContext context = recycledStreamContexts.poll();
+			return context != null ? context : new HTTP2ServerStreamContext();
+		}
+	}
+
+	boolean releaseStreamContext(HTTP2ServerStreamContext context) {
+		synchronized (recycledStreamContexts) {
+			if (recycledStreamContexts.size() >= maxRecycledStreamObjects)
+				return false;
+			recycledStreamContexts.offer(context);
+			return true;
+		}
+	}
+
+	@Override
+	protected void onStreamClosed(StreamSPI stream) {
+		Stream.Listener listener = stream.getListener();
+		if (listener instanceof HTTP2ServerStreamContext) {
+			((HTTP2ServerStreamContext) listener).onStreamClosed();
+		}
+	}
+
 	@Override
 	public void onPreface() {
 		// SPEC: send a SETTINGS frame upon receiving the preface.
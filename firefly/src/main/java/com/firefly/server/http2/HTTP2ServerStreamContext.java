@@ -0,0 +1,170 @@
+package com.firefly.server.http2;
+
+import com.firefly.codec.http2.frame.DataFrame;
+import com.firefly.codec.http2.frame.ErrorCode;
+import com.firefly.codec.http2.frame.HeadersFrame;
+import com.firefly.codec.http2.frame.ResetFrame;
+import com.firefly.codec.http2.model.HttpHeader;
+import com.firefly.codec.http2.model.HttpStatus;
+import com.firefly.codec.http2.model.MetaData;
+import com.firefly.codec.http2.stream.AbstractHTTP2OutputStream;
+import com.firefly.codec.http2.stream.Stream;
+import com.firefly.utils.VerifyUtils;
+import com.firefly.utils.concurrent.Callback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The objects that handle the request of a remote stream: the stream
+ * listener, the response and its output stream.
+ * <p>
+ * When the stream object recycling is enabled, the context is released to its
+ * {@link HTTP2ServerSession} once the stream is closed, the last frame of the
+ * response has been written and the message complete handler has returned, and
+ * it is reused by the next streams of the connection. A context whose response
+ * has been detached is not released.
+ */
+class HTTP2ServerStreamContext extends Stream.Listener.Adapter {
+
+    private static final Logger log = LoggerFactory.getLogger("firefly-system");
+
+    private final HTTPServerResponse response = new HTTPServerResponse();
+    private final ServerOutputStream output = new ServerOutputStream();
+    // the stream close, the output completion and the return of the message complete handler
+    private final AtomicInteger pending = new AtomicInteger();
+    private HTTP2ServerSession session;
+    private ServerHTTPHandler serverHTTPHandler;
+    private HTTP2ServerConnection connection;
+    private Stream stream;
+    private MetaData.Request request;
+
+    void init(HTTP2ServerSession session, ServerHTTPHandler serverHTTPHandler, HTTP2ServerConnection connection,
+              Stream stream, MetaData.Request request) {
+        this.session = session;
+        this.serverHTTPHandler = serverHTTPHandler;
+        this.connection = connection;
+        this.stream = stream;
+        this.request = request;
+        pending.set(3);
+    }
+
+    MetaData.Request getRequest() {
+        return request;
+    }
+
+    MetaData.Response getResponse() {
+        return response;
+    }
+
+    AbstractHTTP2OutputStream getOutput() {
+        return output;
+    }
+
+    void onStreamClosed() {
+        release();
+    }
+
+    void messageComplete() {
+        try {
+            serverHTTPHandler.messageComplete(request, response, output, connection);
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() != 0 || response.isDetached())
+            return;
+        if (session == null || !session.isStreamObjectRecycling())
+            return;
+
+        HTTP2ServerSession session = this.session;
+        this.session = null;
+        serverHTTPHandler = null;
+        connection = null;
+        stream = null;
+        request = null;
+        response.recycle();
+        output.reset();
+        if (session.releaseStreamContext(this) && log.isDebugEnabled()) {
+            log.debug("recycled the stream context of the session {}", session);
+        }
+    }
+
+    @Override
+    public void onHeaders(Stream stream, HeadersFrame endHeaderframe) {
+        if (log.isDebugEnabled()) {
+            log.debug("the stream {} received the end frame {}", stream.getId(), endHeaderframe);
+        }
+        if (endHeaderframe.isEndStream()) {
+            String trailerName = request.getFields().get(HttpHeader.TRAILER);
+            if (VerifyUtils.isNotEmpty(trailerName)) {
+                if (endHeaderframe.getMetaData().getFields().containsKey(trailerName)) {
+                    request.getFields().add(trailerName,
+                            endHeaderframe.getMetaData().getFields().get(trailerName));
+                    messageComplete();
+                } else {
+                    throw new IllegalArgumentException(
+                            "the stream " + stream.getId() + " received illegal meta data");
+                }
+            } else {
+                throw new IllegalArgumentException(
+                        "the stream " + stream.getId() + " received illegal meta data");
+            }
+        } else {
+            throw new IllegalArgumentException("the stream " + stream.getId() + " received illegal meta data");
+        }
+    }
+
+    @Override
+    public void onData(Stream stream, DataFrame dataFrame, Callback callback) {
+        try {
+            serverHTTPHandler.content(dataFrame.getData(), request, response, output, connection);
+            callback.succeeded();
+        } catch (Throwable t) {
+            callback.failed(t);
+        }
+
+        if (dataFrame.isEndStream()) {
+            serverHTTPHandler.contentComplete(request, response, output, connection);
+            messageComplete();
+        }
+    }
+
+    @Override
+    public void onReset(Stream stream, ResetFrame resetFrame) {
+        ErrorCode errorCode = ErrorCode.from(resetFrame.getError());
+        String reason = errorCode == null ? "error=" + resetFrame.getError() : errorCode.name().toLowerCase();
+        int status = HttpStatus.INTERNAL_SERVER_ERROR_500;
+        if (errorCode != null) {
+            switch (errorCode) {
+                case PROTOCOL_ERROR:
+                    status = HttpStatus.BAD_REQUEST_400;
+                    break;
+                default:
+                    status = HttpStatus.INTERNAL_SERVER_ERROR_500;
+                    break;
+            }
+        }
+        serverHTTPHandler.badMessage(status, reason, request, response, output, connection);
+    }
+
+    private class ServerOutputStream extends AbstractHTTP2OutputStream {
+
+        private ServerOutputStream() {
+            super(response, false);
+        }
+
+        @Override
+        protected Stream getStream() {
+            return stream;
+        }
+
+        @Override
+        protected void onComplete() {
+            release();
+        }
+    }
+}
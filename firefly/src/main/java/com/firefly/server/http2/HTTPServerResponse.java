@@ -6,6 +6,9 @@ import com.firefly.codec.http2.model.MetaData;
 
 public class HTTPServerResponse extends MetaData.Response {
 
+	private volatile Object attachment;
+	private volatile boolean detached;
+
 	public HTTPServerResponse() {
 		super(HttpVersion.HTTP_1_1, 0, new HttpFields());
 	}
@@ -18,4 +21,38 @@ public class HTTPServerResponse extends MetaData.Response {
 		super(HttpVersion.HTTP_1_1, status, reason, fields, contentLength);
 	}
 
+	public Object getAttachment() {
+		return attachment;
+	}
+
+	public void setAttachment(Object attachment) {
+		this.attachment = attachment;
+	}
+
+	/**
+	 * Prevents the server from recycling this response and the objects of its
+	 * stream. The handlers that keep a reference to the request or the
+	 * response after the response has been written must detach it.
+	 */
+	public void detach() {
+		detached = true;
+	}
+
+	public boolean isDetached() {
+		return detached;
+	}
+
+	/**
+	 * Clears the status and the fields, the attachment is kept so that it can
+	 * be reused by the next request.
+	 */
+	@Override
+	public void recycle() {
+		super.recycle();
+		setHttpVersion(HttpVersion.HTTP_1_1);
+		setStatus(0);
+		setReason(null);
+		setTrailerSupplier(null);
+	}
+
 }
@@ -64,14 +64,14 @@ public class SimpleHTTPServer extends AbstractLifeCycle {
     protected void init() {
         http2Server = new HTTP2Server(configuration.getHost(), configuration.getPort(), configuration,
                 new ServerHTTPHandler.Adapter().acceptHTTPTunnelConnection((request, response, out, connection) -> {
-                    SimpleRequest r = new SimpleRequest(request, response, out);
+                    SimpleRequest r = SimpleRequest.from(request, response, out);
                     request.setAttachment(r);
                     if (tunnel != null) {
                         tunnel.call(r, connection);
                     }
                     return true;
                 }).headerComplete((request, response, out, connection) -> {
-                    SimpleRequest r = new SimpleRequest(request, response, out);
+                    SimpleRequest r = SimpleRequest.from(request, response, out);
                     request.setAttachment(r);
                     if (headerComplete != null) {
                         headerComplete.call(r);
@@ -106,7 +106,7 @@ public class SimpleHTTPServer extends AbstractLifeCycle {
                             SimpleRequest r = (SimpleRequest) request.getAttachment();
                             badMessage.call(status, reason, r);
                         } else {
-                            SimpleRequest r = new SimpleRequest(request, response, out);
+                            SimpleRequest r = SimpleRequest.from(request, response, out);
                             request.setAttachment(r);
                             badMessage.call(status, reason, r);
                         }
@@ -117,7 +117,7 @@ public class SimpleHTTPServer extends AbstractLifeCycle {
                             SimpleRequest r = (SimpleRequest) request.getAttachment();
                             earlyEof.call(r);
                         } else {
-                            SimpleRequest r = new SimpleRequest(request, response, out);
+                            SimpleRequest r = SimpleRequest.from(request, response, out);
                             request.setAttachment(r);
                             earlyEof.call(r);
                         }
@@ -30,7 +30,7 @@ public class SimpleRequest {
     List<Cookie> cookies;
     String stringBody;
 
-    ConcurrentHashMap<String, Object> attributes = new ConcurrentHashMap<>();
+    volatile ConcurrentHashMap<String, Object> attributes;
 
     public SimpleRequest(Request request, Response response, HTTPOutputStream output) {
         this.request = request;
@@ -39,6 +39,59 @@ public class SimpleRequest {
         this.response = new SimpleResponse(response, output);
     }
 
+    /**
+     * Gets the request attached to the response, or creates it. The server
+     * response of a recycled HTTP/2 stream keeps the request of its previous
+     * stream, which is reset and reused.
+     */
+    static SimpleRequest from(Request request, Response response, HTTPOutputStream output) {
+        if (response instanceof HTTPServerResponse) {
+            HTTPServerResponse serverResponse = (HTTPServerResponse) response;
+            Object attachment = serverResponse.getAttachment();
+            if (attachment instanceof SimpleRequest) {
+                SimpleRequest r = (SimpleRequest) attachment;
+                r.reset(request, response, output);
+                return r;
+            } else {
+                SimpleRequest r = new SimpleRequest(request, response, output);
+                serverResponse.setAttachment(r);
+                return r;
+            }
+        } else {
+            return new SimpleRequest(request, response, output);
+        }
+    }
+
+    private void reset(Request request, Response response, HTTPOutputStream output) {
+        this.request = request;
+        response.setStatus(HttpStatus.OK_200);
+        response.setHttpVersion(HttpVersion.HTTP_1_1);
+        this.response.reset(response, output);
+        connection = null;
+        content = null;
+        contentComplete = null;
+        messageComplete = null;
+        requestBody.clear();
+        cookies = null;
+        stringBody = null;
+        attributes = null;
+    }
+
+    /**
+     * Prevents the server from recycling this request and its response. Call
+     * it when a handler keeps a reference to them after the response has been
+     * written.
+     *
+     * @return this request
+     */
+    public SimpleRequest detach() {
+        Response r = response.getResponse();
+        if (r instanceof HTTPServerResponse) {
+            ((HTTPServerResponse) r).detach();
+        }
+        return this;
+    }
+
     public HttpVersion getHttpVersion() {
         return request.getHttpVersion();
     }
@@ -76,19 +129,31 @@ public class SimpleRequest {
     }
 
     public Object get(String key) {
-        return attributes.get(key);
+        ConcurrentHashMap<String, Object> map = attributes;
+        return map == null ? null : map.get(key);
     }
 
     public Object put(String key, Object value) {
-        return attributes.put(key, value);
+        return getAttributes().put(key, value);
     }
 
     public Object remove(String key) {
-        return attributes.remove(key);
+        ConcurrentHashMap<String, Object> map = attributes;
+        return map == null ? null : map.remove(key);
     }
 
     public ConcurrentHashMap<String, Object> getAttributes() {
-        return attributes;
+        ConcurrentHashMap<String, Object> map = attributes;
+        if (map == null) {
+            synchronized (this) {
+                map = attributes;
+                if (map == null) {
+                    map = new ConcurrentHashMap<>();
+                    attributes = map;
+                }
+            }
+        }
+        return map;
     }
 
     @Override
@@ -105,6 +170,7 @@ public class SimpleRequest {
     }
 
     public SimpleResponse getAsyncResponse() {
+        detach();
         response.setAsynchronous(true);
         return response;
     }
@@ -146,15 +212,15 @@ public class SimpleRequest {
     }
 
     public <T> T getJsonBody(Class<T> clazz) {
-        return Json.toObject(getStringBody(), clazz);
+        return stringBody == null ? Json.toObject(requestBody, clazz) : Json.toObject(stringBody, clazz);
     }
 
     public JsonObject getJsonObjectBody() {
-        return Json.toJsonObject(getStringBody());
+        return stringBody == null ? Json.toJsonObject(requestBody) : Json.toJsonObject(stringBody);
     }
 
     public JsonArray getJsonArrayBody() {
-        return Json.toJsonArray(getStringBody());
+        return stringBody == null ? Json.toJsonArray(requestBody) : Json.toJsonArray(stringBody);
     }
 
     public List<Cookie> getCookies() {
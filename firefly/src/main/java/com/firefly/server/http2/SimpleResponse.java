@@ -30,6 +30,16 @@ public class SimpleResponse implements Closeable {
         this.response = response;
     }
 
+    synchronized void reset(Response response, HTTPOutputStream output) {
+        this.output = output;
+        this.response = response;
+        printWriter = null;
+        bufferedOutputStream = null;
+        bufferSize = 8 * 1024;
+        characterEncoding = "UTF-8";
+        asynchronous = false;
+    }
+
     public HttpVersion getHttpVersion() {
         return response.getHttpVersion();
     }
@@ -1,12 +1,14 @@
 package com.firefly.server.http2.router;
 
 import com.firefly.codec.http2.model.*;
+import com.firefly.codec.http2.stream.BufferedHTTPOutputStream;
 import com.firefly.server.http2.SimpleRequest;
 import com.firefly.server.http2.SimpleResponse;
 import com.firefly.server.http2.router.spi.HTTPBodyHandlerSPI;
 import com.firefly.server.http2.router.spi.HTTPSessionHandlerSPI;
 import com.firefly.server.http2.router.spi.TemplateHandlerSPI;
 import com.firefly.utils.function.Action1;
+import com.firefly.utils.json.Json;
 import com.firefly.utils.json.JsonArray;
 import com.firefly.utils.json.JsonObject;
 
@@ -15,6 +17,7 @@ import javax.servlet.http.Part;
 import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.List;
@@ -155,6 +158,26 @@ public interface RoutingContext extends Closeable {
         return write(b).end();
     }
 
+    /**
+     * Serializes the object to the UTF-8 encoded JSON and writes it to the response output stream. The JSON is
+     * encoded by a small buffer of fixed size, so the large responses are streamed without building a string.
+     *
+     * @param value The object that is serialized.
+     * @return RoutingContext
+     */
+    default RoutingContext writeJson(Object value) {
+        put(HttpHeader.CONTENT_TYPE, MimeTypes.Type.APPLICATION_JSON_UTF_8.asString());
+        OutputStream out = getResponse().getOutputStream();
+        if (out instanceof BufferedHTTPOutputStream) {
+            // the chunks are smaller than MIN_BUFFER_SIZE, so they are copied and the chunk buffer can be reused
+            Json.toJson(value, out, BufferedHTTPOutputStream.MIN_BUFFER_SIZE / 2);
+        } else {
+            // the other output streams may keep the reference of the written array
+            write(Json.toJsonBytes(value));
+        }
+        return this;
+    }
+
 
     // HTTP body API
     String getParameter(String name);
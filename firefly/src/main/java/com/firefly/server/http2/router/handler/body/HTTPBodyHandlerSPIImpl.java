@@ -16,8 +16,11 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +37,7 @@ public class HTTPBodyHandlerSPIImpl implements HTTPBodyHandlerSPI {
     String charset;
     private BufferedReader bufferedReader;
     private String stringBody;
+    private byte[] body;
 
 
     @Override
@@ -117,16 +121,12 @@ public class HTTPBodyHandlerSPIImpl implements HTTPBodyHandlerSPI {
         if (stringBody != null) {
             return stringBody;
         } else {
-            if (getInputStream() == null) {
+            byte[] body = getBody();
+            if (body == null) {
                 return null;
             } else {
-                try (InputStream inputStream = getInputStream()) {
-                    stringBody = IO.toString(inputStream, Charset.forName(charset));
-                    return stringBody;
-                } catch (IOException e) {
-                    log.error("get string body exception", e);
-                    return null;
-                }
+                stringBody = new String(body, Charset.forName(charset));
+                return stringBody;
             }
         }
     }
@@ -138,17 +138,67 @@ public class HTTPBodyHandlerSPIImpl implements HTTPBodyHandlerSPI {
 
     @Override
     public <T> T getJsonBody(Class<T> clazz) {
-        return Json.toObject(getStringBody(), clazz);
+        List<ByteBuffer> utf8Body = getUtf8Body();
+        if (utf8Body != null) {
+            return Json.toObject(utf8Body, clazz);
+        } else {
+            return Json.toObject(getStringBody(), clazz);
+        }
     }
 
     @Override
     public JsonObject getJsonObjectBody() {
-        return Json.toJsonObject(getStringBody());
+        List<ByteBuffer> utf8Body = getUtf8Body();
+        if (utf8Body != null) {
+            return Json.toJsonObject(utf8Body);
+        } else {
+            return Json.toJsonObject(getStringBody());
+        }
     }
 
     @Override
     public JsonArray getJsonArrayBody() {
-        return Json.toJsonArray(getStringBody());
+        List<ByteBuffer> utf8Body = getUtf8Body();
+        if (utf8Body != null) {
+            return Json.toJsonArray(utf8Body);
+        } else {
+            return Json.toJsonArray(getStringBody());
+        }
+    }
+
+    /**
+     * Reads the body once, the bytes are kept for the other accessors.
+     *
+     * @return the bytes of the body, or null if the request has no body
+     */
+    private byte[] getBody() {
+        if (body == null) {
+            InputStream inputStream = getInputStream();
+            if (inputStream != null) {
+                try {
+                    body = IO.readBytes(inputStream);
+                } catch (IOException e) {
+                    log.error("get body exception", e);
+                } finally {
+                    IO.close(inputStream);
+                }
+            }
+        }
+        return body;
+    }
+
+    /**
+     * @return the UTF-8 bytes of the body that are parsed without decoding them into a string,
+     * or null if the body is not UTF-8 or it has been decoded
+     */
+    private List<ByteBuffer> getUtf8Body() {
+        if (stringBody == null && StandardCharsets.UTF_8.name().equalsIgnoreCase(charset)) {
+            byte[] body = getBody();
+            if (body != null) {
+                return Collections.singletonList(ByteBuffer.wrap(body));
+            }
+        }
+        return null;
     }
 
 }
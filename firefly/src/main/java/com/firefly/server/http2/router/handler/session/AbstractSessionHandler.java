@@ -19,7 +19,7 @@ abstract public class AbstractSessionHandler extends AbstractLifeCycle implement
     public AbstractSessionHandler(HTTPSessionConfiguration configuration) {
         this.configuration = configuration;
         this.sessionStore = createSessionStore();
-        this.scheduler = Schedulers.createScheduler(configuration.getSchedulerPoolSize());
+        this.scheduler = Schedulers.createTimingWheelScheduler(configuration.getSchedulerPoolSize());
         start();
     }
 
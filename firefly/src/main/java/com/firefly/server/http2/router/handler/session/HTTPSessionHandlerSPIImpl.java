@@ -5,7 +5,7 @@ import com.firefly.server.http2.router.RoutingContext;
 import com.firefly.server.http2.router.spi.HTTPSessionHandlerSPI;
 import com.firefly.utils.StringUtils;
 import com.firefly.utils.concurrent.Scheduler;
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 
 import javax.servlet.http.HttpSession;
 import java.util.List;
@@ -93,7 +93,7 @@ public class HTTPSessionHandlerSPIImpl implements HTTPSessionHandlerSPI {
         httpSession = (HTTPSessionImpl) sessionStore.get(requestedSessionId);
         if (httpSession != null) {
             if (httpSession.check()) {
-                httpSession.setLastAccessedTime(Millisecond100Clock.currentTimeMillis());
+                httpSession.setLastAccessedTime(SystemClock.currentTimeMillis());
                 httpSession.setNewSession(false);
                 scheduleCheck(httpSession, httpSession.getRemainInactiveInterval());
             } else {
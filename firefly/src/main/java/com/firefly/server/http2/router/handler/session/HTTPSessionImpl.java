@@ -1,7 +1,7 @@
 package com.firefly.server.http2.router.handler.session;
 
 import com.firefly.utils.exception.CommonRuntimeException;
-import com.firefly.utils.time.Millisecond100Clock;
+import com.firefly.utils.time.SystemClock;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpSession;
@@ -28,7 +28,7 @@ public class HTTPSessionImpl implements HttpSession, Serializable {
 
     public HTTPSessionImpl(String id) {
         this.id = id;
-        createTime = Millisecond100Clock.currentTimeMillis();
+        createTime = SystemClock.currentTimeMillis();
         newSession = true;
         invalid = false;
         lastAccessedTime = createTime;
@@ -163,7 +163,7 @@ public class HTTPSessionImpl implements HttpSession, Serializable {
     }
 
     public long getRemainInactiveInterval() {
-        long currentTime = Millisecond100Clock.currentTimeMillis();
+        long currentTime = SystemClock.currentTimeMillis();
         long inactiveInterval = currentTime - getLastAccessedTime();
         return getMaxInactiveInterval() * 1000 - inactiveInterval;
     }
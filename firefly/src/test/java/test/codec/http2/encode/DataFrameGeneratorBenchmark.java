@@ -0,0 +1,73 @@
+package test.codec.http2.encode;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import com.firefly.codec.http2.encode.FrameBuffers;
+import com.firefly.codec.http2.encode.Generator;
+import com.firefly.codec.http2.frame.DataFrame;
+import com.firefly.utils.io.BufferUtils;
+import com.firefly.utils.lang.Pair;
+
+public class DataFrameGeneratorBenchmark {
+
+	public static void main(String[] args) {
+		final int times = 5_000_000;
+		final int framesPerFlush = 16;
+		for (int i = 0; i < 3; i++) {
+			System.out.println("======================");
+			listGeneratorTest(times, framesPerFlush);
+			frameBuffersGeneratorTest(times, framesPerFlush);
+		}
+	}
+
+	public static long listGeneratorTest(int times, int framesPerFlush) {
+		Generator generator = new Generator();
+		ByteBuffer content = ByteBuffer.wrap(new byte[32]);
+		Queue<ByteBuffer> buffers = new LinkedList<>();
+		long bytes = 0;
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < times; i++) {
+			content.clear();
+			Pair<Integer, List<ByteBuffer>> pair = generator.data(new DataFrame(1, content, false), 65535);
+			buffers.addAll(pair.second);
+			if (buffers.size() >= framesPerFlush * 2) {
+				ByteBuffer[] array = buffers.toArray(BufferUtils.EMPTY_BYTE_BUFFER_ARRAY);
+				bytes += array.length;
+				buffers.clear();
+			}
+		}
+		long end = System.currentTimeMillis();
+		print("list generator", times, end - start, bytes);
+		return end - start;
+	}
+
+	public static long frameBuffersGeneratorTest(int times, int framesPerFlush) {
+		Generator generator = new Generator();
+		ByteBuffer content = ByteBuffer.wrap(new byte[32]);
+		FrameBuffers buffers = new FrameBuffers();
+		long bytes = 0;
+		int frames = 0;
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < times; i++) {
+			content.clear();
+			generator.data(new DataFrame(1, content, false), 65535, buffers);
+			if (++frames >= framesPerFlush) {
+				ByteBuffer[] array = buffers.toArray();
+				bytes += array.length;
+				buffers.clear();
+				frames = 0;
+			}
+		}
+		long end = System.currentTimeMillis();
+		print("frame buffers generator", times, end - start, bytes);
+		return end - start;
+	}
+
+	private static void print(String name, int times, long time, long buffers) {
+		System.out.println(name + ": " + time + "ms, frames/sec: " + (times / Math.max(1, time)) * 1000L
+				+ ", buffers: " + buffers);
+	}
+}
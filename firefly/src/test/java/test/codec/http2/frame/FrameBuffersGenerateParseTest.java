@@ -0,0 +1,81 @@
+package test.codec.http2.frame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.codec.http2.decode.Parser;
+import com.firefly.codec.http2.encode.FrameBuffers;
+import com.firefly.codec.http2.encode.Generator;
+import com.firefly.codec.http2.frame.DataFrame;
+import com.firefly.codec.http2.frame.Frame;
+import com.firefly.codec.http2.frame.PingFrame;
+import com.firefly.codec.http2.frame.SettingsFrame;
+import com.firefly.codec.http2.frame.WindowUpdateFrame;
+
+public class FrameBuffersGenerateParseTest {
+
+	@Test
+	public void testGenerateParse() {
+		Generator generator = new Generator();
+		// A small scratch buffer forces it to grow in the middle of the cycle.
+		FrameBuffers buffers = new FrameBuffers(16);
+
+		final List<Frame> frames = new ArrayList<>();
+		Parser parser = new Parser(new Parser.Listener.Adapter() {
+			@Override
+			public void onData(DataFrame frame) {
+				frames.add(frame);
+			}
+
+			@Override
+			public void onWindowUpdate(WindowUpdateFrame frame) {
+				frames.add(frame);
+			}
+
+			@Override
+			public void onPing(PingFrame frame) {
+				frames.add(frame);
+			}
+
+			@Override
+			public void onSettings(SettingsFrame frame) {
+				frames.add(frame);
+			}
+		}, 4096, 8192);
+
+		// Iterate a few times to be sure the buffers are properly reused.
+		for (int i = 0; i < 3; ++i) {
+			frames.clear();
+			ByteBuffer data = ByteBuffer.wrap("hello".getBytes());
+
+			Assert.assertEquals(13, generator.control(new WindowUpdateFrame(0, 1024), buffers));
+			Assert.assertEquals(17, generator.control(new PingFrame(i, false), buffers));
+			Assert.assertEquals(5, generator.data(new DataFrame(3, data, false), 1024, buffers));
+			Assert.assertEquals(15, generator.control(
+					new SettingsFrame(Collections.singletonMap(SettingsFrame.INITIAL_WINDOW_SIZE, 1024), false), buffers));
+			Assert.assertEquals(0, generator.data(new DataFrame(3, ByteBuffer.allocate(0), true), 1024, buffers));
+			Assert.assertEquals(13 + 17 + 9 + 5 + 15 + 9, buffers.remaining());
+
+			for (ByteBuffer buffer : buffers.toArray()) {
+				while (buffer.hasRemaining()) {
+					parser.parse(buffer);
+				}
+			}
+			buffers.clear();
+			Assert.assertTrue(buffers.isEmpty());
+
+			Assert.assertEquals(5, frames.size());
+			Assert.assertEquals(1024, ((WindowUpdateFrame) frames.get(0)).getWindowDelta());
+			Assert.assertEquals(i, ((PingFrame) frames.get(1)).getPayloadAsLong());
+			Assert.assertEquals(ByteBuffer.wrap("hello".getBytes()), ((DataFrame) frames.get(2)).getData());
+			Assert.assertEquals(Integer.valueOf(1024),
+					((SettingsFrame) frames.get(3)).getSettings().get(SettingsFrame.INITIAL_WINDOW_SIZE));
+			Assert.assertTrue(((DataFrame) frames.get(4)).isEndStream());
+		}
+	}
+}
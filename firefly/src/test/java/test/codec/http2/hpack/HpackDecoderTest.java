@@ -1,6 +1,7 @@
 package test.codec.http2.hpack;
 
 import com.firefly.codec.http2.hpack.HpackDecoder;
+import com.firefly.codec.http2.hpack.Huffman;
 import com.firefly.codec.http2.model.*;
 import com.firefly.utils.lang.TypeUtils;
 import org.hamcrest.Matchers;
@@ -187,4 +188,56 @@ public class HpackDecoderTest {
 
     }
 
+    @Test
+    public void testInternRepeatedLiteral() {
+        HpackDecoder decoder = new HpackDecoder(4096, 8192);
+
+        // user-agent literal without indexing
+        String encoded = "828684410f7777772e6578616d706c652e636f6d0f2b0766697265666c79";
+        MetaData.Request request = (MetaData.Request) decoder.decode(ByteBuffer.wrap(TypeUtils.fromHexString(encoded)));
+        HttpField first = request.getFields().getField(HttpHeader.USER_AGENT);
+        assertEquals("firefly", first.getValue());
+
+        encoded = "828684be0f2b0766697265666c79";
+        request = (MetaData.Request) decoder.decode(ByteBuffer.wrap(TypeUtils.fromHexString(encoded)));
+        assertSame(first, request.getFields().getField(HttpHeader.USER_AGENT));
+
+        // the same value Huffman encoded
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put(TypeUtils.fromHexString("828684be0f2b"));
+        buffer.put((byte) (0x80 | Huffman.octetsNeeded("firefly")));
+        Huffman.encode(buffer, "firefly");
+        buffer.flip();
+        request = (MetaData.Request) decoder.decode(buffer);
+        assertSame(first, request.getFields().getField(HttpHeader.USER_AGENT));
+
+        // a different value
+        encoded = "828684be0f2b0466697265";
+        request = (MetaData.Request) decoder.decode(ByteBuffer.wrap(TypeUtils.fromHexString(encoded)));
+        assertEquals("fire", request.getFields().get(HttpHeader.USER_AGENT));
+        assertNotSame(first, request.getFields().getField(HttpHeader.USER_AGENT));
+    }
+
+    @Test
+    public void testInternDynamicTableLiteral() {
+        HpackDecoder decoder = new HpackDecoder(4096, 8192);
+
+        // custom-key: custom-value with incremental indexing
+        String encoded = "828684410f7777772e6578616d706c652e636f6d400a637573746f6d2d6b65790c637573746f6d2d76616c7565";
+        MetaData.Request request = (MetaData.Request) decoder.decode(ByteBuffer.wrap(TypeUtils.fromHexString(encoded)));
+        HttpField first = request.getFields().getField("custom-key");
+
+        // the same field without indexing, the name refers to the dynamic table
+        encoded = "828684bf0f2f0c637573746f6d2d76616c7565";
+        request = (MetaData.Request) decoder.decode(ByteBuffer.wrap(TypeUtils.fromHexString(encoded)));
+        assertSame(first, request.getFields().getField("custom-key"));
+    }
+
+    @Test
+    public void testNonASCIILiteral() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{'c', 'a', 'f', (byte) 0xE9});
+        assertEquals("cafi", HpackDecoder.toASCIIString(buffer, 4));
+        assertEquals(4, buffer.position());
+    }
+
 }
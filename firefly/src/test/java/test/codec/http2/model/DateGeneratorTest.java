@@ -0,0 +1,41 @@
+package test.codec.http2.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.firefly.codec.http2.model.DateGenerator;
+import com.firefly.codec.http2.model.HttpField;
+import com.firefly.codec.http2.model.HttpHeader;
+import com.firefly.codec.http2.model.PreEncodedHttpField;
+import com.firefly.utils.time.SystemClock;
+
+public class DateGeneratorTest {
+
+	@Test
+	public void testFormatDate() {
+		assertThat(DateGenerator.__01Jan1970, is("Thu, 01 Jan 1970 00:00:00 GMT"));
+		assertThat(DateGenerator.formatDate(1477972800123L), is("Tue, 01 Nov 2016 04:00:00 GMT"));
+		assertThat(DateGenerator.formatCookieDate(1477972800123L), is("Tue, 01-Nov-2016 04:00:00 GMT"));
+	}
+
+	@Test
+	public void testDateField() {
+		long second;
+		HttpField field, next;
+		do {
+			second = SystemClock.currentTimeMillis() / 1000;
+			field = DateGenerator.getDateField();
+			next = DateGenerator.getDateField();
+		} while (SystemClock.currentTimeMillis() / 1000 != second);
+
+		// the field is formatted once a second
+		assertThat(field.getHeader(), is(HttpHeader.DATE));
+		assertThat(field instanceof PreEncodedHttpField, is(true));
+		assertThat(next, sameInstance(field));
+		assertThat(field.getValue(), is(new DateGenerator().doFormatDate(second * 1000)));
+		assertThat(DateGenerator.formatDate(second * 1000 + 999), sameInstance(field.getValue()));
+	}
+}
@@ -0,0 +1,182 @@
+package test.codec.http2.stream;
+
+import static org.hamcrest.Matchers.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firefly.codec.http2.frame.PingFrame;
+import com.firefly.codec.http2.frame.SettingsFrame;
+import com.firefly.codec.http2.frame.WindowUpdateFrame;
+import com.firefly.codec.http2.stream.AdaptiveFlowControlStrategy;
+import com.firefly.codec.http2.stream.FlowControlStrategy;
+import com.firefly.codec.http2.stream.SessionSPI;
+
+public class AdaptiveFlowControlStrategyTest {
+
+	private static final int WINDOW = FlowControlStrategy.DEFAULT_WINDOW_SIZE;
+
+	private final List<PingFrame> pings = new ArrayList<>();
+	private final List<WindowUpdateFrame> windowUpdates = new ArrayList<>();
+	private final List<Integer> initialWindows = new ArrayList<>();
+	private SessionSPI session;
+	private boolean memoryPressure;
+	private AdaptiveFlowControlStrategy strategy;
+
+	@Before
+	public void before() {
+		// records the frames sent by the strategy
+		session = (SessionSPI) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SessionSPI.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "ping":
+						pings.add((PingFrame) args[0]);
+						return null;
+					case "frames":
+						windowUpdates.add((WindowUpdateFrame) args[2]);
+						return null;
+					case "settings":
+						Integer window = ((SettingsFrame) args[0]).getSettings().get(SettingsFrame.INITIAL_WINDOW_SIZE);
+						initialWindows.add(window);
+						// the session applies the setting when the frame is written
+						strategy.updateInitialStreamWindow((SessionSPI) proxy, window, true);
+						return null;
+					case "getStreams":
+						return Collections.emptyList();
+					case "updateRecvWindow":
+						return 0;
+					default:
+						return null;
+					}
+				});
+		strategy = new AdaptiveFlowControlStrategy(WINDOW, WINDOW, 1024 * 1024, 512 * 1024) {
+			@Override
+			protected boolean isUnderMemoryPressure() {
+				return memoryPressure;
+			}
+		};
+		strategy.setPingInterval(0);
+	}
+
+	@Test
+	public void testRoundTripTime() throws Exception {
+		strategy.onDataReceived(session, null, 1000);
+		strategy.onDataReceived(session, null, 1000);
+		// only one PING is outstanding
+		Assert.assertThat(pings.size(), is(1));
+		Thread.sleep(20);
+		Assert.assertThat(strategy.onPingReply(session, new PingFrame(pings.get(0).getPayloadAsLong(), true)), is(true));
+		Assert.assertThat(strategy.getRoundTripTime(), greaterThanOrEqualTo(20L));
+		Assert.assertThat(strategy.getDeliveryRate(), greaterThan(0L));
+
+		// the other PING replies are passed to the session listener
+		Assert.assertThat(strategy.onPingReply(session, new PingFrame(1L, true)), is(false));
+	}
+
+	@Test
+	public void testGrow() {
+		sample(WINDOW);
+		Assert.assertThat(strategy.getSessionRecvWindowTarget(), is(WINDOW * 2));
+		Assert.assertThat(windowUpdates.get(0).getWindowDelta(), is(WINDOW));
+		Assert.assertThat(strategy.getStreamRecvWindowTarget(), is(WINDOW * 2));
+		Assert.assertThat(initialWindows, contains(WINDOW * 2));
+
+		// a small sample does not enlarge the windows
+		sample(1000);
+		Assert.assertThat(strategy.getSessionRecvWindowTarget(), is(WINDOW * 2));
+		Assert.assertThat(initialWindows.size(), is(1));
+
+		// the windows do not go above the ceilings
+		for (int i = 0; i < 10; i++) {
+			sample(strategy.getSessionRecvWindowTarget());
+		}
+		Assert.assertThat(strategy.getSessionRecvWindowTarget(), is(1024 * 1024));
+		Assert.assertThat(strategy.getStreamRecvWindowTarget(), is(512 * 1024));
+	}
+
+	@Test
+	public void testShrink() {
+		sample(WINDOW * 4);
+		Assert.assertThat(strategy.getSessionRecvWindowTarget(), is(WINDOW * 8));
+		Assert.assertThat(strategy.getStreamRecvWindowTarget(), is(WINDOW * 8));
+
+		memoryPressure = true;
+		sample(WINDOW * 4);
+		Assert.assertThat(strategy.getSessionRecvWindowTarget(), is(WINDOW * 4));
+		Assert.assertThat(strategy.getStreamRecvWindowTarget(), is(WINDOW * 4));
+		for (int i = 0; i < 10; i++) {
+			sample(WINDOW * 4);
+		}
+		Assert.assertThat(strategy.getSessionRecvWindowTarget(), is(WINDOW));
+		Assert.assertThat(strategy.getStreamRecvWindowTarget(), is(WINDOW));
+	}
+
+	@Test
+	public void testConfiguredStreamWindow() {
+		// the application advertises a larger initial stream window
+		strategy.updateInitialStreamWindow(session, 256 * 1024, true);
+		Assert.assertThat(strategy.getStreamRecvWindowTarget(), is(256 * 1024));
+
+		// a sample that grows the session window does not shrink the stream windows
+		sample(WINDOW);
+		Assert.assertThat(strategy.getSessionRecvWindowTarget(), is(WINDOW * 2));
+		Assert.assertThat(initialWindows, empty());
+
+		sample(256 * 1024);
+		Assert.assertThat(initialWindows, contains(512 * 1024));
+
+		memoryPressure = true;
+		for (int i = 0; i < 5; i++) {
+			sample(WINDOW);
+		}
+		Assert.assertThat(strategy.getStreamRecvWindowTarget(), is(256 * 1024));
+		Assert.assertThat(initialWindows, contains(512 * 1024, 256 * 1024));
+	}
+
+	@Test
+	public void testPingInterval() {
+		strategy.setPingInterval(60 * 1000);
+		sample(1000);
+		Assert.assertThat(pings.size(), is(1));
+		// no PING is sent until the interval expires
+		for (int i = 0; i < 100; i++) {
+			strategy.onDataReceived(session, null, 1000);
+		}
+		Assert.assertThat(pings.size(), is(1));
+	}
+
+	@Test
+	public void testMemoryPressure() {
+		HeapFlowControlStrategy strategy = new HeapFlowControlStrategy();
+		strategy.setMemoryPressureRatio(1.0f);
+		Assert.assertThat(strategy.isUnderMemoryPressure(), is(false));
+		System.gc();
+		strategy.setMemoryPressureRatio(0f);
+		Assert.assertThat(strategy.isUnderMemoryPressure(), is(true));
+	}
+
+	private static class HeapFlowControlStrategy extends AdaptiveFlowControlStrategy {
+		HeapFlowControlStrategy() {
+			super(WINDOW, WINDOW, 1024 * 1024, 512 * 1024);
+		}
+
+		@Override
+		public boolean isUnderMemoryPressure() {
+			return super.isUnderMemoryPressure();
+		}
+	}
+
+	private void sample(int bytes) {
+		int count = pings.size();
+		strategy.onDataReceived(session, null, bytes);
+		Assert.assertThat(pings.size(), is(count + 1));
+		Assert.assertThat(strategy.onPingReply(session, new PingFrame(pings.get(count).getPayloadAsLong(), true)),
+				is(true));
+	}
+}
@@ -0,0 +1,97 @@
+package test.codec.http2.stream;
+
+import static org.hamcrest.Matchers.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.codec.http2.stream.BufferedHTTPOutputStream;
+import com.firefly.codec.http2.stream.HTTPOutputStream;
+
+public class BufferedHTTPOutputStreamTest {
+
+	// keeps the references of the written buffers like the HTTP output streams do until the data are sent
+	private static class RecordingOutputStream extends HTTPOutputStream {
+
+		private final List<ByteBuffer> buffers = new ArrayList<>();
+
+		RecordingOutputStream() {
+			super(null, false);
+		}
+
+		@Override
+		public void writeWithContentLength(ByteBuffer[] data) throws IOException {
+			buffers.addAll(Arrays.asList(data));
+		}
+
+		@Override
+		public void writeWithContentLength(ByteBuffer data) throws IOException {
+			buffers.add(data);
+		}
+
+		@Override
+		public void commit() throws IOException {
+		}
+
+		@Override
+		public void write(ByteBuffer data) throws IOException {
+			buffers.add(data);
+		}
+
+		byte[] toByteArray() {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			for (ByteBuffer buffer : buffers) {
+				ByteBuffer data = buffer.duplicate();
+				while (data.hasRemaining()) {
+					out.write(data.get());
+				}
+			}
+			return out.toByteArray();
+		}
+	}
+
+	@Test
+	public void testReusedArray() throws IOException {
+		RecordingOutputStream output = new RecordingOutputStream();
+		// the buffer size is raised to the min size
+		BufferedHTTPOutputStream out = new BufferedHTTPOutputStream(output, 256);
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		byte[] chunk = new byte[BufferedHTTPOutputStream.MIN_BUFFER_SIZE - 1];
+		for (int i = 0; i < 10; i++) {
+			Arrays.fill(chunk, (byte) ('a' + i));
+			out.write(chunk, 0, chunk.length);
+			expected.write(chunk, 0, chunk.length);
+			if (i % 3 == 0) {
+				out.flush();
+			}
+		}
+		out.flush();
+		// the arrays that are smaller than the min buffer size are copied
+		Arrays.fill(chunk, (byte) 'z');
+		Assert.assertThat(output.toByteArray(), is(expected.toByteArray()));
+	}
+
+	@Test
+	public void testLargeArray() throws IOException {
+		RecordingOutputStream output = new RecordingOutputStream();
+		BufferedHTTPOutputStream out = new BufferedHTTPOutputStream(output, 256);
+		out.write('a');
+		byte[] data = new byte[BufferedHTTPOutputStream.MIN_BUFFER_SIZE];
+		Arrays.fill(data, (byte) 'b');
+		out.write(data, 0, data.length);
+		out.flush();
+
+		// the buffered byte is written before the large array that is passed by reference
+		Assert.assertThat(output.buffers.size(), is(2));
+		Assert.assertThat(output.buffers.get(1).array(), sameInstance(data));
+		Assert.assertThat(output.toByteArray().length, is(data.length + 1));
+		Assert.assertThat(output.toByteArray()[0], is((byte) 'a'));
+	}
+}
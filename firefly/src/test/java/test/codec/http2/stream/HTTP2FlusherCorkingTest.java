@@ -0,0 +1,65 @@
+package test.codec.http2.stream;
+
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.firefly.codec.http2.frame.Frame;
+import com.firefly.codec.http2.frame.PingFrame;
+import com.firefly.codec.http2.frame.PriorityFrame;
+import com.firefly.codec.http2.stream.HTTP2Configuration;
+import com.firefly.codec.http2.stream.SessionSPI;
+import com.firefly.net.OutputEntry;
+import com.firefly.server.http2.HTTP2ServerConnection;
+import com.firefly.server.http2.ServerSessionListener;
+import com.firefly.utils.concurrent.Callback;
+
+import test.codec.http2.decode.HTTP2MockSession;
+
+public class HTTP2FlusherCorkingTest {
+
+	@Test
+	public void testCorking() throws Throwable {
+		final AtomicInteger writes = new AtomicInteger();
+		HTTP2MockSession tcpSession = new HTTP2MockSession() {
+			@Override
+			public void write(OutputEntry<?> entry) {
+				writes.incrementAndGet();
+				super.write(entry);
+			}
+		};
+		HTTP2Configuration config = new HTTP2Configuration();
+		config.setCorkingEnabled(true);
+		config.setCorkingFlushThreshold(1024);
+		config.setCorkingMaxDelay(100 * 1000);
+
+		HTTP2ServerConnection connection = new HTTP2ServerConnection(config, tcpSession, null,
+				new ServerSessionListener.Adapter());
+		SessionSPI session = (SessionSPI) connection.getHttp2Session();
+
+		// The frames are held back until the session is flushed.
+		for (int i = 1; i <= 3; i++) {
+			session.frames(null, Callback.NOOP, new PriorityFrame(i * 2 + 1, 0, 16, false), Frame.EMPTY_ARRAY);
+		}
+		Assert.assertThat(writes.get(), is(0));
+		session.flush();
+		Assert.assertThat(writes.get(), is(1));
+		Assert.assertThat(tcpSession.outboundData.size(), is(1));
+
+		// The frames that affect the peer are written right away.
+		session.ping(new PingFrame(false), Callback.NOOP);
+		Assert.assertThat(writes.get(), is(2));
+
+		// The held back frames are written when the max delay expires.
+		session.frames(null, Callback.NOOP, new PriorityFrame(9, 0, 16, false), Frame.EMPTY_ARRAY);
+		Assert.assertThat(writes.get(), is(2));
+		long timeout = System.currentTimeMillis() + 5000L;
+		while (writes.get() < 3 && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10L);
+		}
+		Assert.assertThat(writes.get(), is(3));
+	}
+}
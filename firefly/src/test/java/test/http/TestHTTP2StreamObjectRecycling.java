@@ -0,0 +1,69 @@
+package test.http;
+
+import com.firefly.$;
+import com.firefly.client.http2.SimpleHTTPClient;
+import com.firefly.client.http2.SimpleHTTPClientConfiguration;
+import com.firefly.client.http2.SimpleResponse;
+import com.firefly.server.http2.SimpleHTTPServer;
+import com.firefly.server.http2.SimpleHTTPServerConfiguration;
+import com.firefly.server.http2.SimpleRequest;
+import com.firefly.utils.RandomUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+public class TestHTTP2StreamObjectRecycling {
+
+    @Test
+    public void test() throws Exception {
+        int port = (int) RandomUtils.random(3000, 65534);
+        String uri = "https://localhost:" + port;
+
+        SimpleHTTPServerConfiguration serverConfig = new SimpleHTTPServerConfiguration();
+        serverConfig.setSecureConnectionEnabled(true);
+        serverConfig.setStreamObjectRecycling(true);
+        SimpleHTTPClientConfiguration clientConfig = new SimpleHTTPClientConfiguration();
+        clientConfig.setSecureConnectionEnabled(true);
+
+        List<SimpleRequest> requests = new ArrayList<>();
+        List<Integer> detached = new ArrayList<>();
+        SimpleHTTPServer server = $.createHTTPServer(serverConfig);
+        server.headerComplete(r -> r.messageComplete(request -> {
+            String path = request.getURI().getPath();
+            Assert.assertThat(request.get("path"), nullValue());
+            request.put("path", path);
+            synchronized (requests) {
+                requests.add(request);
+                if (path.equals("/detach")) {
+                    request.detach();
+                    detached.add(requests.size() - 1);
+                }
+            }
+            request.getResponse().end("hello " + path);
+        })).listen("localhost", port);
+
+        SimpleHTTPClient client = $.createHTTPClient(clientConfig);
+        try {
+            for (int i = 0; i < 10; i++) {
+                String path = i % 3 == 0 ? "/detach" : "/hello" + i;
+                SimpleResponse response = client.get(uri + path).submit().get();
+                Assert.assertThat(response.getStringBody(), is("hello " + path));
+            }
+        } finally {
+            client.stop();
+            server.stop();
+        }
+
+        Assert.assertThat(requests.size(), is(10));
+        long distinct = requests.stream().map(System::identityHashCode).distinct().count();
+        Assert.assertThat(distinct, lessThan(10L));
+        // the detached requests are not reused by the next streams
+        for (int i : detached) {
+            Assert.assertThat(requests.lastIndexOf(requests.get(i)), is(i));
+        }
+    }
+}
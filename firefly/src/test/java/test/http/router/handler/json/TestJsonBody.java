@@ -0,0 +1,85 @@
+package test.http.router.handler.json;
+
+import com.firefly.$;
+import com.firefly.client.http2.SimpleResponse;
+import com.firefly.codec.http2.model.HttpStatus;
+import com.firefly.server.http2.HTTP2ServerBuilder;
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.JsonArray;
+import com.firefly.utils.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+import test.http.router.handler.AbstractHTTPHandlerTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+
+public class TestJsonBody extends AbstractHTTPHandlerTest {
+
+    @Test
+    public void test() throws Exception {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            list.add("item \"" + i + "\" 中文 😀");
+        }
+
+        // the results are checked on the test thread
+        CompletableFuture<List<Object>> bodies = new CompletableFuture<>();
+        HTTP2ServerBuilder httpServer = $.httpServer();
+        httpServer.router().post("/list").handler(ctx -> {
+            String[] array = ctx.getJsonBody(String[].class);
+            // the body is kept for the other accessors
+            String[] again = ctx.getJsonBody(String[].class);
+            JsonArray jsonArray = ctx.getJsonArrayBody();
+            String stringBody = ctx.getStringBody();
+            bodies.complete(Arrays.asList(Arrays.asList(array), Arrays.asList(again), jsonArray, stringBody));
+            ctx.end();
+        }).listen(host, port);
+
+        try {
+            SimpleResponse res = $.httpClient().post(uri + "/list").jsonBody(list).submit().get(10, TimeUnit.SECONDS);
+            Assert.assertThat(res.getStatus(), is(HttpStatus.OK_200));
+            List<Object> results = bodies.get(10, TimeUnit.SECONDS);
+            Assert.assertThat(results.get(0), is(list));
+            Assert.assertThat(results.get(1), is(list));
+            JsonArray jsonArray = (JsonArray) results.get(2);
+            Assert.assertThat(jsonArray.size(), is(5000));
+            Assert.assertThat(jsonArray.getString(4999), is(list.get(4999)));
+            Assert.assertThat(results.get(3), is(Json.toJson(list)));
+        } finally {
+            httpServer.stop();
+            $.httpClient().stop();
+        }
+    }
+
+    @Test
+    public void testJsonObjectBody() throws Exception {
+        Map<String, String> map = new HashMap<>();
+        map.put("name", "中文 😀");
+
+        CompletableFuture<List<Object>> bodies = new CompletableFuture<>();
+        HTTP2ServerBuilder httpServer = $.httpServer();
+        httpServer.router().post("/map").handler(ctx -> {
+            JsonObject jsonObject = ctx.getJsonObjectBody();
+            JsonObject again = ctx.getJsonObjectBody();
+            bodies.complete(Arrays.asList(jsonObject.getString("name"), again.getString("name"), ctx.getStringBody()));
+            ctx.end();
+        }).listen(host, port);
+
+        try {
+            SimpleResponse res = $.httpClient().post(uri + "/map").jsonBody(map).submit().get(10, TimeUnit.SECONDS);
+            Assert.assertThat(res.getStatus(), is(HttpStatus.OK_200));
+            Assert.assertThat(bodies.get(10, TimeUnit.SECONDS), is(Arrays.asList("中文 😀", "中文 😀", Json.toJson(map))));
+        } finally {
+            httpServer.stop();
+            $.httpClient().stop();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package test.http.router.handler.json;
+
+import com.firefly.$;
+import com.firefly.client.http2.SimpleResponse;
+import com.firefly.codec.http2.model.HttpHeader;
+import com.firefly.codec.http2.model.HttpStatus;
+import com.firefly.codec.http2.model.MimeTypes;
+import com.firefly.server.http2.HTTP2ServerBuilder;
+import com.firefly.utils.io.BufferUtils;
+import com.firefly.utils.json.Json;
+import com.firefly.utils.json.JsonArray;
+import org.junit.Assert;
+import org.junit.Test;
+import test.http.router.handler.AbstractHTTPHandlerTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalToIgnoringCase;
+import static org.hamcrest.Matchers.is;
+
+public class TestWriteJson extends AbstractHTTPHandlerTest {
+
+    @Test
+    public void test() throws Exception {
+        testWriteJson(8 * 1024);
+    }
+
+    @Test
+    public void testSmallBufferSize() throws Exception {
+        // the buffer of the output stream is smaller than the chunks of the JSON writer
+        testWriteJson(256);
+    }
+
+    private void testWriteJson(int bufferSize) throws Exception {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            list.add("item \"" + i + "\" 中文 😀");
+        }
+
+        HTTP2ServerBuilder httpServer = $.httpServer();
+        httpServer.router().get("/list").handler(ctx -> {
+            ctx.getResponse().setBufferSize(bufferSize);
+            ctx.writeJson(list).end();
+        }).listen(host, port);
+
+        try {
+            // the content buffers are only valid in the content callback
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            SimpleResponse res = $.httpClient().get(uri + "/list")
+                                  .content(buffer -> {
+                                      byte[] bytes = BufferUtils.toArray(buffer);
+                                      body.write(bytes, 0, bytes.length);
+                                  })
+                                  .submit().get(10, TimeUnit.SECONDS);
+            Assert.assertThat(res.getStatus(), is(HttpStatus.OK_200));
+            Assert.assertThat(res.getFields().get(HttpHeader.CONTENT_TYPE),
+                    equalToIgnoringCase(MimeTypes.Type.APPLICATION_JSON_UTF_8.asString()));
+            String json = new String(body.toByteArray(), StandardCharsets.UTF_8);
+            Assert.assertThat(json, is(Json.toJson(list)));
+            JsonArray array = Json.toJsonArray(json);
+            Assert.assertThat(array.size(), is(list.size()));
+            Assert.assertThat(array.getString(1999), is(list.get(1999)));
+        } finally {
+            httpServer.stop();
+            $.httpClient().stop();
+        }
+    }
+}